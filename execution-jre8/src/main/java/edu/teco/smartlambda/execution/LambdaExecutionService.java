@@ -4,43 +4,52 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import edu.teco.smartlambda.processor.LambdaFunctionProcessor;
 import edu.teco.smartlambda.processor.LambdaMetaData;
+import edu.teco.smartlambda.shared.ExecutionProtocol;
 import edu.teco.smartlambda.shared.ExecutionReturnValue;
 import edu.teco.smartlambda.shared.GlobalOptions;
 import org.apache.commons.io.input.NullInputStream;
 import org.apache.commons.io.output.NullOutputStream;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
- * The application that runs inside a virtual container and shall receive the lambda parameter, execute the lambda and return the return
- * value
+ * The application that runs inside a virtual container and shall receive the lambda parameters, execute the lambda and return the return
+ * values. The lambda is loaded once and then serves any number of {@link ExecutionProtocol} requests until the standard input is closed.
  */
 public class LambdaExecutionService {
 	
+	private final Gson gson;
+	
+	private Class<?>             lambdaMainClass;
+	private Class<?>             lambdaParameterClass;
+	private Method               lambdaFunction;
+	private ExecutionReturnValue loadError;
+	
 	/**
-	 * Main function of the lambda executor service that executes the lambda archive inside a container
+	 * Load the lambda archive, its meta data and the lambda function
 	 *
-	 * @param args ignored command line parameters
+	 * @param gson the gson instance used to deserialize meta data and parameters
 	 */
-	public static void main(final String... args) throws InterruptedException {
-		final Gson gson = new GsonBuilder().create();
-		
-		// the reported return value
-		ExecutionReturnValue executionReturnValue = new ExecutionReturnValue("", "");
-		
-		final DataInputStream  systemInputStream  = new DataInputStream(System.in);
-		final DataOutputStream systemOutputStream = new DataOutputStream(System.out);
+	private LambdaExecutionService(final Gson gson) {
+		this.gson = gson;
 		
 		try {
 			// initialize class loader
@@ -49,86 +58,134 @@ public class LambdaExecutionService {
 				classLoader = new URLClassLoader(new URL[] {new File(GlobalOptions.JRE_8_BINARY_NAME).toURI().toURL()},
 						LambdaExecutionService.class.getClassLoader());
 			} catch (final MalformedURLException e) {
-				assert false;
-				return;
+				throw new AssertionError(e);
 			}
 			
-			// receive serialized parameter
-			final int    length = systemInputStream.readInt();
-			final byte[] buffer = new byte[length];
-			
-			//noinspection ResultOfMethodCallIgnored
-			systemInputStream.read(buffer);
-			systemInputStream.close();
-			
-			final String         jsonParameter = new String(buffer);
-			final LambdaMetaData metaData;
-			
 			// acquire meta data object
-			metaData = readMetaData(gson, classLoader);
+			final LambdaMetaData metaData = readMetaData(gson, classLoader);
 			
-			final Class<?> lambdaMainClass;
-			final Class<?> lambdaParameterClass;
-			final Method   lambdaFunction;
 			try {
-				lambdaMainClass = classLoader.loadClass(metaData.getLambdaClassName());
-				lambdaParameterClass = metaData.isHasParameter() ? classLoader.loadClass(metaData.getLambdaParameterClassName()) : null;
+				this.lambdaMainClass = classLoader.loadClass(metaData.getLambdaClassName());
+				this.lambdaParameterClass =
+						metaData.isHasParameter() ? classLoader.loadClass(metaData.getLambdaParameterClassName()) : null;
 				
-				lambdaFunction = lambdaMainClass.getDeclaredMethod(metaData.getLambdaMethodName(), lambdaParameterClass);
+				this.lambdaFunction = this.lambdaMainClass.getDeclaredMethod(metaData.getLambdaMethodName(), this.lambdaParameterClass);
 			} catch (ClassNotFoundException | NoSuchMethodException e) {
 				e.printStackTrace();
-				executionReturnValue =
-						new ExecutionReturnValue(null, new InvalidLambdaDefinitionException("Invalid lambda meta file: " + e.getMessage
-								()));
-				return;
+				this.loadError =
+						new ExecutionReturnValue(null, new InvalidLambdaDefinitionException("Invalid lambda meta file: " + e.getMessage()));
 			}
 			
-			assert (lambdaParameterClass != null) == metaData.isHasParameter();
-			final Object lambdaParameter = lambdaParameterClass != null ? gson.fromJson(jsonParameter, lambdaParameterClass) : null;
-			
+			assert this.loadError != null || (this.lambdaParameterClass != null) == metaData.isHasParameter();
+		} catch (final IOException e) {
+			e.printStackTrace();
+			this.loadError = new ExecutionReturnValue(null, new Exception("Internal Server Error"));
+		}
+	}
+	
+	/**
+	 * @param gson                 the gson instance used to deserialize parameters
+	 * @param lambdaMainClass      the class declaring the lambda function
+	 * @param lambdaParameterClass the parameter class of the lambda function or null if it has no parameter
+	 * @param lambdaFunction       the lambda function
+	 */
+	LambdaExecutionService(final Gson gson, final Class<?> lambdaMainClass, final Class<?> lambdaParameterClass,
+			final Method lambdaFunction) {
+		this.gson = gson;
+		this.lambdaMainClass = lambdaMainClass;
+		this.lambdaParameterClass = lambdaParameterClass;
+		this.lambdaFunction = lambdaFunction;
+	}
+	
+	/**
+	 * Main function of the lambda executor service that executes the lambda archive inside a container
+	 *
+	 * @param args ignored command line parameters
+	 */
+	public static void main(final String... args) {
+		final Gson gson = new GsonBuilder().create();
+		
+		final InputStream  systemInputStream  = new BufferedInputStream(new FileInputStream(FileDescriptor.in));
+		final OutputStream systemOutputStream = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+		
+		// the standard streams are reserved for the communication with the host, the lambda must not interfere with them
+		System.setIn(new NullInputStream(0));
+		System.setOut(new PrintStream(new NullOutputStream()));
+		
+		// large payloads are exchanged through a directory shared with the host, if the host set one up
+		final String directoryVariable = System.getenv(GlobalOptions.PAYLOAD_DIRECTORY_VARIABLE);
+		final String thresholdVariable = System.getenv(GlobalOptions.PAYLOAD_THRESHOLD_VARIABLE);
+		final Path   payloadDirectory  = directoryVariable != null ? Paths.get(directoryVariable) : null;
+		final int    payloadThreshold  = payloadDirectory != null && thresholdVariable != null ? Integer.parseInt(thresholdVariable) : 0;
+		
+		new LambdaExecutionService(gson).serve(systemInputStream, systemOutputStream, payloadDirectory, payloadThreshold);
+	}
+	
+	/**
+	 * Serve requests until the input stream is closed
+	 *
+	 * @param inputStream      the stream the requests are read from
+	 * @param outputStream     the stream the responses are written to
+	 * @param payloadDirectory the directory large payloads are exchanged through or null if there is none
+	 * @param payloadThreshold the length from which on return values are exchanged through the payload directory
+	 */
+	void serve(final InputStream inputStream, final OutputStream outputStream, final Path payloadDirectory, final int payloadThreshold) {
+		while (true) {
+			// receive serialized parameter
+			final String jsonParameter;
 			try {
-				final InputStream prevSysIn  = System.in;
-				final PrintStream prevSysOut = System.out;
-				
-				System.setIn(new NullInputStream(0));
-				System.setOut(new PrintStream(new NullOutputStream()));
-				
-				final Object returnValue = lambdaFunction.invoke(lambdaMainClass.getConstructor().newInstance(), lambdaParameter);
-				
-				System.setIn(prevSysIn);
-				System.setOut(prevSysOut);
-				
-				executionReturnValue = new ExecutionReturnValue(gson.toJson(returnValue), "");
-			} catch (final NoSuchMethodException e) {
-				e.printStackTrace();
-				executionReturnValue = new ExecutionReturnValue(null,
-						new InvalidLambdaDefinitionException("No accessible default " + "constructor in lambda class"));
-			} catch (InstantiationException | IllegalAccessException e) {
-				e.printStackTrace();
-				executionReturnValue = new ExecutionReturnValue(null,
-						new InvalidLambdaDefinitionException("Could not invoke lambda " + "function: " + e.getMessage()));
-			} catch (final InvocationTargetException e) {
+				jsonParameter = ExecutionProtocol.readRequest(inputStream, payloadDirectory);
+			} catch (final EOFException e) {
+				// the host closed the standard input, no more requests will follow
+				break;
+			} catch (final IOException e) {
+				// fatal unfixable and unreportable
 				e.printStackTrace();
-				executionReturnValue = new ExecutionReturnValue(null, e.getCause());
+				break;
 			}
 			
-			classLoader.close();
-		} catch (final IOException e) {
-			e.printStackTrace();
-			executionReturnValue = new ExecutionReturnValue(null, new Exception("Internal Server Error"));
-		} finally {
-			final String returnValue = new GsonBuilder().create().toJson(executionReturnValue);
 			try {
-				systemOutputStream.write(returnValue.getBytes());
-				systemOutputStream.flush();
-				systemOutputStream.close();
+				ExecutionProtocol.writeResponse(outputStream, this.execute(jsonParameter), payloadDirectory, payloadThreshold);
 			} catch (final IOException e) {
 				// fatal unfixable and unreportable
 				e.printStackTrace();
+				break;
 			}
 		}
 	}
 	
+	/**
+	 * Execute the lambda function once
+	 *
+	 * @param jsonParameter the serialized lambda parameter
+	 *
+	 * @return the return value or the exception of the lambda function
+	 */
+	private ExecutionReturnValue execute(final String jsonParameter) {
+		if (this.loadError != null) return this.loadError;
+		
+		try {
+			// malformed parameters are reported like exceptions of the lambda, so they cannot terminate the execution service
+			final Object lambdaParameter =
+					this.lambdaParameterClass != null ? this.gson.fromJson(jsonParameter, this.lambdaParameterClass) : null;
+			final Object returnValue = this.lambdaFunction.invoke(this.lambdaMainClass.getConstructor().newInstance(), lambdaParameter);
+			
+			return new ExecutionReturnValue(this.gson.toJson(returnValue), "");
+		} catch (final NoSuchMethodException e) {
+			e.printStackTrace();
+			return new ExecutionReturnValue(null, new InvalidLambdaDefinitionException("No accessible default " + "constructor in lambda class"));
+		} catch (InstantiationException | IllegalAccessException e) {
+			e.printStackTrace();
+			return new ExecutionReturnValue(null, new InvalidLambdaDefinitionException("Could not invoke lambda " + "function: " + e.getMessage()));
+		} catch (final InvocationTargetException e) {
+			e.printStackTrace();
+			return new ExecutionReturnValue(null, e.getCause());
+		} catch (final RuntimeException e) {
+			e.printStackTrace();
+			return new ExecutionReturnValue(null, e);
+		}
+	}
+	
 	/**
 	 * Read the lambda meta data file and deserialize it
 	 *
@@ -0,0 +1,71 @@
+package edu.teco.smartlambda.execution;
+
+import com.google.gson.Gson;
+import edu.teco.smartlambda.shared.ExecutionProtocol;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Case for {@link LambdaExecutionService}
+ */
+public class LambdaExecutionServiceTest {
+	
+	public static class Parameter {
+		private int value;
+	}
+	
+	public static class TestLambda {
+		public int run(final Parameter parameter) {
+			return parameter.value * 2;
+		}
+	}
+	
+	private LambdaExecutionService service;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.service = new LambdaExecutionService(new Gson(), TestLambda.class, Parameter.class,
+				TestLambda.class.getDeclaredMethod("run", Parameter.class));
+	}
+	
+	private InputStream serve(final String... requests) throws Exception {
+		final ByteArrayOutputStream requestStream = new ByteArrayOutputStream();
+		for (final String request : requests) ExecutionProtocol.writeRequest(requestStream, request);
+		
+		final ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
+		this.service.serve(new ByteArrayInputStream(requestStream.toByteArray()), responseStream, null, 0);
+		return new ByteArrayInputStream(responseStream.toByteArray());
+	}
+	
+	@Test
+	public void execute() throws Exception {
+		final InputStream responses = this.serve("{\"value\": 2}", "{\"value\": 3}");
+		
+		assertEquals("4", ExecutionProtocol.readResponse(responses).getReturnValue().get());
+		assertEquals("6", ExecutionProtocol.readResponse(responses).getReturnValue().get());
+	}
+	
+	@Test
+	public void malformedParameter() throws Exception {
+		final InputStream responses = this.serve("{\"value\": ", "{\"value\": [1]}", "{\"value\": 2}");
+		
+		// invalid parameters are reported as exceptions and the service keeps serving requests
+		final ExecutionReturnValue malformed = ExecutionProtocol.readResponse(responses);
+		assertTrue(malformed.isException());
+		final ExecutionReturnValue wrongType = ExecutionProtocol.readResponse(responses);
+		assertTrue(wrongType.isException());
+		
+		final ExecutionReturnValue valid = ExecutionProtocol.readResponse(responses);
+		assertFalse(valid.isException());
+		assertEquals("4", valid.getReturnValue().get());
+	}
+}
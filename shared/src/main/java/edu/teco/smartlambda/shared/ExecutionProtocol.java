@@ -0,0 +1,333 @@
+package edu.teco.smartlambda.shared;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * The framing protocol spoken between the host and the execution service inside a container. Every frame consists of a version byte, a
+ * status byte, the payload length as a four byte big endian integer and the UTF-8 encoded payload. Frames are self-delimiting, so neither
+ * side has to wait for the end of a stream to parse a message. Large payloads may be passed as a {@link MappedPayload} instead, in which
+ * case the {@link #STATUS_MAPPED} flag is set in the status byte and the payload of the frame is the name of the mapped file.
+ */
+public class ExecutionProtocol {
+	
+	/**
+	 * The protocol version written into every frame
+	 */
+	public static final byte VERSION = 1;
+	
+	/**
+	 * Status of a frame sent by the host, the payload is the serialized lambda parameter
+	 */
+	public static final byte STATUS_REQUEST      = 0;
+	/**
+	 * Status of a frame sent by the execution service, the payload is the serialized return value of the lambda
+	 */
+	public static final byte STATUS_RETURN_VALUE = 1;
+	/**
+	 * Status of a frame sent by the execution service, the payload is the stack trace of the exception thrown during execution
+	 */
+	public static final byte STATUS_EXCEPTION    = 2;
+	/**
+	 * Flag set in the status byte of a frame whose payload is the name of a {@link MappedPayload} in the payload directory
+	 */
+	public static final byte STATUS_MAPPED       = (byte) 0x80;
+	
+	/**
+	 * The default maximum length in bytes of the payload of a response frame
+	 */
+	public static final int DEFAULT_MAXIMUM_RESPONSE_LENGTH = 64 * 1024 * 1024;
+	
+	private static final int HEADER_LENGTH = 6;
+	
+	private static volatile int maximumResponseLength = DEFAULT_MAXIMUM_RESPONSE_LENGTH;
+	
+	/**
+	 * This is a utility class and shall not be instantiated
+	 */
+	private ExecutionProtocol() {
+		
+	}
+	
+	/**
+	 * Set the maximum length of the payload of response frames. The length of a payload is read from the frame before its buffer is
+	 * allocated, so without a maximum a single header written by a lambda could make the host allocate up to 2 GiB. Larger results are
+	 * passed as a {@link MappedPayload}, whose frame only contains its name.
+	 *
+	 * @param length the maximum length in bytes of the payload of a response frame
+	 */
+	public static void setMaximumResponseLength(final int length) {
+		maximumResponseLength = length;
+	}
+	
+	/**
+	 * Write a request frame
+	 *
+	 * @param outputStream  the stream into the execution service
+	 * @param jsonParameter the serialized lambda parameter
+	 *
+	 * @throws IOException on stream fail
+	 */
+	public static void writeRequest(final OutputStream outputStream, final String jsonParameter) throws IOException {
+		writeFrame(outputStream, STATUS_REQUEST, jsonParameter);
+	}
+	
+	/**
+	 * @param jsonParameter the serialized lambda parameter
+	 *
+	 * @return the maximum length of the request frame of the parameter, which is the capacity a buffer passed to {@link
+	 * #encodeRequest(String, ByteBuffer)} needs at least
+	 */
+	public static int getMaximumRequestLength(final String jsonParameter) {
+		// UTF-8 encodes a char in at most three bytes, as the supplementary characters taking four bytes consist of two chars
+		return HEADER_LENGTH + 3 * (jsonParameter != null ? jsonParameter.length() : 0);
+	}
+	
+	/**
+	 * Encode a request frame directly into a buffer without an intermediate byte array, so a direct buffer can be written into a channel
+	 * without any further copy. The frame starts at the beginning of the buffer and the buffer is flipped for reading afterwards.
+	 *
+	 * @param jsonParameter the serialized lambda parameter
+	 * @param buffer        a buffer with a capacity of at least {@link #getMaximumRequestLength(String)}
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer is too small
+	 */
+	public static void encodeRequest(final String jsonParameter, final ByteBuffer buffer) {
+		encodeRequest(jsonParameter, false, buffer);
+	}
+	
+	/**
+	 * Encode a request frame like {@link #encodeRequest(String, ByteBuffer)}
+	 *
+	 * @param payload the serialized lambda parameter or the name of the mapped payload holding it
+	 * @param mapped  true, if the payload is the name of a {@link MappedPayload}
+	 * @param buffer  a buffer with a capacity of at least {@link #getMaximumRequestLength(String)}
+	 *
+	 * @throws java.nio.BufferOverflowException if the buffer is too small
+	 */
+	public static void encodeRequest(final String payload, final boolean mapped, final ByteBuffer buffer) {
+		buffer.clear().position(HEADER_LENGTH);
+		
+		if (payload != null) {
+			// malformed input is replaced like in String#getBytes, so encoding can only fail if the buffer is too small
+			final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			if (encoder.encode(CharBuffer.wrap(payload), buffer, true).isOverflow() || encoder.flush(buffer).isOverflow())
+				throw new BufferOverflowException();
+		}
+		
+		buffer.put(0, VERSION).put(1, getStatus(STATUS_REQUEST, mapped)).putInt(2, buffer.position() - HEADER_LENGTH);
+		buffer.flip();
+	}
+	
+	/**
+	 * Read a request frame
+	 *
+	 * @param inputStream the stream from the host
+	 *
+	 * @return the serialized lambda parameter
+	 *
+	 * @throws java.io.EOFException       if the stream ended before a frame was read completely
+	 * @throws ExecutionProtocolException if the frame is not a valid request frame
+	 * @throws IOException                on stream fail
+	 */
+	public static String readRequest(final InputStream inputStream) throws IOException {
+		return readRequest(inputStream, null);
+	}
+	
+	/**
+	 * Read a request frame, which may refer to a {@link MappedPayload}
+	 *
+	 * @param inputStream      the stream from the host
+	 * @param payloadDirectory the directory of mapped payloads or null, if payloads must not be mapped
+	 *
+	 * @return the serialized lambda parameter
+	 *
+	 * @throws java.io.EOFException       if the stream ended before a frame was read completely
+	 * @throws ExecutionProtocolException if the frame is not a valid request frame
+	 * @throws IOException                on stream or file fail
+	 */
+	public static String readRequest(final InputStream inputStream, final Path payloadDirectory) throws IOException {
+		final DataInputStream dataInputStream = new DataInputStream(inputStream);
+		final byte            status          = readHeader(dataInputStream);
+		
+		if ((status & ~STATUS_MAPPED) != STATUS_REQUEST) throw new ExecutionProtocolException("Unexpected frame status " + status);
+		
+		// requests are written by the host, which is trusted
+		return readPayload(dataInputStream, status, payloadDirectory, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Write a response frame
+	 *
+	 * @param outputStream         the stream to the host
+	 * @param executionReturnValue the result of the lambda execution
+	 *
+	 * @throws IOException on stream fail
+	 */
+	public static void writeResponse(final OutputStream outputStream, final ExecutionReturnValue executionReturnValue) throws
+			IOException {
+		writeResponse(outputStream, executionReturnValue, null, 0);
+	}
+	
+	/**
+	 * Write a response frame. A return value or stack trace of at least the threshold length is written as a {@link MappedPayload}.
+	 *
+	 * @param outputStream         the stream to the host
+	 * @param executionReturnValue the result of the lambda execution
+	 * @param payloadDirectory     the directory of mapped payloads or null, if payloads must not be mapped
+	 * @param threshold            the length in chars from which on payloads are mapped, or zero to never map payloads
+	 *
+	 * @throws IOException on stream or file fail
+	 */
+	public static void writeResponse(final OutputStream outputStream, final ExecutionReturnValue executionReturnValue,
+			final Path payloadDirectory, final int threshold) throws IOException {
+		final byte   status  = executionReturnValue.isException() ? STATUS_EXCEPTION : STATUS_RETURN_VALUE;
+		final String payload = executionReturnValue.isException() ? executionReturnValue.getException().get() :
+				executionReturnValue.getReturnValue().orElse(null);
+		
+		if (payloadDirectory != null && threshold > 0 && payload != null && payload.length() >= threshold)
+			writeFrame(outputStream, getStatus(status, true), MappedPayload.write(payloadDirectory, payload));
+		else writeFrame(outputStream, status, payload);
+	}
+	
+	/**
+	 * Read a response frame
+	 *
+	 * @param inputStream the stream from the execution service
+	 *
+	 * @return the result of the lambda execution
+	 *
+	 * @throws java.io.EOFException       if the stream ended before a frame was read completely
+	 * @throws ExecutionProtocolException if the frame is not a valid response frame
+	 * @throws IOException                on stream fail
+	 */
+	public static ExecutionReturnValue readResponse(final InputStream inputStream) throws IOException {
+		return readResponse(inputStream, null);
+	}
+	
+	/**
+	 * Read a response frame, which may refer to a {@link MappedPayload}
+	 *
+	 * @param inputStream      the stream from the execution service
+	 * @param payloadDirectory the directory of mapped payloads or null, if payloads must not be mapped
+	 *
+	 * @return the result of the lambda execution
+	 *
+	 * @throws java.io.EOFException       if the stream ended before a frame was read completely
+	 * @throws ExecutionProtocolException if the frame is not a valid response frame or its payload exceeds the maximum response length
+	 * @throws IOException                on stream or file fail
+	 */
+	public static ExecutionReturnValue readResponse(final InputStream inputStream, final Path payloadDirectory) throws IOException {
+		final DataInputStream dataInputStream = new DataInputStream(inputStream);
+		final byte            status          = readHeader(dataInputStream);
+		final int             maximumLength   = maximumResponseLength;
+		
+		switch (status & ~STATUS_MAPPED) {
+			case STATUS_RETURN_VALUE:
+				return new ExecutionReturnValue(readPayload(dataInputStream, status, payloadDirectory, maximumLength), "");
+			case STATUS_EXCEPTION:
+				return new ExecutionReturnValue(null, readPayload(dataInputStream, status, payloadDirectory, maximumLength));
+			default:
+				throw new ExecutionProtocolException("Unexpected frame status " + status);
+		}
+	}
+	
+	/**
+	 * @param status the status of a frame
+	 * @param mapped true, if the payload of the frame is the name of a {@link MappedPayload}
+	 *
+	 * @return the status byte of the frame
+	 */
+	private static byte getStatus(final byte status, final boolean mapped) {
+		return mapped ? (byte) (status | STATUS_MAPPED) : status;
+	}
+	
+	/**
+	 * Write a complete frame with a single write call and flush the stream
+	 *
+	 * @param outputStream the stream to write to
+	 * @param status       the status byte of the frame
+	 * @param payload      the payload of the frame
+	 *
+	 * @throws IOException on stream fail
+	 */
+	private static void writeFrame(final OutputStream outputStream, final byte status, final String payload) throws IOException {
+		final byte[] content = payload != null ? payload.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		
+		final ByteBuffer frame = ByteBuffer.allocate(HEADER_LENGTH + content.length);
+		frame.put(VERSION).put(status).putInt(content.length).put(content);
+		
+		outputStream.write(frame.array());
+		outputStream.flush();
+	}
+	
+	/**
+	 * Read the version and status byte of a frame
+	 *
+	 * @param inputStream the stream to read from
+	 *
+	 * @return the status byte of the frame
+	 *
+	 * @throws IOException on stream fail or version mismatch
+	 */
+	private static byte readHeader(final DataInputStream inputStream) throws IOException {
+		final byte version = inputStream.readByte();
+		if (version != VERSION) throw new ExecutionProtocolException("Unsupported protocol version " + version);
+		
+		return inputStream.readByte();
+	}
+	
+	/**
+	 * Read the payload of a frame and the mapped payload it refers to, if the frame has the {@link #STATUS_MAPPED} flag
+	 *
+	 * @param inputStream      the stream to read from
+	 * @param status           the status byte of the frame
+	 * @param payloadDirectory the directory of mapped payloads or null, if payloads must not be mapped
+	 * @param maximumLength    the maximum length in bytes of the payload within the frame
+	 *
+	 * @return the decoded payload
+	 *
+	 * @throws IOException on stream or file fail or if the payload is mapped unexpectedly
+	 */
+	private static String readPayload(final DataInputStream inputStream, final byte status, final Path payloadDirectory,
+			final int maximumLength) throws IOException {
+		final String payload = readPayload(inputStream, maximumLength);
+		if ((status & STATUS_MAPPED) == 0) return payload;
+		
+		if (payloadDirectory == null) throw new ExecutionProtocolException("Unexpected mapped payload " + payload);
+		return MappedPayload.read(payloadDirectory, payload);
+	}
+	
+	/**
+	 * Read the length-prefixed payload of a frame completely
+	 *
+	 * @param inputStream   the stream to read from
+	 * @param maximumLength the maximum length in bytes of the payload
+	 *
+	 * @return the decoded payload
+	 *
+	 * @throws IOException on stream fail or invalid length
+	 */
+	private static String readPayload(final DataInputStream inputStream, final int maximumLength) throws IOException {
+		final int length = inputStream.readInt();
+		if (length < 0) throw new ExecutionProtocolException("Invalid payload length " + length);
+		if (length > maximumLength) {
+			throw new ExecutionProtocolException("Payload length " + length + " exceeds the maximum of " + maximumLength + " bytes");
+		}
+		
+		final byte[] payload = new byte[length];
+		inputStream.readFully(payload);
+		
+		return new String(payload, StandardCharsets.UTF_8);
+	}
+}
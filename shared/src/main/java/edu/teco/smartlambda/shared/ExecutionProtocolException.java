@@ -0,0 +1,16 @@
+package edu.teco.smartlambda.shared;
+
+import java.io.IOException;
+
+/**
+ * Thrown if a frame received from the other side of the {@link ExecutionProtocol} is malformed
+ */
+public class ExecutionProtocolException extends IOException {
+	
+	/**
+	 * @param message a description of the protocol violation
+	 */
+	public ExecutionProtocolException(final String message) {
+		super(message);
+	}
+}
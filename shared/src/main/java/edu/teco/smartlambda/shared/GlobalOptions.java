@@ -2,4 +2,15 @@ package edu.teco.smartlambda.shared;
 
 public class GlobalOptions {
 	public static final String JRE_8_BINARY_NAME = "lambda.jar";
+	
+	/**
+	 * The environment variable telling the execution service the directory of {@link MappedPayload}s, which is not set if payloads are
+	 * not mapped
+	 */
+	public static final String PAYLOAD_DIRECTORY_VARIABLE = "SMARTLAMBDA_PAYLOAD_DIRECTORY";
+	
+	/**
+	 * The environment variable telling the execution service the length in chars from which on return values are mapped
+	 */
+	public static final String PAYLOAD_THRESHOLD_VARIABLE = "SMARTLAMBDA_PAYLOAD_THRESHOLD";
 }
@@ -0,0 +1,103 @@
+package edu.teco.smartlambda.shared;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Payloads that are too large to be copied through the standard streams of a container efficiently. The payload is encoded directly into
+ * a memory-mapped file of a directory shared by the host and the container, which should reside on a tmpfs, and only the name of the
+ * file is sent within a frame of the {@link ExecutionProtocol}. The receiver of a payload deletes its file after reading it.
+ */
+public class MappedPayload {
+	
+	/**
+	 * This is a utility class and shall not be instantiated
+	 */
+	private MappedPayload() {
+		
+	}
+	
+	/**
+	 * Write a payload into a new file of the payload directory
+	 *
+	 * @param directory the payload directory
+	 * @param payload   the payload to write
+	 *
+	 * @return the name of the file holding the payload
+	 *
+	 * @throws IOException if the file can't be created or mapped
+	 */
+	public static String write(final Path directory, final String payload) throws IOException {
+		final String name = UUID.randomUUID().toString();
+		final Path   file = directory.resolve(name);
+		
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			// UTF-8 encodes a char in at most three bytes, the file is truncated to the actual length afterwards
+			final long             size    = Math.min(3L * payload.length(), Integer.MAX_VALUE);
+			final MappedByteBuffer buffer  = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			final CharsetEncoder   encoder = StandardCharsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			
+			if (encoder.encode(CharBuffer.wrap(payload), buffer, true).isOverflow() || encoder.flush(buffer).isOverflow())
+				throw new IOException("Payload of " + payload.length() + " chars exceeds the maximum size of a mapped payload");
+			
+			channel.truncate(buffer.position());
+		} catch (final IOException | RuntimeException e) {
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		
+		return name;
+	}
+	
+	/**
+	 * Read a payload from the payload directory and delete its file
+	 *
+	 * @param directory the payload directory
+	 * @param name      the name of the file holding the payload, as sent by the other side
+	 *
+	 * @return the payload
+	 *
+	 * @throws ExecutionProtocolException if the name does not denote a regular file within the payload directory
+	 * @throws IOException                if the file can't be read
+	 */
+	public static String read(final Path directory, final String name) throws IOException {
+		// the name is received from the other side, which must not be able to make this side read any other file
+		try {
+			if (!UUID.fromString(name).toString().equals(name)) throw new ExecutionProtocolException("Invalid payload name " + name);
+		} catch (final IllegalArgumentException e) {
+			throw new ExecutionProtocolException("Invalid payload name " + name);
+		}
+		
+		// the directory is writable by the container, which could plant a link to any file of the host under a valid name
+		final Path file = directory.resolve(name);
+		if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+			final ExecutionProtocolException exception = new ExecutionProtocolException("Invalid payload file " + name);
+			try {
+				// deleting a link removes the link itself, not its target
+				Files.deleteIfExists(file);
+			} catch (final IOException e) {
+				exception.addSuppressed(e);
+			}
+			
+			throw exception;
+		}
+		
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, LinkOption.NOFOLLOW_LINKS)) {
+			return StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())).toString();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
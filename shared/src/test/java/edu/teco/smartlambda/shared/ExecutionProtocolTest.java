@@ -0,0 +1,198 @@
+package edu.teco.smartlambda.shared;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ */
+public class ExecutionProtocolTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void request() throws Exception {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeRequest(outputStream, "{\"name\":\"λ\"}");
+		ExecutionProtocol.writeRequest(outputStream, "");
+		
+		final InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+		assertEquals("{\"name\":\"λ\"}", ExecutionProtocol.readRequest(inputStream));
+		assertEquals("", ExecutionProtocol.readRequest(inputStream));
+	}
+	
+	@Test
+	public void encodeRequest() throws Exception {
+		final String     parameter = "{\"name\":\"λ\",\"emoji\":\"\uD83D\uDE00\"}";
+		final ByteBuffer buffer    = ByteBuffer.allocateDirect(ExecutionProtocol.getMaximumRequestLength(parameter));
+		ExecutionProtocol.encodeRequest(parameter, buffer);
+		
+		final byte[] frame = new byte[buffer.remaining()];
+		buffer.get(frame);
+		
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeRequest(outputStream, parameter);
+		assertArrayEquals(outputStream.toByteArray(), frame);
+		assertEquals(parameter, ExecutionProtocol.readRequest(new ByteArrayInputStream(frame)));
+		
+		// the buffer is reused for further frames
+		ExecutionProtocol.encodeRequest(null, buffer);
+		assertEquals(6, buffer.remaining());
+	}
+	
+	@Test(expected = BufferOverflowException.class)
+	public void encodeRequestOverflow() throws Exception {
+		ExecutionProtocol.encodeRequest("{\"name\":\"λ\"}", ByteBuffer.allocate(8));
+	}
+	
+	@Test
+	public void mappedRequest() throws Exception {
+		final Path       directory = this.folder.getRoot().toPath();
+		final String     name      = MappedPayload.write(directory, "{\"name\":\"λ\"}");
+		final ByteBuffer buffer    = ByteBuffer.allocate(ExecutionProtocol.getMaximumRequestLength(name));
+		ExecutionProtocol.encodeRequest(name, true, buffer);
+		
+		final byte[] frame = new byte[buffer.remaining()];
+		buffer.get(frame);
+		
+		assertEquals((byte) (ExecutionProtocol.STATUS_REQUEST | ExecutionProtocol.STATUS_MAPPED), frame[1]);
+		assertEquals("{\"name\":\"λ\"}", ExecutionProtocol.readRequest(new ByteArrayInputStream(frame), directory));
+	}
+	
+	@Test
+	public void mappedResponse() throws Exception {
+		final Path                  directory    = this.folder.getRoot().toPath();
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeResponse(outputStream, new ExecutionReturnValue(null, "java.lang.Exception: failed"), directory, 8);
+		ExecutionProtocol.writeResponse(outputStream, new ExecutionReturnValue("42", ""), directory, 8);
+		
+		// only the payload above the threshold is mapped
+		final byte[] frames = outputStream.toByteArray();
+		assertEquals((byte) (ExecutionProtocol.STATUS_EXCEPTION | ExecutionProtocol.STATUS_MAPPED), frames[1]);
+		assertEquals(1, directory.toFile().list().length);
+		
+		final InputStream inputStream = new ByteArrayInputStream(frames);
+		assertEquals("java.lang.Exception: failed", ExecutionProtocol.readResponse(inputStream, directory).getException().get());
+		assertEquals("42", ExecutionProtocol.readResponse(inputStream, directory).getReturnValue().get());
+		assertEquals(0, directory.toFile().list().length);
+	}
+	
+	@Test(expected = ExecutionProtocolException.class)
+	public void mappedPayloadWithoutDirectory() throws Exception {
+		final ByteBuffer buffer = ByteBuffer.allocate(64);
+		ExecutionProtocol.encodeRequest(UUID.randomUUID().toString(), true, buffer);
+		
+		ExecutionProtocol.readRequest(new ByteArrayInputStream(buffer.array(), 0, buffer.limit()));
+	}
+	
+	@Test
+	public void returnValueResponse() throws Exception {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeResponse(outputStream, new ExecutionReturnValue("42", ""));
+		
+		final ExecutionReturnValue returnValue =
+				ExecutionProtocol.readResponse(new ByteArrayInputStream(outputStream.toByteArray()));
+		assertFalse(returnValue.isException());
+		assertEquals("42", returnValue.getReturnValue().get());
+	}
+	
+	@Test
+	public void exceptionResponse() throws Exception {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeResponse(outputStream, new ExecutionReturnValue(null, "java.lang.Exception: failed"));
+		
+		final ExecutionReturnValue returnValue =
+				ExecutionProtocol.readResponse(new ByteArrayInputStream(outputStream.toByteArray()));
+		assertTrue(returnValue.isException());
+		assertEquals("java.lang.Exception: failed", returnValue.getException().get());
+		assertFalse(returnValue.getReturnValue().isPresent());
+	}
+	
+	@Test
+	public void largePayloadReadInChunks() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 100000; i++) builder.append(i % 10);
+		
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeRequest(outputStream, builder.toString());
+		
+		// a stream that never returns more than a few bytes per read call
+		final InputStream inputStream = new FilterInputStream(new ByteArrayInputStream(outputStream.toByteArray())) {
+			@Override
+			public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+				return super.read(buffer, offset, Math.min(length, 7));
+			}
+		};
+		
+		assertEquals(builder.toString(), ExecutionProtocol.readRequest(inputStream));
+	}
+	
+	@Test(expected = EOFException.class)
+	public void truncatedFrame() throws Exception {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeRequest(outputStream, "truncated");
+		
+		final byte[] frame = outputStream.toByteArray();
+		ExecutionProtocol.readRequest(new ByteArrayInputStream(frame, 0, frame.length - 1));
+	}
+	
+	@Test(expected = ExecutionProtocolException.class)
+	public void unsupportedVersion() throws Exception {
+		ExecutionProtocol.readRequest(new ByteArrayInputStream(new byte[] {42, ExecutionProtocol.STATUS_REQUEST, 0, 0, 0, 0}));
+	}
+	
+	@Test(expected = ExecutionProtocolException.class)
+	public void unexpectedStatus() throws Exception {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeRequest(outputStream, "{}");
+		
+		ExecutionProtocol.readResponse(new ByteArrayInputStream(outputStream.toByteArray()));
+	}
+	
+	@Test(expected = ExecutionProtocolException.class)
+	public void oversizedResponse() throws Exception {
+		// only the header is sent, the payload must not be allocated for the announced length
+		final byte[] header = {ExecutionProtocol.VERSION, ExecutionProtocol.STATUS_RETURN_VALUE, 0x7F, -1, -1, -1};
+		ExecutionProtocol.readResponse(new ByteArrayInputStream(header));
+	}
+	
+	@Test
+	public void maximumResponseLength() throws Exception {
+		final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		ExecutionProtocol.writeResponse(outputStream, new ExecutionReturnValue("\"1234\"", ""));
+		ExecutionProtocol.writeResponse(outputStream, new ExecutionReturnValue("\"12345\"", ""));
+		
+		ExecutionProtocol.setMaximumResponseLength(6);
+		try {
+			final InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+			assertEquals("\"1234\"", ExecutionProtocol.readResponse(inputStream).getReturnValue().get());
+			
+			try {
+				ExecutionProtocol.readResponse(inputStream);
+				fail();
+			} catch (final ExecutionProtocolException ignored) {
+			}
+		} finally {
+			ExecutionProtocol.setMaximumResponseLength(ExecutionProtocol.DEFAULT_MAXIMUM_RESPONSE_LENGTH);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package edu.teco.smartlambda.shared;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Case for {@link MappedPayload}
+ */
+public class MappedPayloadTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.directory = this.folder.newFolder().toPath();
+	}
+	
+	@Test
+	public void writeAndRead() throws Exception {
+		final String payload = "{\"name\":\"λ\",\"emoji\":\"😀\"}";
+		final String name    = MappedPayload.write(this.directory, payload);
+		
+		// the file is truncated to the encoded payload
+		final Path file = this.directory.resolve(name);
+		assertArrayEquals(payload.getBytes(StandardCharsets.UTF_8), Files.readAllBytes(file));
+		
+		assertEquals(payload, MappedPayload.read(this.directory, name));
+		assertFalse(Files.exists(file));
+	}
+	
+	@Test
+	public void writeAndReadEmpty() throws Exception {
+		assertEquals("", MappedPayload.read(this.directory, MappedPayload.write(this.directory, "")));
+	}
+	
+	@Test(expected = ExecutionProtocolException.class)
+	public void readOutsideOfDirectory() throws Exception {
+		final File secret = this.folder.newFile("secret");
+		assertTrue(secret.exists());
+		
+		MappedPayload.read(this.directory, "../secret");
+	}
+	
+	@Test
+	public void readSymbolicLink() throws Exception {
+		final Path   secret = this.folder.newFile("secret").toPath();
+		final String name   = UUID.randomUUID().toString();
+		Files.write(secret, "secret".getBytes(StandardCharsets.UTF_8));
+		Files.createSymbolicLink(this.directory.resolve(name), secret);
+		
+		try {
+			MappedPayload.read(this.directory, name);
+			fail();
+		} catch (final ExecutionProtocolException ignored) {
+		}
+		
+		// the link is removed, but its target is left untouched
+		assertFalse(Files.exists(this.directory.resolve(name), LinkOption.NOFOLLOW_LINKS));
+		assertEquals("secret", new String(Files.readAllBytes(secret), StandardCharsets.UTF_8));
+	}
+	
+	@Test(expected = ExecutionProtocolException.class)
+	public void readDirectory() throws Exception {
+		final String name = UUID.randomUUID().toString();
+		Files.createDirectory(this.directory.resolve(name));
+		
+		MappedPayload.read(this.directory, name);
+	}
+}
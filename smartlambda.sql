@@ -23,6 +23,29 @@ CREATE TABLE `GitHubCredential` (
 /*!40101 SET character_set_client = @saved_cs_client */;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `Invocation` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `lambda` int(11) unsigned NOT NULL,
+  `key` varchar(255) NOT NULL,
+  `parameters` longtext,
+  `status` enum('QUEUED','RUNNING','SUCCEEDED','FAILED','TIMED_OUT') NOT NULL DEFAULT 'QUEUED',
+  `priority` enum('INTERACTIVE','ASYNC','SCHEDULED') NOT NULL DEFAULT 'ASYNC',
+  `result` longtext,
+  `error` mediumtext,
+  `created` datetime NOT NULL,
+  `finished` datetime DEFAULT NULL,
+  `lock` datetime DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_Invocation_status_priority_id` (`status`,`priority`,`id`),
+  KEY `idx_Invocation_lambda_status` (`lambda`,`status`),
+  KEY `idx_Invocation_key` (`key`),
+  KEY `idx_Invocation_finished` (`finished`),
+  CONSTRAINT `ibfk_Invocation_key` FOREIGN KEY (`key`) REFERENCES `Key` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT `ibfk_Invocation_lambda` FOREIGN KEY (`lambda`) REFERENCES `Lambda` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+/*!40101 SET character_set_client = @saved_cs_client */;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
 CREATE TABLE `Key` (
   `id` varchar(255) NOT NULL,
   `name` varchar(255) NOT NULL,
@@ -41,7 +64,14 @@ CREATE TABLE `Lambda` (
   `name` varchar(255) NOT NULL,
   `runtime` varchar(255) NOT NULL,
   `async` tinyint(1) NOT NULL DEFAULT '0',
-  `containerId` varchar(255) NOT NULL,
+  `timeout` int(11) unsigned NOT NULL DEFAULT '30',
+  `memoryLimit` int(11) unsigned NOT NULL DEFAULT '0',
+  `cpuShares` int(11) unsigned NOT NULL DEFAULT '0',
+  `cpuQuota` int(11) unsigned NOT NULL DEFAULT '0',
+  `pidsLimit` int(11) unsigned NOT NULL DEFAULT '0',
+  `cacheable` tinyint(1) NOT NULL DEFAULT '0',
+  `cacheTtl` int(11) unsigned NOT NULL DEFAULT '60',
+  `containerId` varchar(255) DEFAULT NULL,
   PRIMARY KEY (`id`),
   UNIQUE KEY `idx_Lambda_owner_name` (`owner`,`name`),
   KEY `idx_Lambda_owner` (`owner`),
@@ -50,14 +80,28 @@ CREATE TABLE `Lambda` (
 /*!40101 SET character_set_client = @saved_cs_client */;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!40101 SET character_set_client = utf8 */;
+CREATE TABLE `LambdaBinary` (
+  `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
+  `runtime` varchar(255) NOT NULL,
+  `hash` char(64) NOT NULL,
+  `containerId` varchar(255) NOT NULL,
+  `referenceCount` int(11) unsigned NOT NULL DEFAULT '0',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `idx_LambdaBinary_runtime_hash` (`runtime`,`hash`),
+  UNIQUE KEY `idx_LambdaBinary_containerId` (`containerId`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+/*!40101 SET character_set_client = @saved_cs_client */;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!40101 SET character_set_client = utf8 */;
 CREATE TABLE `MonitoringEvent` (
   `id` int(11) unsigned NOT NULL AUTO_INCREMENT,
   `time` datetime NOT NULL,
   `lambdaName` varchar(255) NOT NULL,
   `duration` bigint(20) unsigned DEFAULT NULL,
   `CPUTime` int(11) unsigned DEFAULT NULL,
+  `peakMemory` bigint(20) unsigned DEFAULT NULL,
   `error` mediumtext,
-  `type` enum('EXECUTION','DELETION','DEPLOYMENT') NOT NULL,
+  `type` enum('EXECUTION','TIMEOUT','DELETION','DEPLOYMENT') NOT NULL,
   `lambdaOwner` int(11) unsigned NOT NULL,
   `key` varchar(255) DEFAULT NULL,
   PRIMARY KEY (`id`),
@@ -112,6 +156,9 @@ CREATE TABLE `User` (
   `name` varchar(255) NOT NULL,
   `primaryKey` varchar(255) DEFAULT NULL,
   `isAdmin` tinyint(1) NOT NULL DEFAULT '0',
+  `isTrusted` tinyint(1) NOT NULL DEFAULT '0',
+  `rateLimit` int(11) unsigned DEFAULT NULL,
+  `rateBurst` int(11) unsigned DEFAULT NULL,
   PRIMARY KEY (`id`),
   UNIQUE KEY `idx_User_name` (`name`),
   UNIQUE KEY `idx_User_primaryKey` (`primaryKey`),
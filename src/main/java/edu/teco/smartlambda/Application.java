@@ -11,29 +11,48 @@ import edu.teco.smartlambda.authentication.NotAuthenticatedException;
 import edu.teco.smartlambda.authentication.entities.Key;
 import edu.teco.smartlambda.authentication.entities.Permission;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.concurrent.ExecutionRejectedException;
+import edu.teco.smartlambda.concurrent.ExecutionScheduler;
 import edu.teco.smartlambda.concurrent.ThreadManager;
 import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.ContainerPoolManager;
+import edu.teco.smartlambda.container.docker.DockerClientProvider;
+import edu.teco.smartlambda.container.docker.DockerContainerReaper;
 import edu.teco.smartlambda.identity.GitHubCredential;
 import edu.teco.smartlambda.identity.GitHubCredentialDuplicateException;
 import edu.teco.smartlambda.identity.IdentityException;
 import edu.teco.smartlambda.identity.IdentityProviderRegistry;
+import edu.teco.smartlambda.invocation.Invocation;
+import edu.teco.smartlambda.invocation.InvocationDispatcher;
+import edu.teco.smartlambda.invocation.InvocationQueueFullException;
+import edu.teco.smartlambda.lambda.BuildManager;
+import edu.teco.smartlambda.lambda.BuildRejectedException;
 import edu.teco.smartlambda.lambda.DuplicateEventException;
 import edu.teco.smartlambda.lambda.DuplicateLambdaException;
 import edu.teco.smartlambda.lambda.InvalidLambdaException;
 import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.lambda.LambdaBinary;
+import edu.teco.smartlambda.lambda.LambdaExecutionTimeoutException;
+import edu.teco.smartlambda.lambda.LambdaNotBuiltException;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.rest.controller.KeyController;
 import edu.teco.smartlambda.rest.controller.LambdaController;
+import edu.teco.smartlambda.rest.controller.MetricsController;
 import edu.teco.smartlambda.rest.controller.PermissionController;
 import edu.teco.smartlambda.rest.controller.ScheduleController;
 import edu.teco.smartlambda.rest.controller.UserController;
+import edu.teco.smartlambda.rest.exception.BuildNotFoundException;
 import edu.teco.smartlambda.rest.exception.EventNotFoundException;
 import edu.teco.smartlambda.rest.exception.IdentityProviderNotFoundException;
+import edu.teco.smartlambda.rest.exception.InvalidBatchSizeException;
 import edu.teco.smartlambda.rest.exception.InvalidLambdaDefinitionException;
+import edu.teco.smartlambda.rest.exception.InvocationNotFoundException;
 import edu.teco.smartlambda.rest.exception.LambdaNotFoundException;
+import edu.teco.smartlambda.rest.exception.RateLimitExceededException;
 import edu.teco.smartlambda.rest.exception.UserNotFoundException;
 import edu.teco.smartlambda.rest.filter.AccessControlFilter;
 import edu.teco.smartlambda.rest.filter.AuthenticationFilter;
+import edu.teco.smartlambda.rest.filter.RateLimitFilter;
 import edu.teco.smartlambda.rest.filter.SessionEndFilter;
 import edu.teco.smartlambda.rest.filter.SessionStartFilter;
 import edu.teco.smartlambda.rest.response.ExceptionResponse;
@@ -41,6 +60,7 @@ import edu.teco.smartlambda.runtime.RuntimeRegistry;
 import edu.teco.smartlambda.schedule.CronExpressionException;
 import edu.teco.smartlambda.schedule.Event;
 import edu.teco.smartlambda.schedule.ScheduleManager;
+import edu.teco.smartlambda.shared.ExecutionProtocol;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 import spark.Request;
@@ -52,6 +72,7 @@ import java.util.concurrent.Future;
 
 public class Application {
 	private static Future<Void> scheduleManagerFuture;
+	private static Future<Void> invocationDispatcherFuture;
 	private static Application instance = null;
 	private SessionFactory sessionFactory;
 	
@@ -60,10 +81,15 @@ public class Application {
 	}
 	
 	private void start() {
+		ExecutionProtocol.setMaximumResponseLength(ConfigurationService.getInstance().getConfiguration()
+				.getInt("container.maximumResponseLength", ExecutionProtocol.DEFAULT_MAXIMUM_RESPONSE_LENGTH));
 		RuntimeRegistry.getInstance();
 		IdentityProviderRegistry.getInstance();
+		DockerContainerReaper.getInstance();
 		this.initializeSpark();
-		scheduleManagerFuture = ThreadManager.getExecutorService().submit(ScheduleManager.getInstance()::run);
+		scheduleManagerFuture = ThreadManager.getScheduleManagerExecutorService().submit(ScheduleManager.getInstance()::run);
+		invocationDispatcherFuture =
+				ThreadManager.getInvocationDispatcherExecutorService().submit(InvocationDispatcher.getInstance()::run);
 	}
 	
 	private void initializeSpark() {
@@ -73,6 +99,7 @@ public class Application {
 		
 		Spark.before(new SessionStartFilter());
 		Spark.before(new AuthenticationFilter());
+		Spark.before(new RateLimitFilter());
 		Spark.before(new AccessControlFilter());
 		Spark.after(new SessionEndFilter());
 		
@@ -93,8 +120,11 @@ public class Application {
 		Spark.get("/:user/lambda/:name", LambdaController::readLambda, gson::toJson);
 		Spark.delete("/:user/lambda/:name", LambdaController::deleteLambda, gson::toJson);
 		Spark.post("/:user/lambda/:name", LambdaController::executeLambda);
+		Spark.post("/:user/lambda/:name/batch", LambdaController::executeLambdaBatch);
 		Spark.get("/:user/lambdas", LambdaController::getLambdaList, gson::toJson);
 		Spark.get("/:user/lambda/:name/statistics", LambdaController::getStatistics, gson::toJson);
+		Spark.get("/:user/lambda/:name/build", LambdaController::getBuild, gson::toJson);
+		Spark.get("/:user/lambda/:name/invocation/:id", LambdaController::getInvocation);
 		
 		Spark.put("/:user/lambda/:name/schedule/:event-name", ScheduleController::createSchedule, gson::toJson);
 		Spark.patch("/:user/lambda/:name/schedule/:event-name", ScheduleController::updateSchedule, gson::toJson);
@@ -107,6 +137,9 @@ public class Application {
 		
 		Spark.get("/users", UserController::getUserList, gson::toJson);
 		Spark.post("/register", UserController::register, gson::toJson);
+		Spark.patch("/:user", UserController::updateUser, gson::toJson);
+		
+		Spark.get("/metrics", MetricsController::getMetrics, gson::toJson);
 		
 		Spark.exception(Exception.class, (Exception exception, Request request, Response response) -> {
 			response.status(500);
@@ -139,6 +172,11 @@ public class Application {
 			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
 		});
 		
+		Spark.exception(InvalidBatchSizeException.class, (Exception exception, Request request, Response response) -> {
+			response.status(400);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
 		Spark.exception(UserNotFoundException.class, (Exception exception, Request request, Response response) -> {
 			response.status(404);
 			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
@@ -164,6 +202,16 @@ public class Application {
 			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
 		});
 		
+		Spark.exception(BuildNotFoundException.class, (Exception exception, Request request, Response response) -> {
+			response.status(404);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
+		Spark.exception(InvocationNotFoundException.class, (Exception exception, Request request, Response response) -> {
+			response.status(404);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
 		Spark.exception(NotAuthenticatedException.class, (Exception exception, Request request, Response response) -> {
 			response.status(401);
 			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
@@ -203,6 +251,37 @@ public class Application {
 			response.status(400);
 			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
 		});
+		
+		Spark.exception(LambdaExecutionTimeoutException.class, (Exception exception, Request request, Response response) -> {
+			response.status(504);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
+		Spark.exception(ExecutionRejectedException.class, (Exception exception, Request request, Response response) -> {
+			response.status(((ExecutionRejectedException) exception).isOverloaded() ? 503 : 429);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
+		Spark.exception(InvocationQueueFullException.class, (Exception exception, Request request, Response response) -> {
+			response.status(429);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
+		Spark.exception(RateLimitExceededException.class, (Exception exception, Request request, Response response) -> {
+			response.status(429);
+			response.header("Retry-After", Long.toString(((RateLimitExceededException) exception).getRetryAfter()));
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
+		Spark.exception(BuildRejectedException.class, (Exception exception, Request request, Response response) -> {
+			response.status(503);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
+		
+		Spark.exception(LambdaNotBuiltException.class, (Exception exception, Request request, Response response) -> {
+			response.status(409);
+			response.body(gson.toJson(new ExceptionResponse(exception.getMessage())));
+		});
 	}
 	
 	private void initializeHibernate() {
@@ -213,8 +292,10 @@ public class Application {
 		configuration.addAnnotatedClass(User.class);
 		configuration.addAnnotatedClass(Permission.class);
 		configuration.addAnnotatedClass(Lambda.class);
+		configuration.addAnnotatedClass(LambdaBinary.class);
 		configuration.addAnnotatedClass(MonitoringEvent.class);
 		configuration.addAnnotatedClass(Event.class);
+		configuration.addAnnotatedClass(Invocation.class);
 		configuration.addAnnotatedClass(GitHubCredential.class);
 		configuration.configure(new File(BuildConfig.HIBERNATE_CONFIGURATION_PATH));
 		
@@ -245,6 +326,18 @@ public class Application {
 	private static void shutdown() {
 		Spark.stop();
 		ScheduleManager.getInstance().setRunning(false);
+		InvocationDispatcher.getInstance().setRunning(false);
+		ExecutionScheduler.getInstance().shutdown();
+		BuildManager.getInstance().shutdown();
+		ContainerPoolManager.getInstance().shutdown();
+		
+		try {
+			// the removal of containers must complete before the docker client is closed
+			ThreadManager.shutdown();
+		} catch (final InterruptedException ignored) {
+		}
+		
+		DockerClientProvider.close();
 		getInstance().getSessionFactory().close();
 	}
 	
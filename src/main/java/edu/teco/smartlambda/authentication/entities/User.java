@@ -58,6 +58,24 @@ public class User {
 	@Getter
 	@Column(name = "isAdmin", nullable = false)
 	private boolean isAdmin;
+	/**
+	 * Trusted users may deploy lambdas of in-process runtimes, which run inside the server JVM
+	 */
+	@Getter
+	@Column(name = "isTrusted", nullable = false)
+	private boolean isTrusted;
+	/**
+	 * The number of requests per second the keys of this user may make in total or null for the configured default
+	 */
+	@Getter
+	@Column(name = "rateLimit")
+	private Integer rateLimit;
+	/**
+	 * The number of requests the keys of this user may make at once after being idle or null for the configured default
+	 */
+	@Getter
+	@Column(name = "rateBurst")
+	private Integer rateBurst;
 	
 	public User() {
 		
@@ -100,6 +118,28 @@ public class User {
 		Application.getInstance().getSessionFactory().getCurrentSession().save(this);
 	}
 	
+	/**
+	 * Sets the flag for this User to be trusted
+	 *
+	 * @param trusted true, if this user shall be trusted
+	 */
+	public void setTrusted(final boolean trusted) {
+		this.isTrusted = trusted;
+		Application.getInstance().getSessionFactory().getCurrentSession().save(this);
+	}
+	
+	/**
+	 * Sets the request rate limit of this User. The limit applies from the next request of this User on.
+	 *
+	 * @param rateLimit the number of requests per second or null for the configured default
+	 * @param rateBurst the number of requests at once after being idle or null for the configured default
+	 */
+	public void setRateLimit(final Integer rateLimit, final Integer rateBurst) {
+		this.rateLimit = rateLimit;
+		this.rateBurst = rateBurst;
+		Application.getInstance().getSessionFactory().getCurrentSession().save(this);
+	}
+	
 	/**
 	 * Creates a new Key Object and adds it to the Database
 	 *
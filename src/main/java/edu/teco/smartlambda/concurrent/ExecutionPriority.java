@@ -0,0 +1,38 @@
+package edu.teco.smartlambda.concurrent;
+
+/**
+ * The priority classes of lambda executions, from the highest to the lowest priority. The {@link ExecutionScheduler} always starts
+ * executions of a higher class first and may reserve threads for the higher classes.
+ */
+public enum ExecutionPriority {
+	/**
+	 * Synchronous executions a client is waiting for
+	 */
+	INTERACTIVE,
+	/**
+	 * Queued asynchronous invocations
+	 */
+	ASYNC,
+	/**
+	 * Executions of scheduled events
+	 */
+	SCHEDULED;
+	
+	private static final ThreadLocal<ExecutionPriority> current = ThreadLocal.withInitial(() -> INTERACTIVE);
+	
+	/**
+	 * @return the priority of executions started by the current thread, which is {@link #INTERACTIVE} unless set otherwise
+	 */
+	public static ExecutionPriority getCurrent() {
+		return current.get();
+	}
+	
+	/**
+	 * Sets the priority of executions started by the current thread
+	 *
+	 * @param priority the priority of executions started by the current thread
+	 */
+	public static void setCurrent(final ExecutionPriority priority) {
+		current.set(priority);
+	}
+}
@@ -0,0 +1,25 @@
+package edu.teco.smartlambda.concurrent;
+
+/**
+ * Thrown if the {@link ExecutionScheduler} does not accept another lambda execution, either because the lambda already has as many
+ * pending executions as it may have or because the whole system is overloaded
+ */
+public class ExecutionRejectedException extends RuntimeException {
+	private final boolean overloaded;
+	
+	/**
+	 * @param message    a description of the exceeded limit
+	 * @param overloaded true, if the global limit was exceeded, false if only the limit of a single lambda was exceeded
+	 */
+	ExecutionRejectedException(final String message, final boolean overloaded) {
+		super(message);
+		this.overloaded = overloaded;
+	}
+	
+	/**
+	 * @return true, if the execution was rejected because of the global limit, false if the limit of the lambda was exceeded
+	 */
+	public boolean isOverloaded() {
+		return this.overloaded;
+	}
+}
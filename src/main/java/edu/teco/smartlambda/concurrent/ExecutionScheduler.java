@@ -0,0 +1,291 @@
+package edu.teco.smartlambda.concurrent;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A singleton executing lambdas on a bounded thread pool. At most a configured number of executions run at the same time, further
+ * executions wait in a bounded queue of their {@link ExecutionPriority}. Whenever a thread becomes available, the oldest execution of the
+ * highest priority class is started. Additionally, a number of threads can be reserved for the interactive and asynchronous classes,
+ * which lower classes may not use, so a burst of scheduled executions cannot delay interactive executions. The number of pending (queued
+ * and running) executions of a single lambda is limited as well, so a single lambda cannot occupy the whole pool. Executions exceeding
+ * any of these limits are rejected with an {@link ExecutionRejectedException} instead of being accepted without bounds.
+ */
+public class ExecutionScheduler {
+	private static ExecutionScheduler instance;
+	
+	private final ThreadPoolExecutor                                      executor;
+	private final Map<String, Integer>                                    pending  = new ConcurrentHashMap<>();
+	private final Map<ExecutionPriority, Queue<ListenableFutureTask<?>>>  queues   = new EnumMap<>(ExecutionPriority.class);
+	private final Map<ExecutionPriority, Integer>                         running  = new EnumMap<>(ExecutionPriority.class);
+	private final Map<ExecutionPriority, Integer>                         reserved = new EnumMap<>(ExecutionPriority.class);
+	private final int                                                     maximumConcurrency;
+	private final int                                                     maximumPendingPerLambda;
+	private final int                                                     queueSize;
+	private       boolean                                                 shutdown = false;
+	
+	/**
+	 * This class is a singleton and therefore handles instantiation itself
+	 */
+	private ExecutionScheduler() {
+		this(ConfigurationService.getInstance().getConfiguration());
+	}
+	
+	private ExecutionScheduler(final Configuration configuration) {
+		this(configuration.getInt("execution.maximumConcurrency", 64), configuration.getInt("execution.maximumPendingPerLambda", 16),
+				configuration.getInt("execution.queueSize", 256),
+				configuration.getInt("execution.reservedInteractive", configuration.getInt("execution.maximumConcurrency", 64) / 4),
+				configuration.getInt("execution.reservedAsync", 0));
+	}
+	
+	/**
+	 * @param maximumConcurrency      the maximum number of executions running at the same time
+	 * @param maximumPendingPerLambda the maximum number of queued and running executions of a single lambda
+	 * @param queueSize               the maximum number of executions of a priority class waiting for a thread
+	 */
+	ExecutionScheduler(final int maximumConcurrency, final int maximumPendingPerLambda, final int queueSize) {
+		this(maximumConcurrency, maximumPendingPerLambda, queueSize, 0, 0);
+	}
+	
+	/**
+	 * @param maximumConcurrency      the maximum number of executions running at the same time
+	 * @param maximumPendingPerLambda the maximum number of queued and running executions of a single lambda
+	 * @param queueSize               the maximum number of executions of a priority class waiting for a thread
+	 * @param reservedInteractive     the number of threads only interactive executions may use
+	 * @param reservedAsync           the number of threads only interactive and asynchronous executions may use
+	 */
+	ExecutionScheduler(final int maximumConcurrency, final int maximumPendingPerLambda, final int queueSize, final int reservedInteractive,
+			final int reservedAsync) {
+		this.maximumConcurrency = Math.max(1, maximumConcurrency);
+		this.maximumPendingPerLambda = Math.max(1, maximumPendingPerLambda);
+		this.queueSize = Math.max(1, queueSize);
+		
+		// the scheduler never hands more executions to the pool than it has threads, so the queue of the pool stays empty
+		this.executor = new ThreadPoolExecutor(this.maximumConcurrency, this.maximumConcurrency, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new ThreadFactoryBuilder().setNameFormat("execution-%d").build());
+		this.executor.allowCoreThreadTimeOut(true);
+		
+		this.reserved.put(ExecutionPriority.INTERACTIVE, Math.max(0, reservedInteractive));
+		this.reserved.put(ExecutionPriority.ASYNC, Math.max(0, reservedAsync));
+		this.reserved.put(ExecutionPriority.SCHEDULED, 0);
+		
+		final MetricsService metrics = MetricsService.getInstance();
+		for (final ExecutionPriority priority : ExecutionPriority.values()) {
+			final String name = priority.name().toLowerCase();
+			
+			this.queues.put(priority, new ArrayDeque<>());
+			this.running.put(priority, 0);
+			
+			metrics.registerGauge("execution.running." + name, () -> this.getRunningCount(priority));
+			metrics.registerGauge("execution.queued." + name, () -> this.getQueuedCount(priority));
+		}
+		
+		metrics.registerGauge("execution.running", this.executor::getActiveCount);
+		metrics.registerGauge("execution.queued", () -> {
+			long queued = 0;
+			for (final ExecutionPriority priority : ExecutionPriority.values()) queued += this.getQueuedCount(priority);
+			return queued;
+		});
+	}
+	
+	/**
+	 * @return the singleton instance of this class
+	 */
+	public static synchronized ExecutionScheduler getInstance() {
+		if (instance == null) instance = new ExecutionScheduler();
+		return instance;
+	}
+	
+	/**
+	 * Submit a lambda execution
+	 *
+	 * @param lambda   a key uniquely identifying the executed lambda
+	 * @param priority the priority class of the execution
+	 * @param task     the execution
+	 * @param <T>      the result type of the execution
+	 *
+	 * @return a future of the execution result
+	 *
+	 * @throws ExecutionRejectedException if the execution exceeds the limit of the lambda or the queue of its priority class is full
+	 */
+	public <T> ListenableFuture<T> submit(final String lambda, final ExecutionPriority priority, final Callable<T> task) {
+		return this.submit(lambda, priority, task, future -> {});
+	}
+	
+	/**
+	 * Submit a lambda execution
+	 *
+	 * @param lambda   a key uniquely identifying the executed lambda
+	 * @param priority the priority class of the execution
+	 * @param task     the execution
+	 * @param onStart  called with the future of the execution on the thread of the execution right before it starts running, e.g. to
+	 *                 start its timeout, so the time it waited in the queue is not counted
+	 * @param <T>      the result type of the execution
+	 *
+	 * @return a future of the execution result
+	 *
+	 * @throws ExecutionRejectedException if the execution exceeds the limit of the lambda or the queue of its priority class is full
+	 */
+	public <T> ListenableFuture<T> submit(final String lambda, final ExecutionPriority priority, final Callable<T> task,
+			final Consumer<? super ListenableFuture<T>> onStart) {
+		final MetricsService metrics = MetricsService.getInstance();
+		
+		if (this.pending.merge(lambda, 1, Integer::sum) > this.maximumPendingPerLambda) {
+			this.release(lambda);
+			metrics.increment("execution.rejected.lambdaLimit");
+			throw new ExecutionRejectedException("Too many pending executions of lambda " + lambda, false);
+		}
+		
+		final String                                   name      = priority.name().toLowerCase();
+		final long                                     submitted = System.nanoTime();
+		final AtomicReference<ListenableFutureTask<T>> self      = new AtomicReference<>();
+		final ListenableFutureTask<T>                  future    = ListenableFutureTask.create(() -> {
+			final long waitTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+			
+			metrics.increment("execution.started");
+			metrics.increment("execution.started." + name);
+			metrics.add("execution.queue.waitTime", waitTime);
+			metrics.add("execution.queue.waitTime." + name, waitTime);
+			
+			onStart.accept(self.get());
+			return task.call();
+		});
+		self.set(future);
+		
+		synchronized (this) {
+			final Queue<ListenableFutureTask<?>> queue = this.queues.get(priority);
+			
+			if (this.shutdown || queue.size() >= this.queueSize) {
+				this.release(lambda);
+				metrics.increment("execution.rejected.overloaded");
+				throw new ExecutionRejectedException("Too many pending executions", true);
+			}
+			
+			queue.add(future);
+			this.dispatch();
+		}
+		
+		future.addListener(() -> {
+			// executions cancelled while queued do not have to wait for a thread
+			synchronized (this) {
+				this.queues.get(priority).remove(future);
+			}
+			this.release(lambda);
+		}, MoreExecutors.directExecutor());
+		
+		metrics.increment("execution.submitted");
+		return future;
+	}
+	
+	/**
+	 * @param lambda a key uniquely identifying a lambda
+	 *
+	 * @return the number of queued and running executions of the lambda
+	 */
+	public int getPendingCount(final String lambda) {
+		return this.pending.getOrDefault(lambda, 0);
+	}
+	
+	/**
+	 * @param priority a priority class
+	 *
+	 * @return the number of executions of the priority class waiting for a thread
+	 */
+	public synchronized int getQueuedCount(final ExecutionPriority priority) {
+		return this.queues.get(priority).size();
+	}
+	
+	/**
+	 * @param priority a priority class
+	 *
+	 * @return the number of running executions of the priority class
+	 */
+	public synchronized int getRunningCount(final ExecutionPriority priority) {
+		return this.running.get(priority);
+	}
+	
+	/**
+	 * Stop accepting executions, cancel all queued executions and interrupt all running executions
+	 */
+	public void shutdown() {
+		synchronized (this) {
+			this.shutdown = true;
+		}
+		
+		for (final ExecutionPriority priority : ExecutionPriority.values()) {
+			ListenableFutureTask<?> future;
+			while ((future = this.poll(priority)) != null) future.cancel(false);
+		}
+		
+		this.executor.shutdownNow();
+	}
+	
+	private synchronized ListenableFutureTask<?> poll(final ExecutionPriority priority) {
+		return this.queues.get(priority).poll();
+	}
+	
+	/**
+	 * Start queued executions as long as threads are available, beginning with the highest priority class. An execution may only start
+	 * if the threads reserved for higher classes that are not used by these classes remain available afterwards.
+	 */
+	private synchronized void dispatch() {
+		int total = 0;
+		for (final int count : this.running.values()) total += count;
+		
+		int unusedReservations = 0;
+		for (final ExecutionPriority priority : ExecutionPriority.values()) {
+			final Queue<ListenableFutureTask<?>> queue = this.queues.get(priority);
+			
+			while (!queue.isEmpty() && !this.shutdown && total + unusedReservations < this.maximumConcurrency) {
+				final ListenableFutureTask<?> future = queue.poll();
+				
+				this.running.merge(priority, 1, Integer::sum);
+				total++;
+				
+				try {
+					this.executor.execute(() -> {
+						try {
+							future.run();
+						} finally {
+							synchronized (this) {
+								this.running.merge(priority, -1, Integer::sum);
+								this.dispatch();
+							}
+						}
+					});
+				} catch (final RejectedExecutionException e) {
+					this.running.merge(priority, -1, Integer::sum);
+					future.cancel(false);
+					return;
+				}
+			}
+			
+			unusedReservations += Math.max(0, this.reserved.get(priority) - this.running.get(priority));
+		}
+	}
+	
+	/**
+	 * Account for a finished or rejected execution and forget about lambdas without pending executions
+	 */
+	private void release(final String lambda) {
+		this.pending.computeIfPresent(lambda, (key, count) -> count > 1 ? count - 1 : null);
+	}
+}
@@ -1,16 +1,35 @@
 package edu.teco.smartlambda.concurrent;
 
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A Utility class providing a {@link ListeningExecutorService}
+ * A Utility class providing the thread pools for background work. Lambda executions do not run on any of these pools but on the
+ * {@link ExecutionScheduler}, so a burst of executions can neither starve maintenance work nor the schedule manager and the invocation
+ * dispatcher.
  */
 public final class ThreadManager {
 	
-	private final static ListeningExecutorService executorService = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+	private static final int MAINTENANCE_THREADS = 16;
+	
+	private final static ListeningExecutorService          executorService                     = MoreExecutors.listeningDecorator(
+			createBoundedExecutor(MAINTENANCE_THREADS, new ThreadFactoryBuilder().setNameFormat("maintenance-%d").build()));
+	private final static ListeningScheduledExecutorService scheduledExecutorService            = MoreExecutors.listeningDecorator(
+			Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("maintenance-scheduler").build()));
+	private final static ListeningScheduledExecutorService timeoutExecutorService              = MoreExecutors.listeningDecorator(
+			Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("execution-timeout").build()));
+	private final static ListeningExecutorService          scheduleManagerExecutorService      = MoreExecutors.listeningDecorator(
+			Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("schedule-manager").build()));
+	private final static ListeningExecutorService          invocationDispatcherExecutorService = MoreExecutors.listeningDecorator(
+			Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("invocation-dispatcher").build()));
 	
 	/**
 	 * Private default constructor. This class shall not be instanced
@@ -19,10 +38,62 @@ public final class ThreadManager {
 		// intentionally empty
 	}
 	
+	private static ThreadPoolExecutor createBoundedExecutor(final int threads, final ThreadFactory threadFactory) {
+		final ThreadPoolExecutor executor =
+				new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		
+		return executor;
+	}
+	
 	/**
-	 * @return a global listening executor service as thread pool
+	 * @return a global listening executor service with a bounded number of threads for maintenance work like starting and removing
+	 * containers
 	 */
 	public static ListeningExecutorService getExecutorService() {
 		return executorService;
 	}
+	
+	/**
+	 * @return a global listening executor service for delayed and periodic maintenance tasks
+	 */
+	public static ListeningScheduledExecutorService getScheduledExecutorService() {
+		return scheduledExecutorService;
+	}
+	
+	/**
+	 * @return a listening executor service dedicated to the timeouts of lambda executions. Its tasks must never block, so timeouts fire
+	 * on time even while periodic maintenance tasks wait for docker.
+	 */
+	public static ListeningScheduledExecutorService getTimeoutExecutorService() {
+		return timeoutExecutorService;
+	}
+	
+	/**
+	 * Stop all thread pools. Pending maintenance work, like the removal of containers, is given some time to complete.
+	 *
+	 * @throws InterruptedException if interrupted while waiting for pending maintenance work
+	 */
+	public static void shutdown() throws InterruptedException {
+		scheduleManagerExecutorService.shutdownNow();
+		invocationDispatcherExecutorService.shutdownNow();
+		scheduledExecutorService.shutdownNow();
+		timeoutExecutorService.shutdownNow();
+		executorService.shutdown();
+		executorService.awaitTermination(30, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * @return a listening executor service dedicated to the loop of the schedule manager
+	 */
+	public static ListeningExecutorService getScheduleManagerExecutorService() {
+		return scheduleManagerExecutorService;
+	}
+	
+	/**
+	 * @return a listening executor service dedicated to the loop of the invocation dispatcher
+	 */
+	public static ListeningExecutorService getInvocationDispatcherExecutorService() {
+		return invocationDispatcherExecutorService;
+	}
 }
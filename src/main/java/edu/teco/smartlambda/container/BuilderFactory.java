@@ -1,6 +1,9 @@
 package edu.teco.smartlambda.container;
 
 import edu.teco.smartlambda.container.docker.DockerImageBuilder;
+import edu.teco.smartlambda.container.inprocess.InProcessImageBuilder;
+import edu.teco.smartlambda.container.local.LocalImageBuilder;
+import edu.teco.smartlambda.runtime.Runtime;
 
 /**
  * This class holds a factory method for the {@link ImageBuilder} used by the system
@@ -15,9 +18,19 @@ public class BuilderFactory {
 	}
 	
 	/**
-	 * @return the {@link ImageBuilder} implementation that is used by the whole application
+	 * @return the {@link ImageBuilder} implementation of the configured backend, which is used by the whole application
 	 */
 	public static ImageBuilder getContainerBuilder() {
+		if (ImageFactory.getBackend().equals(ImageFactory.BACKEND_LOCAL)) return new LocalImageBuilder();
 		return new DockerImageBuilder();
 	}
+	
+	/**
+	 * @param runtime the runtime of the lambda the image is built for
+	 *
+	 * @return the {@link ImageBuilder} implementation that builds the images of lambdas of the given runtime
+	 */
+	public static ImageBuilder getContainerBuilder(final Runtime runtime) {
+		return runtime.isInProcess() ? new InProcessImageBuilder() : getContainerBuilder();
+	}
 }
@@ -1,9 +1,8 @@
 package edu.teco.smartlambda.container;
 
-import edu.teco.smartlambda.container.docker.DockerContainer;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
 
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.Optional;
 
 /**
  * A container is a running instance of an {@link Image}.
@@ -11,25 +10,33 @@ import java.io.OutputStream;
 public interface Container {
 	
 	/**
-	 * Get the standard input of a container. While this could technically also be part of {@link #attach(OutputStream, OutputStream)},
-	 * {@link DockerContainer} requires it to be specially handled, because the Docker implementation lacks a method to attach any
-	 * {@link InputStream}
+	 * Execute the lambda of the container once
 	 *
-	 * @return an input stream into the default input of the docker container
+	 * @param params the serialized lambda parameter
+	 *
+	 * @return the return value or the exception of the lambda
 	 *
 	 * @throws Exception on any container library specific exception
 	 */
-	public OutputStream getStdIn() throws Exception;
+	public ExecutionReturnValue execute(final String params) throws Exception;
 	
 	/**
-	 * Attach standard output and standard error stream of the container to two output streams where one can read of.
-	 *
-	 * @param stdOut Standard out
-	 * @param stdErr Standard error
+	 * A container is drained, if the container engine it runs on is not able to serve executions reliably anymore. Drained containers
+	 * are not reused for further executions.
 	 *
-	 * @throws Exception on any container library specific exception
+	 * @return true, if the container shall not be used for further executions
 	 */
-	public void attach(final OutputStream stdOut, final OutputStream stdErr) throws Exception;
+	public default boolean isDrained() {
+		return false;
+	}
+	
+	/**
+	 * @return the directory the container shares with the host to exchange large payloads or an empty optional, if all payloads are
+	 * passed through the standard streams
+	 */
+	public default Optional<PayloadDirectory> getPayloadDirectory() {
+		return Optional.empty();
+	}
 	
 	/**
 	 * @return the container id, that the implementation can use to find a previously created container
@@ -37,8 +44,19 @@ public interface Container {
 	public String getId();
 	
 	/**
-	 * @return the CPU time that has been consumed by this container during last execution
+	 * Get the resources consumed by the container since it was started. The consumption of a single execution is the difference of two
+	 * readings taken before and after the execution.
+	 *
+	 * @return the resources consumed by the container
+	 *
+	 * @throws Exception on any container library specific exception
+	 */
+	public ResourceUsage getResourceUsage() throws Exception;
+	
+	/**
+	 * Kill the container and remove it from the container engine. It cannot be used for further executions afterwards.
+	 *
 	 * @throws Exception on any container library specific exception
 	 */
-	public long getConsumedCPUTime() throws Exception;
+	public void delete() throws Exception;
 }
@@ -0,0 +1,258 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.concurrent.ThreadManager;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * A pool of started containers of a single {@link Image} started with the same {@link ResourceLimits}. Containers are started ahead of
+ * time, so an execution can check out a container that is already running and waiting for input instead of paying for the container
+ * start on every invocation.
+ */
+public class ContainerPool {
+	private final Image                  image;
+	private final ResourceLimits         limits;
+	private final int                    minimumSize;
+	private final int                    maximumSize;
+	private final long                   idleTimeout;
+	private final Deque<PooledContainer> idleContainers = new ArrayDeque<>();
+	private       int                    pendingStarts  = 0;
+	private       int                    checkedOut     = 0;
+	private       long                   lastCheckOut   = System.currentTimeMillis();
+	private       boolean                closed         = false;
+	private       boolean                prewarmed      = false;
+	
+	/**
+	 * @param image       the image whose containers are pooled
+	 * @param limits      the resource limits of the pooled containers
+	 * @param minimumSize number of idle containers kept ready while the pool is in use
+	 * @param maximumSize maximum number of idle containers held by the pool
+	 * @param idleTimeout time in milliseconds after which an idle container is evicted
+	 */
+	ContainerPool(final Image image, final ResourceLimits limits, final int minimumSize, final int maximumSize, final long idleTimeout) {
+		this.image = image;
+		this.limits = limits;
+		this.minimumSize = Math.max(0, minimumSize);
+		this.maximumSize = Math.max(this.minimumSize, maximumSize);
+		this.idleTimeout = idleTimeout;
+	}
+	
+	/**
+	 * Take a started container out of the pool. If no idle container is available, a new one is started synchronously. Idle containers
+	 * that were drained meanwhile are discarded. The caller must hand the container back using either {@link #checkIn(Container)} or
+	 * {@link #recycle(Container)}.
+	 *
+	 * @return a started container
+	 *
+	 * @throws Exception on any container engine specific exception while starting a new container
+	 */
+	public Container checkOut() throws Exception {
+		final Deque<Container> drained = new ArrayDeque<>();
+		PooledContainer        pooledContainer;
+		final boolean          prewarmed;
+		
+		synchronized (this) {
+			while ((pooledContainer = this.idleContainers.pollFirst()) != null && pooledContainer.getContainer().isDrained()) {
+				drained.add(pooledContainer.getContainer());
+			}
+			this.lastCheckOut = System.currentTimeMillis();
+			this.checkedOut++;
+			prewarmed = this.prewarmed;
+			this.prewarmed = false;
+		}
+		
+		drained.forEach(this::discard);
+		if (prewarmed) {
+			MetricsService.getInstance().increment(pooledContainer != null ? "container.prewarm.hits" : "container.prewarm.misses");
+		}
+		
+		this.replenish(this.minimumSize);
+		
+		if (pooledContainer != null) return pooledContainer.getContainer();
+		
+		try {
+			return this.image.start(this.limits);
+		} catch (final Exception e) {
+			synchronized (this) {
+				this.checkedOut--;
+			}
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Return a container that can serve further executions to the pool. If the pool is already full or the container was drained, the
+	 * container is deleted.
+	 *
+	 * @param container a container previously checked out of this pool
+	 */
+	public void checkIn(final Container container) {
+		synchronized (this) {
+			this.checkedOut--;
+			
+			if (!this.closed && this.idleContainers.size() < this.maximumSize && !container.isDrained()) {
+				this.idleContainers.addFirst(new PooledContainer(container));
+				return;
+			}
+		}
+		
+		this.discard(container);
+	}
+	
+	/**
+	 * Discard a container that cannot serve further executions and start a replacement if the pool is below its minimum size
+	 *
+	 * @param container a container previously checked out of this pool
+	 */
+	public void recycle(final Container container) {
+		synchronized (this) {
+			this.checkedOut--;
+		}
+		
+		this.discard(container);
+		this.replenish(this.minimumSize);
+	}
+	
+	/**
+	 * Asynchronously start a container ahead of an execution that is expected soon, even if the pool is not kept warm otherwise. The next
+	 * check out is counted as a pre-warm hit, if it finds an idle container, or as a miss otherwise.
+	 */
+	public void prewarm() {
+		synchronized (this) {
+			this.prewarmed = true;
+			// the pool is in use from now on, so the started container is not evicted before the execution checks it out
+			this.lastCheckOut = System.currentTimeMillis();
+		}
+		
+		MetricsService.getInstance().increment("container.prewarm.requests");
+		this.replenish(1);
+	}
+	
+	/**
+	 * @return the number of idle containers currently waiting in the pool
+	 */
+	public synchronized int getIdleCount() {
+		return this.idleContainers.size();
+	}
+	
+	/**
+	 * Delete idle containers that exceeded the idle timeout. While the pool is in use, the minimum number of containers is kept. A pool
+	 * that was not used for longer than the idle timeout is drained completely.
+	 */
+	void evictIdleContainers() {
+		final Deque<Container> evicted = new ArrayDeque<>();
+		final long             now     = System.currentTimeMillis();
+		
+		synchronized (this) {
+			final int keep = now - this.lastCheckOut > this.idleTimeout ? 0 : this.minimumSize;
+			
+			// the least recently returned containers are at the end of the deque
+			final Iterator<PooledContainer> iterator = this.idleContainers.descendingIterator();
+			while (iterator.hasNext() && this.idleContainers.size() > keep) {
+				final PooledContainer pooledContainer = iterator.next();
+				if (now - pooledContainer.getIdleSince() <= this.idleTimeout) break;
+				
+				iterator.remove();
+				evicted.add(pooledContainer.getContainer());
+			}
+		}
+		
+		evicted.forEach(this::discard);
+	}
+	
+	/**
+	 * @return true, if the pool holds no containers, has no containers checked out and was not used for longer than the idle timeout
+	 */
+	synchronized boolean isDormant() {
+		return this.idleContainers.isEmpty() && this.pendingStarts == 0 && this.checkedOut == 0 &&
+				System.currentTimeMillis() - this.lastCheckOut > this.idleTimeout;
+	}
+	
+	/**
+	 * Delete all idle containers and refuse to hold any further containers
+	 */
+	void close() {
+		final Deque<PooledContainer> drained;
+		
+		synchronized (this) {
+			this.closed = true;
+			drained = new ArrayDeque<>(this.idleContainers);
+			this.idleContainers.clear();
+		}
+		
+		drained.forEach(pooledContainer -> this.discard(pooledContainer.getContainer()));
+	}
+	
+	/**
+	 * Asynchronously start containers until the pool holds at least its minimum number of idle containers or the given number, if it is
+	 * larger
+	 *
+	 * @param minimumIdle the number of idle containers the pool shall hold at least
+	 */
+	private void replenish(final int minimumIdle) {
+		final int missing;
+		
+		synchronized (this) {
+			if (this.closed) return;
+			
+			missing = Math.min(Math.max(this.minimumSize, minimumIdle), this.maximumSize) - this.idleContainers.size() - this.pendingStarts;
+			if (missing <= 0) return;
+			
+			this.pendingStarts += missing;
+		}
+		
+		for (int i = 0; i < missing; i++) {
+			ThreadManager.getExecutorService().submit(() -> {
+				Container container = null;
+				try {
+					container = this.image.start(this.limits);
+				} catch (final Exception e) {
+					LoggerFactory.getLogger(ContainerPool.class).error("Failed to start pooled container of image " + this.image.getId(), e);
+				}
+				
+				synchronized (this) {
+					this.pendingStarts--;
+					
+					if (container != null && !this.closed && this.idleContainers.size() < this.maximumSize) {
+						this.idleContainers.addFirst(new PooledContainer(container));
+						return;
+					}
+				}
+				
+				if (container != null) this.discard(container);
+			});
+		}
+	}
+	
+	/**
+	 * Asynchronously delete a container that is no longer used by the pool
+	 *
+	 * @param container the container to delete
+	 */
+	private void discard(final Container container) {
+		ThreadManager.getExecutorService().submit(() -> {
+			try {
+				container.delete();
+			} catch (final Exception e) {
+				LoggerFactory.getLogger(ContainerPool.class).error("Failed to delete container " + container.getId(), e);
+			}
+		});
+	}
+	
+	/**
+	 * An idle container together with the time it was returned to the pool
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	private static class PooledContainer {
+		private final Container container;
+		private final long      idleSince = System.currentTimeMillis();
+	}
+}
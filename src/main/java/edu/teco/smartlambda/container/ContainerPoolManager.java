@@ -0,0 +1,115 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.concurrent.ThreadManager;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import lombok.Data;
+import org.apache.commons.configuration2.Configuration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A singleton holding one {@link ContainerPool} per image, tenant and resource limits and periodically evicting idle containers from them.
+ * Lambdas sharing an image but limited differently can't share containers, as the limits are applied when a container is started. Pooled
+ * containers keep the state that previous executions left in their JVM and file system, so lambdas of different tenants never share
+ * containers, even if they share an image.
+ */
+public class ContainerPoolManager {
+	private static ContainerPoolManager instance;
+	
+	private final Map<PoolKey, ContainerPool> pools = new ConcurrentHashMap<>();
+	private final int                         minimumSize;
+	private final int                         maximumSize;
+	private final long                        idleTimeout;
+	
+	/**
+	 * This class is a singleton and therefore handles instantiation itself
+	 */
+	private ContainerPoolManager() {
+		final Configuration configuration = ConfigurationService.getInstance().getConfiguration();
+		
+		this.minimumSize = configuration.getInt("container.pool.minimumSize", 1);
+		this.maximumSize = configuration.getInt("container.pool.maximumSize", 4);
+		this.idleTimeout = TimeUnit.SECONDS.toMillis(configuration.getLong("container.pool.idleTimeout", 300));
+		
+		final long evictionInterval = configuration.getLong("container.pool.evictionInterval", 30);
+		ThreadManager.getScheduledExecutorService()
+				.scheduleWithFixedDelay(this::evictIdleContainers, evictionInterval, evictionInterval, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * @return the singleton instance of this class
+	 */
+	public static synchronized ContainerPoolManager getInstance() {
+		if (instance == null) instance = new ContainerPoolManager();
+		return instance;
+	}
+	
+	/**
+	 * Get the pool of unlimited containers of an image used by a tenant, creating it if it doesn't exist yet
+	 *
+	 * @param imageId the unique identifier of the pooled image
+	 * @param tenant  the name of the user whose lambdas are executed by the pooled containers
+	 *
+	 * @return the container pool of the image and tenant
+	 */
+	public ContainerPool getPool(final String imageId, final String tenant) {
+		return this.getPool(imageId, tenant, ResourceLimits.UNLIMITED);
+	}
+	
+	/**
+	 * Get the pool of containers of an image used by a tenant and started with the given limits, creating it if it doesn't exist yet
+	 *
+	 * @param imageId the unique identifier of the pooled image
+	 * @param tenant  the name of the user whose lambdas are executed by the pooled containers
+	 * @param limits  the resource limits of the pooled containers
+	 *
+	 * @return the container pool of the image, tenant and limits
+	 */
+	public ContainerPool getPool(final String imageId, final String tenant, final ResourceLimits limits) {
+		return this.pools.computeIfAbsent(new PoolKey(imageId, tenant, limits),
+				key -> new ContainerPool(ImageFactory.getImageById(imageId), limits, this.minimumSize, this.maximumSize, this.idleTimeout));
+	}
+	
+	/**
+	 * Close all pools of an image and delete their idle containers. This must be called before the image is deleted.
+	 *
+	 * @param imageId the unique identifier of the pooled image
+	 */
+	public void removePool(final String imageId) {
+		this.pools.keySet().stream().filter(key -> key.getImageId().equals(imageId)).forEach(this::removePool);
+	}
+	
+	/**
+	 * Close all pools and delete their idle containers
+	 */
+	public void shutdown() {
+		this.pools.keySet().forEach(this::removePool);
+	}
+	
+	private void removePool(final PoolKey key) {
+		final ContainerPool pool = this.pools.remove(key);
+		if (pool != null) pool.close();
+	}
+	
+	/**
+	 * Evict idle containers from all pools and forget about pools that are no longer used
+	 */
+	private void evictIdleContainers() {
+		this.pools.forEach((key, pool) -> {
+			pool.evictIdleContainers();
+			if (pool.isDormant()) this.pools.remove(key, pool);
+		});
+	}
+	
+	/**
+	 * The image, the tenant and the resource limits identifying a pool
+	 */
+	@Data
+	private static class PoolKey {
+		private final String         imageId;
+		private final String         tenant;
+		private final ResourceLimits limits;
+	}
+}
@@ -0,0 +1,55 @@
+package edu.teco.smartlambda.container;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A pool of direct buffers the frames sent to containers are encoded into. Direct buffers are written into socket channels without being
+ * copied into a temporary native buffer first, but they are expensive to allocate, so every thread keeps one buffer for its next frame.
+ */
+final class FrameBufferPool {
+	/**
+	 * The capacity of the buffer initially kept by every thread
+	 */
+	static final int INITIAL_CAPACITY = 64 * 1024;
+	
+	/**
+	 * The capacity of the largest buffer a thread keeps. Larger buffers are left to the garbage collector, so a single large frame does
+	 * not pin its native memory for the lifetime of the thread.
+	 */
+	static final int MAXIMUM_CAPACITY = 4 * 1024 * 1024;
+	
+	private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(INITIAL_CAPACITY));
+	
+	/**
+	 * This is a utility class and shall not be instantiated
+	 */
+	private FrameBufferPool() {
+		// intentionally empty
+	}
+	
+	/**
+	 * Take a buffer out of the pool of the current thread. The buffer must not be used after it was returned with {@link
+	 * #release(ByteBuffer)}.
+	 *
+	 * @param capacity the capacity the buffer needs at least
+	 *
+	 * @return a cleared direct buffer
+	 */
+	static ByteBuffer acquire(final int capacity) {
+		final ByteBuffer buffer = buffers.get();
+		if (buffer.capacity() < capacity) return ByteBuffer.allocateDirect(capacity);
+		
+		buffer.clear();
+		return buffer;
+	}
+	
+	/**
+	 * Return a buffer to the pool of the current thread. A buffer larger than the pooled buffer replaces it, unless it exceeds {@link
+	 * #MAXIMUM_CAPACITY}.
+	 *
+	 * @param buffer a buffer previously obtained by {@link #acquire(int)}
+	 */
+	static void release(final ByteBuffer buffer) {
+		if (buffer.capacity() > buffers.get().capacity() && buffer.capacity() <= MAXIMUM_CAPACITY) buffers.set(buffer);
+	}
+}
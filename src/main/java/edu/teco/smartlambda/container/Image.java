@@ -6,16 +6,34 @@ package edu.teco.smartlambda.container;
 public interface Image {
 	
 	/**
-	 * Starts a container of an image.
+	 * Starts a container of an image without limiting its resources.
 	 *
 	 * @throws Exception on any virtualization engine specific exception
 	 */
-	public Container start() throws Exception;
+	public default Container start() throws Exception {
+		return this.start(ResourceLimits.UNLIMITED);
+	}
+	
+	/**
+	 * Starts a container of an image. Limits the virtualization engine is not able to enforce are ignored.
+	 *
+	 * @param limits the resources the container may use at most
+	 *
+	 * @throws Exception on any virtualization engine specific exception
+	 */
+	public Container start(final ResourceLimits limits) throws Exception;
 	
 	/**
 	 * @return a unique Id that may be used to reference the image
 	 */
 	public String getId();
 	
+	/**
+	 * @return true, if the image is known to the virtualization engine
+	 *
+	 * @throws Exception on any virtualization engine specific exception
+	 */
+	public boolean exists() throws Exception;
+	
 	public void delete() throws Exception;
 }
@@ -25,6 +25,15 @@ public interface ImageBuilder {
 	 */
 	public ImageBuilder setCommand(final String command);
 	
+	/**
+	 * Set the name of the image, which can be used as its id and as template of other images. Without a name, a unique name is generated.
+	 *
+	 * @param name image name
+	 *
+	 * @return this builder instance
+	 */
+	public ImageBuilder setName(final String name);
+	
 	/**
 	 * Set the template the image derives from
 	 *
@@ -1,6 +1,9 @@
 package edu.teco.smartlambda.container;
 
+import edu.teco.smartlambda.configuration.ConfigurationService;
 import edu.teco.smartlambda.container.docker.DockerImage;
+import edu.teco.smartlambda.container.inprocess.InProcessImage;
+import edu.teco.smartlambda.container.local.LocalImage;
 
 /**
  * A factory that creates the images that are used by the system. This is the central place to change the globally used container
@@ -8,6 +11,16 @@ import edu.teco.smartlambda.container.docker.DockerImage;
  */
 public final class ImageFactory {
 	
+	/**
+	 * The backend running containers with the docker daemon
+	 */
+	public static final String BACKEND_DOCKER = "docker";
+	
+	/**
+	 * The backend running containers as processes of the local host
+	 */
+	public static final String BACKEND_LOCAL = "local";
+	
 	/**
 	 * This is a static utility class that shall not be instantiated
 	 */
@@ -16,13 +29,35 @@ public final class ImageFactory {
 	}
 	
 	/**
-	 * Gets an existing image
+	 * Gets an existing image. The id tells the backend of the image, so images of all backends can be used regardless of the configured
+	 * backend.
 	 *
 	 * @param imageId the unique identifier that represents a previously created and saved image
 	 *
 	 * @return an {@link Image} instance representing a previously created image
 	 */
 	public static Image getImageById(final String imageId) {
+		if (imageId.startsWith(InProcessImage.ID_PREFIX)) return new InProcessImage(imageId);
+		if (imageId.startsWith(LocalImage.ID_PREFIX)) return new LocalImage(imageId);
 		return new DockerImage(imageId);
 	}
+	
+	/**
+	 * Gets an image of the configured backend by the name it was given by {@link ImageBuilder#setName(String)}
+	 *
+	 * @param name the name of the image
+	 *
+	 * @return an {@link Image} instance representing the image, which may not exist yet
+	 */
+	public static Image getImageByName(final String name) {
+		if (getBackend().equals(BACKEND_LOCAL)) return new LocalImage(LocalImage.ID_PREFIX + name);
+		return new DockerImage(name);
+	}
+	
+	/**
+	 * @return the configured backend, either {@link #BACKEND_DOCKER} or {@link #BACKEND_LOCAL}
+	 */
+	static String getBackend() {
+		return ConfigurationService.getInstance().getConfiguration().getString("container.backend", BACKEND_DOCKER);
+	}
 }
@@ -0,0 +1,67 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import lombok.Getter;
+import org.apache.commons.configuration2.Configuration;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The directory a single container shares with the host to exchange {@link edu.teco.smartlambda.shared.MappedPayload}s. Every container
+ * has its own directory below the configured payload root, which should be a tmpfs so the payloads never touch a disk. Parameters and
+ * return values of at least the threshold length are passed through the directory instead of the standard streams of the container.
+ */
+public class PayloadDirectory {
+	/**
+	 * The path the directory is mounted at inside of docker containers
+	 */
+	public static final String CONTAINER_PATH = "/payload";
+	
+	@Getter
+	private final Path path;
+	@Getter
+	private final int  threshold;
+	
+	/**
+	 * @param path      the directory
+	 * @param threshold the length in chars from which on payloads are mapped
+	 */
+	PayloadDirectory(final Path path, final int threshold) {
+		this.path = path;
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * Create the payload directory of a new container
+	 *
+	 * @return the created directory or an empty optional, if payloads are not mapped
+	 *
+	 * @throws IOException if the directory can't be created
+	 */
+	public static Optional<PayloadDirectory> create() throws IOException {
+		final Configuration configuration = ConfigurationService.getInstance().getConfiguration();
+		final int           threshold     = configuration.getInt("container.payload.threshold", 1024 * 1024);
+		if (threshold <= 0) return Optional.empty();
+		
+		final Path root = Paths.get(configuration.getString("container.payload.directory", "/dev/shm/smartlambda"));
+		return Optional.of(new PayloadDirectory(Files.createDirectories(root.resolve(UUID.randomUUID().toString())), threshold));
+	}
+	
+	/**
+	 * Delete the directory and all payloads left in it by an execution that was aborted
+	 */
+	public void delete() {
+		try {
+			FileUtils.deleteDirectory(this.path.toFile());
+		} catch (final IOException e) {
+			LoggerFactory.getLogger(PayloadDirectory.class).error("Failed to delete payload directory " + this.path, e);
+		}
+	}
+}
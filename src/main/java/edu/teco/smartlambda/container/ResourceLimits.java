@@ -0,0 +1,47 @@
+package edu.teco.smartlambda.container;
+
+import lombok.Data;
+
+/**
+ * The resources a {@link Container} may use at most. A limit of zero means the resource is not limited.
+ */
+@Data
+public class ResourceLimits {
+	/**
+	 * Limits that do not restrict a container at all
+	 */
+	public static final ResourceLimits UNLIMITED = new ResourceLimits(0, 0, 0, 0);
+	
+	/**
+	 * The share of the memory limit used for the heap of a JVM running in a container. The remainder is left for the memory the JVM
+	 * allocates outside of its heap, so the container is not killed before the JVM runs out of heap space.
+	 */
+	private static final double HEAP_RATIO = 0.75;
+	
+	/**
+	 * The maximum memory in megabytes
+	 */
+	private final int memory;
+	
+	/**
+	 * The relative weight of the container when the CPU time of the host is contended
+	 */
+	private final int cpuShares;
+	
+	/**
+	 * The maximum CPU usage in percent of a single CPU
+	 */
+	private final int cpuQuota;
+	
+	/**
+	 * The maximum number of processes and threads
+	 */
+	private final int pids;
+	
+	/**
+	 * @return the maximum heap size in megabytes of a JVM running within the memory limit or zero, if the memory is not limited
+	 */
+	public int getHeapSize() {
+		return (int) (this.memory * HEAP_RATIO);
+	}
+}
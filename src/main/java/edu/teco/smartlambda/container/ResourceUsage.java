@@ -0,0 +1,19 @@
+package edu.teco.smartlambda.container;
+
+import lombok.Data;
+
+/**
+ * The resources a {@link Container} has consumed since it was started
+ */
+@Data
+public class ResourceUsage {
+	/**
+	 * CPU time in milliseconds
+	 */
+	private final long cpuTime;
+	
+	/**
+	 * The highest memory usage in bytes
+	 */
+	private final long peakMemory;
+}
@@ -0,0 +1,99 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.container.docker.DockerContainer;
+import edu.teco.smartlambda.shared.ExecutionProtocol;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import edu.teco.smartlambda.shared.MappedPayload;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * A container whose lambda is executed by an execution service reading requests from the standard input of the container and writing
+ * responses to its standard output.
+ */
+public interface StreamContainer extends Container {
+	
+	/**
+	 * Execute the lambda of the container once. By default, the request is sent to the execution service using the
+	 * {@link ExecutionProtocol} and its response is awaited. The request frame is encoded into a pooled direct buffer and written with
+	 * {@link #writeStdIn(ByteBuffer)}. If the container has a {@link PayloadDirectory}, a parameter of at least its threshold length is
+	 * passed as a {@link MappedPayload} and only its name is written to the standard input.
+	 *
+	 * @param params the serialized lambda parameter
+	 *
+	 * @return the return value or the exception of the lambda
+	 *
+	 * @throws Exception on any container library specific exception
+	 */
+	@Override
+	public default ExecutionReturnValue execute(final String params) throws Exception {
+		final PayloadDirectory payloadDirectory = this.getPayloadDirectory().orElse(null);
+		final Path             directory        = payloadDirectory != null ? payloadDirectory.getPath() : null;
+		final boolean          mapped           = directory != null && params != null && params.length() >= payloadDirectory.getThreshold();
+		final String           payload          = mapped ? MappedPayload.write(directory, params) : params;
+		
+		final ByteBuffer frame = FrameBufferPool.acquire(ExecutionProtocol.getMaximumRequestLength(payload));
+		try {
+			ExecutionProtocol.encodeRequest(payload, mapped, frame);
+			this.writeStdIn(frame);
+		} finally {
+			FrameBufferPool.release(frame);
+		}
+		
+		// DO NOT CLOSE THIS STREAM! THE INTO-CONTAINER-SOCKET WILL DIE A HORRIBLE DEATH!
+		return ExecutionProtocol.readResponse(this.getStdOut(), directory);
+	}
+	
+	/**
+	 * Write the remaining content of a buffer into the standard input of the container. By default, the buffer is copied into the stream
+	 * returned by {@link #getStdIn()}, implementations having a channel to the container write the buffer into it directly.
+	 *
+	 * @param buffer the buffer to write
+	 *
+	 * @throws Exception on any container library specific exception
+	 */
+	public default void writeStdIn(final ByteBuffer buffer) throws Exception {
+		// DO NOT CLOSE THIS STREAM! THE INTO-CONTAINER-SOCKET WILL DIE A HORRIBLE DEATH!
+		final OutputStream        stdIn   = this.getStdIn();
+		final WritableByteChannel channel = Channels.newChannel(stdIn);
+		
+		while (buffer.hasRemaining()) channel.write(buffer);
+		stdIn.flush();
+	}
+	
+	/**
+	 * Get the standard input of a container. While this could technically also be part of {@link #attach(OutputStream, OutputStream)},
+	 * {@link DockerContainer} requires it to be specially handled, because the Docker implementation lacks a method to attach any
+	 * {@link InputStream}
+	 *
+	 * @return an input stream into the default input of the docker container
+	 *
+	 * @throws Exception on any container library specific exception
+	 */
+	public OutputStream getStdIn() throws Exception;
+	
+	/**
+	 * Attach standard output and standard error stream of the container to two output streams where one can read of.
+	 *
+	 * @param stdOut Standard out
+	 * @param stdErr Standard error
+	 *
+	 * @throws Exception on any container library specific exception
+	 */
+	public void attach(final OutputStream stdOut, final OutputStream stdErr) throws Exception;
+	
+	/**
+	 * Get the standard output of a container as a stream that can be read while the container keeps running. Output written to the
+	 * standard error is not part of this stream.
+	 *
+	 * @return an input stream of the default output of the container
+	 *
+	 * @throws Exception on any container library specific exception
+	 */
+	public InputStream getStdOut() throws Exception;
+}
@@ -0,0 +1,283 @@
+package edu.teco.smartlambda.container.docker;
+
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A connection attached to the standard streams of a docker container. The docker remote API hijacks the HTTP connection of an attach
+ * request and uses it as a raw bidirectional stream afterwards. This class performs the attach handshake on a socket channel it opened
+ * itself, so the channel can be written and read directly without digging it out of an HTTP client library. Unix domain sockets and plain
+ * TCP are supported.
+ * <p>
+ * Containers without a TTY multiplex their standard output and standard error into frames consisting of an eight byte header, holding
+ * the stream type and the payload length, followed by the payload. The frames are demultiplexed while reading.
+ * </p>
+ */
+final class DockerAttachChannel implements Closeable {
+	private static final int  BUFFER_SIZE  = 8192;
+	private static final int  HEADER_SIZE  = 8;
+	private static final byte STDOUT       = 1;
+	private static final byte STDERR       = 2;
+	private static final int  MAX_RESPONSE = 4096;
+	
+	private final ByteChannel  channel;
+	private final ByteBuffer   buffer         = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final OutputStream stdIn          = new ChannelOutputStream();
+	private final InputStream  stdOut         = new StdOutInputStream();
+	private       byte         frameType      = 0;
+	private       int          frameRemaining = 0;
+	
+	private DockerAttachChannel(final ByteChannel channel) {
+		this.channel = channel;
+		
+		// the buffer is always kept in read mode
+		this.buffer.flip();
+	}
+	
+	/**
+	 * Connect to the docker daemon and attach to the standard streams of a container
+	 *
+	 * @param uri         the URI of the docker daemon socket, either <code>unix://</code> or <code>tcp://</code>
+	 * @param containerId the id of the container to attach to
+	 *
+	 * @return a channel attached to the container
+	 *
+	 * @throws IOException if the connection or the handshake fails
+	 */
+	static DockerAttachChannel open(final String uri, final String containerId) throws IOException {
+		final DockerAttachChannel attachChannel = new DockerAttachChannel(connect(URI.create(uri)));
+		
+		try {
+			attachChannel.handshake(containerId);
+		} catch (final IOException e) {
+			attachChannel.close();
+			throw e;
+		}
+		
+		return attachChannel;
+	}
+	
+	/**
+	 * @param uri the URI of the docker daemon socket
+	 *
+	 * @return a connected blocking channel
+	 *
+	 * @throws IOException if the connection fails or the scheme is not supported
+	 */
+	private static ByteChannel connect(final URI uri) throws IOException {
+		switch (uri.getScheme()) {
+			case "unix":
+				return UnixSocketChannel.open(new UnixSocketAddress(new File(uri.getPath())));
+			case "tcp":
+			case "http":
+				return SocketChannel.open(new InetSocketAddress(uri.getHost(), uri.getPort() != -1 ? uri.getPort() : 2375));
+			default:
+				throw new IOException("Unsupported docker socket for attaching to containers: " + uri);
+		}
+	}
+	
+	/**
+	 * Send the attach request and consume the response header, leaving any stream content that followed it in the buffer
+	 *
+	 * @param containerId the id of the container to attach to
+	 *
+	 * @throws IOException if the daemon refuses the request
+	 */
+	private void handshake(final String containerId) throws IOException {
+		final String request = "POST /containers/" + containerId + "/attach?stream=1&stdin=1&stdout=1&stderr=1 HTTP/1.1\r\n" +
+				"Host: docker\r\n" + "Content-Type: application/vnd.docker.raw-stream\r\n" + "Connection: Upgrade\r\n" +
+				"Upgrade: tcp\r\n" + "\r\n";
+		this.writeFully(ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII)));
+		
+		final StringBuilder response = new StringBuilder();
+		while (response.length() < 4 || !response.substring(response.length() - 4).equals("\r\n\r\n")) {
+			if (response.length() > MAX_RESPONSE) throw new IOException("Malformed attach response from docker daemon");
+			if (!this.fill(1)) throw new IOException("Docker daemon closed the connection during the attach handshake");
+			
+			response.append((char) this.buffer.get());
+		}
+		
+		final String statusLine = response.substring(0, response.indexOf("\r\n"));
+		final String[] status = statusLine.split(" ");
+		if (status.length < 2 || !(status[1].equals("101") || status[1].equals("200")))
+			throw new IOException("Attaching to container " + containerId + " failed: " + statusLine);
+	}
+	
+	/**
+	 * @return a stream into the standard input of the container
+	 */
+	OutputStream getStdIn() {
+		return this.stdIn;
+	}
+	
+	/**
+	 * @return a stream of the standard output of the container, standard error output is dropped
+	 */
+	InputStream getStdOut() {
+		return this.stdOut;
+	}
+	
+	/**
+	 * Copy the standard output and standard error of the container into two streams until the container closes them
+	 *
+	 * @param stdOut the destination of standard output
+	 * @param stdErr the destination of standard error
+	 *
+	 * @throws IOException on stream fail
+	 */
+	void attach(final OutputStream stdOut, final OutputStream stdErr) throws IOException {
+		final byte[] chunk = new byte[BUFFER_SIZE];
+		
+		while (this.nextPayload()) {
+			final int length = Math.min(chunk.length, Math.min(this.frameRemaining, this.buffer.remaining()));
+			this.buffer.get(chunk, 0, length);
+			this.frameRemaining -= length;
+			
+			if (this.frameType == STDOUT) stdOut.write(chunk, 0, length);
+			else if (this.frameType == STDERR) stdErr.write(chunk, 0, length);
+		}
+		
+		stdOut.flush();
+		stdErr.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+	
+	/**
+	 * Read from the channel until the buffer holds at least the given number of bytes
+	 *
+	 * @param count the number of bytes required
+	 *
+	 * @return false, if the channel reached its end before
+	 *
+	 * @throws IOException on channel fail
+	 */
+	private boolean fill(final int count) throws IOException {
+		while (this.buffer.remaining() < count) {
+			this.buffer.compact();
+			final int read;
+			try {
+				read = this.channel.read(this.buffer);
+			} finally {
+				this.buffer.flip();
+			}
+			
+			if (read < 0) return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Advance to payload of the current or the next frame and make sure at least one byte of it is buffered
+	 *
+	 * @return false, if the channel reached its end
+	 *
+	 * @throws IOException on channel fail or a malformed frame
+	 */
+	private boolean nextPayload() throws IOException {
+		while (this.frameRemaining == 0) {
+			if (!this.fill(HEADER_SIZE)) return false;
+			
+			this.frameType = this.buffer.get();
+			this.buffer.position(this.buffer.position() + 3);
+			this.frameRemaining = this.buffer.getInt();
+			
+			if (this.frameRemaining < 0) throw new IOException("Malformed stream frame of length " + this.frameRemaining);
+		}
+		
+		return this.fill(1);
+	}
+	
+	/**
+	 * Write the whole content of a buffer into the channel
+	 *
+	 * @param source the buffer to write
+	 *
+	 * @throws IOException on channel fail
+	 */
+	void writeFully(final ByteBuffer source) throws IOException {
+		while (source.hasRemaining()) this.channel.write(source);
+	}
+	
+	/**
+	 * Writes directly into the channel, without any intermediate buffering
+	 */
+	private class ChannelOutputStream extends OutputStream {
+		@Override
+		public void write(final int b) throws IOException {
+			this.write(new byte[] {(byte) b}, 0, 1);
+		}
+		
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			DockerAttachChannel.this.writeFully(ByteBuffer.wrap(b, off, len));
+		}
+		
+		@Override
+		public void close() throws IOException {
+			DockerAttachChannel.this.close();
+		}
+	}
+	
+	/**
+	 * Reads the payload of standard output frames and skips all other frames
+	 */
+	private class StdOutInputStream extends InputStream {
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return this.read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+		}
+		
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) return 0;
+			
+			final DockerAttachChannel attachChannel = DockerAttachChannel.this;
+			while (attachChannel.nextPayload()) {
+				final int length = Math.min(attachChannel.frameRemaining, attachChannel.buffer.remaining());
+				
+				if (attachChannel.frameType != STDOUT) {
+					attachChannel.buffer.position(attachChannel.buffer.position() + length);
+					attachChannel.frameRemaining -= length;
+					continue;
+				}
+				
+				final int count = Math.min(len, length);
+				attachChannel.buffer.get(b, off, count);
+				attachChannel.frameRemaining -= count;
+				
+				return count;
+			}
+			
+			return -1;
+		}
+		
+		@Override
+		public int available() {
+			final DockerAttachChannel attachChannel = DockerAttachChannel.this;
+			return attachChannel.frameType == STDOUT ? Math.min(attachChannel.frameRemaining, attachChannel.buffer.remaining()) : 0;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			DockerAttachChannel.this.close();
+		}
+	}
+}
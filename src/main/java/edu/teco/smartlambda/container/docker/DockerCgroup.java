@@ -0,0 +1,107 @@
+package edu.teco.smartlambda.container.docker;
+
+import edu.teco.smartlambda.container.ResourceUsage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The resource accounting files of a docker container in the control group file system of the docker host. Reading these files is much
+ * cheaper than querying the statistics from the docker daemon, but requires the application to run on the docker host. Both the legacy
+ * (v1) and the unified (v2) hierarchy are supported, as well as the cgroupfs and systemd naming schemes of docker.
+ */
+final class DockerCgroup {
+	private final Path    cpuFile;
+	private final Path    memoryFile;
+	private final boolean unified;
+	
+	private DockerCgroup(final Path cpuFile, final Path memoryFile, final boolean unified) {
+		this.cpuFile = cpuFile;
+		this.memoryFile = memoryFile;
+		this.unified = unified;
+	}
+	
+	/**
+	 * Locate the control group of a container
+	 *
+	 * @param root        the mount point of the control group file system
+	 * @param containerId the full id of the container
+	 *
+	 * @return the control group of the container or an empty optional if it cannot be found
+	 */
+	static Optional<DockerCgroup> find(final Path root, final String containerId) {
+		if (Files.exists(root.resolve("cgroup.controllers"))) {
+			for (final Path group : candidates(root, containerId)) {
+				if (!Files.exists(group.resolve("cpu.stat"))) continue;
+				
+				final Path peak = group.resolve("memory.peak");
+				return Optional.of(new DockerCgroup(group.resolve("cpu.stat"), Files.exists(peak) ? peak : group.resolve("memory.current"),
+						true));
+			}
+		} else {
+			for (final Path group : candidates(root.resolve("cpuacct"), containerId)) {
+				if (!Files.exists(group.resolve("cpuacct.usage"))) continue;
+				
+				final Path memoryGroup = root.resolve("memory").resolve(root.resolve("cpuacct").relativize(group));
+				return Optional
+						.of(new DockerCgroup(group.resolve("cpuacct.usage"), memoryGroup.resolve("memory.max_usage_in_bytes"), false));
+			}
+		}
+		
+		return Optional.empty();
+	}
+	
+	/**
+	 * @param hierarchy   the root of a control group hierarchy
+	 * @param containerId the full id of the container
+	 *
+	 * @return the possible locations of the container's control group using the cgroupfs and the systemd driver of docker
+	 */
+	private static List<Path> candidates(final Path hierarchy, final String containerId) {
+		return Arrays.asList(hierarchy.resolve("docker").resolve(containerId),
+				hierarchy.resolve("system.slice").resolve("docker-" + containerId + ".scope"));
+	}
+	
+	/**
+	 * @return the resources consumed by the control group
+	 *
+	 * @throws IOException if the accounting files can't be read
+	 */
+	ResourceUsage read() throws IOException {
+		final long cpuTime;
+		if (this.unified) {
+			final long microseconds = Files.readAllLines(this.cpuFile, StandardCharsets.US_ASCII).stream()
+					.filter(line -> line.startsWith("usage_usec ")).findFirst().map(line -> Long.parseLong(line.substring(11).trim()))
+					.orElseThrow(() -> new IOException("No CPU usage in " + this.cpuFile));
+			cpuTime = TimeUnit.MICROSECONDS.toMillis(microseconds);
+		} else {
+			cpuTime = TimeUnit.NANOSECONDS.toMillis(readLong(this.cpuFile));
+		}
+		
+		// memory accounting may be disabled on the host, which doesn't render the CPU time invalid
+		final long peakMemory = Files.exists(this.memoryFile) ? readLong(this.memoryFile) : 0;
+		
+		return new ResourceUsage(cpuTime, peakMemory);
+	}
+	
+	/**
+	 * @param file a control group file containing a single number
+	 *
+	 * @return the number read from the file
+	 *
+	 * @throws IOException if the file can't be read or parsed
+	 */
+	private static long readLong(final Path file) throws IOException {
+		try {
+			return Long.parseLong(new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim());
+		} catch (final NumberFormatException e) {
+			throw new IOException("Malformed control group file " + file, e);
+		}
+	}
+}
@@ -2,19 +2,132 @@ package edu.teco.smartlambda.container.docker;
 
 import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import edu.teco.smartlambda.concurrent.ThreadManager;
 import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.apache.commons.configuration2.Configuration;
 
-final class DockerClientProvider {
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Provides the docker hosts shared by the whole application. Every configured host gets a client that keeps a bounded pool of persistent
+ * connections to its docker daemon, which all threads use. Every request is counted and timed in the {@link MetricsService}. The hosts are
+ * checked periodically, so containers are only placed on hosts that are healthy.
+ */
+public final class DockerClientProvider {
 	static final String DEFAULT_SOCKET = "unix:///var/run/docker.sock";
 	
-	private static final ThreadLocal<DockerClient> dockerClient = ThreadLocal.withInitial(() -> new DefaultDockerClient(
-			ConfigurationService.getInstance().getConfiguration().getString("docker.socket", DEFAULT_SOCKET)));
+	private static List<DockerHost>   hosts       = null;
+	private static ScheduledFuture<?> healthCheck = null;
 	
 	private DockerClientProvider() {
 		
 	}
 	
-	public static DockerClient get() {
-		return dockerClient.get();
+	/**
+	 * @return all configured docker hosts, which are connected on first use
+	 */
+	static synchronized List<DockerHost> getHosts() {
+		if (hosts == null) {
+			final Configuration configuration = ConfigurationService.getInstance().getConfiguration();
+			final int           slots         = configuration.getInt("docker.hostSlots", 32);
+			
+			hosts = Collections.unmodifiableList(
+					getUris().stream().map(uri -> new DockerHost(uri, instrument(create(uri)), slots)).collect(Collectors.toList()));
+			
+			final long             interval     = configuration.getLong("docker.healthCheckInterval", 10);
+			final List<DockerHost> checkedHosts = hosts;
+			healthCheck = ThreadManager.getScheduledExecutorService()
+					.scheduleWithFixedDelay(() -> checkedHosts.forEach(DockerHost::checkHealth), interval, interval, TimeUnit.SECONDS);
+		}
+		
+		return hosts;
+	}
+	
+	/**
+	 * @return the healthy docker host with the most free slots
+	 *
+	 * @throws DockerException if no docker host is healthy
+	 */
+	static DockerHost selectHost() throws DockerException {
+		return select(getHosts());
+	}
+	
+	/**
+	 * @param hosts the docker hosts to select from
+	 *
+	 * @return the healthy docker host with the most free slots
+	 *
+	 * @throws DockerException if no docker host is healthy
+	 */
+	static DockerHost select(final List<DockerHost> hosts) throws DockerException {
+		return hosts.stream().filter(DockerHost::isHealthy).max(Comparator.comparingInt(DockerHost::getFreeSlots))
+				.orElseThrow(() -> new DockerException("No healthy docker host available"));
+	}
+	
+	/**
+	 * Close the clients of all docker hosts and their connections. A later call to {@link #getHosts()} connects to the hosts again.
+	 */
+	public static synchronized void close() {
+		if (hosts == null) return;
+		
+		healthCheck.cancel(false);
+		hosts.forEach(host -> host.getClient().close());
+		hosts = null;
+	}
+	
+	/**
+	 * @return the configured URIs of the docker daemon sockets, either <code>unix://</code> or <code>tcp://</code>. If no hosts are
+	 * configured, the single socket of the previous configuration format is used.
+	 */
+	static List<String> getUris() {
+		final Configuration configuration = ConfigurationService.getInstance().getConfiguration();
+		final List<String>  uris          = configuration.getList(String.class, "docker.hosts.host");
+		
+		if (uris == null || uris.isEmpty()) return Collections.singletonList(configuration.getString("docker.socket", DEFAULT_SOCKET));
+		return uris;
+	}
+	
+	private static DockerClient create(final String uri) {
+		final Configuration configuration = ConfigurationService.getInstance().getConfiguration();
+		
+		return DefaultDockerClient.builder().uri(uri).connectionPoolSize(configuration.getInt("docker.connectionPoolSize", 32))
+				.connectTimeoutMillis(configuration.getLong("docker.connectTimeout", 5000))
+				.readTimeoutMillis(configuration.getLong("docker.readTimeout", 30000)).header("Connection", "keep-alive").build();
+	}
+	
+	/**
+	 * Wrap a docker client into a proxy that records the number, the failures and the total duration of all requests
+	 *
+	 * @param client the docker client to wrap
+	 *
+	 * @return the wrapped docker client
+	 */
+	private static DockerClient instrument(final DockerClient client) {
+		return (DockerClient) Proxy.newProxyInstance(DockerClient.class.getClassLoader(), new Class<?>[] {DockerClient.class},
+				(proxy, method, args) -> {
+					if (method.getDeclaringClass() == Object.class || method.getName().equals("close")) return method.invoke(client, args);
+					
+					final MetricsService metrics = MetricsService.getInstance();
+					final long           start   = System.nanoTime();
+					
+					metrics.increment("docker.requests");
+					try {
+						return method.invoke(client, args);
+					} catch (final InvocationTargetException e) {
+						metrics.increment("docker.failures");
+						throw e.getCause();
+					} finally {
+						metrics.add("docker.requestTime", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+					}
+				});
 	}
 }
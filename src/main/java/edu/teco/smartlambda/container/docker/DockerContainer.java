@@ -1,40 +1,131 @@
 package edu.teco.smartlambda.container.docker;
 
 import com.spotify.docker.client.DockerClient;
-import com.spotify.docker.client.LogStream;
 import com.spotify.docker.client.exceptions.DockerException;
-import edu.teco.smartlambda.container.Container;
+import com.spotify.docker.client.messages.ContainerStats;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.PayloadDirectory;
+import edu.teco.smartlambda.container.ResourceUsage;
+import edu.teco.smartlambda.container.StreamContainer;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
-import static edu.teco.smartlambda.container.docker.DockerClientProvider.DEFAULT_SOCKET;
-
-public class DockerContainer implements Container {
-	private final String id;
-	private LogStream stream = null;
+public class DockerContainer implements StreamContainer {
+	private static final String      DEFAULT_CGROUP_ROOT = "/sys/fs/cgroup";
+	private static final Set<String> aliveContainers     = ConcurrentHashMap.newKeySet();
+	
+	private final DockerHost          host;
+	private final String              id;
+	private final PayloadDirectory    payloadDirectory;
+	private       DockerAttachChannel channel        = null;
+	private       DockerCgroup        cgroup         = null;
+	private       boolean             cgroupResolved = false;
+	private       ResourceUsage       sampledUsage   = null;
+	
+	/**
+	 * @param host the docker host the container was created on
+	 * @param id   the id of the container
+	 */
+	DockerContainer(final DockerHost host, final String id) {
+		this(host, id, null);
+	}
 	
-	DockerContainer(final String id) {
+	/**
+	 * @param host             the docker host the container was created on
+	 * @param id               the id of the container
+	 * @param payloadDirectory the payload directory mounted into the container or null, if payloads are not mapped
+	 */
+	DockerContainer(final DockerHost host, final String id, final PayloadDirectory payloadDirectory) {
+		this.host = host;
 		this.id = id;
+		this.payloadDirectory = payloadDirectory;
+		aliveContainers.add(id);
 	}
 	
-	private void ensureAttached() throws DockerException, InterruptedException {
-		if (this.stream != null) return;
+	/**
+	 * @param id a container id
+	 *
+	 * @return true, if the container was created by this application and was not deleted yet
+	 */
+	static boolean isAlive(final String id) {
+		return aliveContainers.contains(id);
+	}
+	
+	private DockerAttachChannel ensureAttached() throws IOException {
+		if (this.channel == null) this.channel = DockerAttachChannel.open(this.host.getUri(), this.id);
 		
-		this.stream = DockerClientProvider.get()
-				.attachContainer(this.getId(), DockerClient.AttachParameter.STREAM, DockerClient.AttachParameter.STDIN,
-						DockerClient.AttachParameter.STDOUT, DockerClient.AttachParameter.STDERR);
+		return this.channel;
+	}
+	
+	/**
+	 * Execute the lambda of the container once and count the execution as in flight on the host of the container meanwhile
+	 *
+	 * @param params the serialized lambda parameter
+	 *
+	 * @return the return value or the exception of the lambda
+	 *
+	 * @throws Exception on any docker or communication exception
+	 */
+	@Override
+	public ExecutionReturnValue execute(final String params) throws Exception {
+		this.host.acquire();
+		try {
+			// the sampled resource usage is outdated as soon as the container executes again
+			this.sampledUsage = null;
+			return StreamContainer.super.execute(params);
+		} finally {
+			this.host.release();
+		}
+	}
+	
+	/**
+	 * @return true, if the host of the container failed its health check
+	 */
+	@Override
+	public boolean isDrained() {
+		return !this.host.isHealthy();
+	}
+	
+	@Override
+	public Optional<PayloadDirectory> getPayloadDirectory() {
+		return Optional.ofNullable(this.payloadDirectory);
+	}
+	
+	@Override
+	public OutputStream getStdIn() throws IOException {
+		return this.ensureAttached().getStdIn();
+	}
+	
+	/**
+	 * Write a buffer into the socket attached to the container without copying it first
+	 *
+	 * @param buffer the buffer to write
+	 *
+	 * @throws IOException on channel fail
+	 */
+	@Override
+	public void writeStdIn(final ByteBuffer buffer) throws IOException {
+		this.ensureAttached().writeFully(buffer);
 	}
 	
 	@Override
-	public OutputStream getStdIn() throws Exception {
-		this.ensureAttached();
-		return HttpHijackingWorkaround.getOutputStream(this.stream, DEFAULT_SOCKET);
+	public InputStream getStdOut() throws IOException {
+		return this.ensureAttached().getStdOut();
 	}
 	
 	@Override
-	public void attach(final OutputStream stdOut, final OutputStream stdErr) throws Exception {
-		this.ensureAttached();
-		this.stream.attach(stdOut, stdErr, true);
+	public void attach(final OutputStream stdOut, final OutputStream stdErr) throws IOException {
+		this.ensureAttached().attach(stdOut, stdErr);
 	}
 	
 	@Override
@@ -43,7 +134,51 @@ public class DockerContainer implements Container {
 	}
 	
 	@Override
-	public long getConsumedCPUTime() throws /*DockerException, */InterruptedException {
-		return 0;
+	public ResourceUsage getResourceUsage() throws DockerException, InterruptedException {
+		if (!this.cgroupResolved) {
+			final String root = ConfigurationService.getInstance().getConfiguration().getString("docker.cgroupRoot", DEFAULT_CGROUP_ROOT);
+			this.cgroup = DockerCgroup.find(Paths.get(root), this.id).orElse(null);
+			this.cgroupResolved = true;
+		}
+		
+		if (this.cgroup != null) {
+			try {
+				return this.cgroup.read();
+			} catch (final IOException e) {
+				LoggerFactory.getLogger(DockerContainer.class).error("Failed to read control group of container " + this.id, e);
+				this.cgroup = null;
+			}
+		}
+		
+		// the control group is not accessible if the docker daemon runs on a different host, so the statistics API is used. The daemon
+		// answers only after it took two samples, which takes seconds, so a sample is reused until the container executes again.
+		if (this.sampledUsage != null) return this.sampledUsage;
+		
+		final ContainerStats stats   = this.host.getClient().stats(this.id);
+		final Long           cpuTime = stats.cpuStats() != null ? stats.cpuStats().cpuUsage().totalUsage() : null;
+		final Long           memory  = stats.memoryStats() != null ?
+				(stats.memoryStats().maxUsage() != null ? stats.memoryStats().maxUsage() : stats.memoryStats().usage()) : null;
+		
+		this.sampledUsage = new ResourceUsage(cpuTime != null ? TimeUnit.NANOSECONDS.toMillis(cpuTime) : 0, memory != null ? memory : 0);
+		return this.sampledUsage;
+	}
+	
+	@Override
+	public void delete() throws DockerException, InterruptedException {
+		try {
+			if (this.channel != null) {
+				try {
+					this.channel.close();
+				} catch (final IOException e) {
+					LoggerFactory.getLogger(DockerContainer.class).error("Failed to close attach channel of container " + this.id, e);
+				}
+			}
+			
+			this.host.getClient().removeContainer(this.id, DockerClient.RemoveContainerParam.forceKill());
+		} finally {
+			// if the removal failed, the container is left to the reaper
+			aliveContainers.remove(this.id);
+			if (this.payloadDirectory != null) this.payloadDirectory.delete();
+		}
 	}
 }
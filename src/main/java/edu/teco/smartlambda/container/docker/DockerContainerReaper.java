@@ -0,0 +1,132 @@
+package edu.teco.smartlambda.container.docker;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.messages.Container;
+import edu.teco.smartlambda.concurrent.ThreadManager;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.apache.commons.configuration2.Configuration;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A singleton that periodically removes orphaned docker containers. A container is orphaned, if it carries the {@link
+ * DockerImage#CONTAINER_LABEL} but is not used by this application anymore, for example because it exited or because it was left
+ * behind by a previous run of the application. Orphans are removed in batches to limit the load on the docker daemon.
+ */
+public class DockerContainerReaper {
+	private static DockerContainerReaper instance;
+	
+	private final long gracePeriod;
+	private final int  batchSize;
+	
+	/**
+	 * This class is a singleton and therefore handles instantiation itself
+	 */
+	private DockerContainerReaper() {
+		final Configuration configuration = ConfigurationService.getInstance().getConfiguration();
+		
+		this.gracePeriod = configuration.getLong("container.reaper.gracePeriod", 60);
+		this.batchSize = Math.max(1, configuration.getInt("container.reaper.batchSize", 16));
+		
+		final long interval = configuration.getLong("container.reaper.interval", 60);
+		ThreadManager.getScheduledExecutorService().scheduleWithFixedDelay(this::reap, interval, interval, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * @return the singleton instance of this class
+	 */
+	public static synchronized DockerContainerReaper getInstance() {
+		if (instance == null) instance = new DockerContainerReaper();
+		return instance;
+	}
+	
+	/**
+	 * Find all orphaned containers on all healthy docker hosts and remove them
+	 */
+	void reap() {
+		MetricsService.getInstance().increment("container.reaper.runs");
+		
+		// requests to drained hosts would most likely fail, so their orphans are removed once they are healthy again
+		DockerClientProvider.getHosts().stream().filter(DockerHost::isHealthy).forEach(this::reap);
+	}
+	
+	/**
+	 * Find all orphaned containers on a docker host and remove them
+	 *
+	 * @param host the docker host
+	 */
+	private void reap(final DockerHost host) {
+		final MetricsService metrics = MetricsService.getInstance();
+		
+		final List<String> orphans;
+		try {
+			orphans = this.findOrphans(host);
+		} catch (final Exception e) {
+			metrics.increment("container.reaper.failures");
+			LoggerFactory.getLogger(DockerContainerReaper.class).error("Failed to list containers of " + host.getUri(), e);
+			return;
+		}
+		
+		metrics.add("container.reaper.orphans", orphans.size());
+		
+		for (final List<String> batch : Lists.partition(orphans, this.batchSize)) {
+			final List<ListenableFuture<Boolean>> removals = batch.stream()
+					.map(id -> ThreadManager.getExecutorService().submit(() -> this.remove(host, id))).collect(Collectors.toList());
+			
+			try {
+				// wait for the batch to complete before the next one is started
+				Futures.successfulAsList(removals).get();
+			} catch (final Exception e) {
+				LoggerFactory.getLogger(DockerContainerReaper.class).error("Interrupted while removing containers", e);
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * @param host the docker host
+	 *
+	 * @return the ids of all labelled containers on the host that were created before the grace period and are not used by this
+	 * application
+	 *
+	 * @throws Exception on any docker exception
+	 */
+	private List<String> findOrphans(final DockerHost host) throws Exception {
+		final long createdBefore = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) - this.gracePeriod;
+		
+		final List<Container> containers = host.getClient()
+				.listContainers(DockerClient.ListContainersParam.allContainers(),
+						DockerClient.ListContainersParam.withLabel(DockerImage.CONTAINER_LABEL));
+		
+		// containers that are just being created might not be known as alive yet, so only old containers are considered
+		return containers.stream().filter(container -> container.created() != null && container.created() < createdBefore)
+				.map(Container::id).filter(id -> !DockerContainer.isAlive(id)).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Forcefully remove a container
+	 *
+	 * @param host the docker host of the container
+	 * @param id   the id of the container
+	 *
+	 * @return true, if the container was removed
+	 */
+	private boolean remove(final DockerHost host, final String id) {
+		try {
+			host.getClient().removeContainer(id, DockerClient.RemoveContainerParam.forceKill());
+			MetricsService.getInstance().increment("container.reaper.removed");
+			return true;
+		} catch (final Exception e) {
+			MetricsService.getInstance().increment("container.reaper.failures");
+			LoggerFactory.getLogger(DockerContainerReaper.class).error("Failed to remove container " + id, e);
+			return false;
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package edu.teco.smartlambda.container.docker;
+
+import com.spotify.docker.client.DockerClient;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import lombok.Getter;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A docker daemon containers are placed on. The host counts the executions and container starts currently in flight on it, so new
+ * containers can be placed on the host with the most free slots. A host failing its health check is drained: no new containers are
+ * placed on it and its idle containers are discarded, while executions already running on it are allowed to finish.
+ */
+final class DockerHost {
+	@Getter
+	private final    String        uri;
+	@Getter
+	private final    DockerClient  client;
+	private final    int           slots;
+	private final    AtomicInteger inFlight = new AtomicInteger();
+	@Getter
+	private volatile boolean       healthy  = true;
+	
+	/**
+	 * @param uri    the URI of the docker daemon socket
+	 * @param client the client connected to the docker daemon
+	 * @param slots  the number of executions the host is meant to run concurrently
+	 */
+	DockerHost(final String uri, final DockerClient client, final int slots) {
+		this.uri = uri;
+		this.client = client;
+		this.slots = slots;
+	}
+	
+	/**
+	 * @return true, if the docker daemon is reached through a unix socket and thus runs on the same machine as this application
+	 */
+	boolean isLocal() {
+		return this.uri.startsWith("unix:");
+	}
+	
+	/**
+	 * @return the number of executions that can be placed on the host before it is fully loaded, which is negative if the host is
+	 * overloaded
+	 */
+	int getFreeSlots() {
+		return this.slots - this.inFlight.get();
+	}
+	
+	/**
+	 * Count an execution or a container start on this host. Every call must be followed by a call to {@link #release()}.
+	 */
+	void acquire() {
+		this.inFlight.incrementAndGet();
+	}
+	
+	/**
+	 * Count the end of an execution or a container start on this host
+	 */
+	void release() {
+		this.inFlight.decrementAndGet();
+	}
+	
+	/**
+	 * Ping the docker daemon and drain the host if it does not respond, or take it back into service if it responds again
+	 */
+	void checkHealth() {
+		boolean healthy;
+		try {
+			this.client.ping();
+			healthy = true;
+		} catch (final Exception e) {
+			if (this.healthy) LoggerFactory.getLogger(DockerHost.class).error("Docker host " + this.uri + " failed its health check", e);
+			healthy = false;
+		}
+		
+		if (healthy != this.healthy) {
+			MetricsService.getInstance().increment(healthy ? "docker.hosts.recovered" : "docker.hosts.drained");
+			if (healthy) LoggerFactory.getLogger(DockerHost.class).info("Docker host " + this.uri + " is healthy again");
+		}
+		
+		this.healthy = healthy;
+	}
+}
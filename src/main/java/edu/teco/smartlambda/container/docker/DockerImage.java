@@ -1,30 +1,216 @@
 package edu.teco.smartlambda.container.docker;
 
+import com.google.common.collect.ImmutableMap;
 import com.spotify.docker.client.DockerClient;
 import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.exceptions.ImageNotFoundException;
 import com.spotify.docker.client.messages.ContainerConfig;
 import com.spotify.docker.client.messages.ContainerCreation;
+import com.spotify.docker.client.messages.HostConfig;
 import edu.teco.smartlambda.container.Container;
 import edu.teco.smartlambda.container.Image;
+import edu.teco.smartlambda.container.PayloadDirectory;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.shared.GlobalOptions;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- *
+ * An image of the docker backend. Images are built on a single docker host and copied to all other hosts afterwards. A host that missed
+ * the copy, for example because it was drained at that time, receives the image from another host when a container of the image is
+ * started on it for the first time.
  */
 public class DockerImage implements Image {
-	private final String    dockerImageId;
+	/**
+	 * The label attached to every container started by this application
+	 */
+	static final String CONTAINER_LABEL = "edu.teco.smartlambda.container";
+	
+	/**
+	 * The period in microseconds the CPU quota of a container is enforced in
+	 */
+	private static final long CPU_PERIOD = 100000;
+	
+	private final String dockerImageId;
 	
 	public DockerImage(final String imageId) {
 		this.dockerImageId = imageId;
 	}
 	
+	/**
+	 * Start a container of the image on the healthy docker host with the most free slots
+	 *
+	 * @param limits the resources the container may use at most
+	 *
+	 * @return the started container
+	 *
+	 * @throws Exception on any docker exception or if no docker host is healthy
+	 */
 	@Override
-	public Container start() throws Exception {
-		final DockerClient client = DockerClientProvider.get();
-		final ContainerCreation container =
-				client.createContainer(ContainerConfig.builder().image(this.dockerImageId).attachStdin(true).openStdin(true).build());
-		client.startContainer(container.id());
+	public Container start(final ResourceLimits limits) throws Exception {
+		final DockerHost host = DockerClientProvider.selectHost();
+		
+		// the start is counted as in flight, so concurrent starts are spread across the hosts
+		host.acquire();
+		try {
+			return this.start(host, limits);
+		} finally {
+			host.release();
+		}
+	}
+	
+	private Container start(final DockerHost host, final ResourceLimits limits) throws Exception {
+		// payloads can only be shared through the file system with a docker daemon running on the same machine
+		final PayloadDirectory payloadDirectory = host.isLocal() ? PayloadDirectory.create().orElse(null) : null;
+		try {
+			return this.start(host, limits, payloadDirectory);
+		} catch (final Exception e) {
+			if (payloadDirectory != null) payloadDirectory.delete();
+			throw e;
+		}
+	}
+	
+	private Container start(final DockerHost host, final ResourceLimits limits, final PayloadDirectory payloadDirectory) throws Exception {
+		final DockerClient            client  = host.getClient();
+		final ContainerConfig.Builder builder = ContainerConfig.builder().image(this.dockerImageId).attachStdin(true).openStdin(true)
+				.labels(ImmutableMap.of(CONTAINER_LABEL, this.dockerImageId)).hostConfig(createHostConfig(limits, payloadDirectory));
+		
+		// the JVM does not know about the memory limit of its container, so its heap is sized explicitly
+		final List<String> env = new ArrayList<>();
+		if (limits.getHeapSize() > 0) env.add("JAVA_TOOL_OPTIONS=-Xmx" + limits.getHeapSize() + "m");
+		if (payloadDirectory != null) {
+			env.add(GlobalOptions.PAYLOAD_DIRECTORY_VARIABLE + "=" + PayloadDirectory.CONTAINER_PATH);
+			env.add(GlobalOptions.PAYLOAD_THRESHOLD_VARIABLE + "=" + payloadDirectory.getThreshold());
+		}
+		if (!env.isEmpty()) builder.env(env);
+		
+		ContainerCreation container;
+		try {
+			container = client.createContainer(builder.build());
+		} catch (final ImageNotFoundException e) {
+			this.copyTo(host);
+			container = client.createContainer(builder.build());
+		}
+		
+		// the container is known as alive before it is started, so the reaper won't remove it while it is starting up
+		final DockerContainer dockerContainer = new DockerContainer(host, container.id(), payloadDirectory);
+		try {
+			client.startContainer(container.id());
+		} catch (final Exception e) {
+			try {
+				dockerContainer.delete();
+			} catch (final Exception deletionException) {
+				e.addSuppressed(deletionException);
+			}
+			
+			throw e;
+		}
+		
+		return dockerContainer;
+	}
+	
+	/**
+	 * @param limits           the resources a container may use at most
+	 * @param payloadDirectory the payload directory to mount into the container or null, if payloads are not mapped
+	 *
+	 * @return the host configuration of a container enforcing the limits
+	 */
+	static HostConfig createHostConfig(final ResourceLimits limits, final PayloadDirectory payloadDirectory) {
+		final HostConfig.Builder builder = HostConfig.builder();
+		
+		if (payloadDirectory != null) builder.binds(payloadDirectory.getPath() + ":" + PayloadDirectory.CONTAINER_PATH);
+		
+		if (limits.getMemory() > 0) {
+			// the swap limit includes the memory, so setting both to the same value prevents the container from swapping
+			final long memory = limits.getMemory() * 1024L * 1024L;
+			builder.memory(memory).memorySwap(memory);
+		}
+		if (limits.getCpuShares() > 0) builder.cpuShares((long) limits.getCpuShares());
+		if (limits.getCpuQuota() > 0) builder.cpuPeriod(CPU_PERIOD).cpuQuota(CPU_PERIOD * limits.getCpuQuota() / 100);
+		if (limits.getPids() > 0) builder.pidsLimit(limits.getPids());
 		
-		return new DockerContainer(container.id());
+		return builder.build();
+	}
+	
+	/**
+	 * Copy the image from the host it was built on to all other healthy hosts. A failed copy is not fatal, as the image is copied again
+	 * when a container is started on the host.
+	 *
+	 * @param source the host holding the image
+	 */
+	void distribute(final DockerHost source) {
+		for (final DockerHost host : DockerClientProvider.getHosts()) {
+			if (host == source || !host.isHealthy()) continue;
+			
+			try {
+				copy(this.dockerImageId, source, host);
+			} catch (final Exception e) {
+				LoggerFactory.getLogger(DockerImage.class).error("Failed to copy image " + this.dockerImageId + " to " + host.getUri(), e);
+			}
+		}
+	}
+	
+	/**
+	 * Make sure the given host holds the image by copying it from another healthy host, if the host lacks it
+	 *
+	 * @param target the host that shall hold the image
+	 *
+	 * @throws Exception on any docker exception
+	 * @throws ImageNotFoundException if neither the host nor any other healthy host holds the image
+	 */
+	void ensureOn(final DockerHost target) throws Exception {
+		try {
+			target.getClient().inspectImage(this.dockerImageId);
+		} catch (final ImageNotFoundException e) {
+			this.copyTo(target);
+		}
+	}
+	
+	/**
+	 * Copy the image from any healthy host holding it to the given host
+	 *
+	 * @param target the host lacking the image
+	 *
+	 * @throws Exception on any docker exception
+	 * @throws ImageNotFoundException if no healthy host holds the image
+	 */
+	private void copyTo(final DockerHost target) throws Exception {
+		for (final DockerHost host : DockerClientProvider.getHosts()) {
+			if (host == target || !host.isHealthy()) continue;
+			
+			try {
+				copy(this.dockerImageId, host, target);
+				return;
+			} catch (final ImageNotFoundException ignored) {
+				// try the next host
+			}
+		}
+		
+		throw new ImageNotFoundException(this.dockerImageId);
+	}
+	
+	/**
+	 * Copy an image between two hosts by streaming it out of the source daemon into the target daemon. The id of the image is kept.
+	 *
+	 * @param imageId the id or name of the image
+	 * @param source  the host holding the image
+	 * @param target  the host to copy the image to
+	 *
+	 * @throws Exception on any docker exception
+	 */
+	private static void copy(final String imageId, final DockerHost source, final DockerHost target) throws Exception {
+		// saving an image that does not exist fails only while the stream is read, so its existence is checked first
+		source.getClient().inspectImage(imageId);
+		
+		try (final InputStream stream = source.getClient().save(imageId)) {
+			target.getClient().load(stream);
+		}
+		
+		MetricsService.getInstance().increment("docker.images.copied");
 	}
 	
 	@Override
@@ -32,8 +218,44 @@ public class DockerImage implements Image {
 		return this.dockerImageId;
 	}
 	
+	/**
+	 * @return true, if any healthy host holds the image, as the other hosts receive a copy on demand
+	 *
+	 * @throws DockerException on any docker exception
+	 * @throws InterruptedException if interrupted while waiting for a docker host
+	 */
+	@Override
+	public boolean exists() throws DockerException, InterruptedException {
+		for (final DockerHost host : DockerClientProvider.getHosts()) {
+			if (!host.isHealthy()) continue;
+			
+			try {
+				host.getClient().inspectImage(this.dockerImageId);
+				return true;
+			} catch (final ImageNotFoundException ignored) {
+				// the image might be held by the next host
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Remove the image from all healthy hosts holding it
+	 *
+	 * @throws DockerException on any docker exception
+	 * @throws InterruptedException if interrupted while waiting for a docker host
+	 */
 	@Override
 	public void delete() throws DockerException, InterruptedException {
-		DockerClientProvider.get().removeImage(this.dockerImageId, true, false);
+		for (final DockerHost host : DockerClientProvider.getHosts()) {
+			if (!host.isHealthy()) continue;
+			
+			try {
+				host.getClient().removeImage(this.dockerImageId, true, false);
+			} catch (final ImageNotFoundException ignored) {
+				// the image was never copied to this host
+			}
+		}
 	}
 }
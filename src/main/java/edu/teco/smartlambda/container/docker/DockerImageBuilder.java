@@ -1,10 +1,9 @@
 package edu.teco.smartlambda.container.docker;
 
-import com.spotify.docker.client.DefaultDockerClient;
 import com.spotify.docker.client.DockerClient;
-import com.spotify.docker.client.exceptions.DockerException;
-import edu.teco.smartlambda.configuration.ConfigurationService;
+import com.spotify.docker.client.exceptions.ImageNotFoundException;
 import edu.teco.smartlambda.container.ImageBuilder;
+import org.apache.commons.io.FileUtils;
 
 import java.io.DataOutputStream;
 import java.io.File;
@@ -19,12 +18,14 @@ import java.util.UUID;
 public class DockerImageBuilder implements ImageBuilder {
 	
 	private final String containerId;
+	private       String name;
 	private       String command;
 	private final File   tmpDirectory;
 	private       String template;
 	
 	public DockerImageBuilder() {
 		this.containerId = this.generateContainerId();
+		this.name = this.containerId;
 		
 		this.tmpDirectory = new File(System.getProperty("java.io.tmpdir"), this.containerId);
 		assert !this.tmpDirectory.exists() : "Temporary docker file directory already exists!";
@@ -34,26 +35,49 @@ public class DockerImageBuilder implements ImageBuilder {
 	}
 	
 	@Override
-	public DockerImage build() throws IOException, DockerException, InterruptedException {
+	public DockerImage build() throws Exception {
 		final File       dockerFile = new File(this.tmpDirectory, "Dockerfile");
 		final FileWriter writer     = new FileWriter(dockerFile);
 		
 		writer.write("FROM " + this.template + "\n");
-		writer.write("COPY . ~\n");
-		writer.write("WORKDIR ~\n");
-		writer.write("CMD " + this.command + "\n");
+		// the paths are absolute, so images deriving from other images of this builder share the same working directory
+		writer.write("COPY . /~/\n");
+		writer.write("WORKDIR /~\n");
+		if (this.command != null) writer.write("CMD " + this.command + "\n");
 		writer.flush();
 		writer.close();
 		
-		final DockerClient dockerClient = new DefaultDockerClient(
-				ConfigurationService.getInstance().getConfiguration().getString("docker.socket", DockerClientProvider.DEFAULT_SOCKET));
-		final String imageId =
-				dockerClient.build(this.tmpDirectory.getAbsoluteFile().toPath(), DockerClient.BuildParam.name(this.containerId));
+		// the image is built once and copied to the other hosts, so all hosts share the same image id
+		final DockerHost  host = DockerClientProvider.selectHost();
+		final DockerImage image;
+		try {
+			this.ensureTemplateOn(host);
+			image = new DockerImage(
+					host.getClient().build(this.tmpDirectory.getAbsoluteFile().toPath(), DockerClient.BuildParam.name(this.name)));
+		} finally {
+			FileUtils.deleteDirectory(this.tmpDirectory);
+		}
 		
-		//noinspection ResultOfMethodCallIgnored
-		this.tmpDirectory.delete();
+		image.distribute(host);
+		return image;
+	}
+	
+	/**
+	 * Make sure the template is present on the host the image is built on. Templates built by SmartLambda, like the base images of
+	 * runtimes, might only be held by the host they were built on and are copied from there.
+	 *
+	 * @param host the host to build the image on
+	 *
+	 * @throws Exception on any docker exception
+	 */
+	private void ensureTemplateOn(final DockerHost host) throws Exception {
+		if (this.template == null) return;
 		
-		return new DockerImage(imageId);
+		try {
+			new DockerImage(this.template).ensureOn(host);
+		} catch (final ImageNotFoundException ignored) {
+			// no host holds the template, so it is pulled from its registry by the build
+		}
 	}
 	
 	@Override
@@ -62,6 +86,12 @@ public class DockerImageBuilder implements ImageBuilder {
 		return this;
 	}
 	
+	@Override
+	public ImageBuilder setName(final String name) {
+		this.name = name;
+		return this;
+	}
+	
 	@Override
 	public ImageBuilder setTemplate(final String template) {
 		this.template = template;
@@ -0,0 +1,72 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import edu.teco.smartlambda.container.Container;
+import edu.teco.smartlambda.container.ResourceUsage;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A container executing a lambda directly on the thread of the execution, without any process or stream in between. It cannot be killed,
+ * so a timed out execution is only interrupted, which is why in-process lambdas are restricted to trusted users.
+ */
+public class InProcessContainer implements Container {
+	private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+	
+	private final String          id      = InProcessImage.ID_PREFIX + UUID.randomUUID().toString();
+	private final InProcessLambda lambda;
+	private final AtomicLong      cpuTime = new AtomicLong();
+	
+	/**
+	 * @param lambda the loaded lambda archive executed by this container
+	 */
+	InProcessContainer(final InProcessLambda lambda) {
+		this.lambda = lambda;
+	}
+	
+	@Override
+	public ExecutionReturnValue execute(final String params) {
+		final long cpuTimeBefore = getCurrentThreadCpuTime();
+		
+		try {
+			return this.lambda.execute(params);
+		} finally {
+			this.cpuTime.addAndGet(getCurrentThreadCpuTime() - cpuTimeBefore);
+		}
+	}
+	
+	@Override
+	public String getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Get the CPU time the executions of this container consumed on their threads. The memory of the server JVM is shared by all
+	 * lambdas, so the peak memory of an in-process container is unknown and always reported as zero.
+	 *
+	 * @return the resources consumed by the container
+	 */
+	@Override
+	public ResourceUsage getResourceUsage() {
+		return new ResourceUsage(TimeUnit.NANOSECONDS.toMillis(this.cpuTime.get()), 0);
+	}
+	
+	/**
+	 * The loaded lambda is shared by all containers of an image and only released with the image, so there is nothing to delete
+	 */
+	@Override
+	public void delete() {
+		// intentionally empty
+	}
+	
+	/**
+	 * @return the CPU time of the current thread in nanoseconds or zero, if the JVM does not measure the CPU time of threads
+	 */
+	private static long getCurrentThreadCpuTime() {
+		return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+	}
+}
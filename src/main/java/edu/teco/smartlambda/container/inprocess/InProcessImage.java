@@ -0,0 +1,100 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.Container;
+import edu.teco.smartlambda.container.Image;
+import edu.teco.smartlambda.container.ResourceLimits;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An image of a lambda that is executed inside the server JVM. The image is the lambda archive stored in the image directory. It is loaded
+ * when the first container of the image is started and stays loaded for all further containers, until the image is deleted.
+ */
+public class InProcessImage implements Image {
+	/**
+	 * The prefix of the ids of all in-process images and containers, which tells them apart from the ids of other container engines
+	 */
+	public static final String ID_PREFIX = "inprocess:";
+	
+	private static final Map<String, InProcessLambda> loadedLambdas = new ConcurrentHashMap<>();
+	
+	private final String id;
+	private final File   archive;
+	
+	/**
+	 * @param imageId the id of the image, which starts with {@link #ID_PREFIX}
+	 */
+	public InProcessImage(final String imageId) {
+		this(imageId, getDirectory());
+	}
+	
+	/**
+	 * @param imageId   the id of the image, which starts with {@link #ID_PREFIX}
+	 * @param directory the directory the archives of the images are stored in
+	 */
+	InProcessImage(final String imageId, final File directory) {
+		this.id = imageId;
+		this.archive = new File(directory, imageId.substring(ID_PREFIX.length()) + ".jar");
+	}
+	
+	/**
+	 * @return the directory the lambda archives of all in-process images are stored in
+	 */
+	static File getDirectory() {
+		return new File(ConfigurationService.getInstance().getConfiguration()
+				.getString("container.inprocess.directory", "/var/lib/smartlambda/inprocess"));
+	}
+	
+	/**
+	 * Start a container of the image. In-process containers share the JVM of the application, so none of the limits can be enforced.
+	 *
+	 * @param limits the resources the container may use at most, which are ignored
+	 *
+	 * @return a container executing the lambda of the image
+	 *
+	 * @throws Exception if the lambda archive can't be loaded
+	 */
+	@Override
+	public Container start(final ResourceLimits limits) throws Exception {
+		InProcessLambda lambda = loadedLambdas.get(this.id);
+		
+		if (lambda == null) {
+			synchronized (loadedLambdas) {
+				lambda = loadedLambdas.get(this.id);
+				
+				if (lambda == null) {
+					lambda = new InProcessLambda(this.archive);
+					loadedLambdas.put(this.id, lambda);
+				}
+			}
+		}
+		
+		return new InProcessContainer(lambda);
+	}
+	
+	@Override
+	public String getId() {
+		return this.id;
+	}
+	
+	@Override
+	public boolean exists() {
+		return this.archive.isFile();
+	}
+	
+	@Override
+	public void delete() throws IOException {
+		final InProcessLambda lambda;
+		synchronized (loadedLambdas) {
+			lambda = loadedLambdas.remove(this.id);
+		}
+		
+		if (lambda != null) lambda.close();
+		Files.deleteIfExists(this.archive.toPath());
+	}
+}
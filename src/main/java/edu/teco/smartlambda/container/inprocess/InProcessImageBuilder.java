@@ -0,0 +1,73 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import edu.teco.smartlambda.container.ImageBuilder;
+import edu.teco.smartlambda.shared.GlobalOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * A builder implementation for {@link InProcessImage}s. An in-process image consists of the lambda archive only, so the command and the
+ * template of the image are ignored and all files but the lambda archive are discarded.
+ */
+public class InProcessImageBuilder implements ImageBuilder {
+	
+	private final File   directory;
+	private       String name;
+	private       byte[] archive;
+	
+	public InProcessImageBuilder() {
+		this(InProcessImage.getDirectory());
+	}
+	
+	/**
+	 * @param directory the directory the archives of the images are stored in
+	 */
+	InProcessImageBuilder(final File directory) {
+		this.directory = directory;
+		this.name = UUID.randomUUID().toString();
+	}
+	
+	@Override
+	public InProcessImage build() throws IOException {
+		if (this.archive == null) throw new IllegalStateException("No lambda archive was stored in the image");
+		
+		Files.createDirectories(this.directory.toPath());
+		
+		// the archive is moved into place at once, so the image never exists with a partially written archive
+		final File temporaryFile = File.createTempFile(this.name, ".tmp", this.directory);
+		try {
+			Files.write(temporaryFile.toPath(), this.archive);
+			Files.move(temporaryFile.toPath(), new File(this.directory, this.name + ".jar").toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporaryFile.toPath());
+		}
+		
+		return new InProcessImage(InProcessImage.ID_PREFIX + this.name, this.directory);
+	}
+	
+	@Override
+	public ImageBuilder setCommand(final String command) {
+		return this;
+	}
+	
+	@Override
+	public ImageBuilder setName(final String name) {
+		this.name = name;
+		return this;
+	}
+	
+	@Override
+	public ImageBuilder setTemplate(final String template) {
+		return this;
+	}
+	
+	@Override
+	public ImageBuilder storeFile(final byte[] binary, final String name, final boolean executable) {
+		if (name.equals(GlobalOptions.JRE_8_BINARY_NAME)) this.archive = binary;
+		return this;
+	}
+}
@@ -0,0 +1,127 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import com.google.gson.Gson;
+import edu.teco.smartlambda.processor.LambdaFunctionProcessor;
+import edu.teco.smartlambda.processor.LambdaMetaData;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A lambda archive loaded into the server JVM. The archive gets a class loader of its own, which only shares the lambda API with the
+ * server, so neither can lambdas see the classes of the server or of other lambdas nor do libraries bundled with a lambda clash with the
+ * libraries of the server. The meta data is resolved once when the archive is loaded.
+ */
+class InProcessLambda {
+	/**
+	 * The package of the lambda API, which is the only package lambdas load from the server
+	 */
+	private static final String API_PACKAGE = "edu.teco.smartlambda.execution.";
+	
+	private final Gson           gson = new Gson();
+	private final URLClassLoader classLoader;
+	private final Class<?>       lambdaMainClass;
+	private final Class<?>       lambdaParameterClass;
+	private final Method         lambdaFunction;
+	
+	/**
+	 * Load a lambda archive and resolve its lambda function
+	 *
+	 * @param archive the lambda archive
+	 *
+	 * @throws IOException            if the archive or its meta data cannot be read
+	 * @throws ClassNotFoundException if a class named by the meta data is not part of the archive
+	 * @throws NoSuchMethodException  if the lambda function named by the meta data does not exist
+	 */
+	InProcessLambda(final File archive) throws IOException, ClassNotFoundException, NoSuchMethodException {
+		this.classLoader = new URLClassLoader(new URL[] {archive.toURI().toURL()}, new ApiClassLoader());
+		
+		try {
+			final URL metaDataFile = this.classLoader.findResource(LambdaFunctionProcessor.LAMBDA_META_DATA_FILE);
+			if (metaDataFile == null) throw new IOException("The lambda archive contains no meta data");
+			
+			final LambdaMetaData metaData;
+			try (InputStreamReader reader = new InputStreamReader(metaDataFile.openStream(), StandardCharsets.UTF_8)) {
+				metaData = this.gson.fromJson(reader, LambdaMetaData.class);
+			}
+			
+			this.lambdaMainClass = this.classLoader.loadClass(metaData.getLambdaClassName());
+			this.lambdaParameterClass =
+					metaData.isHasParameter() ? this.classLoader.loadClass(metaData.getLambdaParameterClassName()) : null;
+			this.lambdaFunction = this.lambdaParameterClass != null ?
+					this.lambdaMainClass.getDeclaredMethod(metaData.getLambdaMethodName(), this.lambdaParameterClass) :
+					this.lambdaMainClass.getDeclaredMethod(metaData.getLambdaMethodName());
+		} catch (IOException | ClassNotFoundException | NoSuchMethodException | RuntimeException e) {
+			this.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Execute the lambda function once on the calling thread
+	 *
+	 * @param jsonParameter the serialized lambda parameter
+	 *
+	 * @return the return value or the exception of the lambda function
+	 */
+	ExecutionReturnValue execute(final String jsonParameter) {
+		final Thread      thread             = Thread.currentThread();
+		final ClassLoader contextClassLoader = thread.getContextClassLoader();
+		
+		// libraries of the lambda may load classes and resources through the context class loader
+		thread.setContextClassLoader(this.classLoader);
+		try {
+			final Object lambda      = this.lambdaMainClass.getConstructor().newInstance();
+			final Object returnValue = this.lambdaParameterClass != null ?
+					this.lambdaFunction.invoke(lambda, this.gson.fromJson(jsonParameter, this.lambdaParameterClass)) :
+					this.lambdaFunction.invoke(lambda);
+			
+			return new ExecutionReturnValue(this.gson.toJson(returnValue), "");
+		} catch (final NoSuchMethodException e) {
+			return new ExecutionReturnValue(null, "No accessible default constructor in lambda class");
+		} catch (InstantiationException | IllegalAccessException e) {
+			return new ExecutionReturnValue(null, "Could not invoke lambda function: " + e.getMessage());
+		} catch (final InvocationTargetException e) {
+			return new ExecutionReturnValue(null, e.getCause());
+		} catch (final RuntimeException e) {
+			return new ExecutionReturnValue(null, e);
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+	
+	/**
+	 * Close the class loader of the archive. Executions still running keep working with the classes they already loaded.
+	 */
+	void close() {
+		try {
+			this.classLoader.close();
+		} catch (final IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	
+	/**
+	 * The parent of the lambda class loaders. It only knows the classes of the Java platform and the lambda API.
+	 */
+	private static class ApiClassLoader extends ClassLoader {
+		
+		private ApiClassLoader() {
+			super(ClassLoader.getSystemClassLoader().getParent());
+		}
+		
+		@Override
+		protected Class<?> findClass(final String name) throws ClassNotFoundException {
+			if (!name.startsWith(API_PACKAGE)) throw new ClassNotFoundException(name);
+			
+			return InProcessLambda.class.getClassLoader().loadClass(name);
+		}
+	}
+}
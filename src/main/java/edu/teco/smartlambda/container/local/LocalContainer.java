@@ -0,0 +1,114 @@
+package edu.teco.smartlambda.container.local;
+
+import edu.teco.smartlambda.container.PayloadDirectory;
+import edu.teco.smartlambda.container.ResourceUsage;
+import edu.teco.smartlambda.container.StreamContainer;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A container of the local process backend, which is a process of the local host. Its standard streams are the pipes of the process.
+ */
+public class LocalContainer implements StreamContainer {
+	private static final String PROC_ROOT = "/proc";
+	
+	private final String           id = LocalImage.ID_PREFIX + UUID.randomUUID().toString();
+	private final Process          process;
+	private final Long             pid;
+	private final PayloadDirectory payloadDirectory;
+	
+	/**
+	 * @param process          the process of the container
+	 * @param payloadDirectory the payload directory passed to the process or null, if payloads are not mapped
+	 */
+	LocalContainer(final Process process, final PayloadDirectory payloadDirectory) {
+		this.process = process;
+		this.pid = getPid(process).orElse(null);
+		this.payloadDirectory = payloadDirectory;
+	}
+	
+	@Override
+	public Optional<PayloadDirectory> getPayloadDirectory() {
+		return Optional.ofNullable(this.payloadDirectory);
+	}
+	
+	@Override
+	public OutputStream getStdIn() {
+		return this.process.getOutputStream();
+	}
+	
+	/**
+	 * Copy the standard output of the process until it terminates. The standard error of local containers is written to the log of the
+	 * application, so nothing is copied to the given standard error stream.
+	 *
+	 * @param stdOut Standard out
+	 * @param stdErr Standard error
+	 *
+	 * @throws IOException on stream fail
+	 */
+	@Override
+	public void attach(final OutputStream stdOut, final OutputStream stdErr) throws IOException {
+		IOUtils.copy(this.process.getInputStream(), stdOut);
+	}
+	
+	@Override
+	public InputStream getStdOut() {
+		return this.process.getInputStream();
+	}
+	
+	@Override
+	public String getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Read the resources consumed by the process from the proc file system. If the process id or the proc file system are not available,
+	 * no consumption is reported.
+	 *
+	 * @return the resources consumed by the container
+	 */
+	@Override
+	public ResourceUsage getResourceUsage() {
+		if (this.pid == null) return new ResourceUsage(0, 0);
+		
+		try {
+			return LocalProcessStat.read(Paths.get(PROC_ROOT).resolve(this.pid.toString()));
+		} catch (final IOException e) {
+			LoggerFactory.getLogger(LocalContainer.class).error("Failed to read the resource usage of container " + this.id, e);
+			return new ResourceUsage(0, 0);
+		}
+	}
+	
+	@Override
+	public void delete() {
+		this.process.destroyForcibly();
+		IOUtils.closeQuietly(this.process.getOutputStream());
+		IOUtils.closeQuietly(this.process.getInputStream());
+		if (this.payloadDirectory != null) this.payloadDirectory.delete();
+	}
+	
+	/**
+	 * Java 8 offers no API to obtain the id of a process, but the process implementation of unix systems holds it in a private field
+	 *
+	 * @param process a process
+	 *
+	 * @return the id of the process or an empty optional, if it cannot be determined
+	 */
+	private static Optional<Long> getPid(final Process process) {
+		try {
+			final Field field = process.getClass().getDeclaredField("pid");
+			field.setAccessible(true);
+			return Optional.of(((Number) field.get(process)).longValue());
+		} catch (NoSuchFieldException | IllegalAccessException | RuntimeException e) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package edu.teco.smartlambda.container.local;
+
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.Image;
+import edu.teco.smartlambda.container.PayloadDirectory;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.shared.GlobalOptions;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An image of the local process backend. The image is a directory on the local disk holding the files of the image and the command that
+ * is executed by its containers. Every container is a process of the local host running within the image directory.
+ */
+public class LocalImage implements Image {
+	/**
+	 * The prefix of the ids of all local images and containers, which tells them apart from the ids of other container engines
+	 */
+	public static final String ID_PREFIX = "local:";
+	
+	/**
+	 * The file of an image directory holding the command of the image
+	 */
+	static final String COMMAND_FILE = ".command";
+	
+	private final String  id;
+	private final File    directory;
+	private final boolean mapPayloads;
+	
+	/**
+	 * @param imageId the id of the image, which starts with {@link #ID_PREFIX}
+	 */
+	public LocalImage(final String imageId) {
+		this(imageId, getRootDirectory(), true);
+	}
+	
+	/**
+	 * @param imageId       the id of the image, which starts with {@link #ID_PREFIX}
+	 * @param rootDirectory the directory the image directories are stored in
+	 */
+	LocalImage(final String imageId, final File rootDirectory) {
+		this(imageId, rootDirectory, false);
+	}
+	
+	/**
+	 * @param imageId       the id of the image, which starts with {@link #ID_PREFIX}
+	 * @param rootDirectory the directory the image directories are stored in
+	 * @param mapPayloads   true, if containers of the image exchange large payloads through a {@link PayloadDirectory}
+	 */
+	LocalImage(final String imageId, final File rootDirectory, final boolean mapPayloads) {
+		this.id = imageId;
+		this.directory = new File(rootDirectory, getDirectoryName(imageId.substring(ID_PREFIX.length())));
+		this.mapPayloads = mapPayloads;
+	}
+	
+	/**
+	 * @return the directory the directories of all local images are stored in
+	 */
+	static File getRootDirectory() {
+		return new File(ConfigurationService.getInstance().getConfiguration()
+				.getString("container.local.directory", "/var/lib/smartlambda/local"));
+	}
+	
+	/**
+	 * @param name the name of an image
+	 *
+	 * @return the name of the directory of the image, in which all characters that are not safe in file names are replaced
+	 */
+	static String getDirectoryName(final String name) {
+		return name.replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+	
+	/**
+	 * @return the directory of the image
+	 */
+	File getDirectory() {
+		return this.directory;
+	}
+	
+	/**
+	 * Start a container of the image. The local backend can't restrict the CPU usage or the number of processes of a container, so only
+	 * the heap of containers running a JVM is sized to match the memory limit.
+	 *
+	 * @param limits the resources the container may use at most
+	 *
+	 * @return a container running the command of the image
+	 *
+	 * @throws IOException if the image has no command or the process can't be started
+	 */
+	@Override
+	public LocalContainer start(final ResourceLimits limits) throws IOException {
+		final File commandFile = new File(this.directory, COMMAND_FILE);
+		if (!commandFile.isFile()) throw new IOException("Image " + this.id + " has no command");
+		
+		final String       commandLine = new String(Files.readAllBytes(commandFile.toPath()), StandardCharsets.UTF_8).trim();
+		final List<String> command     = new ArrayList<>(Arrays.asList(commandLine.split("\\s+")));
+		
+		// containers are executed on the JVM of the host, as there is no Java installation inside of the image
+		if (command.get(0).equals("java")) command.set(0, new File(System.getProperty("java.home"), "bin/java").getPath());
+		
+		// the standard error is not read by anyone, so it is written to the log of the application instead of filling up a pipe
+		final ProcessBuilder builder = new ProcessBuilder(command).directory(this.directory).redirectError(ProcessBuilder.Redirect.INHERIT);
+		if (limits.getHeapSize() > 0) builder.environment().put("JAVA_TOOL_OPTIONS", "-Xmx" + limits.getHeapSize() + "m");
+		
+		// the process shares the file system of the host, so the payload directory is passed by its path on the host
+		final PayloadDirectory payloadDirectory = this.mapPayloads ? PayloadDirectory.create().orElse(null) : null;
+		if (payloadDirectory != null) {
+			builder.environment().put(GlobalOptions.PAYLOAD_DIRECTORY_VARIABLE, payloadDirectory.getPath().toAbsolutePath().toString());
+			builder.environment().put(GlobalOptions.PAYLOAD_THRESHOLD_VARIABLE, Integer.toString(payloadDirectory.getThreshold()));
+		}
+		
+		try {
+			return new LocalContainer(builder.start(), payloadDirectory);
+		} catch (final IOException e) {
+			if (payloadDirectory != null) payloadDirectory.delete();
+			throw e;
+		}
+	}
+	
+	@Override
+	public String getId() {
+		return this.id;
+	}
+	
+	@Override
+	public boolean exists() {
+		return this.directory.isDirectory();
+	}
+	
+	@Override
+	public void delete() throws IOException {
+		FileUtils.deleteDirectory(this.directory);
+	}
+}
@@ -0,0 +1,96 @@
+package edu.teco.smartlambda.container.local;
+
+import edu.teco.smartlambda.container.ImageBuilder;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A builder implementation for {@link LocalImage}s. The image directory is assembled in a staging directory and moved into place once it
+ * is complete. A template is only used if it is another local image, all other templates are ignored, as local containers run on the host
+ * environment.
+ */
+public class LocalImageBuilder implements ImageBuilder {
+	
+	private final File                 rootDirectory;
+	private final Map<String, byte[]>  files       = new LinkedHashMap<>();
+	private final Map<String, Boolean> executables = new LinkedHashMap<>();
+	private       String               name;
+	private       String               command;
+	private       String               template;
+	
+	public LocalImageBuilder() {
+		this(LocalImage.getRootDirectory());
+	}
+	
+	/**
+	 * @param rootDirectory the directory the image directories are stored in
+	 */
+	LocalImageBuilder(final File rootDirectory) {
+		this.rootDirectory = rootDirectory;
+		this.name = UUID.randomUUID().toString();
+	}
+	
+	@Override
+	public LocalImage build() throws IOException {
+		final LocalImage image   = new LocalImage(LocalImage.ID_PREFIX + this.name, this.rootDirectory);
+		final File       staging = new File(this.rootDirectory, ".build-" + UUID.randomUUID().toString());
+		
+		Files.createDirectories(staging.toPath());
+		try {
+			if (this.template != null && this.template.startsWith(LocalImage.ID_PREFIX))
+				FileUtils.copyDirectory(new LocalImage(this.template, this.rootDirectory).getDirectory(), staging);
+			
+			for (final Map.Entry<String, byte[]> file : this.files.entrySet()) {
+				final File target = new File(staging, file.getKey());
+				Files.write(target.toPath(), file.getValue());
+				
+				//noinspection ResultOfMethodCallIgnored
+				target.setExecutable(this.executables.get(file.getKey()));
+			}
+			
+			if (this.command != null)
+				Files.write(new File(staging, LocalImage.COMMAND_FILE).toPath(), this.command.getBytes(StandardCharsets.UTF_8));
+			
+			// an image of the same name is replaced, just like docker moves the name to the new image
+			image.delete();
+			Files.move(staging.toPath(), image.getDirectory().toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			FileUtils.deleteDirectory(staging);
+		}
+		
+		return image;
+	}
+	
+	@Override
+	public ImageBuilder setCommand(final String command) {
+		this.command = command;
+		return this;
+	}
+	
+	@Override
+	public ImageBuilder setName(final String name) {
+		this.name = name;
+		return this;
+	}
+	
+	@Override
+	public ImageBuilder setTemplate(final String template) {
+		this.template = template;
+		return this;
+	}
+	
+	@Override
+	public ImageBuilder storeFile(final byte[] binary, final String name, final boolean executable) {
+		this.files.put(name, binary);
+		this.executables.put(name, executable);
+		return this;
+	}
+}
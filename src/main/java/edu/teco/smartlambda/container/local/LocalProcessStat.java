@@ -0,0 +1,55 @@
+package edu.teco.smartlambda.container.local;
+
+import edu.teco.smartlambda.container.ResourceUsage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The accounting files of a process in the proc file system of Linux
+ */
+final class LocalProcessStat {
+	/**
+	 * The clock ticks per second the CPU times in the stat file are counted in, which is 100 on all common Linux platforms
+	 */
+	private static final long CLOCK_TICKS_PER_SECOND = 100;
+	
+	/**
+	 * This is a utility class and shall not be instantiated
+	 */
+	private LocalProcessStat() {
+		// intentionally empty
+	}
+	
+	/**
+	 * @param processDirectory the directory of the process in the proc file system
+	 *
+	 * @return the resources consumed by the process
+	 *
+	 * @throws IOException if the accounting files can't be read or parsed
+	 */
+	static ResourceUsage read(final Path processDirectory) throws IOException {
+		// the command name in parentheses may contain spaces, so the fields are counted from its end
+		final String   stat   = new String(Files.readAllBytes(processDirectory.resolve("stat")), StandardCharsets.US_ASCII);
+		final int      end    = stat.lastIndexOf(')');
+		final String[] fields = stat.substring(end + 1).trim().split("\\s+");
+		
+		// the user and system time are the 14th and 15th field of the file, the 12th and 13th after the command name
+		final long cpuTime;
+		try {
+			if (end < 0 || fields.length < 13) throw new IOException("Malformed stat file in " + processDirectory);
+			cpuTime = (Long.parseLong(fields[11]) + Long.parseLong(fields[12])) * 1000 / CLOCK_TICKS_PER_SECOND;
+		} catch (final NumberFormatException e) {
+			throw new IOException("Malformed stat file in " + processDirectory, e);
+		}
+		
+		// the high water mark of the resident set is given in kilobytes
+		final long peakMemory = Files.readAllLines(processDirectory.resolve("status"), StandardCharsets.US_ASCII).stream()
+				.filter(line -> line.startsWith("VmHWM:")).findFirst()
+				.map(line -> Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024).orElse(0L);
+		
+		return new ResourceUsage(cpuTime, peakMemory);
+	}
+}
@@ -0,0 +1,175 @@
+package edu.teco.smartlambda.invocation;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.entities.Key;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.lambda.LambdaFacade;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.query.Query;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import java.util.Calendar;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * An asynchronous execution of a lambda, which is persisted until the {@link InvocationDispatcher} executed it, so it survives restarts
+ * of the application. The result of the execution is kept for the configured retention time after it finished.
+ */
+@Entity
+@Table(name = "Invocation")
+public class Invocation {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Getter
+	private int               id;
+	@Getter
+	@Setter
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "lambda")
+	private Lambda            lambda;
+	@Getter
+	@Setter
+	@ManyToOne(fetch = FetchType.EAGER)
+	@JoinColumn(name = "key")
+	private Key               key;
+	@Getter
+	@Setter
+	private String            parameters;
+	@Getter
+	@Setter
+	@Enumerated(EnumType.STRING)
+	private Status            status   = Status.QUEUED;
+	@Getter
+	@Setter
+	@Enumerated(EnumType.STRING)
+	private ExecutionPriority priority = ExecutionPriority.ASYNC;
+	@Getter
+	private String            result;
+	@Getter
+	private String            error;
+	@Getter
+	private Calendar          created  = Calendar.getInstance();
+	@Getter
+	private Calendar          finished;
+	@Getter
+	@Setter
+	private Calendar          lock;
+	
+	/**
+	 * Queue an asynchronous execution of a lambda
+	 *
+	 * @param lambda     the lambda to execute
+	 * @param key        the key the lambda is executed with
+	 * @param parameters the parameters of the execution
+	 * @param priority   the priority class of the execution
+	 *
+	 * @return the queued invocation
+	 *
+	 * @throws InvocationQueueFullException if the lambda already has as many queued invocations as it may have
+	 */
+	public static Invocation enqueue(final Lambda lambda, final Key key, final String parameters, final ExecutionPriority priority) {
+		final long maximumQueued =
+				ConfigurationService.getInstance().getConfiguration().getLong("invocation.maximumQueuedPerLambda", 1000);
+		
+		final Query<Long> query = Application.getInstance().getSessionFactory().getCurrentSession().createQuery(
+				"SELECT COUNT(i) FROM edu.teco.smartlambda.invocation.Invocation i WHERE i.lambda = :lambda AND i.status = :status",
+				Long.class);
+		query.setParameter("lambda", lambda);
+		query.setParameter("status", Status.QUEUED);
+		if (query.getSingleResult() >= maximumQueued) throw new InvocationQueueFullException(lambda.getName());
+		
+		final Invocation invocation = new Invocation();
+		invocation.setLambda(lambda);
+		invocation.setKey(key);
+		invocation.setParameters(parameters);
+		invocation.setPriority(priority);
+		invocation.save();
+		
+		return invocation;
+	}
+	
+	/**
+	 * Executes the lambda with the key and the priority of the invocation
+	 *
+	 * @return future of {@link ExecutionResult}
+	 */
+	ListenableFuture<ExecutionResult> execute() {
+		AuthenticationService.getInstance().authenticate(this.getKey());
+		ExecutionPriority.setCurrent(this.getPriority());
+		return LambdaFacade.getInstance().getFactory().decorate(this.getLambda()).executeAsync(this.getParameters());
+	}
+	
+	/**
+	 * Store the outcome of the execution of the invocation
+	 *
+	 * @param future the completed future of the execution
+	 */
+	void finish(final Future<ExecutionResult> future) {
+		try {
+			final ExecutionReturnValue returnValue = future.get().getExecutionReturnValue();
+			
+			if (returnValue.isException()) {
+				this.fail(returnValue.getException().get());
+				return;
+			}
+			
+			this.status = Status.SUCCEEDED;
+			this.result = returnValue.getReturnValue().orElse(null);
+			this.finish();
+		} catch (final CancellationException e) {
+			// futures of executions are only cancelled if they time out
+			this.status = Status.TIMED_OUT;
+			this.finish();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.fail(e.toString());
+		} catch (final ExecutionException e) {
+			this.fail(e.getCause().toString());
+		}
+	}
+	
+	/**
+	 * Mark the invocation as failed
+	 *
+	 * @param error a description of the failure
+	 */
+	void fail(final String error) {
+		this.status = Status.FAILED;
+		this.error = error;
+		this.finish();
+	}
+	
+	private void finish() {
+		this.finished = Calendar.getInstance();
+		this.lock = null;
+	}
+	
+	/**
+	 * Saves and updates the invocation in the database
+	 */
+	public void save() {
+		Application.getInstance().getSessionFactory().getCurrentSession().saveOrUpdate(this);
+	}
+	
+	public enum Status {
+		QUEUED, RUNNING, SUCCEEDED, FAILED, TIMED_OUT
+	}
+}
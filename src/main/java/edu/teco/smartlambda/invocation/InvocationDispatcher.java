@@ -0,0 +1,194 @@
+package edu.teco.smartlambda.invocation;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.concurrent.ExecutionRejectedException;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.configuration2.Configuration;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.LockModeType;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the queue of {@link Invocation}s at a controlled rate. At most the configured number of invocations are in flight at once and
+ * at most the configured number of invocations are dispatched per second, so a burst of invocations is spread over time instead of
+ * being rejected by the {@link edu.teco.smartlambda.concurrent.ExecutionScheduler}. Invocations that were running when the application
+ * stopped are dispatched again once their lock expired, so every invocation is executed at least once.
+ */
+public class InvocationDispatcher {
+	private static final int LOCK_REFRESH_MINUTES   = 1;
+	private static final int LOCK_TOLERANCE_MINUTES = 5;
+	private static final int CLEANUP_INTERVAL       = 60;
+	
+	private static InvocationDispatcher instance;
+	@Getter
+	@Setter
+	private volatile boolean running = true;
+	
+	public static synchronized InvocationDispatcher getInstance() {
+		if (instance == null) instance = new InvocationDispatcher();
+		return instance;
+	}
+	
+	private InvocationDispatcher() {}
+	
+	/**
+	 * Dispatches queued invocations until stopped and stores the results of finished invocations
+	 *
+	 * @return nothing
+	 */
+	public Void run() {
+		final Configuration configuration   = ConfigurationService.getInstance().getConfiguration();
+		final int           maximumInFlight = configuration.getInt("invocation.maximumInFlight", 32);
+		final double        rate            = configuration.getDouble("invocation.rate", 50);
+		final long          pollInterval    = configuration.getLong("invocation.pollInterval", 100);
+		final long          retention       = configuration.getLong("invocation.retention", 24 * 60 * 60);
+		
+		final Map<Invocation, ListenableFuture<ExecutionResult>> futures     = new HashMap<>();
+		double                                                   allowance   = 0;
+		long                                                     lastPoll    = System.nanoTime();
+		long                                                     lastCleanup = 0;
+		
+		while (this.running) {
+			final Session session = Application.getInstance().getSessionFactory().getCurrentSession();
+			
+			// invocations may be dispatched at the configured rate, unused allowance accumulates for at most a second
+			final long now = System.nanoTime();
+			allowance = Math.min(Math.max(rate, 1), allowance + rate * (now - lastPoll) / TimeUnit.SECONDS.toNanos(1));
+			lastPoll = now;
+			
+			try {
+				session.beginTransaction();
+				
+				this.collect(session, futures);
+				
+				final int capacity = (int) Math.min(maximumInFlight - futures.size(), Math.floor(allowance));
+				if (capacity > 0) allowance -= this.dispatch(session, futures, capacity);
+				
+				if (now - lastCleanup >= TimeUnit.SECONDS.toNanos(CLEANUP_INTERVAL)) {
+					this.cleanup(session, retention);
+					lastCleanup = now;
+				}
+				
+				session.getTransaction().commit();
+			} catch (final RuntimeException e) {
+				LoggerFactory.getLogger(InvocationDispatcher.class).error("Failed to dispatch invocations", e);
+				if (session.getTransaction() != null && session.getTransaction().isActive()) session.getTransaction().rollback();
+			}
+			
+			try {
+				Thread.sleep(pollInterval);
+			} catch (final InterruptedException ignored) {
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Store the results of finished invocations and refresh the locks of running invocations
+	 *
+	 * @param session the session of the current transaction
+	 * @param futures the invocations in flight
+	 */
+	private void collect(final Session session, final Map<Invocation, ListenableFuture<ExecutionResult>> futures) {
+		final Calendar refresh = Calendar.getInstance();
+		refresh.add(Calendar.MINUTE, -LOCK_REFRESH_MINUTES);
+		
+		for (final Iterator<Map.Entry<Invocation, ListenableFuture<ExecutionResult>>> iterator = futures.entrySet().iterator();
+		     iterator.hasNext(); ) {
+			final Map.Entry<Invocation, ListenableFuture<ExecutionResult>> entry      = iterator.next();
+			final Invocation                                               invocation = entry.getKey();
+			
+			if (entry.getValue().isDone()) {
+				invocation.finish(entry.getValue());
+				iterator.remove();
+			} else if (invocation.getLock() == null || invocation.getLock().before(refresh)) {
+				invocation.setLock(Calendar.getInstance());
+			} else {
+				continue;
+			}
+			
+			session.update(invocation);
+		}
+	}
+	
+	/**
+	 * Dispatch the oldest queued invocations of the highest priority classes
+	 *
+	 * @param session  the session of the current transaction
+	 * @param futures  the invocations in flight, which the dispatched invocations are added to
+	 * @param capacity the maximum number of invocations to dispatch
+	 *
+	 * @return the number of dispatched invocations
+	 */
+	private int dispatch(final Session session, final Map<Invocation, ListenableFuture<ExecutionResult>> futures, final int capacity) {
+		final Calendar lockTolerance = Calendar.getInstance();
+		lockTolerance.add(Calendar.MINUTE, -LOCK_TOLERANCE_MINUTES);
+		
+		// the priority column is an enum in the order of the priority classes, so ordering by it dispatches higher classes first
+		final Query<Invocation> query = session.createQuery("SELECT i FROM edu.teco.smartlambda.invocation.Invocation i WHERE " +
+				"i.status = :queued OR (i.status = :running AND i.lock <= :lockTolerance) ORDER BY i.priority, i.id", Invocation.class);
+		query.setParameter("queued", Invocation.Status.QUEUED);
+		query.setParameter("running", Invocation.Status.RUNNING);
+		query.setParameter("lockTolerance", lockTolerance);
+		query.setMaxResults(capacity);
+		query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+		
+		// the session returns the same instance for every invocation of a lambda, so rejected lambdas are tracked by identity
+		final Set<Lambda> rejected   = new HashSet<>();
+		int               dispatched = 0;
+		for (final Invocation invocation : query.getResultList()) {
+			if (rejected.contains(invocation.getLambda())) continue;
+			
+			try {
+				final ListenableFuture<ExecutionResult> future = invocation.execute();
+				
+				invocation.setStatus(Invocation.Status.RUNNING);
+				invocation.setLock(Calendar.getInstance());
+				futures.put(invocation, future);
+				dispatched++;
+			} catch (final ExecutionRejectedException e) {
+				// the invocation stays queued and is retried as soon as the execution scheduler accepts executions again. If only the
+				// lambda of the invocation exceeds its limit, the invocations of other lambdas are still dispatched.
+				if (e.isOverloaded()) break;
+				
+				rejected.add(invocation.getLambda());
+				continue;
+			} catch (final RuntimeException e) {
+				// the key of the invocation may have lost its permissions or the lambda may have lost its binary since it was queued
+				invocation.fail(e.toString());
+			}
+			
+			session.update(invocation);
+		}
+		
+		return dispatched;
+	}
+	
+	/**
+	 * Delete invocations that finished before the retention time
+	 *
+	 * @param session   the session of the current transaction
+	 * @param retention the time in seconds finished invocations are kept
+	 */
+	private void cleanup(final Session session, final long retention) {
+		final Calendar threshold = Calendar.getInstance();
+		threshold.add(Calendar.SECOND, (int) -retention);
+		
+		session.createQuery("DELETE FROM edu.teco.smartlambda.invocation.Invocation i WHERE i.finished < :threshold")
+				.setParameter("threshold", threshold).executeUpdate();
+	}
+}
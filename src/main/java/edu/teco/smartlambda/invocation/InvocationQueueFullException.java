@@ -0,0 +1,10 @@
+package edu.teco.smartlambda.invocation;
+
+/**
+ * Thrown if a lambda already has as many queued invocations as it may have
+ */
+public class InvocationQueueFullException extends RuntimeException {
+	public InvocationQueueFullException(final String name) {
+		super("Too many queued invocations of lambda with name \"" + name + "\"");
+	}
+}
@@ -2,6 +2,8 @@ package edu.teco.smartlambda.lambda;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.invocation.Invocation;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
@@ -19,6 +21,33 @@ public abstract class AbstractLambda {
 	
 	public abstract ListenableFuture<ExecutionResult> executeAsync(final String params);
 	
+	/**
+	 * Execute the lambda synchronously once for every given parameter set. The executions run one after another in the same container.
+	 *
+	 * @param params the parameters of the executions
+	 *
+	 * @return the results of the executions in the order of their parameters
+	 */
+	public abstract List<ExecutionResult> executeBatch(final List<String> params);
+	
+	/**
+	 * Queue an asynchronous execution of the lambda, that is executed by the invocation dispatcher even if the application restarts
+	 *
+	 * @param params the parameters of the execution
+	 *
+	 * @return the queued invocation
+	 */
+	public abstract Invocation invoke(final String params);
+	
+	/**
+	 * Get an invocation of the lambda by its id
+	 *
+	 * @param id the id of the invocation
+	 *
+	 * @return the invocation or an empty optional if the lambda has no such invocation
+	 */
+	public abstract Optional<Invocation> getInvocation(final int id);
+	
 	/**
 	 * Saves the lambda object into the database
 	 */
@@ -67,6 +96,11 @@ public abstract class AbstractLambda {
 	 */
 	public abstract List<MonitoringEvent> getMonitoringEvents();
 	
+	/**
+	 * @return the most recent build of a binary deployed to the lambda, if any was deployed since the application started
+	 */
+	public abstract Optional<LambdaBuild> getBuild();
+	
 	/**
 	 * @return name of the lambda
 	 */
@@ -82,11 +116,31 @@ public abstract class AbstractLambda {
 	 */
 	public abstract boolean isAsync();
 	
+	/**
+	 * @return the maximum duration of a single execution of the lambda in seconds
+	 */
+	public abstract int getTimeout();
+	
 	/**
 	 * @return the runtime of the lambda
 	 */
 	public abstract Runtime getRuntime();
 	
+	/**
+	 * @return the resources a single container executing the lambda may use at most
+	 */
+	public abstract ResourceLimits getResourceLimits();
+	
+	/**
+	 * @return whether the results of the lambda only depend on its parameters, so they may be cached
+	 */
+	public abstract boolean isCacheable();
+	
+	/**
+	 * @return the duration in seconds a cached result of the lambda is returned for before the lambda is executed again
+	 */
+	public abstract int getCacheTtl();
+	
 	/**
 	 * Set the name of the lambda
 	 *
@@ -108,10 +162,39 @@ public abstract class AbstractLambda {
 	 */
 	public abstract void setAsync(final boolean async);
 	
+	/**
+	 * Set the maximum duration of a single execution. Executions exceeding it are aborted.
+	 *
+	 * @param timeout the timeout in seconds
+	 */
+	public abstract void setTimeout(final int timeout);
+	
 	/**
 	 * Sets the runtime to be used for executing the lambda
 	 *
 	 * @param runtime lambda runtime
 	 */
 	public abstract void setRuntime(final Runtime runtime);
+	
+	/**
+	 * Set the resources a single container executing the lambda may use at most. The limits apply to containers started afterwards.
+	 *
+	 * @param limits resource limits
+	 */
+	public abstract void setResourceLimits(final ResourceLimits limits);
+	
+	/**
+	 * Set whether the results of the lambda only depend on its parameters. Results of cacheable lambdas are returned from a cache instead
+	 * of executing the lambda again with the same parameters.
+	 *
+	 * @param cacheable true, if the results of the lambda may be cached
+	 */
+	public abstract void setCacheable(final boolean cacheable);
+	
+	/**
+	 * Set the duration a cached result of the lambda is returned for
+	 *
+	 * @param cacheTtl the time to live of cached results in seconds
+	 */
+	public abstract void setCacheTtl(final int cacheTtl);
 }
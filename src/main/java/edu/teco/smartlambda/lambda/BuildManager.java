@@ -0,0 +1,249 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.ImageFactory;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.runtime.Runtime;
+import org.apache.commons.configuration2.Configuration;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.slf4j.LoggerFactory;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A singleton building the images of deployed lambda binaries on a bounded pool of build workers, so deployments don't block the request
+ * that deploys them. The image of a binary is built outside of any transaction. Once it is built, the lambda is switched over to the new
+ * image in a single transaction, so executions either use the previous or the new binary. Only the most recent build of a lambda is
+ * kept, older builds that finish later are discarded.
+ */
+public class BuildManager {
+	private static BuildManager instance;
+	
+	private final ThreadPoolExecutor        executor;
+	private final Map<Integer, LambdaBuild> builds = new ConcurrentHashMap<>();
+	
+	/**
+	 * This class is a singleton and therefore handles instantiation itself
+	 */
+	private BuildManager() {
+		this(ConfigurationService.getInstance().getConfiguration());
+	}
+	
+	private BuildManager(final Configuration configuration) {
+		this(configuration.getInt("build.workers", 2), configuration.getInt("build.queueSize", 16));
+	}
+	
+	/**
+	 * @param workers   the maximum number of builds running at the same time
+	 * @param queueSize the maximum number of builds waiting for a worker
+	 */
+	BuildManager(final int workers, final int queueSize) {
+		this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueSize)), new ThreadFactoryBuilder().setNameFormat("build-%d").build());
+		this.executor.allowCoreThreadTimeOut(true);
+		
+		MetricsService.getInstance().registerGauge("build.running", this.executor::getActiveCount);
+		MetricsService.getInstance().registerGauge("build.queued", () -> this.executor.getQueue().size());
+	}
+	
+	/**
+	 * @return the singleton instance of this class
+	 */
+	public static synchronized BuildManager getInstance() {
+		if (instance == null) instance = new BuildManager();
+		return instance;
+	}
+	
+	/**
+	 * Build a new binary of a lambda. The build is queued once the current transaction commits, as the build worker could not see the
+	 * lambda before.
+	 *
+	 * @param lambda  the lambda the binary is deployed to, which must already be saved
+	 * @param content the content of the binary
+	 *
+	 * @return the build
+	 *
+	 * @throws BuildRejectedException if the build queue is full
+	 */
+	LambdaBuild submit(final Lambda lambda, final byte[] content) {
+		if (this.executor.getQueue().remainingCapacity() == 0) {
+			MetricsService.getInstance().increment("build.rejected");
+			throw new BuildRejectedException();
+		}
+		
+		final LambdaBuild build   = new LambdaBuild(lambda.getId());
+		final Runtime     runtime = lambda.getRuntime();
+		this.builds.put(build.getLambdaId(), build);
+		
+		Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+			@Override
+			public void beforeCompletion() {
+				// intentionally empty
+			}
+			
+			@Override
+			public void afterCompletion(final int status) {
+				if (status != Status.STATUS_COMMITTED) {
+					BuildManager.this.builds.remove(build.getLambdaId(), build);
+					build.fail("The deployment was not saved");
+					return;
+				}
+				
+				try {
+					BuildManager.this.executor.execute(() -> BuildManager.this.run(build, runtime, content));
+				} catch (final RejectedExecutionException e) {
+					MetricsService.getInstance().increment("build.rejected");
+					build.fail("Too many pending lambda builds");
+				}
+			}
+		});
+		
+		MetricsService.getInstance().increment("build.submitted");
+		return build;
+	}
+	
+	/**
+	 * @param lambdaId the id of a lambda
+	 *
+	 * @return the most recent build of the lambda, if it was deployed since the application started
+	 */
+	Optional<LambdaBuild> getBuild(final int lambdaId) {
+		return Optional.ofNullable(this.builds.get(lambdaId));
+	}
+	
+	/**
+	 * Forget the builds of a deleted lambda. A build of the lambda that is still running is discarded once it finishes.
+	 *
+	 * @param lambdaId the id of the lambda
+	 */
+	void forget(final int lambdaId) {
+		this.builds.remove(lambdaId);
+	}
+	
+	/**
+	 * Stop accepting builds and interrupt all running builds
+	 */
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+	
+	/**
+	 * Build the image of a binary and switch the lambda over to it
+	 *
+	 * @param build   the build
+	 * @param runtime the runtime of the lambda
+	 * @param content the content of the binary
+	 */
+	private void run(final LambdaBuild build, final Runtime runtime, final byte[] content) {
+		final MetricsService metrics = MetricsService.getInstance();
+		final long           start   = System.nanoTime();
+		String               image   = null;
+		
+		build.start();
+		try {
+			// building the image takes long, so it must not hold a transaction open
+			if (!this.inTransaction(() -> LambdaBinary.isStored(runtime.getName(), LambdaBinary.hash(content))))
+				image = LambdaBinary.build(runtime, content);
+			
+			final String builtImage  = image;
+			final String containerId = this.inTransaction(() -> this.deploy(build, runtime, content, builtImage));
+			
+			// the binary was stored by another build in the meantime or the build was discarded
+			if (image != null && !image.equals(containerId)) this.deleteImage(image);
+			
+			if (containerId != null) {
+				build.succeed();
+				metrics.increment("build.succeeded");
+			} else {
+				build.supersede();
+				metrics.increment("build.superseded");
+			}
+		} catch (final Exception e) {
+			if (image != null) this.deleteImage(image);
+			
+			build.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+			metrics.increment("build.failed");
+			LoggerFactory.getLogger(BuildManager.class).error("Failed to build lambda " + build.getLambdaId(), e);
+		} finally {
+			metrics.add("build.time", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		}
+	}
+	
+	/**
+	 * Switch a lambda over to a new binary, unless the lambda was deleted or a newer build of the lambda was started. Must be called
+	 * within a transaction.
+	 *
+	 * @param build   the build
+	 * @param runtime the runtime of the lambda
+	 * @param content the content of the binary
+	 * @param image   the id of an image built in advance or null
+	 *
+	 * @return the id of the image the lambda uses now or null, if the build was discarded
+	 *
+	 * @throws Exception on any image engine specific error
+	 */
+	private String deploy(final LambdaBuild build, final Runtime runtime, final byte[] content, final String image) throws Exception {
+		final Session session = Application.getInstance().getSessionFactory().getCurrentSession();
+		
+		// the lock orders concurrent builds of the same lambda
+		final Lambda lambda = session.get(Lambda.class, build.getLambdaId(), LockMode.PESSIMISTIC_WRITE);
+		if (lambda == null || this.builds.get(build.getLambdaId()) != build) return null;
+		
+		final String previous = lambda.getContainerId();
+		lambda.setContainerId(LambdaBinary.acquire(runtime, content, image).getContainerId());
+		session.update(lambda);
+		
+		if (previous != null) LambdaBinary.release(previous);
+		
+		return lambda.getContainerId();
+	}
+	
+	/**
+	 * Run a task within a transaction of the current thread
+	 *
+	 * @param task the task
+	 * @param <T>  the result type of the task
+	 *
+	 * @return the result of the task
+	 *
+	 * @throws Exception any exception thrown by the task or the transaction
+	 */
+	private <T> T inTransaction(final Callable<T> task) throws Exception {
+		final Session session = Application.getInstance().getSessionFactory().getCurrentSession();
+		session.beginTransaction();
+		
+		try {
+			final T result = task.call();
+			session.getTransaction().commit();
+			return result;
+		} catch (final Exception e) {
+			if (session.getTransaction().isActive()) session.getTransaction().rollback();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Delete an image that is not used by any binary
+	 *
+	 * @param image the id of the image
+	 */
+	private void deleteImage(final String image) {
+		try {
+			ImageFactory.getImageById(image).delete();
+		} catch (final Exception e) {
+			LoggerFactory.getLogger(BuildManager.class).error("Failed to delete image " + image, e);
+		}
+	}
+}
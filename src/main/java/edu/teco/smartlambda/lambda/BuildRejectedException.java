@@ -0,0 +1,10 @@
+package edu.teco.smartlambda.lambda;
+
+/**
+ * Thrown if the {@link BuildManager} does not accept another build, because all build workers are busy and the queue is full
+ */
+public class BuildRejectedException extends RuntimeException {
+	BuildRejectedException() {
+		super("Too many pending lambda builds");
+	}
+}
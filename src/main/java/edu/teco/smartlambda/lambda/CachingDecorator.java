@@ -0,0 +1,106 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decorates cacheable lambdas with the {@link ResultCache}, so executions with parameters the lambda was executed with recently return
+ * the cached result instead of executing the lambda again. Cached results are discarded when the lambda or its binary change.
+ */
+public class CachingDecorator extends LambdaDecorator {
+	
+	public CachingDecorator(final AbstractLambda lambda) {
+		super(lambda);
+	}
+	
+	@Override
+	public ExecutionResult executeSync(final String params) {
+		if (!this.isCacheable()) return super.executeSync(params);
+		
+		final Optional<ExecutionResult> cached = ResultCache.getInstance().get(LambdaDecorator.unwrap(this.lambda), params);
+		if (cached.isPresent()) return cached.get();
+		
+		final ExecutionResult result = super.executeSync(params);
+		ResultCache.getInstance().put(LambdaDecorator.unwrap(this.lambda), params, result);
+		
+		return result;
+	}
+	
+	@Override
+	public ListenableFuture<ExecutionResult> executeAsync(final String params) {
+		if (!this.isCacheable()) return super.executeAsync(params);
+		
+		final Optional<ExecutionResult> cached = ResultCache.getInstance().get(LambdaDecorator.unwrap(this.lambda), params);
+		if (cached.isPresent()) return Futures.immediateFuture(cached.get());
+		
+		final Lambda                            lambda = LambdaDecorator.unwrap(this.lambda);
+		final ListenableFuture<ExecutionResult> future = super.executeAsync(params);
+		Futures.addCallback(future, new FutureCallback<ExecutionResult>() {
+			
+			@Override
+			public void onSuccess(final ExecutionResult result) {
+				ResultCache.getInstance().put(lambda, params, result);
+			}
+			
+			@Override
+			public void onFailure(final Throwable t) {
+				// failed executions are not cached
+			}
+		});
+		
+		return future;
+	}
+	
+	@Override
+	public List<ExecutionResult> executeBatch(final List<String> params) {
+		if (!this.isCacheable()) return super.executeBatch(params);
+		
+		final Lambda                lambda  = LambdaDecorator.unwrap(this.lambda);
+		final List<ExecutionResult> results = new ArrayList<>(params.size());
+		final List<String>          misses  = new ArrayList<>();
+		
+		for (final String param : params) {
+			final Optional<ExecutionResult> cached = ResultCache.getInstance().get(lambda, param);
+			results.add(cached.orElse(null));
+			if (!cached.isPresent()) misses.add(param);
+		}
+		
+		// only the parameters missing in the cache are executed, in one batch and in their original order
+		if (misses.isEmpty()) return results;
+		final Iterator<ExecutionResult> executed = super.executeBatch(misses).iterator();
+		for (int i = 0; i < results.size(); i++) {
+			if (results.get(i) != null) continue;
+			
+			final ExecutionResult result = executed.next();
+			ResultCache.getInstance().put(lambda, params.get(i), result);
+			results.set(i, result);
+		}
+		
+		return results;
+	}
+	
+	@Override
+	public void update() {
+		super.update();
+		ResultCache.getInstance().invalidate(LambdaDecorator.unwrap(this.lambda));
+	}
+	
+	@Override
+	public void delete() {
+		super.delete();
+		ResultCache.getInstance().invalidate(LambdaDecorator.unwrap(this.lambda));
+	}
+	
+	@Override
+	public void deployBinary(final byte[] content) {
+		super.deployBinary(content);
+		ResultCache.getInstance().invalidate(LambdaDecorator.unwrap(this.lambda));
+	}
+}
@@ -0,0 +1,84 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Decorates cacheable lambdas so concurrent executions with equal parameters share a single execution. The first execution of a lambda
+ * with some parameters is started as usual, every further execution with equal parameters that is requested before it finished waits for
+ * its result instead of starting another container. Only cacheable lambdas are coalesced, as their result does not depend on anything but
+ * their parameters. This decorator must be placed inside of the {@link MonitoringDecorator} and the {@link PermissionDecorator}, so every
+ * caller is still checked and monitored on its own.
+ */
+public class CoalescingDecorator extends LambdaDecorator {
+	private static final Map<ExecutionKey, ListenableFuture<ExecutionResult>> inFlight = new ConcurrentHashMap<>();
+	
+	public CoalescingDecorator(final AbstractLambda lambda) {
+		super(lambda);
+	}
+	
+	@Override
+	public ExecutionResult executeSync(final String params) {
+		if (!this.isCacheable()) return super.executeSync(params);
+		
+		final ExecutionKey key = ExecutionKey.of(LambdaDecorator.unwrap(this.lambda), params);
+		if (key == null) return super.executeSync(params);
+		
+		try {
+			return this.coalesce(key, params).get();
+		} catch (final CancellationException e) {
+			throw new LambdaExecutionTimeoutException(this.getName(), this.getTimeout());
+		} catch (final InterruptedException | ExecutionException e) {
+			throw (new RuntimeException(e));
+		}
+	}
+	
+	@Override
+	public ListenableFuture<ExecutionResult> executeAsync(final String params) {
+		if (!this.isCacheable()) return super.executeAsync(params);
+		
+		final ExecutionKey key = ExecutionKey.of(LambdaDecorator.unwrap(this.lambda), params);
+		if (key == null) return super.executeAsync(params);
+		
+		return this.coalesce(key, params);
+	}
+	
+	/**
+	 * Join the execution in flight with the given key or start it, if there is none
+	 *
+	 * @param key    the key of the execution
+	 * @param params the parameters of the execution
+	 *
+	 * @return a future of the shared execution, which can't be used to cancel the execution for the other callers
+	 */
+	private ListenableFuture<ExecutionResult> coalesce(final ExecutionKey key, final String params) {
+		final SettableFuture<ExecutionResult>   started = SettableFuture.create();
+		final ListenableFuture<ExecutionResult> running = inFlight.putIfAbsent(key, started);
+		
+		if (running != null) {
+			MetricsService.getInstance().increment("execution.coalesced");
+			return Futures.nonCancellationPropagating(running);
+		}
+		
+		// the execution is removed as soon as it finished, later executions see the result cache or start a new execution
+		started.addListener(() -> inFlight.remove(key, started), MoreExecutors.directExecutor());
+		
+		try {
+			started.setFuture(super.executeAsync(params));
+		} catch (final RuntimeException e) {
+			started.setException(e);
+			throw e;
+		}
+		
+		return Futures.nonCancellationPropagating(started);
+	}
+}
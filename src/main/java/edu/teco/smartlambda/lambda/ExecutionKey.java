@@ -0,0 +1,53 @@
+package edu.teco.smartlambda.lambda;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import lombok.Data;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Identifies the executions of a lambda that are known to have equal results, if the lambda is cacheable. Executions are equal if they
+ * execute the same image of the lambda with parameters of the same canonical form, so parameters that only differ in the order of their
+ * properties or in whitespace are considered equal.
+ */
+@Data
+final class ExecutionKey {
+	private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+	
+	private final int      lambdaId;
+	private final String   containerId;
+	private final HashCode paramsHash;
+	
+	/**
+	 * @param lambda the lambda
+	 * @param params the serialized parameters of an execution
+	 *
+	 * @return the key of the execution or null, if the lambda has no binary and can't be executed anyway
+	 */
+	static ExecutionKey of(final Lambda lambda, final String params) {
+		if (lambda.getContainerId() == null) return null;
+		
+		return new ExecutionKey(lambda.getId(), lambda.getContainerId(),
+				Hashing.sha256().hashString(canonicalize(params), StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * @param params serialized parameters
+	 *
+	 * @return the parameters serialized with the properties of all objects sorted by name and without any whitespace, or the given
+	 * parameters if they are not valid JSON
+	 */
+	private static String canonicalize(final String params) {
+		if (params == null) return "null";
+		
+		try {
+			return mapper.writeValueAsString(mapper.readValue(params, Object.class));
+		} catch (final IOException e) {
+			return params;
+		}
+	}
+}
@@ -1,24 +1,32 @@
 package edu.teco.smartlambda.lambda;
 
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.gson.GsonBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
 import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
+import edu.teco.smartlambda.authentication.NotAuthenticatedException;
+import edu.teco.smartlambda.authentication.entities.Key;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
+import edu.teco.smartlambda.concurrent.ExecutionScheduler;
 import edu.teco.smartlambda.concurrent.ThreadManager;
-import edu.teco.smartlambda.container.BuilderFactory;
 import edu.teco.smartlambda.container.Container;
-import edu.teco.smartlambda.container.Image;
-import edu.teco.smartlambda.container.ImageBuilder;
-import edu.teco.smartlambda.container.ImageFactory;
+import edu.teco.smartlambda.container.ContainerPool;
+import edu.teco.smartlambda.container.ContainerPoolManager;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.container.ResourceUsage;
+import edu.teco.smartlambda.container.inprocess.InProcessImage;
+import edu.teco.smartlambda.invocation.Invocation;
+import edu.teco.smartlambda.monitoring.MetricsService;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
 import edu.teco.smartlambda.runtime.RuntimeRegistry;
 import edu.teco.smartlambda.schedule.Event;
-import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.io.output.NullOutputStream;
 
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -29,15 +37,14 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.torpedoquery.jpa.Torpedo.from;
 import static org.torpedoquery.jpa.Torpedo.select;
@@ -46,6 +53,15 @@ import static org.torpedoquery.jpa.Torpedo.where;
 @Entity
 @Table(name = "Lambda")
 public class Lambda extends AbstractLambda {
+	/**
+	 * The default maximum duration of an execution in seconds
+	 */
+	public static final int DEFAULT_TIMEOUT = 30;
+	
+	/**
+	 * The default duration in seconds a cached result of a cacheable lambda is returned for
+	 */
+	public static final int DEFAULT_CACHE_TTL = 60;
 	
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -66,107 +82,273 @@ public class Lambda extends AbstractLambda {
 	@Setter
 	private boolean async;
 	
+	@Getter
+	@Setter
+	private int timeout = DEFAULT_TIMEOUT;
+	
+	@Getter
+	@Setter
+	private boolean cacheable;
+	
+	@Getter
+	@Setter
+	private int cacheTtl = DEFAULT_CACHE_TTL;
+	
 	private String runtime;
 	
+	/**
+	 * The resource limits of the containers executing the lambda, of which zero means unlimited
+	 */
+	private int memoryLimit;
+	private int cpuShares;
+	private int cpuQuota;
+	private int pidsLimit;
+	
+	/**
+	 * The id of the image executing the lambda, which is null until the first binary of the lambda was built
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	@Setter(AccessLevel.PACKAGE)
 	private String containerId;
 	
+	/**
+	 * The content of a newly deployed binary that is stored on the next save or update
+	 */
 	@Transient
-	private ImageBuilder builder = null;
+	private byte[] binary = null;
 	
 	@Override
 	public ExecutionResult executeSync(final String params) {
-		final ListenableFuture<ExecutionResult> future = this.execute(params);
+		return this.await(this.execute(params), this.timeout);
+	}
+	
+	@Override
+	public ListenableFuture<ExecutionResult> executeAsync(final String params) {
+		return this.execute(params);
+	}
+	
+	@Override
+	public List<ExecutionResult> executeBatch(final List<String> params) {
+		if (params.isEmpty()) return new ArrayList<>();
+		
+		// every execution of the batch gets the time a single execution would get, as they run one after another
+		final int timeout = (int) Math.min(Integer.MAX_VALUE, (long) this.timeout * params.size());
+		return this.await(this.execute(timeout, (pool, execution) -> this.run(pool, execution, params)), timeout);
+	}
+	
+	@Override
+	public Invocation invoke(final String params) {
+		if (this.containerId == null) throw new LambdaNotBuiltException(this.name);
+		
+		final Key key = AuthenticationService.getInstance().getAuthenticatedKey().orElseThrow(NotAuthenticatedException::new);
+		return Invocation.enqueue(this, key, params, ExecutionPriority.getCurrent());
+	}
+	
+	@Override
+	public Optional<Invocation> getInvocation(final int id) {
+		final Invocation query = from(Invocation.class);
+		where(query.getLambda()).eq(this).and(query.getId()).eq(id);
+		return select(query).setMaxResults(1).get(Application.getInstance().getSessionFactory().getCurrentSession());
+	}
+	
+	/**
+	 * Wait for an execution to finish
+	 *
+	 * @param future  the future of the execution
+	 * @param timeout the timeout of the execution in seconds
+	 * @param <T>     the result type of the execution
+	 *
+	 * @return the result of the execution
+	 */
+	private <T> T await(final ListenableFuture<T> future, final int timeout) {
 		try {
 			return future.get();
+		} catch (final CancellationException e) {
+			throw new LambdaExecutionTimeoutException(this.name, timeout);
 		} catch (final InterruptedException | ExecutionException e) {
 			throw (new RuntimeException(e));
 		}
 	}
 	
-	@Override
-	public ListenableFuture<ExecutionResult> executeAsync(final String params) {
-		return this.execute(params);
+	/**
+	 * Execute the lambda on the execution scheduler. If the execution does not finish within the timeout, its future is cancelled and the
+	 * container it runs in is killed.
+	 *
+	 * @param params the parameters of the execution
+	 *
+	 * @return a future of the execution result
+	 */
+	private ListenableFuture<ExecutionResult> execute(final String params) {
+		return this.execute(this.timeout, (pool, execution) -> this.run(pool, execution, Collections.singletonList(params)).get(0));
 	}
 	
-	private ListenableFuture<ExecutionResult> execute(final String params) {
-		return ThreadManager.getExecutorService().submit(() -> {
-			final Container container;
+	/**
+	 * Submit a task executing the lambda to the execution scheduler
+	 *
+	 * @param timeout the maximum duration of the task in seconds after it started running, after which its future is cancelled and its
+	 *                container is killed
+	 * @param task    the task running the lambda
+	 * @param <T>     the result type of the task
+	 *
+	 * @return a future of the task result
+	 */
+	private <T> ListenableFuture<T> execute(final int timeout, final ExecutionTask<T> task) {
+		if (this.containerId == null) throw new LambdaNotBuiltException(this.name);
+		// the owner may have lost the trust required by in-process lambdas after the lambda was deployed
+		if (this.containerId.startsWith(InProcessImage.ID_PREFIX) && !this.owner.isTrusted()) throw new InsufficientPermissionsException();
+		
+		final ContainerPool pool      =
+				ContainerPoolManager.getInstance().getPool(this.containerId, this.owner.getName(), this.getResourceLimits());
+		final Execution     execution = new Execution();
+		
+		return ExecutionScheduler.getInstance()
+				.submit(this.owner.getName() + "/" + this.name, ExecutionPriority.getCurrent(), () -> task.run(pool, execution),
+						future -> startTimeout(future, pool, execution, timeout));
+	}
+	
+	/**
+	 * Cancel a running execution and kill its container, if it does not finish within its timeout. The timeout starts when the execution
+	 * starts running, so the time it waited in the queue of the execution scheduler is not counted.
+	 *
+	 * @param future    the future of the execution
+	 * @param pool      the pool of containers of the lambda
+	 * @param execution the state shared with the task of the execution
+	 * @param timeout   the timeout of the execution in seconds
+	 */
+	private static void startTimeout(final ListenableFuture<?> future, final ContainerPool pool, final Execution execution,
+			final int timeout) {
+		final ScheduledFuture<?> timeoutFuture = ThreadManager.getTimeoutExecutorService().schedule(() -> {
+			if (future.isDone() || !execution.timeout()) return;
 			
-			try {
-				container = ImageFactory.getImageById(this.containerId).start();
-			} catch (final Exception e) {
-				throw (new RuntimeException(e));
-			}
+			MetricsService.getInstance().increment("execution.timeouts");
 			
-			// DO NOT CLOSE THIS STREAM! THE INTO-CONTAINER-SOCKET WILL DIE A HORRIBLE DEATH!
-			final WritableByteChannel   stdIn                  = Channels.newChannel(container.getStdIn());
-			final ByteArrayOutputStream byteBufferStream       = new ByteArrayOutputStream(params.length() + 4);
-			final DataOutputStream      byteBufferStreamFiller = new DataOutputStream(byteBufferStream);
-			byteBufferStreamFiller.writeInt(params.length());
-			byteBufferStreamFiller.write(params.getBytes());
-			byteBufferStreamFiller.flush();
-			byteBufferStreamFiller.close();
-			stdIn.write(ByteBuffer.wrap(byteBufferStream.toByteArray()));
+			// killing the container unblocks the execution thread, which is waiting for the response of the container
+			final Container container = execution.getContainer();
+			if (container != null) pool.recycle(container);
 			
-			final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-			container.attach(outputStream, new NullOutputStream());
+			future.cancel(true);
+		}, timeout, TimeUnit.SECONDS);
+		future.addListener(() -> timeoutFuture.cancel(false), MoreExecutors.directExecutor());
+	}
+	
+	/**
+	 * Run executions one after another in a single container checked out of the pool
+	 *
+	 * @param pool      the pool of containers of the lambda
+	 * @param execution the state shared with the timeout of the executions
+	 * @param params    the parameters of the executions
+	 *
+	 * @return the results of the executions in the order of their parameters
+	 *
+	 * @throws Exception if the container fails
+	 */
+	private List<ExecutionResult> run(final ContainerPool pool, final Execution execution, final List<String> params) throws Exception {
+		final Container container;
+		
+		try {
+			container = pool.checkOut();
+		} catch (final Exception e) {
+			throw (new RuntimeException(e));
+		}
+		
+		if (!execution.start(container)) {
+			// the execution timed out while a container was checked out, so the unused container is returned
+			pool.checkIn(container);
+			throw new LambdaExecutionTimeoutException(this.name, this.timeout);
+		}
+		
+		try {
+			final List<ExecutionResult> results = new ArrayList<>(params.size());
 			
-			final ExecutionResult result = new ExecutionResult();
-			result.setExecutionReturnValue(
-					new GsonBuilder().create().fromJson(new String(outputStream.toByteArray()), ExecutionReturnValue.class));
-			result.setConsumedCPUTime(container.getConsumedCPUTime());
+			// the container may have served other executions before, so only the difference is accounted to each execution
+			ResourceUsage usageBefore = container.getResourceUsage();
+			for (final String param : params) {
+				if (!results.isEmpty()) usageBefore = this.account(results.get(results.size() - 1), container, usageBefore);
+				
+				final ExecutionResult result = new ExecutionResult();
+				final long            start  = System.currentTimeMillis();
+				result.setExecutionReturnValue(container.execute(param));
+				result.setDuration(System.currentTimeMillis() - start);
+				results.add(result);
+			}
+			
+			// reading the resource usage can take seconds, so it is not counted against the timeout of the last execution
+			if (!execution.finish()) throw new LambdaExecutionTimeoutException(this.name, this.timeout);
+			this.account(results.get(results.size() - 1), container, usageBefore);
 			
-			return result;
-		});
+			// the execution service keeps serving requests, so the container can be reused by the next execution
+			pool.checkIn(container);
+			
+			return results;
+		} catch (final Exception e) {
+			// the state of the container's streams is unknown, so it must not serve any further executions
+			if (execution.finish()) pool.recycle(container);
+			throw e;
+		}
 	}
 	
-	private void ensureBuilder() {
-		if (this.builder != null) return;
+	/**
+	 * Account the resources consumed by an execution to its result
+	 *
+	 * @param result      the result of the execution
+	 * @param container   the container the execution ran in
+	 * @param usageBefore the resource usage of the container before the execution
+	 *
+	 * @return the resource usage of the container after the execution
+	 *
+	 * @throws Exception if the resource usage cannot be read
+	 */
+	private ResourceUsage account(final ExecutionResult result, final Container container, final ResourceUsage usageBefore)
+			throws Exception {
+		final ResourceUsage usageAfter = container.getResourceUsage();
+		result.setConsumedCPUTime(usageAfter.getCpuTime() - usageBefore.getCpuTime());
+		result.setPeakMemory(usageAfter.getPeakMemory());
 		
-		this.builder = BuilderFactory.getContainerBuilder();
+		return usageAfter;
+	}
+	
+	/**
+	 * Start a container for an execution of the lambda that is expected soon, so the execution does not have to wait for a container
+	 * to start
+	 */
+	public void prewarm() {
+		if (this.containerId == null) return;
+		// the code of untrusted owners is never loaded in-process, even though it would not be executed
+		if (this.containerId.startsWith(InProcessImage.ID_PREFIX) && !this.owner.isTrusted()) return;
+		
+		ContainerPoolManager.getInstance().getPool(this.containerId, this.owner.getName(), this.getResourceLimits()).prewarm();
 	}
 	
 	@Override
 	public void save() {
-		this.ensureBuilder();
-		
 		if (LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(this.owner, this.name).isPresent())
 			throw new DuplicateLambdaException(this.owner, this.name);
-		
-		try {
-			RuntimeRegistry.getInstance().getRuntimeByName(this.runtime).setupContainerImage(this.builder);
-			final Image image = this.builder.build();
-			this.containerId = image.getId();
-		} catch (final Exception e) {
-			throw (new RuntimeException(e));
-		}
+		if (this.binary == null) throw new InvalidLambdaException("No binary was deployed for the lambda!");
 		
 		Application.getInstance().getSessionFactory().getCurrentSession().save(this);
+		
+		BuildManager.getInstance().submit(this, this.binary);
+		this.binary = null;
 	}
 	
 	@Override
 	public void update() {
-		if (this.builder != null) { // if a new binary exists
-			try {
-				ImageFactory.getImageById(this.containerId).delete(); // delete old image
-				
-				// deploy new image
-				RuntimeRegistry.getInstance().getRuntimeByName(this.runtime).setupContainerImage(this.builder);
-				final Image image = this.builder.build();
-				this.containerId = image.getId();
-			} catch (final Exception e) {
-				throw (new RuntimeException(e));
-			}
-		}
-		
 		Application.getInstance().getSessionFactory().getCurrentSession().update(this);
+		
+		if (this.binary != null) { // if a new binary exists
+			BuildManager.getInstance().submit(this, this.binary);
+			this.binary = null;
+		}
 	}
 	
 	@Override
 	public void delete() {
 		Application.getInstance().getSessionFactory().getCurrentSession().delete(this);
+		BuildManager.getInstance().forget(this.id);
+		
+		if (this.containerId == null) return;
 		try {
-			ImageFactory.getImageById(this.containerId).delete();
+			LambdaBinary.release(this.containerId);
 		} catch (final Exception e) {
 			throw new RuntimeException(e);
 		}
@@ -183,14 +365,13 @@ public class Lambda extends AbstractLambda {
 	
 	@Override
 	public void deployBinary(final byte[] content) {
-		try {
-			if (this.getRuntime().verifyBinary(content)) {
-				this.ensureBuilder();
-				this.builder.storeFile(content, RuntimeRegistry.getInstance().getRuntimeByName(this.runtime).getBinaryName());
-			} else throw new InvalidLambdaException("The provided content is not a valid lambda jar file!");
-		} catch (final IOException e) {
-			throw new RuntimeException(e);
-		}
+		final Runtime runtime = this.getRuntime();
+		
+		if (runtime.isInProcess() && !this.owner.isTrusted()) throw new InsufficientPermissionsException();
+		if (!runtime.verifyBinary(content))
+			throw new InvalidLambdaException("The provided content is not a valid lambda jar file!");
+		
+		this.binary = content;
 	}
 	
 	@Override
@@ -216,6 +397,11 @@ public class Lambda extends AbstractLambda {
 		return select(query).list(Application.getInstance().getSessionFactory().getCurrentSession());
 	}
 	
+	@Override
+	public Optional<LambdaBuild> getBuild() {
+		return BuildManager.getInstance().getBuild(this.id);
+	}
+	
 	@Override
 	public Runtime getRuntime() {
 		return RuntimeRegistry.getInstance().getRuntimeByName(this.runtime);
@@ -225,4 +411,75 @@ public class Lambda extends AbstractLambda {
 	public void setRuntime(final Runtime runtime) {
 		this.runtime = runtime.getName();
 	}
+	
+	@Override
+	public ResourceLimits getResourceLimits() {
+		return new ResourceLimits(this.memoryLimit, this.cpuShares, this.cpuQuota, this.pidsLimit);
+	}
+	
+	@Override
+	public void setResourceLimits(final ResourceLimits limits) {
+		this.memoryLimit = limits.getMemory();
+		this.cpuShares = limits.getCpuShares();
+		this.cpuQuota = limits.getCpuQuota();
+		this.pidsLimit = limits.getPids();
+	}
+	
+	/**
+	 * A task running executions of the lambda in a container of its pool
+	 *
+	 * @param <T> the result type of the task
+	 */
+	@FunctionalInterface
+	private interface ExecutionTask<T> {
+		T run(final ContainerPool pool, final Execution execution) throws Exception;
+	}
+	
+	/**
+	 * The state of a single execution shared between the thread running it and its timeout
+	 */
+	private static class Execution {
+		private Container container = null;
+		private boolean   timedOut  = false;
+		private boolean   finished  = false;
+		
+		/**
+		 * @param container the container checked out for the execution
+		 *
+		 * @return false, if the execution already timed out and must not use the container
+		 */
+		synchronized boolean start(final Container container) {
+			if (this.timedOut) return false;
+			
+			this.container = container;
+			return true;
+		}
+		
+		/**
+		 * @return true, if the execution finished before the timeout and is still responsible for its container
+		 */
+		synchronized boolean finish() {
+			if (this.timedOut) return false;
+			
+			this.finished = true;
+			return true;
+		}
+		
+		/**
+		 * @return false, if the execution already finished and must not be cancelled anymore
+		 */
+		synchronized boolean timeout() {
+			if (this.finished) return false;
+			
+			this.timedOut = true;
+			return true;
+		}
+		
+		/**
+		 * @return the container of the execution, which the caller of {@link #timeout()} is responsible for now, or null if there is none
+		 */
+		synchronized Container getContainer() {
+			return this.container;
+		}
+	}
 }
\ No newline at end of file
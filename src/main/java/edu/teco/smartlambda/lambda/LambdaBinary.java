@@ -0,0 +1,192 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.hash.Hashing;
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.container.BuilderFactory;
+import edu.teco.smartlambda.container.ContainerPoolManager;
+import edu.teco.smartlambda.container.ImageBuilder;
+import edu.teco.smartlambda.container.ImageFactory;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.runtime.Runtime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Session;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.LockModeType;
+import javax.persistence.Table;
+import java.util.Optional;
+
+import static org.torpedoquery.jpa.Torpedo.from;
+import static org.torpedoquery.jpa.Torpedo.select;
+import static org.torpedoquery.jpa.Torpedo.where;
+
+/**
+ * A lambda binary stored by the SHA-256 hash of its content. Every binary is built into exactly one image per runtime, which is shared by
+ * all lambdas deploying the same binary. The binary counts the lambdas referencing it and its image is only deleted when the last of them
+ * is gone.
+ */
+@Entity
+@Table(name = "LambdaBinary")
+public class LambdaBinary {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Getter
+	private int id;
+	
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private String runtime;
+	
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private String hash;
+	
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private String containerId;
+	
+	@Getter
+	@Setter(AccessLevel.PACKAGE)
+	private int referenceCount;
+	
+	/**
+	 * Add a reference to the binary of the given content. If the binary is not stored yet, it is stored with the given image or, if no
+	 * image is given, its image is built.
+	 *
+	 * @param runtime the runtime the binary is deployed to
+	 * @param content the content of the binary
+	 * @param image   the id of an image built by {@link #build(Runtime, byte[])} in advance or null. The image is not used and must be
+	 *                deleted by the caller, if the binary was stored in the meantime.
+	 *
+	 * @return the referenced binary
+	 *
+	 * @throws Exception on any image engine specific error
+	 */
+	static LambdaBinary acquire(final Runtime runtime, final byte[] content, final String image) throws Exception {
+		final Session session = Application.getInstance().getSessionFactory().getCurrentSession();
+		final String  hash    = hash(content);
+		
+		final Optional<LambdaBinary> existing = findByHash(runtime.getName(), hash);
+		if (existing.isPresent()) {
+			MetricsService.getInstance().increment("lambda.binary.reused");
+			
+			final LambdaBinary binary = existing.get();
+			binary.setReferenceCount(binary.getReferenceCount() + 1);
+			session.update(binary);
+			return binary;
+		}
+		
+		final LambdaBinary binary = new LambdaBinary();
+		binary.setRuntime(runtime.getName());
+		binary.setHash(hash);
+		binary.setContainerId(image != null ? image : build(runtime, content));
+		binary.setReferenceCount(1);
+		session.save(binary);
+		
+		return binary;
+	}
+	
+	/**
+	 * Build the image of a binary without storing the binary. This does not require a transaction.
+	 *
+	 * @param runtime the runtime the binary is deployed to
+	 * @param content the content of the binary
+	 *
+	 * @return the id of the built image
+	 *
+	 * @throws Exception on any image engine specific error
+	 */
+	static String build(final Runtime runtime, final byte[] content) throws Exception {
+		final ImageBuilder builder = BuilderFactory.getContainerBuilder(runtime);
+		runtime.setupContainerImage(builder);
+		builder.storeFile(content, runtime.getBinaryName());
+		MetricsService.getInstance().increment("lambda.binary.built");
+		
+		return builder.build().getId();
+	}
+	
+	/**
+	 * @param runtime the name of the runtime of the binary
+	 * @param hash    the hash of the binary
+	 *
+	 * @return true, if the binary is stored
+	 */
+	static boolean isStored(final String runtime, final String hash) {
+		final LambdaBinary query = from(LambdaBinary.class);
+		where(query.getRuntime()).eq(runtime).and(query.getHash()).eq(hash);
+		
+		return select(query).get(Application.getInstance().getSessionFactory().getCurrentSession()).isPresent();
+	}
+	
+	/**
+	 * Remove a reference to the binary built into the given image. The image is deleted, if the binary is not referenced anymore.
+	 *
+	 * @param containerId the id of the image the binary is built into
+	 *
+	 * @throws Exception on any image engine specific error
+	 */
+	static void release(final String containerId) throws Exception {
+		final Optional<LambdaBinary> existing = findByContainerId(containerId);
+		
+		if (existing.isPresent()) {
+			final LambdaBinary binary = existing.get();
+			binary.setReferenceCount(binary.getReferenceCount() - 1);
+			
+			if (binary.getReferenceCount() > 0) {
+				Application.getInstance().getSessionFactory().getCurrentSession().update(binary);
+				return;
+			}
+			
+			Application.getInstance().getSessionFactory().getCurrentSession().delete(binary);
+		}
+		
+		// the image is unused now, images deployed before binaries were stored have no binary and belong to a single lambda
+		ContainerPoolManager.getInstance().removePool(containerId);
+		ImageFactory.getImageById(containerId).delete();
+	}
+	
+	/**
+	 * @param content binary content
+	 *
+	 * @return the hexadecimal SHA-256 hash of the content
+	 */
+	static String hash(final byte[] content) {
+		return Hashing.sha256().hashBytes(content).toString();
+	}
+	
+	/**
+	 * Find a binary and lock it against concurrent changes of its reference count
+	 *
+	 * @param runtime the name of the runtime of the binary
+	 * @param hash    the hash of the binary
+	 *
+	 * @return the binary, if it is stored
+	 */
+	private static Optional<LambdaBinary> findByHash(final String runtime, final String hash) {
+		final LambdaBinary query = from(LambdaBinary.class);
+		where(query.getRuntime()).eq(runtime).and(query.getHash()).eq(hash);
+		
+		return select(query).setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.get(Application.getInstance().getSessionFactory().getCurrentSession());
+	}
+	
+	/**
+	 * Find a binary and lock it against concurrent changes of its reference count
+	 *
+	 * @param containerId the id of the image the binary is built into
+	 *
+	 * @return the binary, if it is stored
+	 */
+	private static Optional<LambdaBinary> findByContainerId(final String containerId) {
+		final LambdaBinary query = from(LambdaBinary.class);
+		where(query.getContainerId()).eq(containerId);
+		
+		return select(query).setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.get(Application.getInstance().getSessionFactory().getCurrentSession());
+	}
+}
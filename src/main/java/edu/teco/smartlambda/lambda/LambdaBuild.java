@@ -0,0 +1,70 @@
+package edu.teco.smartlambda.lambda;
+
+import lombok.Getter;
+
+import java.util.UUID;
+
+/**
+ * The progress of building the image of a newly deployed lambda binary. Builds are run by the {@link BuildManager} and only kept in
+ * memory, so they are lost on restart.
+ */
+@Getter
+public class LambdaBuild {
+	/**
+	 * The states of a build
+	 */
+	public enum State {
+		/**
+		 * The build waits for a build worker
+		 */
+		QUEUED,
+		/**
+		 * The image is being built
+		 */
+		RUNNING,
+		/**
+		 * The image was built and the lambda executes the new binary now
+		 */
+		SUCCEEDED,
+		/**
+		 * The build failed and the lambda still executes its previous binary, if any
+		 */
+		FAILED,
+		/**
+		 * A newer build of the same lambda was started, so the result of this build was discarded
+		 */
+		SUPERSEDED
+	}
+	
+	private final    String id    = UUID.randomUUID().toString();
+	private final    int    lambdaId;
+	private volatile State  state = State.QUEUED;
+	private volatile String error = null;
+	
+	/**
+	 * @param lambdaId the id of the lambda the binary is deployed to
+	 */
+	LambdaBuild(final int lambdaId) {
+		this.lambdaId = lambdaId;
+	}
+	
+	void start() {
+		this.state = State.RUNNING;
+	}
+	
+	void succeed() {
+		this.state = State.SUCCEEDED;
+	}
+	
+	void supersede() {
+		this.state = State.SUPERSEDED;
+	}
+	
+	/**
+	 * @param error a description of the failure
+	 */
+	void fail(final String error) {
+		this.error = error;
+		this.state = State.FAILED;
+	}
+}
@@ -2,6 +2,8 @@ package edu.teco.smartlambda.lambda;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.invocation.Invocation;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
@@ -27,6 +29,21 @@ public abstract class LambdaDecorator extends AbstractLambda {
 	@Override
 	public ListenableFuture<ExecutionResult> executeAsync(final String params) {return this.lambda.executeAsync(params);}
 	
+	@Override
+	public List<ExecutionResult> executeBatch(final List<String> params) {
+		return this.lambda.executeBatch(params);
+	}
+	
+	@Override
+	public Invocation invoke(final String params) {
+		return this.lambda.invoke(params);
+	}
+	
+	@Override
+	public Optional<Invocation> getInvocation(final int id) {
+		return this.lambda.getInvocation(id);
+	}
+	
 	@Override
 	public void save() {
 		this.lambda.save();
@@ -67,6 +84,11 @@ public abstract class LambdaDecorator extends AbstractLambda {
 		return this.lambda.getMonitoringEvents();
 	}
 	
+	@Override
+	public Optional<LambdaBuild> getBuild() {
+		return this.lambda.getBuild();
+	}
+	
 	@Override
 	public final String getName() {
 		return this.lambda.getName();
@@ -82,11 +104,31 @@ public abstract class LambdaDecorator extends AbstractLambda {
 		return this.lambda.isAsync();
 	}
 	
+	@Override
+	public final int getTimeout() {
+		return this.lambda.getTimeout();
+	}
+	
 	@Override
 	public final Runtime getRuntime() {
 		return this.lambda.getRuntime();
 	}
 	
+	@Override
+	public final ResourceLimits getResourceLimits() {
+		return this.lambda.getResourceLimits();
+	}
+	
+	@Override
+	public final boolean isCacheable() {
+		return this.lambda.isCacheable();
+	}
+	
+	@Override
+	public final int getCacheTtl() {
+		return this.lambda.getCacheTtl();
+	}
+	
 	@Override
 	public final void setName(final String name) {
 		this.lambda.setName(name);
@@ -102,11 +144,31 @@ public abstract class LambdaDecorator extends AbstractLambda {
 		this.lambda.setAsync(async);
 	}
 	
+	@Override
+	public final void setTimeout(final int timeout) {
+		this.lambda.setTimeout(timeout);
+	}
+	
 	@Override
 	public void setRuntime(final Runtime runtime) {
 		this.lambda.setRuntime(runtime);
 	}
 	
+	@Override
+	public final void setResourceLimits(final ResourceLimits limits) {
+		this.lambda.setResourceLimits(limits);
+	}
+	
+	@Override
+	public final void setCacheable(final boolean cacheable) {
+		this.lambda.setCacheable(cacheable);
+	}
+	
+	@Override
+	public final void setCacheTtl(final int cacheTtl) {
+		this.lambda.setCacheTtl(cacheTtl);
+	}
+	
 	public static Lambda unwrap(final AbstractLambda abstractLambda) {
 		if (abstractLambda == null) return null;
 		
@@ -0,0 +1,23 @@
+package edu.teco.smartlambda.lambda;
+
+/**
+ * Thrown if an execution of a lambda did not finish within the timeout of the lambda
+ */
+public class LambdaExecutionTimeoutException extends RuntimeException {
+	private final String name;
+	private final int    timeout;
+	
+	LambdaExecutionTimeoutException(final String name, final int timeout) {
+		super("Execution of lambda \"" + name + "\" timed out after " + timeout + " seconds");
+		this.name = name;
+		this.timeout = timeout;
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	public int getTimeout() {
+		return this.timeout;
+	}
+}
@@ -0,0 +1,10 @@
+package edu.teco.smartlambda.lambda;
+
+/**
+ * Thrown if a lambda is executed before the image of its first binary was built
+ */
+public class LambdaNotBuiltException extends RuntimeException {
+	LambdaNotBuiltException(final String name) {
+		super("Lambda \"" + name + "\" has not been built yet");
+	}
+}
@@ -9,9 +9,12 @@ import edu.teco.smartlambda.monitoring.MonitoringService;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.schedule.Event;
 import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.hibernate.Session;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 
 /**
  * Decorates lambdas with calls to the monitoring service
@@ -25,10 +28,19 @@ public class MonitoringDecorator extends LambdaDecorator {
 	
 	@Override
 	public ExecutionResult executeSync(final String params) {
-		final MonitoringEvent event     = MonitoringService.getInstance().onLambdaExecutionStart(this.lambda);
-		final ExecutionResult returnVal = super.executeSync(params);
+		final MonitoringEvent event = MonitoringService.getInstance().onLambdaExecutionStart(this.lambda);
+		final ExecutionResult returnVal;
+		
+		try {
+			returnVal = super.executeSync(params);
+		} catch (final LambdaExecutionTimeoutException e) {
+			saveCommitted(() -> MonitoringService.getInstance().onLambdaExecutionTimeout(this.lambda, event));
+			throw e;
+		}
+		
 		MonitoringService.getInstance()
-				.onLambdaExecutionEnd(this.lambda, returnVal.getConsumedCPUTime(), returnVal.getExecutionReturnValue(), event);
+				.onLambdaExecutionEnd(this.lambda, returnVal.getConsumedCPUTime(), returnVal.getPeakMemory(),
+						returnVal.getExecutionReturnValue(), event);
 		
 		return returnVal;
 	}
@@ -43,20 +55,60 @@ public class MonitoringDecorator extends LambdaDecorator {
 			public void onSuccess(final ExecutionResult result) {
 				Application.getInstance().getSessionFactory().getCurrentSession().beginTransaction();
 				MonitoringService.getInstance().onLambdaExecutionEnd(MonitoringDecorator.this.lambda, result.getConsumedCPUTime(),
-						result.getExecutionReturnValue(), event);
+						result.getPeakMemory(), result.getExecutionReturnValue(), event);
 				Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().commit();
 			}
 			
 			@Override
 			public void onFailure(final Throwable t) {
-				MonitoringService.getInstance()
-						.onLambdaExecutionEnd(MonitoringDecorator.this.lambda, 0, new ExecutionReturnValue(null, (Throwable) null), event);
+				if (t instanceof CancellationException) {
+					// futures of executions are only cancelled if they time out
+					Application.getInstance().getSessionFactory().getCurrentSession().beginTransaction();
+					MonitoringService.getInstance().onLambdaExecutionTimeout(MonitoringDecorator.this.lambda, event);
+					Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().commit();
+					return;
+				}
+				
+				MonitoringService.getInstance().onLambdaExecutionEnd(MonitoringDecorator.this.lambda, 0, 0,
+						new ExecutionReturnValue(null, (Throwable) null), event);
 			}
 		});
 		
 		return future;
 	}
 	
+	@Override
+	public List<ExecutionResult> executeBatch(final List<String> params) {
+		final List<MonitoringEvent> events = new ArrayList<>(params.size());
+		for (int i = 0; i < params.size(); i++) events.add(MonitoringService.getInstance().onLambdaExecutionStart(this.lambda));
+		
+		final List<ExecutionResult> results;
+		try {
+			results = super.executeBatch(params);
+		} catch (final LambdaExecutionTimeoutException e) {
+			saveCommitted(() -> MonitoringService.getInstance().onLambdaBatchExecutionTimeout(this.lambda, events));
+			throw e;
+		}
+		
+		MonitoringService.getInstance().onLambdaBatchExecutionEnd(this.lambda, results, events);
+		
+		return results;
+	}
+	
+	/**
+	 * Saves monitoring events and commits the transaction of the current session before an exception leaves the decorator. Spark skips
+	 * the after-filters of a failed request, so the transaction of the request would otherwise be rolled back by the next request.
+	 *
+	 * @param save the action that saves the events
+	 */
+	private static void saveCommitted(final Runnable save) {
+		final Session session = Application.getInstance().getSessionFactory().getCurrentSession();
+		
+		if (!session.getTransaction().isActive()) session.beginTransaction();
+		save.run();
+		session.getTransaction().commit();
+	}
+	
 	@Override
 	public void save() {
 		MonitoringService.getInstance().onLambdaDeployment(this.lambda);
@@ -5,6 +5,7 @@ import edu.teco.smartlambda.authentication.AuthenticationService;
 import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
 import edu.teco.smartlambda.authentication.NotAuthenticatedException;
 import edu.teco.smartlambda.authentication.entities.PermissionType;
+import edu.teco.smartlambda.invocation.Invocation;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.schedule.Event;
@@ -21,14 +22,23 @@ public class PermissionDecorator extends LambdaDecorator {
 		super(lambda);
 	}
 	
+	/**
+	 * @param type required permission type
+	 *
+	 * @return true, if the requester has the permission to perform the action
+	 */
+	private boolean isActionPermitted(final PermissionType type) {
+		return AuthenticationService.getInstance().getAuthenticatedKey().orElseThrow(NotAuthenticatedException::new)
+				.hasPermission(LambdaDecorator.unwrap(this.lambda), type);
+	}
+	
 	/**
 	 * Ensure the requester has the permission to perform the action and throw an exception if not
 	 *
 	 * @param type required permission type
 	 */
 	private void ensureActionIsPermitted(final PermissionType type) {
-		if (!AuthenticationService.getInstance().getAuthenticatedKey().orElseThrow(NotAuthenticatedException::new)
-				.hasPermission(LambdaDecorator.unwrap(this.lambda), type)) throw new InsufficientPermissionsException();
+		if (!this.isActionPermitted(type)) throw new InsufficientPermissionsException();
 	}
 	
 	@Override
@@ -43,6 +53,31 @@ public class PermissionDecorator extends LambdaDecorator {
 		return super.executeAsync(params);
 	}
 	
+	@Override
+	public List<ExecutionResult> executeBatch(final List<String> params) {
+		// the permission does not depend on the parameters, so the whole batch is checked at once
+		this.ensureActionIsPermitted(PermissionType.EXECUTE);
+		return super.executeBatch(params);
+	}
+	
+	@Override
+	public Invocation invoke(final String params) {
+		this.ensureActionIsPermitted(PermissionType.EXECUTE);
+		return super.invoke(params);
+	}
+	
+	@Override
+	public Optional<Invocation> getInvocation(final int id) {
+		final Optional<Invocation> invocation = super.getInvocation(id);
+		
+		// keys may always follow their own invocations, the results of other invocations are part of the status of the lambda
+		if (!invocation.isPresent() || !invocation.get().getKey().getId()
+				.equals(AuthenticationService.getInstance().getAuthenticatedKey().orElseThrow(NotAuthenticatedException::new).getId()))
+			this.ensureActionIsPermitted(PermissionType.STATUS);
+		
+		return invocation;
+	}
+	
 	@Override
 	public void save() {
 		this.ensureActionIsPermitted(PermissionType.CREATE);
@@ -97,4 +132,13 @@ public class PermissionDecorator extends LambdaDecorator {
 		this.ensureActionIsPermitted(PermissionType.STATUS);
 		return super.getMonitoringEvents();
 	}
+	
+	@Override
+	public Optional<LambdaBuild> getBuild() {
+		// keys deploying binaries may follow the builds of their deployments
+		if (!this.isActionPermitted(PermissionType.CREATE) && !this.isActionPermitted(PermissionType.PATCH))
+			this.ensureActionIsPermitted(PermissionType.STATUS);
+		
+		return super.getBuild();
+	}
 }
@@ -13,7 +13,8 @@ public class PrivilegedMonitoredLambdaFactory extends LambdaFactory {
 	/**
 	 * Create a new lambda model instance with default decoration
 	 *
-	 * @return an empty lambda object decorated with authentication and monitoring
+	 * @return an empty lambda object decorated with authentication, result caching, monitoring and
+	 * coalescing of concurrent executions
 	 */
 	@Override
 	public AbstractLambda createLambda() {
@@ -22,6 +23,6 @@ public class PrivilegedMonitoredLambdaFactory extends LambdaFactory {
 	
 	@Override
 	public AbstractLambda decorate(final Lambda lambda) {
-		return new PermissionDecorator(new MonitoringDecorator(lambda));
+		return new PermissionDecorator(new CachingDecorator(new MonitoringDecorator(new CoalescingDecorator(lambda))));
 	}
 }
@@ -0,0 +1,113 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import lombok.Data;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A singleton caching the results of cacheable lambdas. Results are keyed by their {@link ExecutionKey}, so a result is never returned
+ * for a different binary of the lambda. The cache is bounded by the total length of the cached return values and evicts the least
+ * recently used results first.
+ */
+public class ResultCache {
+	private static ResultCache instance;
+	
+	/**
+	 * The weight of a cached result in addition to the length of its return value, so many tiny results are bounded as well
+	 */
+	private static final int ENTRY_OVERHEAD = 128;
+	
+	private final Cache<ExecutionKey, CachedResult> cache;
+	
+	/**
+	 * This class is a singleton and therefore handles instantiation itself
+	 */
+	private ResultCache() {
+		this(ConfigurationService.getInstance().getConfiguration().getLong("cache.maximumSize", 64L * 1024 * 1024));
+	}
+	
+	/**
+	 * @param maximumSize the maximum total length in chars of all cached return values
+	 */
+	ResultCache(final long maximumSize) {
+		this.cache = CacheBuilder.newBuilder().maximumWeight(maximumSize).<ExecutionKey, CachedResult>weigher(
+				(key, result) -> ENTRY_OVERHEAD + result.getReturnValue().length()).build();
+		
+		MetricsService.getInstance().registerGauge("cache.size", this.cache::size);
+	}
+	
+	/**
+	 * @return the singleton instance of this class
+	 */
+	public static synchronized ResultCache getInstance() {
+		if (instance == null) instance = new ResultCache();
+		return instance;
+	}
+	
+	/**
+	 * Look up the result of an earlier execution of the lambda with equal parameters
+	 *
+	 * @param lambda the lambda
+	 * @param params the serialized parameters of the execution
+	 *
+	 * @return the cached result, which reports no consumed resources, or an empty optional if no unexpired result is cached
+	 */
+	public Optional<ExecutionResult> get(final Lambda lambda, final String params) {
+		final ExecutionKey key    = ExecutionKey.of(lambda, params);
+		final CachedResult cached = key != null ? this.cache.getIfPresent(key) : null;
+		
+		if (cached == null || cached.getExpiration() < System.currentTimeMillis()) {
+			if (cached != null) this.cache.asMap().remove(key, cached);
+			
+			MetricsService.getInstance().increment("cache.misses");
+			return Optional.empty();
+		}
+		
+		MetricsService.getInstance().increment("cache.hits");
+		
+		final ExecutionResult result = new ExecutionResult();
+		result.setExecutionReturnValue(new ExecutionReturnValue(cached.getReturnValue(), ""));
+		return Optional.of(result);
+	}
+	
+	/**
+	 * Cache the result of an execution of the lambda for the cache TTL of the lambda. Failed executions are not cached, as they might have
+	 * failed for reasons that do not depend on the parameters.
+	 *
+	 * @param lambda the lambda
+	 * @param params the serialized parameters of the execution
+	 * @param result the result of the execution
+	 */
+	public void put(final Lambda lambda, final String params, final ExecutionResult result) {
+		final ExecutionReturnValue returnValue = result.getExecutionReturnValue();
+		if (returnValue == null || returnValue.isException() || !returnValue.getReturnValue().isPresent()) return;
+		
+		final ExecutionKey key = ExecutionKey.of(lambda, params);
+		if (key == null) return;
+		
+		this.cache.put(key, new CachedResult(returnValue.getReturnValue().get(),
+				System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(lambda.getCacheTtl())));
+	}
+	
+	/**
+	 * Remove all cached results of a lambda
+	 *
+	 * @param lambda the lambda
+	 */
+	public void invalidate(final Lambda lambda) {
+		this.cache.asMap().keySet().removeIf(key -> key.getLambdaId() == lambda.getId());
+	}
+	
+	@Data
+	private static class CachedResult {
+		private final String returnValue;
+		private final long   expiration;
+	}
+}
@@ -0,0 +1,84 @@
+package edu.teco.smartlambda.monitoring;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A singleton collecting in-memory runtime metrics of the system itself. Unlike the {@link MonitoringService}, which persists events
+ * about single lambdas, metrics are cheap counters and gauges that describe the state of the whole application and are lost on restart.
+ */
+public class MetricsService {
+	private static final MetricsService instance = new MetricsService();
+	
+	private final Map<String, LongAdder>    counters = new ConcurrentHashMap<>();
+	private final Map<String, LongSupplier> gauges   = new ConcurrentHashMap<>();
+	
+	/**
+	 * This class is a singleton and therefore handles instantiation itself
+	 */
+	private MetricsService() {
+		// intentionally empty
+	}
+	
+	/**
+	 * @return the singleton instance of this class
+	 */
+	public static MetricsService getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Increment a counter by one
+	 *
+	 * @param name the name of the counter
+	 */
+	public void increment(final String name) {
+		this.add(name, 1);
+	}
+	
+	/**
+	 * Add a value to a counter. Counters that don't exist yet are created with an initial value of zero.
+	 *
+	 * @param name  the name of the counter
+	 * @param delta the value to add
+	 */
+	public void add(final String name, final long delta) {
+		this.counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+	}
+	
+	/**
+	 * @param name the name of the counter
+	 *
+	 * @return the current value of the counter or zero if it doesn't exist
+	 */
+	public long getCounter(final String name) {
+		final LongAdder counter = this.counters.get(name);
+		return counter != null ? counter.sum() : 0;
+	}
+	
+	/**
+	 * Register a gauge whose value is sampled whenever the metrics are read. An existing gauge of the same name is replaced.
+	 *
+	 * @param name  the name of the gauge
+	 * @param gauge a supplier of the current value
+	 */
+	public void registerGauge(final String name, final LongSupplier gauge) {
+		this.gauges.put(name, gauge);
+	}
+	
+	/**
+	 * @return the current values of all counters and gauges ordered by name
+	 */
+	public SortedMap<String, Long> getSnapshot() {
+		final SortedMap<String, Long> snapshot = new TreeMap<>();
+		
+		this.counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+		this.gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsLong()));
+		
+		return snapshot;
+	}
+}
@@ -4,6 +4,7 @@ import edu.teco.smartlambda.Application;
 import edu.teco.smartlambda.authentication.entities.Key;
 import edu.teco.smartlambda.authentication.entities.User;
 import edu.teco.smartlambda.lambda.AbstractLambda;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -19,7 +20,10 @@ import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * A data class for monitoring information
@@ -28,6 +32,10 @@ import java.util.Calendar;
 @Table(name = "MonitoringEvent")
 public class MonitoringEvent {
 	
+	private static final String INSERT =
+			"INSERT INTO `MonitoringEvent` (`time`, `lambdaName`, `duration`, `CPUTime`, `peakMemory`, `error`, `type`, `lambdaOwner`, " +
+					"`key`) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	
 	@Temporal(TemporalType.DATE)
 	@Getter
 	@Setter
@@ -46,8 +54,12 @@ public class MonitoringEvent {
 	private long                CPUTime;
 	@Getter
 	@Setter
+	private long                peakMemory;
+	@Getter
+	@Setter
 	private String              error;
 	@Getter
+	@Setter(AccessLevel.PACKAGE)
 	@Enumerated(EnumType.STRING)
 	private MonitoringEventType type;
 	@ManyToOne(fetch = FetchType.LAZY)
@@ -76,8 +88,37 @@ public class MonitoringEvent {
 		Application.getInstance().getSessionFactory().getCurrentSession().save(this);
 	}
 	
+	/**
+	 * Saves events to the database with a single batched insert
+	 *
+	 * @param events the events to save
+	 */
+	public static void saveAll(final List<MonitoringEvent> events) {
+		if (events.isEmpty()) return;
+		
+		// hibernate does not batch inserts of entities with generated identities, so the batch is inserted with plain JDBC
+		Application.getInstance().getSessionFactory().getCurrentSession().doWork(connection -> {
+			try (final PreparedStatement statement = connection.prepareStatement(INSERT)) {
+				for (final MonitoringEvent event : events) {
+					statement.setTimestamp(1, new Timestamp(event.time.getTimeInMillis()));
+					statement.setString(2, event.lambdaName);
+					statement.setLong(3, event.duration);
+					statement.setLong(4, event.CPUTime);
+					statement.setLong(5, event.peakMemory);
+					statement.setString(6, event.error);
+					statement.setString(7, event.type.name());
+					statement.setInt(8, event.lambdaOwner.getId());
+					statement.setString(9, event.key != null ? event.key.getId() : null);
+					statement.addBatch();
+				}
+				
+				statement.executeBatch();
+			}
+		});
+	}
+	
 	enum MonitoringEventType {
-		EXECUTION, DELETION, DEPLOYMENT
+		EXECUTION, TIMEOUT, DELETION, DEPLOYMENT
 	}
 }
 
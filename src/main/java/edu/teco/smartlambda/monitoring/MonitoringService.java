@@ -3,9 +3,11 @@ package edu.teco.smartlambda.monitoring;
 import edu.teco.smartlambda.authentication.AuthenticationService;
 import edu.teco.smartlambda.authentication.NotAuthenticatedException;
 import edu.teco.smartlambda.lambda.AbstractLambda;
+import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.shared.ExecutionReturnValue;
 
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * A service class that is saving monitoring information
@@ -42,19 +44,84 @@ public class MonitoringService {
 	 * Sets the missing properties in event and saves the event to the database
 	 *  @param lambda               monitored lambda
 	 * @param CPUTime              the lambda used
+	 * @param peakMemory           the highest memory usage in bytes of the container the lambda was executed in
 	 * @param executionReturnValue executionReturnValue or exception of lambda
 	 * @param monitoringEvent
 	 */
-	public void onLambdaExecutionEnd(final AbstractLambda lambda, final long CPUTime, final ExecutionReturnValue executionReturnValue,
-			final MonitoringEvent monitoringEvent) {
+	public void onLambdaExecutionEnd(final AbstractLambda lambda, final long CPUTime, final long peakMemory,
+			final ExecutionReturnValue executionReturnValue, final MonitoringEvent monitoringEvent) {
+		final long duration = Calendar.getInstance().getTimeInMillis() - monitoringEvent.getTime().getTimeInMillis();
+		this.complete(monitoringEvent, CPUTime, peakMemory, duration, executionReturnValue);
+		monitoringEvent.save();
+	}
+	
+	/**
+	 * Sets the missing properties in the events of a batch of executions and saves all events to the database at once
+	 *
+	 * @param lambda           monitored lambda
+	 * @param results          the results of the executions
+	 * @param monitoringEvents the events created at the start of the batch, one per execution in the order of the results
+	 */
+	public void onLambdaBatchExecutionEnd(final AbstractLambda lambda, final List<ExecutionResult> results,
+			final List<MonitoringEvent> monitoringEvents) {
+		for (int i = 0; i < results.size(); i++) {
+			final ExecutionResult result = results.get(i);
+			this.complete(monitoringEvents.get(i), result.getConsumedCPUTime(), result.getPeakMemory(), result.getDuration(),
+					result.getExecutionReturnValue());
+		}
+		
+		MonitoringEvent.saveAll(monitoringEvents);
+	}
+	
+	/**
+	 * Sets the properties of an event that are known at the end of an execution
+	 *
+	 * @param monitoringEvent      the event created at the start of the execution
+	 * @param CPUTime              the CPU time the lambda used
+	 * @param peakMemory           the highest memory usage in bytes of the container the lambda was executed in
+	 * @param duration             the duration of the execution in milliseconds
+	 * @param executionReturnValue executionReturnValue or exception of lambda
+	 */
+	private void complete(final MonitoringEvent monitoringEvent, final long CPUTime, final long peakMemory, final long duration,
+			final ExecutionReturnValue executionReturnValue) {
 		monitoringEvent.setCPUTime(CPUTime);
-		monitoringEvent.setDuration(Calendar.getInstance().getTimeInMillis() - monitoringEvent.getTime().getTimeInMillis());
+		monitoringEvent.setPeakMemory(peakMemory);
+		monitoringEvent.setDuration(duration);
 		if (executionReturnValue.isException()) {
 			monitoringEvent.setError(executionReturnValue.getException().get());
 		}
+	}
+	
+	/**
+	 * Marks the event as a timed out execution and saves it to the database
+	 *
+	 * @param lambda          monitored lambda
+	 * @param monitoringEvent the event created at the start of the execution
+	 */
+	public void onLambdaExecutionTimeout(final AbstractLambda lambda, final MonitoringEvent monitoringEvent) {
+		monitoringEvent.setType(MonitoringEvent.MonitoringEventType.TIMEOUT);
+		monitoringEvent.setDuration(Calendar.getInstance().getTimeInMillis() - monitoringEvent.getTime().getTimeInMillis());
+		monitoringEvent.setError("Execution timed out after " + lambda.getTimeout() + " seconds");
 		monitoringEvent.save();
 	}
 	
+	/**
+	 * Marks the events of a batch of executions as timed out and saves all events to the database at once
+	 *
+	 * @param lambda           monitored lambda
+	 * @param monitoringEvents the events created at the start of the batch
+	 */
+	public void onLambdaBatchExecutionTimeout(final AbstractLambda lambda, final List<MonitoringEvent> monitoringEvents) {
+		for (final MonitoringEvent monitoringEvent : monitoringEvents) {
+			monitoringEvent.setType(MonitoringEvent.MonitoringEventType.TIMEOUT);
+			monitoringEvent.setDuration(Calendar.getInstance().getTimeInMillis() - monitoringEvent.getTime().getTimeInMillis());
+			monitoringEvent.setError("Batch of " + monitoringEvents.size() + " executions timed out after " +
+					(long) lambda.getTimeout() * monitoringEvents.size() + " seconds");
+		}
+		
+		MonitoringEvent.saveAll(monitoringEvents);
+	}
+	
 	/**
 	 * Sets properties of event that are important at deletion
 	 *
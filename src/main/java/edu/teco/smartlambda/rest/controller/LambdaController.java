@@ -1,17 +1,38 @@
 package edu.teco.smartlambda.rest.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
 import edu.teco.smartlambda.authentication.NotAuthenticatedException;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.invocation.Invocation;
+import edu.teco.smartlambda.invocation.InvocationQueueFullException;
 import edu.teco.smartlambda.lambda.AbstractLambda;
+import edu.teco.smartlambda.lambda.BuildRejectedException;
+import edu.teco.smartlambda.lambda.LambdaBuild;
+import edu.teco.smartlambda.lambda.LambdaExecutionTimeoutException;
 import edu.teco.smartlambda.lambda.LambdaFacade;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
+import edu.teco.smartlambda.rest.exception.BuildNotFoundException;
+import edu.teco.smartlambda.rest.exception.InvalidBatchSizeException;
+import edu.teco.smartlambda.rest.exception.InvalidCacheTtlException;
+import edu.teco.smartlambda.rest.exception.InvalidResourceLimitException;
+import edu.teco.smartlambda.rest.exception.InvalidTimeoutException;
+import edu.teco.smartlambda.rest.exception.InvocationNotFoundException;
 import edu.teco.smartlambda.rest.exception.LambdaNotFoundException;
 import edu.teco.smartlambda.rest.exception.MissingSourceException;
 import edu.teco.smartlambda.rest.exception.RuntimeNotFoundException;
 import edu.teco.smartlambda.rest.exception.UserNotFoundException;
+import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
 import edu.teco.smartlambda.runtime.RuntimeRegistry;
 import edu.teco.smartlambda.shared.ExecutionReturnValue;
@@ -20,6 +41,9 @@ import spark.Request;
 import spark.Response;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -27,15 +51,95 @@ import java.util.List;
  * Provides REST calls related to lifecycle handling of lambdas.
  */
 public class LambdaController {
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	
+	/**
+	 * An execution request. The parameters are only passed through to the lambda, so they are not deserialized but copied out of the
+	 * request body as they are.
+	 */
 	@Data
 	private static class LambdaExecutionRequest {
-		private Boolean    async;
-		private ObjectNode parameters;
+		private Boolean           async;
+		private ExecutionPriority priority;
+		private String            parameters;
+		
+		/**
+		 * @param body the UTF-8 encoded request body
+		 *
+		 * @return the execution request of the body
+		 *
+		 * @throws IOException if the body is not a valid execution request
+		 */
+		static LambdaExecutionRequest parse(final byte[] body) throws IOException {
+			final LambdaExecutionRequest executionRequest = new LambdaExecutionRequest();
+			
+			try (final JsonParser parser = JSON_FACTORY.createParser(body)) {
+				if (parser.nextToken() != JsonToken.START_OBJECT) throw JsonMappingException.from(parser, "Expected an execution request");
+				
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					final String    field = parser.getCurrentName();
+					final JsonToken value = parser.nextToken();
+					
+					if (field.equals("async") && (value == JsonToken.VALUE_TRUE || value == JsonToken.VALUE_FALSE)) {
+						executionRequest.async = parser.getBooleanValue();
+					} else if (field.equals("async") && value == JsonToken.VALUE_STRING) {
+						executionRequest.async = parseBoolean(parser, field);
+					} else if (field.equals("priority") && value == JsonToken.VALUE_STRING) {
+						try {
+							executionRequest.priority = ExecutionPriority.valueOf(parser.getText().toUpperCase());
+						} catch (final IllegalArgumentException e) {
+							throw JsonMappingException.from(parser, "Invalid value of " + field, e);
+						}
+					} else if (field.equals("parameters") && value == JsonToken.START_OBJECT) {
+						// the parser reads from a byte array, so its locations are byte offsets into the body
+						final int start = (int) parser.getTokenLocation().getByteOffset();
+						parser.skipChildren();
+						final int end = (int) parser.getCurrentLocation().getByteOffset();
+						
+						executionRequest.parameters = new String(body, start, end - start, StandardCharsets.UTF_8);
+					} else if (field.equals("async") || field.equals("priority") || field.equals("parameters")) {
+						if (value != JsonToken.VALUE_NULL) throw JsonMappingException.from(parser, "Invalid value of " + field);
+					} else {
+						throw UnrecognizedPropertyException
+								.from(parser, LambdaExecutionRequest.class, field, Arrays.asList("async", "priority", "parameters"));
+					}
+				}
+			}
+			
+			return executionRequest;
+		}
+		
+		/**
+		 * Coerce a textual boolean the same way the data binding of Jackson does
+		 *
+		 * @param parser the parser positioned at a string value
+		 * @param field  the name of the field holding the value
+		 *
+		 * @return the boolean of the value or null, if the value is empty or "null"
+		 *
+		 * @throws IOException if the value is not a textual boolean
+		 */
+		private static Boolean parseBoolean(final JsonParser parser, final String field) throws IOException {
+			final String text = parser.getText().trim();
+			
+			if (text.equals("true") || text.equals("True")) return true;
+			if (text.equals("false") || text.equals("False")) return false;
+			if (text.isEmpty() || text.equals("null")) return null;
+			
+			throw JsonMappingException.from(parser, "Invalid value of " + field);
+		}
 	}
 	
 	@Data
 	private static class LambdaRequest {
 		private Boolean async;
+		private Integer timeout;
+		private Integer memoryLimit;
+		private Integer cpuShares;
+		private Integer cpuQuota;
+		private Integer pidsLimit;
+		private Boolean cacheable;
+		private Integer cacheTtl;
 		private String  runtime;
 		private byte[]  src;
 	}
@@ -45,13 +149,34 @@ public class LambdaController {
 		private String  user;
 		private String  name;
 		private boolean async;
+		private int     timeout;
+		private int     memoryLimit;
+		private int     cpuShares;
+		private int     cpuQuota;
+		private int     pidsLimit;
+		private boolean cacheable;
+		private int     cacheTtl;
 		private String  runtime;
 	}
 	
+	@Data
+	private static class DeploymentResponse {
+		private String build;
+	}
+	
+	@Data
+	private static class BuildResponse {
+		private String id;
+		private String state;
+		private String error;
+	}
+	
 	@Data
 	private static class StatisticsResponse {
 		private long executions;
 		private long averageExecutionTime;
+		private long averageCPUTime;
+		private long peakMemory;
 		private long errors;
 	}
 	
@@ -61,7 +186,8 @@ public class LambdaController {
 	 * Creates a new lambda.
 	 * </p>
 	 * <p>
-	 * The request must contain a new, unused lambda name. Responds with an empty JSON object on success.
+	 * The request must contain a new, unused lambda name. The binary is built in the background, the lambda can not be executed before
+	 * the build succeeded. Responds with a JSON object containing the id of the build in <code>build</code> on success.
 	 * </p>
 	 * <table>
 	 * <caption><b>Body parameters</b></caption>
@@ -81,6 +207,49 @@ public class LambdaController {
 	 * <td>default = false</td>
 	 * </tr>
 	 * <tr>
+	 * <td>timeout</td>
+	 * <td>integer</td>
+	 * <td>Maximum duration of a single execution in seconds, executions exceeding it are aborted</td>
+	 * <td>default = 30</td>
+	 * </tr>
+	 * <tr>
+	 * <td>memoryLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum memory of a single container executing the lambda in megabytes, the heap of its JVM is sized to match</td>
+	 * <td>default = 0 (unlimited)</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuShares</td>
+	 * <td>integer</td>
+	 * <td>Relative weight of a single container executing the lambda when the CPU time of the host is contended</td>
+	 * <td>default = 0 (unlimited)</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuQuota</td>
+	 * <td>integer</td>
+	 * <td>Maximum CPU usage of a single container executing the lambda in percent of a single CPU</td>
+	 * <td>default = 0 (unlimited)</td>
+	 * </tr>
+	 * <tr>
+	 * <td>pidsLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum number of processes and threads of a single container executing the lambda</td>
+	 * <td>default = 0 (unlimited)</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheable</td>
+	 * <td>boolean</td>
+	 * <td>Sets whether the results of the lambda only depend on its parameters, so they are cached and returned for executions with
+	 * equal parameters</td>
+	 * <td>default = false</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheTtl</td>
+	 * <td>integer</td>
+	 * <td>Duration in seconds a cached result is returned for before the lambda is executed again</td>
+	 * <td>default = 60</td>
+	 * </tr>
+	 * <tr>
 	 * <td>runtime</td>
 	 * <td>enum("jre8")</td>
 	 * <td>The runtime required for executing the lambda</td>
@@ -101,6 +270,10 @@ public class LambdaController {
 	 * @throws UserNotFoundException            <b>404</b> Thrown when target lambda owner user is unknown
 	 * @throws RuntimeNotFoundException         <b>400</b> Thrown when specified runtime is unknown
 	 * @throws MissingSourceException           <b>400</b> Thrown when no source code or binary container was provided
+	 * @throws InvalidTimeoutException          <b>400</b> Thrown when the timeout is less than one second
+	 * @throws InvalidResourceLimitException    <b>400</b> Thrown when a resource limit is negative
+	 * @throws InvalidCacheTtlException         <b>400</b> Thrown when the cache TTL is less than one second
+	 * @throws BuildRejectedException           <b>503</b> Thrown when too many builds are pending
 	 */
 	public static Object createLambda(final Request request, final Response response) throws IOException {
 		final LambdaRequest  lambdaRequest = new ObjectMapper().readValue(request.body(), LambdaRequest.class);
@@ -111,14 +284,21 @@ public class LambdaController {
 		if (lambdaRequest.getSrc() == null || lambdaRequest.getSrc().length == 0) throw new MissingSourceException();
 		
 		lambda.setAsync(lambdaRequest.getAsync());
+		if (lambdaRequest.getTimeout() != null) {
+			if (lambdaRequest.getTimeout() < 1) throw new InvalidTimeoutException(lambdaRequest.getTimeout());
+			
+			lambda.setTimeout(lambdaRequest.getTimeout());
+		}
+		setResourceLimits(lambda, lambdaRequest);
+		setCaching(lambda, lambdaRequest);
 		lambda.setOwner(User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user"))));
 		lambda.setName(request.params(":name"));
 		lambda.setRuntime(runtime);
 		lambda.deployBinary(lambdaRequest.getSrc());
 		lambda.save();
 		
-		response.status(201);
-		return new Object();
+		response.status(202);
+		return createDeploymentResponse(lambda);
 	}
 	
 	/**
@@ -127,7 +307,9 @@ public class LambdaController {
 	 * Updates an existing lambda.
 	 * </p>
 	 * <p>
-	 * The request must specify the name of an existing lambda. Responds with an empty JSON object on success.
+	 * The request must specify the name of an existing lambda. If a new binary is provided, it is built in the background and the lambda
+	 * keeps executing its previous binary until the build succeeded. Responds with a JSON object containing the id of the build in
+	 * <code>build</code> if a new binary is provided or an empty JSON object otherwise.
 	 * </p>
 	 * <table>
 	 * <caption><b>Body parameters</b></caption>
@@ -147,6 +329,49 @@ public class LambdaController {
 	 * <td>No</td>
 	 * </tr>
 	 * <tr>
+	 * <td>timeout</td>
+	 * <td>integer</td>
+	 * <td>Maximum duration of a single execution in seconds, executions exceeding it are aborted</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>memoryLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum memory of a single container executing the lambda in megabytes, the heap of its JVM is sized to match</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuShares</td>
+	 * <td>integer</td>
+	 * <td>Relative weight of a single container executing the lambda when the CPU time of the host is contended</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuQuota</td>
+	 * <td>integer</td>
+	 * <td>Maximum CPU usage of a single container executing the lambda in percent of a single CPU</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>pidsLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum number of processes and threads of a single container executing the lambda</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheable</td>
+	 * <td>boolean</td>
+	 * <td>Sets whether the results of the lambda only depend on its parameters, so they are cached and returned for executions with
+	 * equal parameters</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheTtl</td>
+	 * <td>integer</td>
+	 * <td>Duration in seconds a cached result is returned for before the lambda is executed again</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
 	 * <td>runtime</td>
 	 * <td>enum("jre8")</td>
 	 * <td>The runtime required for executing the lambda</td>
@@ -169,6 +394,10 @@ public class LambdaController {
 	 * @throws RuntimeNotFoundException         <b>400</b> Thrown when specified runtime is unknown
 	 * @throws MissingSourceException           <b>400</b> Thrown when source code or binary container is specified and not null but has
 	 *                                          zero length
+	 * @throws InvalidTimeoutException          <b>400</b> Thrown when the timeout is less than one second
+	 * @throws InvalidResourceLimitException    <b>400</b> Thrown when a resource limit is negative
+	 * @throws InvalidCacheTtlException         <b>400</b> Thrown when the cache TTL is less than one second
+	 * @throws BuildRejectedException           <b>503</b> Thrown when a new binary is provided and too many builds are pending
 	 */
 	public static Object updateLambda(final Request request, final Response response) throws IOException {
 		final LambdaRequest lambdaRequest = new ObjectMapper().readValue(request.body(), LambdaRequest.class);
@@ -177,6 +406,13 @@ public class LambdaController {
 		final AbstractLambda lambda = LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, name).orElseThrow(() -> new LambdaNotFoundException(name));
 		
 		if (lambdaRequest.getAsync() != null) lambda.setAsync(lambdaRequest.getAsync());
+		if (lambdaRequest.getTimeout() != null) {
+			if (lambdaRequest.getTimeout() < 1) throw new InvalidTimeoutException(lambdaRequest.getTimeout());
+			
+			lambda.setTimeout(lambdaRequest.getTimeout());
+		}
+		setResourceLimits(lambda, lambdaRequest);
+		setCaching(lambda, lambdaRequest);
 		if (lambdaRequest.getRuntime() != null) {
 			final Runtime runtime = RuntimeRegistry.getInstance().getRuntimeByName(lambdaRequest.getRuntime());
 			
@@ -191,10 +427,87 @@ public class LambdaController {
 		}
 		lambda.update();
 		
+		if (lambdaRequest.getSrc() != null) {
+			response.status(202);
+			return createDeploymentResponse(lambda);
+		}
+		
 		response.status(200);
 		return new Object();
 	}
 	
+	/**
+	 * Set the resource limits given in a request. Limits missing in the request are left unchanged.
+	 *
+	 * @param lambda        the lambda to limit
+	 * @param lambdaRequest the request specifying the limits
+	 */
+	private static void setResourceLimits(final AbstractLambda lambda, final LambdaRequest lambdaRequest) {
+		if (lambdaRequest.getMemoryLimit() == null && lambdaRequest.getCpuShares() == null && lambdaRequest.getCpuQuota() == null &&
+				lambdaRequest.getPidsLimit() == null) return;
+		
+		final ResourceLimits limits = lambda.getResourceLimits();
+		lambda.setResourceLimits(new ResourceLimits(getResourceLimit("memoryLimit", lambdaRequest.getMemoryLimit(), limits.getMemory()),
+				getResourceLimit("cpuShares", lambdaRequest.getCpuShares(), limits.getCpuShares()),
+				getResourceLimit("cpuQuota", lambdaRequest.getCpuQuota(), limits.getCpuQuota()),
+				getResourceLimit("pidsLimit", lambdaRequest.getPidsLimit(), limits.getPids())));
+	}
+	
+	/**
+	 * Set the caching of results given in a request. Settings missing in the request are left unchanged.
+	 *
+	 * @param lambda        the lambda to cache the results of
+	 * @param lambdaRequest the request specifying the caching
+	 */
+	private static void setCaching(final AbstractLambda lambda, final LambdaRequest lambdaRequest) {
+		if (lambdaRequest.getCacheable() != null) lambda.setCacheable(lambdaRequest.getCacheable());
+		if (lambdaRequest.getCacheTtl() != null) {
+			if (lambdaRequest.getCacheTtl() < 1) throw new InvalidCacheTtlException(lambdaRequest.getCacheTtl());
+			
+			lambda.setCacheTtl(lambdaRequest.getCacheTtl());
+		}
+	}
+	
+	/**
+	 * @param name         the name of the limit
+	 * @param value        the limit given in the request or null, if none was given
+	 * @param currentValue the current limit of the lambda
+	 *
+	 * @return the limit of the lambda after the request
+	 */
+	private static int getResourceLimit(final String name, final Integer value, final int currentValue) {
+		if (value == null) return currentValue;
+		if (value < 0) throw new InvalidResourceLimitException(name, value);
+		
+		return value;
+	}
+	
+	private static LambdaResponse createLambdaResponse(final AbstractLambda lambda) {
+		final LambdaResponse lambdaResponse = new LambdaResponse();
+		final ResourceLimits limits         = lambda.getResourceLimits();
+		
+		lambdaResponse.setUser(lambda.getOwner().getName());
+		lambdaResponse.setName(lambda.getName());
+		lambdaResponse.setAsync(lambda.isAsync());
+		lambdaResponse.setTimeout(lambda.getTimeout());
+		lambdaResponse.setMemoryLimit(limits.getMemory());
+		lambdaResponse.setCpuShares(limits.getCpuShares());
+		lambdaResponse.setCpuQuota(limits.getCpuQuota());
+		lambdaResponse.setPidsLimit(limits.getPids());
+		lambdaResponse.setCacheable(lambda.isCacheable());
+		lambdaResponse.setCacheTtl(lambda.getCacheTtl());
+		lambdaResponse.setRuntime(lambda.getRuntime().getName());
+		
+		return lambdaResponse;
+	}
+	
+	private static DeploymentResponse createDeploymentResponse(final AbstractLambda lambda) {
+		final DeploymentResponse deploymentResponse = new DeploymentResponse();
+		deploymentResponse.setBuild(lambda.getBuild().map(LambdaBuild::getId).orElse(null));
+		
+		return deploymentResponse;
+	}
+	
 	/**
 	 * <code><b>GET</b> /<i>:user</i>/lambda/<i>:name</i></code>
 	 * <p>
@@ -229,6 +542,41 @@ public class LambdaController {
 	 * <td>True, if the lambda is executed asynchronously per default, false otherwise.</td>
 	 * </tr>
 	 * <tr>
+	 * <td>timeout</td>
+	 * <td>integer</td>
+	 * <td>Maximum duration of a single execution in seconds</td>
+	 * </tr>
+	 * <tr>
+	 * <td>memoryLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum memory of a single container executing the lambda in megabytes, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuShares</td>
+	 * <td>integer</td>
+	 * <td>Relative CPU weight of a single container executing the lambda, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuQuota</td>
+	 * <td>integer</td>
+	 * <td>Maximum CPU usage of a single container executing the lambda in percent of a single CPU, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>pidsLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum number of processes and threads of a single container executing the lambda, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheable</td>
+	 * <td>boolean</td>
+	 * <td>True, if the results of the lambda are cached, false otherwise.</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheTtl</td>
+	 * <td>integer</td>
+	 * <td>Duration in seconds a cached result is returned for</td>
+	 * </tr>
+	 * <tr>
 	 * <td>runtime</td>
 	 * <td>enum("jre8")</td>
 	 * <td>The runtime used for executing the lambda.</td>
@@ -243,18 +591,12 @@ public class LambdaController {
 	 * @throws LambdaNotFoundException          <b>404</b> Thrown when target lambda is unknown
 	 */
 	public static Object readLambda(final Request request, final Response response) throws IOException {
-		final LambdaResponse lambdaResponse = new LambdaResponse();
 		final String         name           = request.params(":name");
 		final User           user           = User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
 		final AbstractLambda lambda = LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, name).orElseThrow(() -> new LambdaNotFoundException(name));
 		
-		lambdaResponse.setUser(lambda.getOwner().getName());
-		lambdaResponse.setName(lambda.getName());
-		lambdaResponse.setAsync(lambda.isAsync());
-		lambdaResponse.setRuntime(lambda.getRuntime().getName());
-		
 		response.status(200);
-		return lambdaResponse;
+		return createLambdaResponse(lambda);
 	}
 	
 	/**
@@ -294,6 +636,10 @@ public class LambdaController {
 	 * The request must specify the name of an existing lambda. The body contains the response generated by the lambda. Empty if no
 	 * response is generated.
 	 * </p>
+	 * <p>
+	 * Asynchronous executions are queued durably and respond with <b>202</b> and a JSON object containing the id of the invocation in
+	 * <code>id</code>. The <code>Location</code> header refers to the invocation, which can be polled for its status and result.
+	 * </p>
 	 * <table>
 	 * <caption><b>Body parameters</b></caption>
 	 * <thead>
@@ -312,6 +658,13 @@ public class LambdaController {
 	 * <td>default = default async value of lambda</td>
 	 * </tr>
 	 * <tr>
+	 * <td>priority</td>
+	 * <td>string</td>
+	 * <td>The priority class of the execution, one of <code>interactive</code>, <code>async</code> and <code>scheduled</code>. Executions
+	 * of higher classes are started first.</td>
+	 * <td>default = interactive for synchronous and async for asynchronous executions</td>
+	 * </tr>
+	 * <tr>
 	 * <td>parameters</td>
 	 * <td>object</td>
 	 * <td>An arbitrary JSON object with parameters to pass to the lambda</td>
@@ -325,21 +678,32 @@ public class LambdaController {
 	 *                                          lambda
 	 * @throws UserNotFoundException            <b>404</b> Thrown when target lambda owner is unknown
 	 * @throws LambdaNotFoundException          <b>404</b> Thrown when target lambda is unknown
+	 * @throws LambdaExecutionTimeoutException  <b>504</b> Thrown when a synchronous execution exceeds the timeout of the lambda
+	 * @throws InvocationQueueFullException     <b>429</b> Thrown when the lambda has too many queued asynchronous invocations
 	 */
 	public static Object executeLambda(final Request request, final Response response) throws IOException {
 		final String                 name                   = request.params(":name");
-		final LambdaExecutionRequest lambdaExecutionRequest = new ObjectMapper().readValue(request.body(), LambdaExecutionRequest.class);
+		final LambdaExecutionRequest lambdaExecutionRequest = LambdaExecutionRequest.parse(request.bodyAsBytes());
 		final User                   user                   =
 				User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
 		final AbstractLambda lambda = LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, name).orElseThrow(() -> new LambdaNotFoundException(name));
 		
-		if ((lambda.isAsync() && lambdaExecutionRequest.async == null) || (lambdaExecutionRequest.async != null && lambdaExecutionRequest.async)) {
-			lambda.executeAsync(lambdaExecutionRequest.getParameters() != null ? lambdaExecutionRequest.getParameters().toString() : "");
+		final boolean async =
+				(lambda.isAsync() && lambdaExecutionRequest.async == null) || (lambdaExecutionRequest.async != null && lambdaExecutionRequest.async);
+		ExecutionPriority.setCurrent(lambdaExecutionRequest.priority != null ? lambdaExecutionRequest.priority :
+				async ? ExecutionPriority.ASYNC : ExecutionPriority.INTERACTIVE);
+		
+		if (async) {
+			final Invocation invocation =
+					lambda.invoke(lambdaExecutionRequest.getParameters() != null ? lambdaExecutionRequest.getParameters() : "");
 			response.status(202);
-			return "";
+			response.header("Location", "/" + user.getName() + "/lambda/" + name + "/invocation/" + invocation.getId());
+			
+			final ObjectMapper mapper = new ObjectMapper();
+			return mapper.writeValueAsString(mapper.createObjectNode().put("id", invocation.getId()));
 		} else {
 			final ExecutionReturnValue executionReturnValue = lambda.executeSync(
-					lambdaExecutionRequest.getParameters() != null ? lambdaExecutionRequest.getParameters().toString() : "").getExecutionReturnValue();
+					lambdaExecutionRequest.getParameters() != null ? lambdaExecutionRequest.getParameters() : "").getExecutionReturnValue();
 			if (executionReturnValue.isException()) {
 				response.status(502);
 				return "";
@@ -350,6 +714,80 @@ public class LambdaController {
 		}
 	}
 	
+	/**
+	 * <code><b>POST</b> /<i>:user</i>/lambda/<i>:name</i>/batch</code>
+	 * <p>
+	 * Executes a lambda synchronously once for every parameter object in the body. The executions run one after another in the same
+	 * container, which saves the overhead of separate requests for many small executions. The timeout of the batch is the timeout of the
+	 * lambda multiplied by the number of executions.
+	 * </p>
+	 * <p>
+	 * The request must specify the name of an existing lambda. The body is a JSON array of arbitrary JSON objects, each of which holds the
+	 * parameters of one execution. The response contains an array of objects in the style of the table below, one for every execution
+	 * in the order of the parameters.
+	 * </p>
+	 * <table>
+	 * <caption><b>Response object values</b></caption>
+	 * <thead>
+	 * <tr>
+	 * <th>Name</th>
+	 * <th>Type</th>
+	 * <th>Description</th>
+	 * </tr>
+	 * </thead>
+	 * <tbody>
+	 * <tr>
+	 * <td>error</td>
+	 * <td>boolean</td>
+	 * <td>True, if the execution threw an error, false otherwise</td>
+	 * </tr>
+	 * <tr>
+	 * <td>result</td>
+	 * <td>any</td>
+	 * <td>The response generated by the lambda or null if none was generated</td>
+	 * </tr>
+	 * </tbody>
+	 * </table>
+	 *
+	 * @throws NotAuthenticatedException        <b>401</b> Thrown when user is not properly authenticated
+	 * @throws InsufficientPermissionsException <b>403</b> Thrown when the currently authenticated key is not permitted to execute the
+	 *                                          lambda
+	 * @throws UserNotFoundException            <b>404</b> Thrown when target lambda owner is unknown
+	 * @throws LambdaNotFoundException          <b>404</b> Thrown when target lambda is unknown
+	 * @throws InvalidBatchSizeException        <b>400</b> Thrown when the batch is empty or exceeds the configured maximum size
+	 * @throws LambdaExecutionTimeoutException  <b>504</b> Thrown when the batch exceeds its timeout
+	 */
+	public static Object executeLambdaBatch(final Request request, final Response response) throws IOException {
+		final ObjectMapper mapper     = new ObjectMapper();
+		final String       name       = request.params(":name");
+		final ObjectNode[] parameters = mapper.readValue(request.body(), ObjectNode[].class);
+		final User         user       =
+				User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
+		final AbstractLambda lambda = LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, name)
+				.orElseThrow(() -> new LambdaNotFoundException(name));
+		
+		final int maximumSize = ConfigurationService.getInstance().getConfiguration().getInt("execution.maximumBatchSize", 100);
+		if (parameters.length < 1 || parameters.length > maximumSize) throw new InvalidBatchSizeException(parameters.length, maximumSize);
+		
+		final List<String> params = new ArrayList<>(parameters.length);
+		for (final ObjectNode parameter : parameters) params.add(parameter != null ? parameter.toString() : "");
+		
+		ExecutionPriority.setCurrent(ExecutionPriority.INTERACTIVE);
+		
+		final ArrayNode results = mapper.createArrayNode();
+		for (final ExecutionResult result : lambda.executeBatch(params)) {
+			final ExecutionReturnValue executionReturnValue = result.getExecutionReturnValue();
+			final String               returnValue          = executionReturnValue.getReturnValue().orElse("");
+			final ObjectNode           node                 = results.addObject();
+			
+			node.put("error", executionReturnValue.isException());
+			node.set("result", executionReturnValue.isException() || returnValue.isEmpty() ? null : mapper.readTree(returnValue));
+		}
+		
+		response.status(200);
+		return mapper.writeValueAsString(results);
+	}
+	
 	/**
 	 * <code><b>GET</b> /<i>:user</i>/lambdas</code>
 	 * <p>
@@ -382,6 +820,41 @@ public class LambdaController {
 	 * <td>True, if the lambda is executed asynchronously per default, false otherwise.</td>
 	 * </tr>
 	 * <tr>
+	 * <td>timeout</td>
+	 * <td>integer</td>
+	 * <td>Maximum duration of a single execution in seconds</td>
+	 * </tr>
+	 * <tr>
+	 * <td>memoryLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum memory of a single container executing the lambda in megabytes, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuShares</td>
+	 * <td>integer</td>
+	 * <td>Relative CPU weight of a single container executing the lambda, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cpuQuota</td>
+	 * <td>integer</td>
+	 * <td>Maximum CPU usage of a single container executing the lambda in percent of a single CPU, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>pidsLimit</td>
+	 * <td>integer</td>
+	 * <td>Maximum number of processes and threads of a single container executing the lambda, 0 if unlimited</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheable</td>
+	 * <td>boolean</td>
+	 * <td>True, if the results of the lambda are cached, false otherwise.</td>
+	 * </tr>
+	 * <tr>
+	 * <td>cacheTtl</td>
+	 * <td>integer</td>
+	 * <td>Duration in seconds a cached result is returned for</td>
+	 * </tr>
+	 * <tr>
 	 * <td>runtime</td>
 	 * <td>enum("jre8")</td>
 	 * <td>The runtime used for executing the lambda.</td>
@@ -398,13 +871,7 @@ public class LambdaController {
 		final List<LambdaResponse> lambdas = new LinkedList<>();
 		
 		for (final AbstractLambda lambda : User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user"))).getVisibleLambdas()) {
-			final LambdaResponse lambdaResponse = new LambdaResponse();
-			lambdaResponse.setName(lambda.getName());
-			lambdaResponse.setUser(lambda.getOwner().getName());
-			lambdaResponse.setRuntime(lambda.getRuntime().getName());
-			lambdaResponse.setAsync(lambda.isAsync());
-			
-			lambdas.add(lambdaResponse);
+			lambdas.add(createLambdaResponse(lambda));
 		}
 		
 		response.status(200);
@@ -441,6 +908,16 @@ public class LambdaController {
 	 * <td>float</td>
 	 * <td>Average duration of past executions</td>
 	 * </tr>
+	 * <tr>
+	 * <td>averageCPUTime</td>
+	 * <td>integer</td>
+	 * <td>Average CPU time in milliseconds consumed by past executions</td>
+	 * </tr>
+	 * <tr>
+	 * <td>peakMemory</td>
+	 * <td>integer</td>
+	 * <td>Highest memory usage in bytes observed during past executions</td>
+	 * </tr>
 	 * </tbody>
 	 * </table>
 	 *
@@ -455,6 +932,8 @@ public class LambdaController {
 		final User               user               = User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
 		long executions         = 0;
 		long totalExecutionTime = 0;
+		long totalCPUTime       = 0;
+		long peakMemory         = 0;
 		long errors             = 0;
 		
 		for (final MonitoringEvent event : LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, request.params(":name")).orElseThrow(() -> new LambdaNotFoundException(request.params(":name"))).getMonitoringEvents()) {
@@ -462,13 +941,146 @@ public class LambdaController {
 			if (event.getError() != null) errors++;
 			
 			totalExecutionTime += event.getDuration();
+			totalCPUTime += event.getCPUTime();
+			peakMemory = Math.max(peakMemory, event.getPeakMemory());
 		}
 		
 		statisticsResponse.setExecutions(executions);
 		statisticsResponse.setErrors(errors);
 		statisticsResponse.setAverageExecutionTime(totalExecutionTime / executions);
+		statisticsResponse.setAverageCPUTime(totalCPUTime / executions);
+		statisticsResponse.setPeakMemory(peakMemory);
 		
 		response.status(200);
 		return statisticsResponse;
 	}
+	
+	/**
+	 * <code><b>GET</b> /<i>:user</i>/lambda/<i>:name</i>/build</code>
+	 * <p>
+	 * Reads the progress of the most recent build of a binary deployed to the lambda. No body parameters are required. Builds are only
+	 * known until the application restarts.
+	 * </p>
+	 * <table>
+	 * <caption><b>Response values</b></caption>
+	 * <thead>
+	 * <tr>
+	 * <th>Name</th>
+	 * <th>Type</th>
+	 * <th>Description</th>
+	 * </tr>
+	 * </thead>
+	 * <tbody>
+	 * <tr>
+	 * <td>id</td>
+	 * <td>string</td>
+	 * <td>The id of the build</td>
+	 * </tr>
+	 * <tr>
+	 * <td>state</td>
+	 * <td>enum("QUEUED", "RUNNING", "SUCCEEDED", "FAILED", "SUPERSEDED")</td>
+	 * <td>The state of the build. Superseded builds were discarded, because a newer binary was deployed before they finished.</td>
+	 * </tr>
+	 * <tr>
+	 * <td>error</td>
+	 * <td>string</td>
+	 * <td>A description of the failure of a failed build</td>
+	 * </tr>
+	 * </tbody>
+	 * </table>
+	 *
+	 * @throws NotAuthenticatedException        <b>401</b> Thrown when user is not properly authenticated
+	 * @throws InsufficientPermissionsException <b>403</b> Thrown when the currently authenticated key is not permitted to read the status
+	 *                                          of the lambda or to deploy binaries to it
+	 * @throws UserNotFoundException            <b>404</b> Thrown when target lambda owner user is unknown
+	 * @throws LambdaNotFoundException          <b>404</b> Thrown when target lambda is unknown
+	 * @throws BuildNotFoundException           <b>404</b> Thrown when no build of the lambda is known
+	 */
+	public static Object getBuild(final Request request, final Response response) {
+		final String name = request.params(":name");
+		final User   user = User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
+		final LambdaBuild build = LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, name)
+				.orElseThrow(() -> new LambdaNotFoundException(name)).getBuild().orElseThrow(() -> new BuildNotFoundException(name));
+		
+		final BuildResponse buildResponse = new BuildResponse();
+		buildResponse.setId(build.getId());
+		buildResponse.setState(build.getState().name());
+		buildResponse.setError(build.getError());
+		
+		response.status(200);
+		return buildResponse;
+	}
+	
+	/**
+	 * <code><b>GET</b> /<i>:user</i>/lambda/<i>:name</i>/invocation/<i>:id</i></code>
+	 * <p>
+	 * Reads the status and the result of an asynchronous execution of the lambda. No body parameters are required. Finished invocations
+	 * are kept for the configured retention time. Keys may read their own invocations, the invocations of other keys require the
+	 * permission to read the status of the lambda.
+	 * </p>
+	 * <table>
+	 * <caption><b>Response values</b></caption>
+	 * <thead>
+	 * <tr>
+	 * <th>Name</th>
+	 * <th>Type</th>
+	 * <th>Description</th>
+	 * </tr>
+	 * </thead>
+	 * <tbody>
+	 * <tr>
+	 * <td>id</td>
+	 * <td>int</td>
+	 * <td>The id of the invocation</td>
+	 * </tr>
+	 * <tr>
+	 * <td>status</td>
+	 * <td>enum("QUEUED", "RUNNING", "SUCCEEDED", "FAILED", "TIMED_OUT")</td>
+	 * <td>The status of the invocation</td>
+	 * </tr>
+	 * <tr>
+	 * <td>result</td>
+	 * <td>any</td>
+	 * <td>The response generated by the lambda or null if none was generated yet</td>
+	 * </tr>
+	 * <tr>
+	 * <td>error</td>
+	 * <td>string</td>
+	 * <td>A description of the failure of a failed invocation</td>
+	 * </tr>
+	 * </tbody>
+	 * </table>
+	 *
+	 * @throws NotAuthenticatedException        <b>401</b> Thrown when user is not properly authenticated
+	 * @throws InsufficientPermissionsException <b>403</b> Thrown when the invocation was created by another key and the currently
+	 *                                          authenticated key is not permitted to read the status of the lambda
+	 * @throws UserNotFoundException            <b>404</b> Thrown when target lambda owner user is unknown
+	 * @throws LambdaNotFoundException          <b>404</b> Thrown when target lambda is unknown
+	 * @throws InvocationNotFoundException      <b>404</b> Thrown when the lambda has no invocation with the given id
+	 */
+	public static Object getInvocation(final Request request, final Response response) throws IOException {
+		final String name = request.params(":name");
+		final String id   = request.params(":id");
+		final User   user = User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
+		final AbstractLambda lambda = LambdaFacade.getInstance().getFactory().getLambdaByOwnerAndName(user, name)
+				.orElseThrow(() -> new LambdaNotFoundException(name));
+		
+		final Invocation invocation;
+		try {
+			invocation = lambda.getInvocation(Integer.parseInt(id)).orElseThrow(() -> new InvocationNotFoundException(id));
+		} catch (final NumberFormatException e) {
+			throw new InvocationNotFoundException(id);
+		}
+		
+		final ObjectMapper mapper = new ObjectMapper();
+		final ObjectNode   node   = mapper.createObjectNode();
+		final String       result = invocation.getResult();
+		node.put("id", invocation.getId());
+		node.put("status", invocation.getStatus().name());
+		node.set("result", result == null || result.isEmpty() ? null : mapper.readTree(result));
+		node.put("error", invocation.getError());
+		
+		response.status(200);
+		return mapper.writeValueAsString(node);
+	}
 }
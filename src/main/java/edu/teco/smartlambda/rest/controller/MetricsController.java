@@ -0,0 +1,35 @@
+package edu.teco.smartlambda.rest.controller;
+
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
+import edu.teco.smartlambda.authentication.NotAuthenticatedException;
+import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import spark.Request;
+import spark.Response;
+
+/**
+ * Provides REST calls related to runtime metrics of the system.
+ */
+public class MetricsController {
+	private MetricsController() {
+	}
+	
+	/**
+	 * <code><b>GET</b> /metrics</code>
+	 * <p>
+	 * Reads the current runtime metrics of the system. No body parameters are required. Responds with a JSON object mapping the metric
+	 * names to their current values.
+	 * </p>
+	 *
+	 * @throws NotAuthenticatedException        <b>401</b> Thrown when user is not properly authenticated
+	 * @throws InsufficientPermissionsException <b>403</b> Thrown when the currently authenticated user is not an administrator
+	 */
+	public static Object getMetrics(final Request request, final Response response) {
+		final User user = AuthenticationService.getInstance().getAuthenticatedUser().orElseThrow(NotAuthenticatedException::new);
+		if (!user.isAdmin()) throw new InsufficientPermissionsException();
+		
+		response.status(200);
+		return MetricsService.getInstance().getSnapshot();
+	}
+}
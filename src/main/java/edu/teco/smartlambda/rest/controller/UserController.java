@@ -3,6 +3,7 @@ package edu.teco.smartlambda.rest.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.teco.smartlambda.authentication.AuthenticationService;
 import edu.teco.smartlambda.authentication.DuplicateUserException;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
 import edu.teco.smartlambda.authentication.NotAuthenticatedException;
 import edu.teco.smartlambda.authentication.entities.User;
 import edu.teco.smartlambda.identity.GitHubIdentityProvider;
@@ -11,6 +12,7 @@ import edu.teco.smartlambda.identity.IdentityProvider;
 import edu.teco.smartlambda.identity.IdentityProviderRegistry;
 import edu.teco.smartlambda.identity.NullIdentityProvider;
 import edu.teco.smartlambda.rest.exception.IdentityProviderNotFoundException;
+import edu.teco.smartlambda.rest.exception.UserNotFoundException;
 import lombok.Data;
 import org.apache.commons.lang3.tuple.Pair;
 import spark.Request;
@@ -37,6 +39,13 @@ public class UserController {
 		private String primaryKey;
 	}
 	
+	@Data
+	private static class UserRequest {
+		private Boolean trusted;
+		private Integer rateLimit;
+		private Integer rateBurst;
+	}
+	
 	/**
 	 * <code><b>GET</b> /users</code>
 	 * <p>
@@ -170,4 +179,64 @@ public class UserController {
 		response.status(201);
 		return registrationResponse;
 	}
+	
+	/**
+	 * <code><b>PATCH</b> /<i>:user</i></code>
+	 * <p>
+	 * Updates the administrative settings of a user. Only administrators may update users. The rate limit and the burst are always set
+	 * together, so a missing value of either resets it to the configured default, if the other one is provided. Responds with an empty
+	 * JSON object.
+	 * </p>
+	 * <table>
+	 * <caption><b>Body parameters</b></caption>
+	 * <thead>
+	 * <tr>
+	 * <th>Name</th>
+	 * <th>Type</th>
+	 * <th>Description</th>
+	 * <th>Required</th>
+	 * </tr>
+	 * </thead>
+	 * <tbody>
+	 * <tr>
+	 * <td>trusted</td>
+	 * <td>boolean</td>
+	 * <td>Sets whether the user may deploy lambdas of in-process runtimes</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>rateLimit</td>
+	 * <td>integer</td>
+	 * <td>Number of requests per second all keys of the user may make in total, no limit if not positive</td>
+	 * <td>No</td>
+	 * </tr>
+	 * <tr>
+	 * <td>rateBurst</td>
+	 * <td>integer</td>
+	 * <td>Number of requests all keys of the user may make at once after being idle</td>
+	 * <td>No</td>
+	 * </tr>
+	 * </tbody>
+	 * </table>
+	 *
+	 * @throws NotAuthenticatedException        <b>401</b> Thrown when user is not properly authenticated
+	 * @throws InsufficientPermissionsException <b>403</b> Thrown when the currently authenticated user is not an administrator
+	 * @throws UserNotFoundException            <b>404</b> Thrown when the target user is unknown
+	 */
+	public static Object updateUser(final Request request, final Response response) throws IOException {
+		final User admin = AuthenticationService.getInstance().getAuthenticatedUser().orElseThrow(NotAuthenticatedException::new);
+		if (!admin.isAdmin()) throw new InsufficientPermissionsException();
+		
+		final UserRequest userRequest = new ObjectMapper().readValue(request.body(), UserRequest.class);
+		final User        user        =
+				User.getByName(request.params(":user")).orElseThrow(() -> new UserNotFoundException(request.params(":user")));
+		
+		if (userRequest.getTrusted() != null) user.setTrusted(userRequest.getTrusted());
+		if (userRequest.getRateLimit() != null || userRequest.getRateBurst() != null) {
+			user.setRateLimit(userRequest.getRateLimit(), userRequest.getRateBurst());
+		}
+		
+		response.status(200);
+		return new Object();
+	}
 }
@@ -0,0 +1,10 @@
+package edu.teco.smartlambda.rest.exception;
+
+/**
+ *
+ */
+public class BuildNotFoundException extends RuntimeException {
+	public BuildNotFoundException(final String name) {
+		super("No build of lambda with name \"" + name + "\" found");
+	}
+}
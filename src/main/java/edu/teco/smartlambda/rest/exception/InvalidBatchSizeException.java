@@ -0,0 +1,7 @@
+package edu.teco.smartlambda.rest.exception;
+
+public class InvalidBatchSizeException extends RuntimeException {
+	public InvalidBatchSizeException(final int size, final int maximumSize) {
+		super("Invalid batch size: " + size + " (must be between 1 and " + maximumSize + ")");
+	}
+}
@@ -0,0 +1,7 @@
+package edu.teco.smartlambda.rest.exception;
+
+public class InvalidCacheTtlException extends InvalidLambdaDefinitionException {
+	public InvalidCacheTtlException(final int cacheTtl) {
+		super("Invalid cacheTtl: " + cacheTtl + " (must be at least one second)");
+	}
+}
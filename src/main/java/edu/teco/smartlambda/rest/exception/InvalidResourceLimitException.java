@@ -0,0 +1,7 @@
+package edu.teco.smartlambda.rest.exception;
+
+public class InvalidResourceLimitException extends InvalidLambdaDefinitionException {
+	public InvalidResourceLimitException(final String name, final int limit) {
+		super("Invalid " + name + ": " + limit + " (must not be negative)");
+	}
+}
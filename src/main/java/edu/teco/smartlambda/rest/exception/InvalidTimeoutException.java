@@ -0,0 +1,7 @@
+package edu.teco.smartlambda.rest.exception;
+
+public class InvalidTimeoutException extends InvalidLambdaDefinitionException {
+	public InvalidTimeoutException(final int timeout) {
+		super("Invalid timeout: " + timeout + " (must be at least one second)");
+	}
+}
@@ -0,0 +1,10 @@
+package edu.teco.smartlambda.rest.exception;
+
+/**
+ *
+ */
+public class InvocationNotFoundException extends RuntimeException {
+	public InvocationNotFoundException(final String id) {
+		super("No invocation with id \"" + id + "\" found");
+	}
+}
@@ -0,0 +1,16 @@
+package edu.teco.smartlambda.rest.exception;
+
+import lombok.Getter;
+
+public class RateLimitExceededException extends RuntimeException {
+	/**
+	 * The number of seconds after which the request may be retried
+	 */
+	@Getter
+	private final long retryAfter;
+	
+	public RateLimitExceededException(final long retryAfter) {
+		super("Rate limit exceeded, retry after " + retryAfter + " seconds");
+		this.retryAfter = retryAfter;
+	}
+}
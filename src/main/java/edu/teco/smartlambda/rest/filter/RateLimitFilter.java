@@ -0,0 +1,109 @@
+package edu.teco.smartlambda.rest.filter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.entities.Key;
+import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.rest.exception.RateLimitExceededException;
+import org.apache.commons.configuration2.Configuration;
+import spark.Filter;
+import spark.Request;
+import spark.Response;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of every key and of every user across all of their keys with {@link TokenBucket}s. Requests without an
+ * authenticated key are not limited. The rate of a user can be overridden per user, otherwise the configured defaults apply. A changed
+ * rate of a user takes effect with the next request of the user. Buckets that were not used for the configured idle time are evicted,
+ * as are the least recently used buckets if there are more than the configured maximum.
+ */
+public class RateLimitFilter implements Filter {
+	private final Cache<String, TokenBucket>  keyBuckets;
+	private final Cache<Integer, TokenBucket> userBuckets;
+	private final int                         keyRate;
+	private final int                         keyBurst;
+	private final int                         userRate;
+	private final int                         userBurst;
+	
+	public RateLimitFilter() {
+		this(ConfigurationService.getInstance().getConfiguration());
+	}
+	
+	private RateLimitFilter(final Configuration configuration) {
+		this(configuration.getInt("rateLimit.key.rate", 50), configuration.getInt("rateLimit.key.burst", 100),
+				configuration.getInt("rateLimit.user.rate", 100), configuration.getInt("rateLimit.user.burst", 200),
+				configuration.getLong("rateLimit.idleTimeout", 300), configuration.getLong("rateLimit.maximumBuckets", 100000));
+	}
+	
+	/**
+	 * @param keyRate        the number of requests per second of a single key, no limit if not positive
+	 * @param keyBurst       the number of requests a single key may make at once
+	 * @param userRate       the default number of requests per second of all keys of a user, no limit if not positive
+	 * @param userBurst      the default number of requests all keys of a user may make at once
+	 * @param idleTimeout    the time in seconds after which an unused bucket is evicted
+	 * @param maximumBuckets the maximum number of buckets of keys and of users each
+	 */
+	RateLimitFilter(final int keyRate, final int keyBurst, final int userRate, final int userBurst, final long idleTimeout,
+			final long maximumBuckets) {
+		this.keyRate = keyRate;
+		this.keyBurst = keyBurst;
+		this.userRate = userRate;
+		this.userBurst = userBurst;
+		this.keyBuckets = CacheBuilder.newBuilder().expireAfterAccess(idleTimeout, TimeUnit.SECONDS).maximumSize(maximumBuckets).build();
+		this.userBuckets = CacheBuilder.newBuilder().expireAfterAccess(idleTimeout, TimeUnit.SECONDS).maximumSize(maximumBuckets).build();
+		
+		MetricsService.getInstance().registerGauge("rateLimit.buckets", () -> this.keyBuckets.size() + this.userBuckets.size());
+	}
+	
+	@Override
+	public void handle(final Request request, final Response response) throws Exception {
+		final Optional<Key> key = AuthenticationService.getInstance().getAuthenticatedKey();
+		if (!key.isPresent()) return;
+		
+		final long        now       = System.nanoTime();
+		final TokenBucket keyBucket = this.keyRate > 0 ?
+				this.keyBuckets.get(key.get().getId(), () -> new TokenBucket(this.keyRate, this.keyBurst, now)) : null;
+		
+		long wait = keyBucket != null ? keyBucket.tryAcquire(now) : 0;
+		if (wait == 0) {
+			wait = this.getUserBucket(key.get().getUser(), now).tryAcquire(now);
+			
+			// a request rejected by the limit of the user does not count against the limit of its key
+			if (wait > 0 && keyBucket != null) keyBucket.release();
+		}
+		
+		if (wait > 0) {
+			MetricsService.getInstance().increment("rateLimit.rejected");
+			throw new RateLimitExceededException(Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+		}
+	}
+	
+	/**
+	 * @param user a user
+	 * @param now  the current value of {@link System#nanoTime()}
+	 *
+	 * @return the bucket of the user, which is created with the limit of the user if there is none yet or if the limit of the user
+	 * changed since the bucket was created
+	 */
+	private TokenBucket getUserBucket(final User user, final long now) throws ExecutionException {
+		final int rate  = user.getRateLimit() != null ? user.getRateLimit() : this.userRate;
+		final int burst = user.getRateBurst() != null ? user.getRateBurst() : this.userBurst;
+		
+		// users without a limit get a bucket that practically never runs empty
+		final int bucketRate  = rate > 0 ? rate : Integer.MAX_VALUE;
+		final int bucketBurst = rate > 0 ? burst : Integer.MAX_VALUE;
+		
+		final TokenBucket bucket = this.userBuckets.get(user.getId(), () -> new TokenBucket(bucketRate, bucketBurst, now));
+		if (bucket.hasLimit(bucketRate, bucketBurst)) return bucket;
+		
+		final TokenBucket updated = new TokenBucket(bucketRate, bucketBurst, now);
+		this.userBuckets.put(user.getId(), updated);
+		return updated;
+	}
+}
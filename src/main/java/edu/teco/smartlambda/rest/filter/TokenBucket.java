@@ -0,0 +1,65 @@
+package edu.teco.smartlambda.rest.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket. Instead of a token count, the bucket stores the time at which it would be full again, which is advanced by
+ * the interval of one token for every taken token. A token can be taken as long as that time is at most the duration of a full burst
+ * ahead, so the whole state fits into a single atomic long.
+ */
+class TokenBucket {
+	private final int        rate;
+	private final int        burst;
+	private final long       interval;
+	private final long       capacity;
+	private final AtomicLong full;
+	
+	/**
+	 * @param rate  the number of tokens added per second
+	 * @param burst the maximum number of tokens in the bucket
+	 * @param now   the current value of {@link System#nanoTime()}
+	 */
+	TokenBucket(final int rate, final int burst, final long now) {
+		this.rate = rate;
+		this.burst = burst;
+		this.interval = Math.max(1, TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate));
+		this.capacity = this.interval * Math.max(1, burst);
+		this.full = new AtomicLong(now);
+	}
+	
+	/**
+	 * Take a token from the bucket if one is available
+	 *
+	 * @param now the current value of {@link System#nanoTime()}
+	 *
+	 * @return 0 if a token was taken, otherwise the time in nanoseconds until the next token is available
+	 */
+	long tryAcquire(final long now) {
+		while (true) {
+			final long full = this.full.get();
+			final long next = (full - now > 0 ? full : now) + this.interval;
+			final long wait = next - now - this.capacity;
+			
+			if (wait > 0) return wait;
+			if (this.full.compareAndSet(full, next)) return 0;
+		}
+	}
+	
+	/**
+	 * Put a previously taken token back into the bucket, if the request it was taken for was rejected by another bucket
+	 */
+	void release() {
+		this.full.addAndGet(-this.interval);
+	}
+	
+	/**
+	 * @param rate  a number of tokens added per second
+	 * @param burst a maximum number of tokens in the bucket
+	 *
+	 * @return true, if the bucket was created with the given rate and burst
+	 */
+	boolean hasLimit(final int rate, final int burst) {
+		return this.rate == rate && this.burst == burst;
+	}
+}
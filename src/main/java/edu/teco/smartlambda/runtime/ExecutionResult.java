@@ -7,4 +7,6 @@ import lombok.Data;
 public class ExecutionResult {
 	private ExecutionReturnValue executionReturnValue;
 	private long                 consumedCPUTime;
+	private long                 peakMemory;
+	private long                 duration;
 }
@@ -0,0 +1,27 @@
+package edu.teco.smartlambda.runtime;
+
+import edu.teco.smartlambda.container.ImageBuilder;
+
+/**
+ * A {@link Runtime} implementation for Java 8 executing lambdas inside the server JVM. It accepts the same lambda archives as
+ * {@link JRE8}, but skips the container and the execution service, so an execution costs little more than a method call.
+ */
+public class InProcessJRE8 extends JRE8 {
+	
+	private static final String NAME = "jre8-inprocess";
+	
+	@Override
+	public void setupContainerImage(final ImageBuilder builder) {
+		// in-process images consist of the lambda archive only
+	}
+	
+	@Override
+	public String getName() {
+		return NAME;
+	}
+	
+	@Override
+	public boolean isInProcess() {
+		return true;
+	}
+}
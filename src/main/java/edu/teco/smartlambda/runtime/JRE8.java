@@ -1,6 +1,10 @@
 package edu.teco.smartlambda.runtime;
 
+import com.google.common.hash.Hashing;
+import edu.teco.smartlambda.container.BuilderFactory;
+import edu.teco.smartlambda.container.Image;
 import edu.teco.smartlambda.container.ImageBuilder;
+import edu.teco.smartlambda.container.ImageFactory;
 import org.apache.commons.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
@@ -17,17 +21,52 @@ public class JRE8 implements Runtime {
 	private static final String BINARY_NAME = "lambda.jar";
 	
 	private static final String EXECUTION_SERVICE_NAME = "executionservice.jar";
+	private static final String TEMPLATE               = "openjdk:8-jre-alpine";
+	private static final String BASE_IMAGE_REPOSITORY  = "smartlambda/jre8";
+	
+	private String baseImage = null;
 	
 	@Override
 	public void setupContainerImage(final ImageBuilder builder) {
+		builder.setCommand("java -jar " + EXECUTION_SERVICE_NAME).setTemplate(this.getBaseImage());
+	}
+	
+	/**
+	 * Get the image all lambda images of this runtime derive from. It contains the execution service and is tagged with the hash of the
+	 * execution service, so it is built only once per version of the execution service and lambda images only add the lambda binary.
+	 *
+	 * @return the id of the base image
+	 */
+	synchronized String getBaseImage() {
+		if (this.baseImage != null) return this.baseImage;
+		
+		final byte[] executionService = this.readExecutionService();
+		final String hash             = Hashing.sha256().hashBytes(executionService).toString();
+		final String name             = BASE_IMAGE_REPOSITORY + ":" + hash.substring(0, 16);
+		final Image  image            = ImageFactory.getImageByName(name);
+		
+		try {
+			if (!image.exists()) {
+				BuilderFactory.getContainerBuilder().setName(name).setTemplate(TEMPLATE).storeFile(executionService, EXECUTION_SERVICE_NAME)
+						.build();
+			}
+		} catch (final Exception e) {
+			throw new RuntimeException("Failed to build the base image of runtime " + NAME, e);
+		}
+		
+		this.baseImage = image.getId();
+		return this.baseImage;
+	}
+	
+	/**
+	 * @return the content of the execution service JAR
+	 */
+	byte[] readExecutionService() {
 		try {
-			builder.storeFile(IOUtils.toByteArray(this.getClass().getClassLoader().getResourceAsStream("jre8/executionservice.jar")),
-					EXECUTION_SERVICE_NAME);
+			return IOUtils.toByteArray(this.getClass().getClassLoader().getResourceAsStream("jre8/" + EXECUTION_SERVICE_NAME));
 		} catch (final IOException e) {
 			throw new RuntimeException("Failed to read execution service JAR resource", e);
 		}
-		
-		builder.setCommand("java -jar " + EXECUTION_SERVICE_NAME).setTemplate("openjdk:8-jre-alpine");
 	}
 	
 	@Override
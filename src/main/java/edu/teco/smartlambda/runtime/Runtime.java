@@ -32,4 +32,14 @@ public interface Runtime {
 	 * @return true, if the binary is valid, false if it was not a lambda executable
 	 */
 	public boolean verifyBinary(final byte[] binaryData);
+	
+	/**
+	 * Lambdas of an in-process runtime are executed inside the server JVM instead of a container. They are not isolated from the server
+	 * and are only permitted for trusted users.
+	 *
+	 * @return true, if lambdas of this runtime are executed in-process
+	 */
+	public default boolean isInProcess() {
+		return false;
+	}
 }
@@ -4,6 +4,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import edu.teco.smartlambda.Application;
 import edu.teco.smartlambda.authentication.AuthenticationService;
 import edu.teco.smartlambda.authentication.entities.Key;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
 import edu.teco.smartlambda.lambda.Lambda;
 import edu.teco.smartlambda.lambda.LambdaFacade;
 import edu.teco.smartlambda.runtime.ExecutionResult;
@@ -61,12 +62,13 @@ public class Event {
 	private Lambda   lambda;
 	
 	/**
-	 * Executes the lambda
+	 * Executes the lambda with the scheduled priority
 	 *
 	 * @return future of {@link ExecutionResult}
 	 */
 	ListenableFuture<ExecutionResult> execute() {
 		AuthenticationService.getInstance().authenticate(this.getKey());
+		ExecutionPriority.setCurrent(ExecutionPriority.SCHEDULED);
 		return LambdaFacade.getInstance().getFactory().decorate(this.getLambda()).executeAsync(this.getParameters());
 	}
 	
@@ -0,0 +1,79 @@
+package edu.teco.smartlambda.schedule;
+
+import org.hibernate.Session;
+import org.slf4j.LoggerFactory;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.torpedoquery.jpa.Torpedo.from;
+import static org.torpedoquery.jpa.Torpedo.select;
+import static org.torpedoquery.jpa.Torpedo.where;
+
+/**
+ * Looks ahead of the {@link ScheduleManager} and pre-starts containers for the lambdas of events that are due soon, so scheduled
+ * executions do not suffer a cold start. Every due time of an event is pre-warmed only once.
+ */
+class EventPrewarmer {
+	private final long               window;
+	private final Map<Integer, Long> prewarmed = new HashMap<>();
+	
+	/**
+	 * @param window the number of seconds to look ahead for due events. Zero disables pre-warming.
+	 */
+	EventPrewarmer(final long window) {
+		this.window = window;
+	}
+	
+	/**
+	 * Pre-warm the lambdas of all events that are due within the look-ahead window
+	 *
+	 * @param session the session to query the events with
+	 */
+	void prewarm(final Session session) {
+		if (this.window <= 0) return;
+		
+		final Calendar now   = Calendar.getInstance();
+		final Event    query = from(Event.class);
+		where(query.getNextExecution()).gt(now).and(query.getNextExecution()).lte(this.getHorizon(now));
+		
+		this.prewarm(select(query).list(session), now.getTimeInMillis());
+	}
+	
+	/**
+	 * @param now the current time
+	 *
+	 * @return the end of the look-ahead window starting at the given time
+	 */
+	Calendar getHorizon(final Calendar now) {
+		final Calendar horizon = (Calendar) now.clone();
+		horizon.add(Calendar.SECOND, (int) Math.min(this.window, Integer.MAX_VALUE));
+		
+		return horizon;
+	}
+	
+	/**
+	 * Pre-warm the lambdas of the given events, unless their current due time was pre-warmed before
+	 *
+	 * @param events the events that are due soon
+	 * @param now    the current time in milliseconds
+	 */
+	void prewarm(final List<Event> events, final long now) {
+		// due times that have passed were either executed or missed, so they will never be pre-warmed again
+		this.prewarmed.values().removeIf(nextExecution -> nextExecution <= now);
+		
+		for (final Event event : events) {
+			final long nextExecution = event.getNextExecution().getTimeInMillis();
+			if (Objects.equals(this.prewarmed.put(event.getId(), nextExecution), nextExecution)) continue;
+			
+			try {
+				event.getLambda().prewarm();
+			} catch (final Exception e) {
+				LoggerFactory.getLogger(EventPrewarmer.class).error("Failed to pre-warm lambda of scheduled event " + event.getName(), e);
+			}
+		}
+	}
+}
@@ -2,6 +2,8 @@ package edu.teco.smartlambda.schedule;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.concurrent.ExecutionRejectedException;
+import edu.teco.smartlambda.configuration.ConfigurationService;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import lombok.Getter;
 import lombok.Setter;
@@ -33,12 +35,15 @@ public class ScheduleManager {
 	private ScheduleManager() {}
 	
 	/**
-	 * Waits until events are due, acquires them and repeatedly updates their lock state while executing them
+	 * Waits until events are due, acquires them and repeatedly updates their lock state while executing them. Containers for events
+	 * that are due within the configured look-ahead window are started in advance.
 	 *
 	 * @return nothing
 	 */
 	public Void run() {
-		final HashMap<Event, ListenableFuture<ExecutionResult>> futures = new HashMap<>(0);
+		final HashMap<Event, ListenableFuture<ExecutionResult>> futures   = new HashMap<>(0);
+		final EventPrewarmer                                    prewarmer =
+				new EventPrewarmer(ConfigurationService.getInstance().getConfiguration().getLong("schedule.prewarmWindow", 30));
 		
 		while (this.running) {
 			final Event event;
@@ -64,6 +69,8 @@ public class ScheduleManager {
 					!Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().isActive())
 				Application.getInstance().getSessionFactory().getCurrentSession().beginTransaction();
 			
+			prewarmer.prewarm(Application.getInstance().getSessionFactory().getCurrentSession());
+			
 			final Event    query         = from(Event.class);
 			final Calendar lockTolerance = Calendar.getInstance();
 			lockTolerance.add(Calendar.MINUTE, -5);
@@ -77,8 +84,13 @@ public class ScheduleManager {
 			if (event != null) {
 				event.setLock(Calendar.getInstance());
 				Application.getInstance().getSessionFactory().getCurrentSession().update(event);
-				futures.put(event, event.execute());
-				Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().commit();
+				try {
+					futures.put(event, event.execute());
+					Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().commit();
+				} catch (final ExecutionRejectedException e) {
+					// the event stays due and is retried as soon as the execution scheduler accepts executions again
+					Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().rollback();
+				}
 			} else {
 				Application.getInstance().getSessionFactory().getCurrentSession().getTransaction().rollback();
 			}
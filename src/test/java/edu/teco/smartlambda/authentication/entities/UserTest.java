@@ -98,6 +98,23 @@ public class UserTest {
 		verify(this.session).save(this.user);
 	}
 	
+	@Test
+	public void setTrusted() throws Exception {
+		this.user.setTrusted(true);
+		
+		assertTrue(this.user.isTrusted());
+		verify(this.session).save(this.user);
+	}
+	
+	@Test
+	public void setRateLimit() throws Exception {
+		this.user.setRateLimit(10, 20);
+		
+		assertEquals(Integer.valueOf(10), this.user.getRateLimit());
+		assertEquals(Integer.valueOf(20), this.user.getRateBurst());
+		verify(this.session).save(this.user);
+	}
+	
 	@Test
 	public void createKey() throws Exception {
 		when(Torpedo.where((String) null)).thenReturn(mock(OnGoingStringCondition.class));
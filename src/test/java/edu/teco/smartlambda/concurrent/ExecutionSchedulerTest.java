@@ -0,0 +1,178 @@
+package edu.teco.smartlambda.concurrent;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test Case for {@link ExecutionScheduler}
+ */
+public class ExecutionSchedulerTest {
+	
+	private ExecutionScheduler scheduler;
+	private CountDownLatch     latch;
+	
+	@Before
+	public void setUp() {
+		this.scheduler = new ExecutionScheduler(1, 2, 1);
+		this.latch = new CountDownLatch(1);
+	}
+	
+	@After
+	public void tearDown() {
+		this.latch.countDown();
+		this.scheduler.shutdown();
+	}
+	
+	private ListenableFuture<String> block(final String lambda) {
+		return this.block(lambda, ExecutionPriority.INTERACTIVE);
+	}
+	
+	private ListenableFuture<String> block(final String lambda, final ExecutionPriority priority) {
+		return this.scheduler.submit(lambda, priority, () -> {
+			this.latch.await();
+			return lambda;
+		});
+	}
+	
+	@Test(timeout = 5000L)
+	public void submit() throws Exception {
+		final long started      = MetricsService.getInstance().getCounter("execution.started");
+		final long startedAsync = MetricsService.getInstance().getCounter("execution.started.async");
+		
+		assertEquals("result", this.scheduler.submit("lambda", ExecutionPriority.ASYNC, () -> "result").get());
+		assertEquals(started + 1, MetricsService.getInstance().getCounter("execution.started"));
+		assertEquals(startedAsync + 1, MetricsService.getInstance().getCounter("execution.started.async"));
+	}
+	
+	@Test(timeout = 5000L)
+	public void onStart() throws Exception {
+		final List<ListenableFuture<String>> started = Collections.synchronizedList(new ArrayList<>());
+		
+		this.block("first");
+		final ListenableFuture<String> queued = this.scheduler.submit("second", ExecutionPriority.INTERACTIVE, () -> {
+			assertEquals(1, started.size());
+			return "second";
+		}, started::add);
+		
+		// the queued execution has not started yet
+		assertTrue(started.isEmpty());
+		
+		this.latch.countDown();
+		assertEquals("second", queued.get());
+		assertEquals(Collections.singletonList(queued), started);
+	}
+	
+	@Test(timeout = 5000L)
+	public void lambdaLimit() throws Exception {
+		final ListenableFuture<String> running = this.block("lambda");
+		final ListenableFuture<String> queued  = this.block("lambda");
+		assertEquals(2, this.scheduler.getPendingCount("lambda"));
+		
+		try {
+			this.block("lambda");
+			fail();
+		} catch (final ExecutionRejectedException e) {
+			assertFalse(e.isOverloaded());
+		}
+		
+		this.latch.countDown();
+		assertEquals("lambda", running.get());
+		assertEquals("lambda", queued.get());
+		
+		while (this.scheduler.getPendingCount("lambda") != 0) Thread.yield();
+	}
+	
+	@Test(timeout = 5000L)
+	public void overloaded() throws Exception {
+		final long rejected = MetricsService.getInstance().getCounter("execution.rejected.overloaded");
+		
+		this.block("first");
+		this.block("second");
+		
+		try {
+			this.block("third");
+			fail();
+		} catch (final ExecutionRejectedException e) {
+			assertTrue(e.isOverloaded());
+		}
+		
+		assertEquals(0, this.scheduler.getPendingCount("third"));
+		assertEquals(rejected + 1, MetricsService.getInstance().getCounter("execution.rejected.overloaded"));
+	}
+	
+	@Test(timeout = 5000L)
+	public void priorityOrder() throws Exception {
+		final List<String> started = Collections.synchronizedList(new ArrayList<>());
+		this.scheduler = new ExecutionScheduler(1, 4, 4);
+		
+		this.block("running");
+		final ListenableFuture<Boolean> scheduled =
+				this.scheduler.submit("scheduled", ExecutionPriority.SCHEDULED, () -> started.add("scheduled"));
+		final ListenableFuture<Boolean> async = this.scheduler.submit("async", ExecutionPriority.ASYNC, () -> started.add("async"));
+		final ListenableFuture<Boolean> interactive =
+				this.scheduler.submit("interactive", ExecutionPriority.INTERACTIVE, () -> started.add("interactive"));
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.SCHEDULED));
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.ASYNC));
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.INTERACTIVE));
+		
+		this.latch.countDown();
+		scheduled.get();
+		async.get();
+		interactive.get();
+		assertEquals(Arrays.asList("interactive", "async", "scheduled"), started);
+	}
+	
+	@Test(timeout = 5000L)
+	public void reservedCapacity() throws Exception {
+		this.scheduler = new ExecutionScheduler(2, 4, 4, 1, 0);
+		
+		this.block("first", ExecutionPriority.SCHEDULED);
+		this.block("second", ExecutionPriority.SCHEDULED);
+		assertEquals(1, this.scheduler.getRunningCount(ExecutionPriority.SCHEDULED));
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.SCHEDULED));
+		
+		assertEquals("interactive", this.scheduler.submit("interactive", ExecutionPriority.INTERACTIVE, () -> "interactive").get());
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.SCHEDULED));
+	}
+	
+	@Test(timeout = 5000L)
+	public void queuePerPriority() throws Exception {
+		this.block("first");
+		this.block("second", ExecutionPriority.SCHEDULED);
+		
+		try {
+			this.block("third", ExecutionPriority.SCHEDULED);
+			fail();
+		} catch (final ExecutionRejectedException e) {
+			assertTrue(e.isOverloaded());
+		}
+		
+		this.block("fourth", ExecutionPriority.INTERACTIVE);
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.INTERACTIVE));
+	}
+	
+	@Test(timeout = 5000L)
+	public void cancelQueued() throws Exception {
+		this.block("first");
+		final ListenableFuture<String> queued = this.block("second");
+		assertEquals(1, this.scheduler.getQueuedCount(ExecutionPriority.INTERACTIVE));
+		
+		queued.cancel(false);
+		assertEquals(0, this.scheduler.getQueuedCount(ExecutionPriority.INTERACTIVE));
+		assertEquals(0, this.scheduler.getPendingCount("second"));
+	}
+}
@@ -3,6 +3,9 @@ package edu.teco.smartlambda.concurrent;
 import edu.teco.smartlambda.utility.TestUtility;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 
@@ -24,4 +27,61 @@ public class ThreadManagerTest {
 		// single instance
 		assertSame(ThreadManager.getExecutorService(), ThreadManager.getExecutorService());
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void testGetScheduledExecutorService() {
+		// not null
+		assertNotSame(null, ThreadManager.getScheduledExecutorService());
+		
+		// single instance
+		assertSame(ThreadManager.getScheduledExecutorService(), ThreadManager.getScheduledExecutorService());
+	}
+	
+	@Test
+	public void testGetScheduleManagerExecutorService() {
+		// not null
+		assertNotSame(null, ThreadManager.getScheduleManagerExecutorService());
+		
+		// single instance
+		assertSame(ThreadManager.getScheduleManagerExecutorService(), ThreadManager.getScheduleManagerExecutorService());
+		
+		// separate pool
+		assertNotSame(ThreadManager.getExecutorService(), ThreadManager.getScheduleManagerExecutorService());
+	}
+	
+	@Test
+	public void testGetInvocationDispatcherExecutorService() {
+		// not null
+		assertNotSame(null, ThreadManager.getInvocationDispatcherExecutorService());
+		
+		// single instance
+		assertSame(ThreadManager.getInvocationDispatcherExecutorService(), ThreadManager.getInvocationDispatcherExecutorService());
+		
+		// separate pool
+		assertNotSame(ThreadManager.getScheduleManagerExecutorService(), ThreadManager.getInvocationDispatcherExecutorService());
+	}
+	
+	@Test(timeout = 5000L)
+	public void testGetTimeoutExecutorService() throws Exception {
+		// not null
+		assertNotSame(null, ThreadManager.getTimeoutExecutorService());
+		
+		// single instance
+		assertSame(ThreadManager.getTimeoutExecutorService(), ThreadManager.getTimeoutExecutorService());
+		
+		// separate pool
+		assertNotSame(ThreadManager.getScheduledExecutorService(), ThreadManager.getTimeoutExecutorService());
+		
+		// timeouts fire while a maintenance task blocks the maintenance scheduler
+		final CountDownLatch latch = new CountDownLatch(1);
+		ThreadManager.getScheduledExecutorService().submit(() -> {
+			latch.await();
+			return null;
+		});
+		try {
+			ThreadManager.getTimeoutExecutorService().schedule(() -> null, 10, TimeUnit.MILLISECONDS).get();
+		} finally {
+			latch.countDown();
+		}
+	}
+}
@@ -1,15 +1,46 @@
 package edu.teco.smartlambda.container;
 
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.docker.DockerImageBuilder;
+import edu.teco.smartlambda.container.inprocess.InProcessImageBuilder;
+import edu.teco.smartlambda.container.local.LocalImageBuilder;
+import edu.teco.smartlambda.runtime.Runtime;
 import edu.teco.smartlambda.utility.TestUtility;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
 
 /**
  *
  */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ConfigurationService.class)
 public class BuilderFactoryTest {
 	
+	private Configuration configuration;
+	
+	@Before
+	public void setUp() {
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		this.configuration = mock(Configuration.class);
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(this.configuration);
+		when(this.configuration.getString(anyString(), anyString())).thenReturn("directory");
+		when(this.configuration.getString(eq("container.backend"), anyString())).thenReturn(ImageFactory.BACKEND_DOCKER);
+	}
+	
 	@Test
 	public void construct() throws Exception {
 		TestUtility.coverPrivateDefaultConstructor(BuilderFactory.class);
@@ -18,5 +49,22 @@ public class BuilderFactoryTest {
 	@Test
 	public void getContainerBuilder() throws Exception {
 		assertNotNull(BuilderFactory.getContainerBuilder());
+		assertTrue(BuilderFactory.getContainerBuilder() instanceof DockerImageBuilder);
+	}
+	
+	@Test
+	public void getLocalContainerBuilder() throws Exception {
+		when(this.configuration.getString(eq("container.backend"), anyString())).thenReturn(ImageFactory.BACKEND_LOCAL);
+		
+		assertTrue(BuilderFactory.getContainerBuilder() instanceof LocalImageBuilder);
+	}
+	
+	@Test
+	public void getContainerBuilderOfRuntime() throws Exception {
+		final Runtime runtime = mock(Runtime.class);
+		assertTrue(BuilderFactory.getContainerBuilder(runtime) instanceof DockerImageBuilder);
+		
+		when(runtime.isInProcess()).thenReturn(true);
+		assertTrue(BuilderFactory.getContainerBuilder(runtime) instanceof InProcessImageBuilder);
 	}
-}
\ No newline at end of file
+}
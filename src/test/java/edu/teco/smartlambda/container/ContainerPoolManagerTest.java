@@ -0,0 +1,82 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ConfigurationService.class)
+public class ContainerPoolManagerTest {
+	
+	@Before
+	public void setUp() {
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		final Configuration        configuration        = mock(Configuration.class);
+		
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(configuration);
+		when(configuration.getInt(anyString(), anyInt())).thenReturn(0);
+		when(configuration.getLong(anyString(), anyLong())).thenReturn(60L);
+	}
+	
+	@Test
+	public void getInstance() throws Exception {
+		assertNotNull(ContainerPoolManager.getInstance());
+		assertSame(ContainerPoolManager.getInstance(), ContainerPoolManager.getInstance());
+	}
+	
+	@Test
+	public void getPool() throws Exception {
+		final ContainerPool pool = ContainerPoolManager.getInstance().getPool("42", "tenant");
+		
+		assertNotNull(pool);
+		assertSame(pool, ContainerPoolManager.getInstance().getPool("42", "tenant"));
+		assertNotSame(pool, ContainerPoolManager.getInstance().getPool("1337", "tenant"));
+	}
+	
+	@Test
+	public void getPoolWithResourceLimits() throws Exception {
+		final ContainerPool pool = ContainerPoolManager.getInstance().getPool("42", "tenant", new ResourceLimits(256, 0, 0, 0));
+		
+		assertSame(pool, ContainerPoolManager.getInstance().getPool("42", "tenant", new ResourceLimits(256, 0, 0, 0)));
+		assertNotSame(pool, ContainerPoolManager.getInstance().getPool("42", "tenant", new ResourceLimits(512, 0, 0, 0)));
+		assertNotSame(pool, ContainerPoolManager.getInstance().getPool("42", "tenant"));
+	}
+	
+	@Test
+	public void getPoolOfTenant() throws Exception {
+		final ContainerPool pool = ContainerPoolManager.getInstance().getPool("42", "tenant");
+		
+		// containers keep the state of previous executions, so tenants sharing an image don't share containers
+		assertNotSame(pool, ContainerPoolManager.getInstance().getPool("42", "other"));
+	}
+	
+	@Test
+	public void removePool() throws Exception {
+		final ContainerPool pool = ContainerPoolManager.getInstance().getPool("42", "tenant");
+		
+		final ContainerPool limitedPool = ContainerPoolManager.getInstance().getPool("42", "tenant", new ResourceLimits(256, 0, 0, 0));
+		
+		ContainerPoolManager.getInstance().removePool("42");
+		assertNotSame(pool, ContainerPoolManager.getInstance().getPool("42", "tenant"));
+		assertNotSame(limitedPool, ContainerPoolManager.getInstance().getPool("42", "tenant", new ResourceLimits(256, 0, 0, 0)));
+	}
+}
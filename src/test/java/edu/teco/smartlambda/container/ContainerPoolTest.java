@@ -0,0 +1,191 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ */
+public class ContainerPoolTest {
+	
+	private Image          image;
+	private Container      container;
+	private ResourceLimits limits;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.image = mock(Image.class);
+		this.container = mock(Container.class);
+		this.limits = new ResourceLimits(256, 0, 0, 0);
+		when(this.image.start(this.limits)).thenReturn(this.container);
+	}
+	
+	@Test
+	public void checkOutStartsContainer() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 0, 1, 60000);
+		
+		assertSame(this.container, pool.checkOut());
+		verify(this.image).start(this.limits);
+	}
+	
+	@Test
+	public void checkInReusesContainer() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 0, 1, 60000);
+		
+		pool.checkIn(this.container);
+		assertEquals(1, pool.getIdleCount());
+		assertSame(this.container, pool.checkOut());
+		assertEquals(0, pool.getIdleCount());
+		verify(this.image, never()).start(this.limits);
+	}
+	
+	@Test
+	public void checkInFullPoolDeletesContainer() throws Exception {
+		final ContainerPool pool  = new ContainerPool(this.image, this.limits, 0, 1, 60000);
+		final Container     other = mock(Container.class);
+		
+		pool.checkIn(this.container);
+		pool.checkIn(other);
+		
+		assertEquals(1, pool.getIdleCount());
+		verify(other, timeout(1000)).delete();
+	}
+	
+	@Test
+	public void checkOutDiscardsDrainedContainers() throws Exception {
+		final ContainerPool pool    = new ContainerPool(this.image, this.limits, 0, 2, 60000);
+		final Container     drained = mock(Container.class);
+		
+		pool.checkIn(this.container);
+		pool.checkIn(drained);
+		when(drained.isDrained()).thenReturn(true);
+		
+		assertSame(this.container, pool.checkOut());
+		verify(drained, timeout(1000)).delete();
+		
+		// drained containers are not taken back either
+		pool.checkIn(drained);
+		assertEquals(0, pool.getIdleCount());
+		verify(drained, timeout(1000).times(2)).delete();
+	}
+	
+	@Test
+	public void recycleReplenishesPool() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 1, 1, 60000);
+		final Container     used = mock(Container.class);
+		
+		pool.recycle(used);
+		
+		verify(used, timeout(1000)).delete();
+		verify(this.image, timeout(1000)).start(this.limits);
+		while (pool.getIdleCount() == 0) Thread.sleep(10);
+		assertSame(this.container, pool.checkOut());
+	}
+	
+	@Test
+	public void evictIdleContainers() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 0, 2, 0);
+		
+		pool.checkIn(pool.checkOut());
+		Thread.sleep(5);
+		pool.evictIdleContainers();
+		
+		assertEquals(0, pool.getIdleCount());
+		assertTrue(pool.isDormant());
+		verify(this.container, timeout(1000)).delete();
+	}
+	
+	@Test
+	public void checkedOutPoolIsNotDormant() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 0, 2, 0);
+		
+		// an execution that runs longer than the idle timeout
+		final Container container = pool.checkOut();
+		Thread.sleep(5);
+		pool.evictIdleContainers();
+		assertFalse(pool.isDormant());
+		
+		pool.checkIn(container);
+		assertEquals(1, pool.getIdleCount());
+		verify(container, never()).delete();
+		
+		Thread.sleep(5);
+		pool.evictIdleContainers();
+		assertTrue(pool.isDormant());
+	}
+	
+	@Test
+	public void evictKeepsMinimumWhileInUse() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 1, 2, 60000);
+		
+		pool.checkIn(this.container);
+		pool.evictIdleContainers();
+		
+		assertEquals(1, pool.getIdleCount());
+		assertFalse(pool.isDormant());
+	}
+	
+	@Test
+	public void prewarmHit() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 0, 1, 60000);
+		final long          hits = MetricsService.getInstance().getCounter("container.prewarm.hits");
+		
+		pool.prewarm();
+		verify(this.image, timeout(1000)).start(this.limits);
+		while (pool.getIdleCount() == 0) Thread.sleep(10);
+		
+		assertSame(this.container, pool.checkOut());
+		assertEquals(hits + 1, MetricsService.getInstance().getCounter("container.prewarm.hits"));
+		
+		// only the first check out after pre-warming is counted
+		pool.checkIn(this.container);
+		pool.checkOut();
+		assertEquals(hits + 1, MetricsService.getInstance().getCounter("container.prewarm.hits"));
+	}
+	
+	@Test
+	public void prewarmMiss() throws Exception {
+		final Image         slowImage = mock(Image.class);
+		final ContainerPool pool      = new ContainerPool(slowImage, this.limits, 0, 1, 60000);
+		final long          misses    = MetricsService.getInstance().getCounter("container.prewarm.misses");
+		
+		when(slowImage.start(this.limits)).thenAnswer(invocation -> {
+			Thread.sleep(200);
+			return this.container;
+		});
+		
+		pool.prewarm();
+		pool.checkOut();
+		assertEquals(misses + 1, MetricsService.getInstance().getCounter("container.prewarm.misses"));
+	}
+	
+	@Test
+	public void close() throws Exception {
+		final ContainerPool pool = new ContainerPool(this.image, this.limits, 0, 2, 60000);
+		
+		pool.checkIn(this.container);
+		pool.close();
+		
+		assertEquals(0, pool.getIdleCount());
+		verify(this.container, timeout(1000)).delete();
+		
+		// a closed pool doesn't hold containers anymore
+		final Container other = mock(Container.class);
+		pool.checkIn(other);
+		assertEquals(0, pool.getIdleCount());
+		verify(other, timeout(1000).times(1)).delete();
+		verify(this.image, times(0)).start(this.limits);
+	}
+}
@@ -0,0 +1,54 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.utility.TestUtility;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ */
+public class FrameBufferPoolTest {
+	
+	@Test
+	public void construct() throws Exception {
+		TestUtility.coverPrivateDefaultConstructor(FrameBufferPool.class);
+	}
+	
+	@Test
+	public void acquireReusesBuffer() throws Exception {
+		final ByteBuffer buffer = FrameBufferPool.acquire(16);
+		assertTrue(buffer.isDirect());
+		
+		buffer.put((byte) 1);
+		FrameBufferPool.release(buffer);
+		
+		final ByteBuffer reused = FrameBufferPool.acquire(16);
+		assertSame(buffer, reused);
+		assertEquals(0, reused.position());
+	}
+	
+	@Test
+	public void acquireGrowsBuffer() throws Exception {
+		final ByteBuffer small = FrameBufferPool.acquire(16);
+		final ByteBuffer large = FrameBufferPool.acquire(small.capacity() + 1);
+		assertNotSame(small, large);
+		
+		// the larger buffer replaces the pooled one, as later frames might be as large
+		FrameBufferPool.release(large);
+		assertSame(large, FrameBufferPool.acquire(16));
+	}
+	
+	@Test
+	public void acquireHugeBufferIsNotPooled() throws Exception {
+		final ByteBuffer huge = FrameBufferPool.acquire(FrameBufferPool.MAXIMUM_CAPACITY + 1);
+		FrameBufferPool.release(huge);
+		
+		assertNotSame(huge, FrameBufferPool.acquire(16));
+	}
+}
@@ -1,16 +1,46 @@
 package edu.teco.smartlambda.container;
 
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.docker.DockerImage;
+import edu.teco.smartlambda.container.inprocess.InProcessImage;
+import edu.teco.smartlambda.container.local.LocalImage;
 import edu.teco.smartlambda.utility.TestUtility;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
 
 /**
  *
  */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ConfigurationService.class)
 public class ImageFactoryTest {
 	
+	private Configuration configuration;
+	
+	@Before
+	public void setUp() {
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		this.configuration = mock(Configuration.class);
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(this.configuration);
+		when(this.configuration.getString(anyString(), anyString())).thenReturn("directory");
+		when(this.configuration.getString(eq("container.backend"), anyString())).thenReturn(ImageFactory.BACKEND_DOCKER);
+	}
+	
 	@Test
 	public void construct() throws Exception {
 		TestUtility.coverPrivateDefaultConstructor(ImageFactory.class);
@@ -20,5 +50,30 @@ public class ImageFactoryTest {
 	public void getImageById() throws Exception {
 		assertNotNull(ImageFactory.getImageById("42"));
 		assertEquals("42", ImageFactory.getImageById("42").getId());
+		assertTrue(ImageFactory.getImageById("42") instanceof DockerImage);
+	}
+	
+	@Test
+	public void getInProcessImageById() throws Exception {
+		final Image image = ImageFactory.getImageById(InProcessImage.ID_PREFIX + "42");
+		assertTrue(image instanceof InProcessImage);
+		assertEquals(InProcessImage.ID_PREFIX + "42", image.getId());
+	}
+	
+	@Test
+	public void getLocalImageById() throws Exception {
+		final Image image = ImageFactory.getImageById(LocalImage.ID_PREFIX + "42");
+		assertTrue(image instanceof LocalImage);
+		assertEquals(LocalImage.ID_PREFIX + "42", image.getId());
+	}
+	
+	@Test
+	public void getImageByName() throws Exception {
+		assertTrue(ImageFactory.getImageByName("name") instanceof DockerImage);
+		assertEquals("name", ImageFactory.getImageByName("name").getId());
+		
+		when(this.configuration.getString(eq("container.backend"), anyString())).thenReturn(ImageFactory.BACKEND_LOCAL);
+		assertTrue(ImageFactory.getImageByName("name") instanceof LocalImage);
+		assertEquals(LocalImage.ID_PREFIX + "name", ImageFactory.getImageByName("name").getId());
 	}
-}
\ No newline at end of file
+}
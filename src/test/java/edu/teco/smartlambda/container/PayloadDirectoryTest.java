@@ -0,0 +1,80 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+/**
+ * Test Case for {@link PayloadDirectory}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ConfigurationService.class)
+public class PayloadDirectoryTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private Configuration configuration;
+	private File          root;
+	
+	@Before
+	public void setUp() throws Exception {
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		this.configuration = mock(Configuration.class);
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(this.configuration);
+		
+		this.root = new File(this.folder.getRoot(), "payload");
+		when(this.configuration.getString("container.payload.directory", "/dev/shm/smartlambda")).thenReturn(this.root.getPath());
+		when(this.configuration.getInt("container.payload.threshold", 1024 * 1024)).thenReturn(4096);
+	}
+	
+	@Test
+	public void create() throws Exception {
+		final PayloadDirectory first  = PayloadDirectory.create().get();
+		final PayloadDirectory second = PayloadDirectory.create().get();
+		
+		// every container has a directory of its own
+		assertEquals(this.root.toPath(), first.getPath().getParent());
+		assertFalse(first.getPath().equals(second.getPath()));
+		assertTrue(Files.isDirectory(first.getPath()));
+		assertEquals(4096, first.getThreshold());
+	}
+	
+	@Test
+	public void createDisabled() throws Exception {
+		when(this.configuration.getInt("container.payload.threshold", 1024 * 1024)).thenReturn(0);
+		
+		assertFalse(PayloadDirectory.create().isPresent());
+		assertFalse(this.root.exists());
+	}
+	
+	@Test
+	public void delete() throws Exception {
+		final PayloadDirectory directory = PayloadDirectory.create().get();
+		Files.write(directory.getPath().resolve("payload"), new byte[] {1});
+		
+		directory.delete();
+		assertFalse(Files.exists(directory.getPath()));
+		
+		// deleting the directory again does no harm
+		directory.delete();
+	}
+}
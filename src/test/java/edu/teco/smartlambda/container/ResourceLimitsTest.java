@@ -0,0 +1,23 @@
+package edu.teco.smartlambda.container;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test Case for {@link ResourceLimits}
+ */
+public class ResourceLimitsTest {
+	
+	@Test
+	public void getHeapSize() throws Exception {
+		assertEquals(192, new ResourceLimits(256, 0, 0, 0).getHeapSize());
+		assertEquals(0, ResourceLimits.UNLIMITED.getHeapSize());
+	}
+	
+	@Test
+	public void equals() throws Exception {
+		assertEquals(ResourceLimits.UNLIMITED, new ResourceLimits(0, 0, 0, 0));
+		assertEquals(new ResourceLimits(1, 2, 3, 4).hashCode(), new ResourceLimits(1, 2, 3, 4).hashCode());
+	}
+}
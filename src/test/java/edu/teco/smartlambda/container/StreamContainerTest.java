@@ -0,0 +1,135 @@
+package edu.teco.smartlambda.container;
+
+import edu.teco.smartlambda.shared.ExecutionProtocol;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test Case for the default methods of {@link StreamContainer}
+ */
+public class StreamContainerTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void execute() throws Exception {
+		final ByteArrayOutputStream response = new ByteArrayOutputStream();
+		ExecutionProtocol.writeResponse(response, new ExecutionReturnValue("\"result\"", ""));
+		
+		final ByteArrayOutputStream stdIn     = new ByteArrayOutputStream();
+		final BufferedContainer     container = new BufferedContainer(stdIn, new ByteArrayInputStream(response.toByteArray()));
+		
+		assertEquals("\"result\"", container.execute("\"parameter\"").getReturnValue().get());
+		assertEquals("\"parameter\"", ExecutionProtocol.readRequest(new ByteArrayInputStream(stdIn.toByteArray())));
+	}
+	
+	@Test
+	public void executeLargeParameter() throws Exception {
+		final StringBuilder builder = new StringBuilder("\"");
+		for (int i = 0; i < FrameBufferPool.INITIAL_CAPACITY; i++) builder.append('λ');
+		final String parameter = builder.append('"').toString();
+		
+		final ByteArrayOutputStream stdIn = new ByteArrayOutputStream();
+		for (int i = 0; i < 2; i++) {
+			final ByteArrayOutputStream response = new ByteArrayOutputStream();
+			ExecutionProtocol.writeResponse(response, new ExecutionReturnValue("null", ""));
+			
+			new BufferedContainer(stdIn, new ByteArrayInputStream(response.toByteArray())).execute(i == 0 ? parameter : "\"small\"");
+		}
+		
+		final InputStream requests = new ByteArrayInputStream(stdIn.toByteArray());
+		assertEquals(parameter, ExecutionProtocol.readRequest(requests));
+		assertEquals("\"small\"", ExecutionProtocol.readRequest(requests));
+	}
+	
+	@Test
+	public void executeMappedPayload() throws Exception {
+		final Path             directory        = this.folder.newFolder().toPath();
+		final PayloadDirectory payloadDirectory = new PayloadDirectory(directory, 8);
+		
+		final ByteArrayOutputStream response = new ByteArrayOutputStream();
+		ExecutionProtocol.writeResponse(response, new ExecutionReturnValue("\"large result\"", ""), directory, 8);
+		ExecutionProtocol.writeResponse(response, new ExecutionReturnValue("null", ""), directory, 8);
+		
+		final ByteArrayOutputStream stdIn     = new ByteArrayOutputStream();
+		final InputStream           stdOut    = new ByteArrayInputStream(response.toByteArray());
+		final BufferedContainer     container = new BufferedContainer(stdIn, stdOut, payloadDirectory);
+		
+		assertEquals("\"large result\"", container.execute("\"large parameter\"").getReturnValue().get());
+		assertEquals("null", container.execute("\"small\"").getReturnValue().get());
+		
+		// only the large parameter is mapped, so the small one can be read without the payload directory
+		final InputStream requests = new ByteArrayInputStream(stdIn.toByteArray());
+		assertEquals("\"large parameter\"", ExecutionProtocol.readRequest(requests, directory));
+		assertEquals("\"small\"", ExecutionProtocol.readRequest(requests));
+		
+		// every payload is deleted by its receiver
+		assertEquals(0, directory.toFile().list().length);
+	}
+	
+	/**
+	 * A container that only consists of its standard streams
+	 */
+	private static class BufferedContainer implements StreamContainer {
+		private final OutputStream     stdIn;
+		private final InputStream      stdOut;
+		private final PayloadDirectory payloadDirectory;
+		
+		private BufferedContainer(final OutputStream stdIn, final InputStream stdOut) {
+			this(stdIn, stdOut, null);
+		}
+		
+		private BufferedContainer(final OutputStream stdIn, final InputStream stdOut, final PayloadDirectory payloadDirectory) {
+			this.stdIn = stdIn;
+			this.stdOut = stdOut;
+			this.payloadDirectory = payloadDirectory;
+		}
+		
+		@Override
+		public Optional<PayloadDirectory> getPayloadDirectory() {
+			return Optional.ofNullable(this.payloadDirectory);
+		}
+		
+		@Override
+		public OutputStream getStdIn() {
+			return this.stdIn;
+		}
+		
+		@Override
+		public void attach(final OutputStream stdOut, final OutputStream stdErr) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public InputStream getStdOut() {
+			return this.stdOut;
+		}
+		
+		@Override
+		public String getId() {
+			return "container";
+		}
+		
+		@Override
+		public ResourceUsage getResourceUsage() {
+			return new ResourceUsage(0, 0);
+		}
+		
+		@Override
+		public void delete() {
+			// intentionally empty
+		}
+	}
+}
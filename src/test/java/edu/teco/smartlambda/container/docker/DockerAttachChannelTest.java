@@ -0,0 +1,146 @@
+package edu.teco.smartlambda.container.docker;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ */
+public class DockerAttachChannelTest {
+	
+	private static final String ID = "31337";
+	
+	private ServerSocket server;
+	private String       uri;
+	
+	@Before
+	public void setup() throws Exception {
+		this.server = new ServerSocket(0);
+		this.uri = "tcp://127.0.0.1:" + this.server.getLocalPort();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		this.server.close();
+	}
+	
+	/**
+	 * Accept a single attach request, answer it with the given status line and send the given content afterwards
+	 *
+	 * @param status  the HTTP status line of the response
+	 * @param content the raw stream content following the response header
+	 *
+	 * @return a future of the request header and everything the client wrote into the stream
+	 */
+	private CompletableFuture<String> serve(final String status, final byte[] content) {
+		return CompletableFuture.supplyAsync(() -> {
+			try (Socket socket = this.server.accept()) {
+				final OutputStream output = socket.getOutputStream();
+				output.write((status + "\r\nContent-Type: application/vnd.docker.raw-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+				output.write(content);
+				output.flush();
+				socket.shutdownOutput();
+				
+				return new String(IOUtils.toByteArray(socket.getInputStream()), StandardCharsets.US_ASCII);
+			} catch (final IOException e) {
+				throw new RuntimeException(e);
+			}
+		});
+	}
+	
+	private static byte[] frame(final int type, final String payload) {
+		final byte[]     bytes  = payload.getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer buffer = ByteBuffer.allocate(8 + bytes.length);
+		
+		buffer.put((byte) type).put(new byte[3]).putInt(bytes.length).put(bytes);
+		return buffer.array();
+	}
+	
+	private static byte[] concat(final byte[]... arrays) {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		for (final byte[] array : arrays) output.write(array, 0, array.length);
+		
+		return output.toByteArray();
+	}
+	
+	@Test(timeout = 5000L)
+	public void handshakeAndStdIn() throws Exception {
+		final CompletableFuture<String> request = this.serve("HTTP/1.1 101 UPGRADED", new byte[0]);
+		
+		try (DockerAttachChannel channel = DockerAttachChannel.open(this.uri, ID)) {
+			channel.getStdIn().write("input".getBytes(StandardCharsets.US_ASCII));
+			channel.getStdIn().write('!');
+		}
+		
+		final String received = request.get();
+		assertTrue(received.startsWith("POST /containers/" + ID + "/attach?stream=1&stdin=1&stdout=1&stderr=1 HTTP/1.1\r\n"));
+		assertTrue(received.contains("Upgrade: tcp\r\n"));
+		assertTrue(received.endsWith("\r\n\r\ninput!"));
+	}
+	
+	@Test(timeout = 5000L)
+	public void stdOutSkipsStdErr() throws Exception {
+		this.serve("HTTP/1.1 200 OK", concat(frame(1, "hello "), frame(2, "error"), frame(1, ""), frame(1, "world")));
+		
+		try (DockerAttachChannel channel = DockerAttachChannel.open(this.uri, ID)) {
+			final InputStream stdOut = channel.getStdOut();
+			
+			assertEquals("hello world", new String(IOUtils.toByteArray(stdOut), StandardCharsets.UTF_8));
+			assertEquals(-1, stdOut.read());
+		}
+	}
+	
+	@Test(timeout = 5000L)
+	public void stdOutLargeFrame() throws Exception {
+		final StringBuilder payload = new StringBuilder();
+		for (int i = 0; i < 5000; i++) payload.append(i);
+		
+		this.serve("HTTP/1.1 101 UPGRADED", frame(1, payload.toString()));
+		
+		try (DockerAttachChannel channel = DockerAttachChannel.open(this.uri, ID)) {
+			assertArrayEquals(payload.toString().getBytes(StandardCharsets.UTF_8), IOUtils.toByteArray(channel.getStdOut()));
+		}
+	}
+	
+	@Test(timeout = 5000L)
+	public void attach() throws Exception {
+		this.serve("HTTP/1.1 101 UPGRADED", concat(frame(1, "out"), frame(2, "err"), frame(1, "put")));
+		
+		final ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+		final ByteArrayOutputStream stdErr = new ByteArrayOutputStream();
+		
+		try (DockerAttachChannel channel = DockerAttachChannel.open(this.uri, ID)) {
+			channel.attach(stdOut, stdErr);
+		}
+		
+		assertEquals("output", stdOut.toString("UTF-8"));
+		assertEquals("err", stdErr.toString("UTF-8"));
+	}
+	
+	@Test(timeout = 5000L, expected = IOException.class)
+	public void refusedAttach() throws Exception {
+		this.serve("HTTP/1.1 404 Not Found", new byte[0]);
+		DockerAttachChannel.open(this.uri, ID);
+	}
+	
+	@Test(expected = IOException.class)
+	public void unsupportedScheme() throws Exception {
+		DockerAttachChannel.open("https://127.0.0.1:2376", ID);
+	}
+}
@@ -0,0 +1,91 @@
+package edu.teco.smartlambda.container.docker;
+
+import edu.teco.smartlambda.container.ResourceUsage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ */
+public class DockerCgroupTest {
+	
+	private static final String ID = "31337";
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void unifiedHierarchy() throws Exception {
+		final Path root  = this.folder.getRoot().toPath();
+		final Path group = root.resolve("system.slice").resolve("docker-" + ID + ".scope");
+		
+		write(root.resolve("cgroup.controllers"), "cpu memory");
+		write(group.resolve("cpu.stat"), "usage_usec 1500000\nuser_usec 1000000\nsystem_usec 500000\n");
+		write(group.resolve("memory.peak"), "4096\n");
+		
+		final Optional<DockerCgroup> cgroup = DockerCgroup.find(root, ID);
+		assertTrue(cgroup.isPresent());
+		assertEquals(new ResourceUsage(1500, 4096), cgroup.get().read());
+	}
+	
+	@Test
+	public void unifiedHierarchyWithoutPeak() throws Exception {
+		final Path root  = this.folder.getRoot().toPath();
+		final Path group = root.resolve("docker").resolve(ID);
+		
+		write(root.resolve("cgroup.controllers"), "cpu memory");
+		write(group.resolve("cpu.stat"), "usage_usec 2000\n");
+		write(group.resolve("memory.current"), "1024\n");
+		
+		assertEquals(new ResourceUsage(2, 1024), DockerCgroup.find(root, ID).get().read());
+	}
+	
+	@Test
+	public void legacyHierarchy() throws Exception {
+		final Path root = this.folder.getRoot().toPath();
+		
+		write(root.resolve("cpuacct").resolve("docker").resolve(ID).resolve("cpuacct.usage"), "42000000\n");
+		write(root.resolve("memory").resolve("docker").resolve(ID).resolve("memory.max_usage_in_bytes"), "8192\n");
+		
+		assertEquals(new ResourceUsage(42, 8192), DockerCgroup.find(root, ID).get().read());
+	}
+	
+	@Test
+	public void legacyHierarchyWithoutMemoryAccounting() throws Exception {
+		final Path root = this.folder.getRoot().toPath();
+		
+		write(root.resolve("cpuacct").resolve("system.slice").resolve("docker-" + ID + ".scope").resolve("cpuacct.usage"), "1000000\n");
+		
+		assertEquals(new ResourceUsage(1, 0), DockerCgroup.find(root, ID).get().read());
+	}
+	
+	@Test
+	public void notFound() throws Exception {
+		assertFalse(DockerCgroup.find(this.folder.getRoot().toPath(), ID).isPresent());
+	}
+	
+	@Test(expected = IOException.class)
+	public void malformed() throws Exception {
+		final Path root = this.folder.getRoot().toPath();
+		
+		write(root.resolve("cpuacct").resolve("docker").resolve(ID).resolve("cpuacct.usage"), "garbage\n");
+		
+		DockerCgroup.find(root, ID).get().read();
+	}
+	
+	private static void write(final Path file, final String content) throws IOException {
+		Files.createDirectories(file.getParent());
+		Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+	}
+}
@@ -1,27 +1,148 @@
 package edu.teco.smartlambda.container.docker;
 
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
 import edu.teco.smartlambda.concurrent.ThreadManager;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
 import edu.teco.smartlambda.utility.TestUtility;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
 
-import static org.junit.Assert.assertNotNull;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
 
 /**
  *
  */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ConfigurationService.class)
+@PowerMockIgnore({"javax.net.ssl.*", "javax.security.*"})
 public class DockerClientProviderTest {
 	
+	private Configuration configuration;
+	
+	@Before
+	public void setUp() {
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		this.configuration = mock(Configuration.class);
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(this.configuration);
+		
+		// the daemon socket does not exist, so all requests fail
+		when(this.configuration.getString(anyString(), anyString())).thenReturn("unix:///nonexistent/docker.sock");
+		when(this.configuration.getInt(anyString(), anyInt())).thenAnswer(invocation -> invocation.getArgument(1));
+		when(this.configuration.getLong(anyString(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+	}
+	
+	@After
+	public void tearDown() {
+		DockerClientProvider.close();
+	}
+	
 	@Test
 	public void construct() throws Exception {
 		TestUtility.coverPrivateDefaultConstructor(DockerClientProvider.class);
 	}
 	
 	@Test
-	public void get() throws Exception {
-		assertNotNull(DockerClientProvider.get());
-		assertSame(DockerClientProvider.get(), DockerClientProvider.get());
-		assertNotSame(DockerClientProvider.get(), ThreadManager.getExecutorService().submit(DockerClientProvider::get).get());
+	public void getHosts() throws Exception {
+		assertEquals(1, DockerClientProvider.getHosts().size());
+		assertEquals("unix:///nonexistent/docker.sock", DockerClientProvider.getHosts().get(0).getUri());
+		assertSame(DockerClientProvider.getHosts(), DockerClientProvider.getHosts());
+		assertSame(DockerClientProvider.getHosts(), ThreadManager.getExecutorService().submit(DockerClientProvider::getHosts).get());
+	}
+	
+	@Test
+	public void getHostsFromList() throws Exception {
+		when(this.configuration.getList(String.class, "docker.hosts.host"))
+				.thenReturn(Arrays.asList("unix:///nonexistent/docker.sock", "tcp://127.0.0.1:1"));
+		
+		final List<DockerHost> hosts = DockerClientProvider.getHosts();
+		assertEquals(2, hosts.size());
+		assertEquals("tcp://127.0.0.1:1", hosts.get(1).getUri());
+		assertNotSame(hosts.get(0).getClient(), hosts.get(1).getClient());
+	}
+	
+	@Test
+	public void close() throws Exception {
+		final Object hosts = DockerClientProvider.getHosts();
+		DockerClientProvider.close();
+		
+		assertNotSame(hosts, DockerClientProvider.getHosts());
+	}
+	
+	@Test
+	public void select() throws Exception {
+		final DockerHost loaded    = new DockerHost("tcp://loaded:2375", mock(DockerClient.class), 2);
+		final DockerHost idle      = new DockerHost("tcp://idle:2375", mock(DockerClient.class), 2);
+		final DockerHost unhealthy = new DockerHost("tcp://unhealthy:2375", mock(DockerClient.class), 8);
+		
+		loaded.acquire();
+		when(unhealthy.getClient().ping()).thenThrow(new DockerException("unreachable"));
+		unhealthy.checkHealth();
+		
+		assertSame(idle, DockerClientProvider.select(Arrays.asList(loaded, idle, unhealthy)));
+		
+		idle.acquire();
+		idle.acquire();
+		assertSame(loaded, DockerClientProvider.select(Arrays.asList(loaded, idle, unhealthy)));
+	}
+	
+	@Test(expected = DockerException.class)
+	public void selectWithoutHealthyHost() throws Exception {
+		final DockerHost unhealthy = new DockerHost("tcp://unhealthy:2375", mock(DockerClient.class), 8);
+		when(unhealthy.getClient().ping()).thenThrow(new DockerException("unreachable"));
+		unhealthy.checkHealth();
+		
+		DockerClientProvider.select(Collections.singletonList(unhealthy));
+	}
+	
+	@Test
+	public void healthCheckRecovers() throws Exception {
+		final DockerHost host = new DockerHost("tcp://flaky:2375", mock(DockerClient.class), 1);
+		when(host.getClient().ping()).thenThrow(new DockerException("unreachable")).thenReturn("OK");
+		
+		host.checkHealth();
+		assertFalse(host.isHealthy());
+		host.checkHealth();
+		assertTrue(host.isHealthy());
+	}
+	
+	@Test
+	public void metrics() throws Exception {
+		final MetricsService metrics  = MetricsService.getInstance();
+		final long           requests = metrics.getCounter("docker.requests");
+		final long           failures = metrics.getCounter("docker.failures");
+		
+		try {
+			DockerClientProvider.getHosts().get(0).getClient().ping();
+			fail();
+		} catch (final Exception ignored) {
+		}
+		
+		assertEquals(requests + 1, metrics.getCounter("docker.requests"));
+		assertEquals(failures + 1, metrics.getCounter("docker.failures"));
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package edu.teco.smartlambda.container.docker;
+
+import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.Container;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ *
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ConfigurationService.class, DockerClientProvider.class})
+public class DockerContainerReaperTest {
+	
+	private DockerClient mockedDockerClient;
+	private DockerHost   host;
+	
+	@Before
+	public void setUp() throws Exception {
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		final Configuration        configuration        = mock(Configuration.class);
+		
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(configuration);
+		when(configuration.getInt(anyString(), anyInt())).thenReturn(2);
+		when(configuration.getLong(anyString(), anyLong())).thenReturn(60L);
+		
+		this.mockedDockerClient = mock(DockerClient.class);
+		mockStatic(DockerClientProvider.class);
+		this.host = new DockerHost(DockerClientProvider.DEFAULT_SOCKET, this.mockedDockerClient, 1);
+		when(DockerClientProvider.getHosts()).thenReturn(Collections.singletonList(this.host));
+	}
+	
+	@Test
+	public void getInstance() throws Exception {
+		assertSame(DockerContainerReaper.getInstance(), DockerContainerReaper.getInstance());
+	}
+	
+	@Test
+	public void reap() throws Exception {
+		final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+		
+		final Container orphan       = mockContainer("orphan", now - 3600);
+		final Container secondOrphan = mockContainer("secondOrphan", now - 3600);
+		final Container thirdOrphan  = mockContainer("thirdOrphan", now - 3600);
+		final Container young        = mockContainer("young", now);
+		final Container alive        = mockContainer("alive", now - 3600);
+		new DockerContainer(this.host, "alive");
+		
+		when(this.mockedDockerClient.listContainers(any())).thenReturn(Arrays.asList(orphan, secondOrphan, thirdOrphan, young, alive));
+		
+		final long removed = MetricsService.getInstance().getCounter("container.reaper.removed");
+		DockerContainerReaper.getInstance().reap();
+		
+		verify(this.mockedDockerClient).removeContainer(eq("orphan"), any());
+		verify(this.mockedDockerClient).removeContainer(eq("secondOrphan"), any());
+		verify(this.mockedDockerClient).removeContainer(eq("thirdOrphan"), any());
+		verify(this.mockedDockerClient, never()).removeContainer(eq("young"), any());
+		verify(this.mockedDockerClient, never()).removeContainer(eq("alive"), any());
+		assertEquals(removed + 3, MetricsService.getInstance().getCounter("container.reaper.removed"));
+	}
+	
+	@Test
+	public void reapListFailure() throws Exception {
+		when(this.mockedDockerClient.listContainers(any())).thenThrow(new InterruptedException());
+		
+		final long failures = MetricsService.getInstance().getCounter("container.reaper.failures");
+		DockerContainerReaper.getInstance().reap();
+		
+		assertEquals(failures + 1, MetricsService.getInstance().getCounter("container.reaper.failures"));
+	}
+	
+	@Test
+	public void reapSkipsDrainedHosts() throws Exception {
+		when(this.mockedDockerClient.ping()).thenThrow(new DockerException("unreachable"));
+		this.host.checkHealth();
+		
+		DockerContainerReaper.getInstance().reap();
+		verify(this.mockedDockerClient, never()).listContainers(any());
+	}
+	
+	private static Container mockContainer(final String id, final long created) {
+		final Container container = mock(Container.class);
+		when(container.id()).thenReturn(id);
+		when(container.created()).thenReturn(created);
+		
+		return container;
+	}
+}
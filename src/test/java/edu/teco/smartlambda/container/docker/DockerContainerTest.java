@@ -1,74 +1,232 @@
 package edu.teco.smartlambda.container.docker;
 
 import com.spotify.docker.client.DockerClient;
-import com.spotify.docker.client.LogStream;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.messages.ContainerStats;
+import com.spotify.docker.client.messages.CpuStats;
+import com.spotify.docker.client.messages.MemoryStats;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.PayloadDirectory;
+import edu.teco.smartlambda.container.ResourceUsage;
+import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.io.output.NullOutputStream;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 /**
  *
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({DockerClientProvider.class, HttpHijackingWorkaround.class})
+@PrepareForTest({DockerAttachChannel.class, ConfigurationService.class})
 public class DockerContainerTest {
 	
 	private static final String ID = "31337";
 	private DockerContainer dockerContainer;
 	
-	private LogStream    mockedLogStream;
-	private OutputStream mockedOutputStream;
+	private DockerHost          host;
+	private DockerClient        mockedDockerClient;
+	private DockerAttachChannel mockedChannel;
+	private OutputStream        mockedOutputStream;
+	private InputStream         mockedInputStream;
+	private Configuration       mockedConfiguration;
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
 	
 	@Before
 	public void setup() throws Exception {
-		dockerContainer = new DockerContainer(ID);
-		
-		final DockerClient mockedDockerClient = mock(DockerClient.class);
+		mockedDockerClient = mock(DockerClient.class);
+		host = new DockerHost(DockerClientProvider.DEFAULT_SOCKET, mockedDockerClient, 1);
+		dockerContainer = new DockerContainer(host, ID);
 		
-		//noinspection unchecked
-		mockedLogStream = mock(LogStream.class);
+		mockedChannel = mock(DockerAttachChannel.class);
 		mockedOutputStream = mock(OutputStream.class);
+		mockedInputStream = mock(InputStream.class);
+		
+		mockStatic(DockerAttachChannel.class);
+		
+		when(DockerAttachChannel.open(DockerClientProvider.DEFAULT_SOCKET, ID)).thenReturn(mockedChannel);
+		when(mockedChannel.getStdIn()).thenReturn(mockedOutputStream);
+		when(mockedChannel.getStdOut()).thenReturn(mockedInputStream);
+		
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		mockedConfiguration = mock(Configuration.class);
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(mockedConfiguration);
+		when(mockedConfiguration.getString(eq("docker.cgroupRoot"), anyString())).thenReturn(folder.getRoot().getPath());
+	}
+	
+	@Test
+	public void getResourceUsageFromCgroup() throws Exception {
+		final Path group = folder.getRoot().toPath().resolve("cpuacct").resolve("docker").resolve(ID);
+		Files.createDirectories(group);
+		Files.write(group.resolve("cpuacct.usage"), "5000000".getBytes(StandardCharsets.US_ASCII));
+		
+		assertEquals(5, dockerContainer.getResourceUsage().getCpuTime());
+		verify(mockedDockerClient, never()).stats(anyString());
+	}
+	
+	@Test
+	public void getResourceUsageFromStatistics() throws Exception {
+		final ContainerStats    stats       = mock(ContainerStats.class);
+		final CpuStats          cpuStats    = mock(CpuStats.class);
+		final CpuStats.CpuUsage cpuUsage    = mock(CpuStats.CpuUsage.class);
+		final MemoryStats       memoryStats = mock(MemoryStats.class);
 		
-		mockStatic(HttpHijackingWorkaround.class);
-		mockStatic(DockerClientProvider.class);
+		when(mockedDockerClient.stats(ID)).thenReturn(stats);
+		when(stats.cpuStats()).thenReturn(cpuStats);
+		when(cpuStats.cpuUsage()).thenReturn(cpuUsage);
+		when(cpuUsage.totalUsage()).thenReturn(42000000L);
+		when(stats.memoryStats()).thenReturn(memoryStats);
+		when(memoryStats.maxUsage()).thenReturn(1024L);
 		
-		when(DockerClientProvider.get()).thenReturn(mockedDockerClient);
-		when(mockedDockerClient.attachContainer(ID, DockerClient.AttachParameter.STREAM, DockerClient.AttachParameter.STDIN,
-				DockerClient.AttachParameter.STDOUT, DockerClient.AttachParameter.STDERR)).thenReturn(mockedLogStream);
-		when(HttpHijackingWorkaround.getOutputStream(any(LogStream.class), anyString())).thenReturn(mockedOutputStream);
+		assertEquals(new ResourceUsage(42, 1024), dockerContainer.getResourceUsage());
+		
+		// the sample is reused until the container executes again
+		assertEquals(new ResourceUsage(42, 1024), dockerContainer.getResourceUsage());
+		verify(mockedDockerClient, times(1)).stats(ID);
+		
+		when(cpuUsage.totalUsage()).thenReturn(50000000L);
+		when(mockedChannel.getStdIn()).thenAnswer(invocation -> {
+			throw new IOException();
+		});
+		try {
+			dockerContainer.execute("");
+			fail();
+		} catch (final IOException ignored) {
+		}
+		assertEquals(new ResourceUsage(50, 1024), dockerContainer.getResourceUsage());
+		verify(mockedDockerClient, times(2)).stats(ID);
 	}
 	
 	@Test
 	public void getStdIn() throws Exception {
 		assertSame(mockedOutputStream, dockerContainer.getStdIn());
+		assertSame(dockerContainer.getStdIn(), dockerContainer.getStdIn());
+	}
+	
+	@Test
+	public void getStdOut() throws Exception {
+		assertSame(mockedInputStream, dockerContainer.getStdOut());
+		assertSame(dockerContainer.getStdOut(), dockerContainer.getStdOut());
+	}
+	
+	@Test
+	public void attachesOnce() throws Exception {
+		dockerContainer.getStdIn();
+		dockerContainer.getStdOut();
+		
+		verifyStatic(times(1));
+		DockerAttachChannel.open(DockerClientProvider.DEFAULT_SOCKET, ID);
 	}
 	
 	@Test(timeout = 1000L)
 	public void attach() throws Exception {
 		try (NullOutputStream outputStream = new NullOutputStream(); NullOutputStream errorStream = new NullOutputStream()) {
 			dockerContainer.attach(outputStream, errorStream);
-			verify(mockedLogStream).attach(outputStream, errorStream, true);
+			verify(mockedChannel).attach(outputStream, errorStream);
 		}
 	}
 	
+	@Test
+	public void executeCountsInFlight() throws Exception {
+		when(mockedChannel.getStdIn()).thenAnswer(invocation -> {
+			assertEquals(0, host.getFreeSlots());
+			throw new IOException();
+		});
+		
+		try {
+			dockerContainer.execute("");
+			fail();
+		} catch (final IOException ignored) {
+		}
+		
+		assertEquals(1, host.getFreeSlots());
+	}
+	
+	@Test
+	public void writeStdIn() throws Exception {
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(8);
+		dockerContainer.writeStdIn(buffer);
+		
+		verify(mockedChannel).writeFully(buffer);
+		verify(mockedChannel, never()).getStdIn();
+	}
+	
+	@Test
+	public void isDrained() throws Exception {
+		assertFalse(dockerContainer.isDrained());
+		
+		when(mockedDockerClient.ping()).thenThrow(new DockerException("unreachable"));
+		host.checkHealth();
+		assertTrue(dockerContainer.isDrained());
+	}
+	
 	@Test
 	public void getId() throws Exception {
 		assertNotNull(dockerContainer.getId());
 		assertEquals(ID, dockerContainer.getId());
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void delete() throws Exception {
+		assertTrue(DockerContainer.isAlive(ID));
+		
+		dockerContainer.getStdOut();
+		dockerContainer.delete();
+		
+		verify(mockedChannel).close();
+		verify(mockedDockerClient).removeContainer(eq(ID), any());
+		assertFalse(DockerContainer.isAlive(ID));
+	}
+	
+	@Test
+	public void deleteRemovesPayloadDirectory() throws Exception {
+		final PayloadDirectory payloadDirectory = mock(PayloadDirectory.class);
+		final DockerContainer  container        = new DockerContainer(host, "mapped", payloadDirectory);
+		assertSame(payloadDirectory, container.getPayloadDirectory().get());
+		assertFalse(dockerContainer.getPayloadDirectory().isPresent());
+		
+		doThrow(new DockerException("failed")).when(mockedDockerClient).removeContainer(eq("mapped"), any());
+		try {
+			container.delete();
+			fail();
+		} catch (final DockerException ignored) {
+		}
+		
+		// the container is left to the reaper, but its payloads are removed anyway
+		verify(payloadDirectory).delete();
+	}
+}
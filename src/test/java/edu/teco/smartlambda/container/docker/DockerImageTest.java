@@ -1,7 +1,13 @@
 package edu.teco.smartlambda.container.docker;
 
 import com.spotify.docker.client.DockerClient;
+import com.spotify.docker.client.exceptions.DockerException;
+import com.spotify.docker.client.exceptions.ImageNotFoundException;
 import com.spotify.docker.client.messages.ContainerCreation;
+import com.spotify.docker.client.messages.HostConfig;
+import edu.teco.smartlambda.container.PayloadDirectory;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.shared.GlobalOptions;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,11 +15,25 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -21,7 +41,7 @@ import static org.mockito.Mockito.when;
  *
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest(DockerClientProvider.class)
+@PrepareForTest({DockerClientProvider.class, PayloadDirectory.class})
 public class DockerImageTest {
 	
 	private static final String IMAGE_ID = "31337";
@@ -30,6 +50,8 @@ public class DockerImageTest {
 	
 	private static DockerClient mockedDockerClient;
 	
+	private static DockerHost host;
+	
 	@Before
 	public void setUp() throws Exception {
 		image = new DockerImage(IMAGE_ID);
@@ -37,16 +59,201 @@ public class DockerImageTest {
 		mockedDockerClient = mock(DockerClient.class);
 		final ContainerCreation mockedContainerCreation = mock(ContainerCreation.class);
 		
+		host = new DockerHost(DockerClientProvider.DEFAULT_SOCKET, mockedDockerClient, 1);
+		
 		PowerMockito.mockStatic(DockerClientProvider.class);
-		when(DockerClientProvider.get()).thenReturn(mockedDockerClient);
+		when(DockerClientProvider.selectHost()).thenReturn(host);
+		when(DockerClientProvider.getHosts()).thenReturn(Collections.singletonList(host));
 		when(mockedDockerClient.createContainer(any())).thenReturn(mockedContainerCreation);
 		when(mockedContainerCreation.id()).thenReturn(IMAGE_ID);
+		
+		PowerMockito.mockStatic(PayloadDirectory.class);
+		when(PayloadDirectory.create()).thenReturn(Optional.empty());
 	}
 	
 	@Test
 	public void start() throws Exception {
 		image.start();
 		verify(mockedDockerClient).startContainer(IMAGE_ID);
+		verify(mockedDockerClient)
+				.createContainer(argThat(config -> config.labels() != null && config.labels().containsKey(DockerImage.CONTAINER_LABEL)));
+		assertTrue(DockerContainer.isAlive(IMAGE_ID));
+	}
+	
+	@Test
+	public void startCountsInFlight() throws Exception {
+		when(mockedDockerClient.createContainer(any())).thenAnswer(invocation -> {
+			assertEquals(0, host.getFreeSlots());
+			throw new DockerException("failed");
+		});
+		
+		try {
+			image.start();
+			fail();
+		} catch (final DockerException ignored) {
+		}
+		
+		assertEquals(1, host.getFreeSlots());
+	}
+	
+	@Test
+	public void startCopiesMissingImage() throws Exception {
+		final DockerClient      otherClient = mock(DockerClient.class);
+		final DockerHost        other       = new DockerHost("tcp://other:2375", otherClient, 1);
+		final InputStream       stream      = new ByteArrayInputStream(new byte[0]);
+		final ContainerCreation creation    = mock(ContainerCreation.class);
+		
+		when(DockerClientProvider.getHosts()).thenReturn(Arrays.asList(host, other));
+		when(DockerClientProvider.selectHost()).thenReturn(other);
+		when(otherClient.createContainer(any())).thenThrow(new ImageNotFoundException(IMAGE_ID)).thenReturn(creation);
+		when(creation.id()).thenReturn("copied");
+		when(mockedDockerClient.save(IMAGE_ID)).thenReturn(stream);
+		
+		assertEquals("copied", image.start().getId());
+		verify(otherClient).load(stream);
+		verify(otherClient).startContainer("copied");
+	}
+	
+	@Test
+	public void ensureOnHostHoldingImage() throws Exception {
+		image.ensureOn(host);
+		
+		verify(mockedDockerClient).inspectImage(IMAGE_ID);
+		verify(mockedDockerClient, never()).load(any(InputStream.class));
+	}
+	
+	@Test
+	public void ensureOnCopiesMissingImage() throws Exception {
+		final DockerClient otherClient = mock(DockerClient.class);
+		final DockerHost   other       = new DockerHost("tcp://other:2375", otherClient, 1);
+		final InputStream  stream      = new ByteArrayInputStream(new byte[0]);
+		
+		when(DockerClientProvider.getHosts()).thenReturn(Arrays.asList(host, other));
+		when(otherClient.inspectImage(IMAGE_ID)).thenThrow(new ImageNotFoundException(IMAGE_ID));
+		when(mockedDockerClient.save(IMAGE_ID)).thenReturn(stream);
+		
+		image.ensureOn(other);
+		verify(otherClient).load(stream);
+	}
+	
+	@Test(expected = ImageNotFoundException.class)
+	public void ensureOnWithoutAnyHostHoldingImage() throws Exception {
+		when(mockedDockerClient.inspectImage(IMAGE_ID)).thenThrow(new ImageNotFoundException(IMAGE_ID));
+		
+		image.ensureOn(host);
+	}
+	
+	@Test
+	public void startWithoutHealthyHost() throws Exception {
+		when(mockedDockerClient.ping()).thenThrow(new DockerException("unreachable"));
+		host.checkHealth();
+		when(DockerClientProvider.selectHost()).thenCallRealMethod();
+		when(DockerClientProvider.select(any())).thenCallRealMethod();
+		
+		try {
+			image.start();
+			fail();
+		} catch (final DockerException ignored) {
+		}
+		
+		verify(mockedDockerClient, never()).createContainer(any());
+	}
+	
+	@Test
+	public void distribute() throws Exception {
+		final DockerClient otherClient   = mock(DockerClient.class);
+		final DockerClient drainedClient = mock(DockerClient.class);
+		final DockerHost   drained       = new DockerHost("tcp://drained:2375", drainedClient, 1);
+		final InputStream  stream        = new ByteArrayInputStream(new byte[0]);
+		
+		when(drainedClient.ping()).thenThrow(new DockerException("unreachable"));
+		drained.checkHealth();
+		when(DockerClientProvider.getHosts())
+				.thenReturn(Arrays.asList(host, new DockerHost("tcp://other:2375", otherClient, 1), drained));
+		when(mockedDockerClient.save(IMAGE_ID)).thenReturn(stream);
+		
+		image.distribute(host);
+		verify(otherClient).load(stream);
+		verify(mockedDockerClient, never()).load(any(InputStream.class));
+		verify(drainedClient, never()).load(any(InputStream.class));
+	}
+	
+	@Test
+	public void startWithResourceLimits() throws Exception {
+		image.start(new ResourceLimits(256, 512, 50, 64));
+		verify(mockedDockerClient).createContainer(argThat(config -> {
+			final HostConfig hostConfig = config.hostConfig();
+			return hostConfig != null && hostConfig.memory() == 256L * 1024 * 1024 && hostConfig.memorySwap() == 256L * 1024 * 1024 &&
+					hostConfig.cpuShares() == 512 && hostConfig.cpuQuota() * 2 == hostConfig.cpuPeriod() && hostConfig.pidsLimit() == 64 &&
+					config.env() != null && config.env().contains("JAVA_TOOL_OPTIONS=-Xmx192m");
+		}));
+	}
+	
+	@Test
+	public void startWithoutResourceLimits() throws Exception {
+		image.start();
+		verify(mockedDockerClient).createContainer(argThat(config -> config.hostConfig() != null && config.hostConfig().memory() == null &&
+				config.hostConfig().cpuQuota() == null && config.env() == null));
+	}
+	
+	@Test
+	public void startWithPayloadDirectory() throws Exception {
+		final PayloadDirectory payloadDirectory = mock(PayloadDirectory.class);
+		when(payloadDirectory.getPath()).thenReturn(Paths.get("/dev/shm/smartlambda/container"));
+		when(payloadDirectory.getThreshold()).thenReturn(1024);
+		when(PayloadDirectory.create()).thenReturn(Optional.of(payloadDirectory));
+		
+		assertSame(payloadDirectory, image.start().getPayloadDirectory().get());
+		verify(mockedDockerClient).createContainer(argThat(config -> config.hostConfig() != null &&
+				config.hostConfig().binds().contains("/dev/shm/smartlambda/container:" + PayloadDirectory.CONTAINER_PATH) &&
+				config.env().contains(GlobalOptions.PAYLOAD_DIRECTORY_VARIABLE + "=" + PayloadDirectory.CONTAINER_PATH) &&
+				config.env().contains(GlobalOptions.PAYLOAD_THRESHOLD_VARIABLE + "=1024")));
+	}
+	
+	@Test
+	public void startWithPayloadDirectoryFailure() throws Exception {
+		final PayloadDirectory payloadDirectory = mock(PayloadDirectory.class);
+		when(payloadDirectory.getPath()).thenReturn(Paths.get("/dev/shm/smartlambda/container"));
+		when(PayloadDirectory.create()).thenReturn(Optional.of(payloadDirectory));
+		when(mockedDockerClient.createContainer(any())).thenThrow(new DockerException("failed"));
+		
+		try {
+			image.start();
+			fail();
+		} catch (final DockerException ignored) {
+		}
+		
+		verify(payloadDirectory).delete();
+	}
+	
+	@Test
+	public void startOnRemoteHostWithoutPayloadDirectory() throws Exception {
+		final DockerClient      otherClient = mock(DockerClient.class);
+		final ContainerCreation creation    = mock(ContainerCreation.class);
+		
+		when(DockerClientProvider.selectHost()).thenReturn(new DockerHost("tcp://other:2375", otherClient, 1));
+		when(otherClient.createContainer(any())).thenReturn(creation);
+		when(creation.id()).thenReturn("remote");
+		
+		assertFalse(image.start().getPayloadDirectory().isPresent());
+		PowerMockito.verifyStatic(never());
+		PayloadDirectory.create();
+	}
+	
+	@Test
+	public void startFailure() throws Exception {
+		final DockerException exception = new DockerException("failed");
+		doThrow(exception).when(mockedDockerClient).startContainer(IMAGE_ID);
+		
+		try {
+			image.start();
+			fail();
+		} catch (final DockerException e) {
+			assertSame(exception, e);
+		}
+		
+		verify(mockedDockerClient).removeContainer(eq(IMAGE_ID), any());
+		assertFalse(DockerContainer.isAlive(IMAGE_ID));
 	}
 	
 	@Test
@@ -54,9 +261,36 @@ public class DockerImageTest {
 		assertSame(IMAGE_ID, image.getId());
 	}
 	
+	@Test
+	public void exists() throws Exception {
+		assertTrue(image.exists());
+		
+		when(mockedDockerClient.inspectImage(IMAGE_ID)).thenThrow(new ImageNotFoundException(IMAGE_ID));
+		assertFalse(image.exists());
+	}
+	
+	@Test
+	public void existsOnAnyHost() throws Exception {
+		final DockerClient otherClient = mock(DockerClient.class);
+		when(DockerClientProvider.getHosts()).thenReturn(Arrays.asList(host, new DockerHost("tcp://other:2375", otherClient, 1)));
+		when(mockedDockerClient.inspectImage(IMAGE_ID)).thenThrow(new ImageNotFoundException(IMAGE_ID));
+		
+		assertTrue(image.exists());
+	}
+	
 	@Test
 	public void delete() throws Exception {
 		image.delete();
 		verify(mockedDockerClient).removeImage(eq(IMAGE_ID), anyBoolean(), anyBoolean());
 	}
+	
+	@Test
+	public void deleteFromAllHosts() throws Exception {
+		final DockerClient otherClient = mock(DockerClient.class);
+		when(DockerClientProvider.getHosts()).thenReturn(Arrays.asList(host, new DockerHost("tcp://other:2375", otherClient, 1)));
+		when(mockedDockerClient.removeImage(eq(IMAGE_ID), anyBoolean(), anyBoolean())).thenThrow(new ImageNotFoundException(IMAGE_ID));
+		
+		image.delete();
+		verify(otherClient).removeImage(eq(IMAGE_ID), anyBoolean(), anyBoolean());
+	}
 }
\ No newline at end of file
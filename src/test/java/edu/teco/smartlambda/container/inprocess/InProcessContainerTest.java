@@ -0,0 +1,68 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test Case for {@link InProcessContainer}
+ */
+public class InProcessContainerTest {
+	
+	private InProcessLambda    lambda;
+	private InProcessContainer container;
+	
+	@Before
+	public void setUp() {
+		this.lambda = mock(InProcessLambda.class);
+		this.container = new InProcessContainer(this.lambda);
+	}
+	
+	@Test
+	public void execute() throws Exception {
+		final ExecutionReturnValue returnValue = new ExecutionReturnValue("{}", "");
+		when(this.lambda.execute("params")).thenReturn(returnValue);
+		
+		assertSame(returnValue, this.container.execute("params"));
+	}
+	
+	@Test
+	public void getResourceUsage() throws Exception {
+		assumeTrue(ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported());
+		
+		when(this.lambda.execute("params")).thenAnswer(invocation -> {
+			final long start = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
+			
+			//noinspection StatementWithEmptyBody
+			while (ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime() - start < 20_000_000L) ;
+			return new ExecutionReturnValue("{}", "");
+		});
+		
+		assertEquals(0, this.container.getResourceUsage().getCpuTime());
+		this.container.execute("params");
+		
+		assertTrue(this.container.getResourceUsage().getCpuTime() >= 20);
+		assertEquals(0, this.container.getResourceUsage().getPeakMemory());
+	}
+	
+	@Test
+	public void getId() throws Exception {
+		assertTrue(this.container.getId().startsWith(InProcessImage.ID_PREFIX));
+	}
+	
+	@Test
+	public void delete() throws Exception {
+		this.container.delete();
+		verifyZeroInteractions(this.lambda);
+	}
+}
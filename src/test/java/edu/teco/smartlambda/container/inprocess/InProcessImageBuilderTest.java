@@ -0,0 +1,56 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test Case for {@link InProcessImageBuilder}
+ */
+public class InProcessImageBuilderTest {
+	
+	private static final byte[] CONTENT = {'a'};
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.directory = this.folder.newFolder();
+	}
+	
+	@Test
+	public void build() throws Exception {
+		final InProcessImageBuilder builder = new InProcessImageBuilder(this.directory);
+		builder.setName("name").setTemplate("template").setCommand("command").storeFile(new byte[] {'b'}, "executionservice.jar")
+				.storeFile(CONTENT, "lambda.jar");
+		
+		final InProcessImage image = builder.build();
+		
+		assertEquals("inprocess:name", image.getId());
+		assertArrayEquals(new String[] {"name.jar"}, this.directory.list());
+		assertArrayEquals(CONTENT, Files.readAllBytes(new File(this.directory, "name.jar").toPath()));
+	}
+	
+	@Test
+	public void buildCreatesDirectory() throws Exception {
+		final File directory = new File(this.directory, "images");
+		
+		new InProcessImageBuilder(directory).storeFile(CONTENT, "lambda.jar").build();
+		assertEquals(1, directory.list().length);
+	}
+	
+	@Test(expected = IllegalStateException.class)
+	public void buildWithoutArchive() throws Exception {
+		new InProcessImageBuilder(this.directory).build();
+	}
+}
@@ -0,0 +1,86 @@
+package edu.teco.smartlambda.container.inprocess;
+
+import edu.teco.smartlambda.container.Container;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Case for {@link InProcessImage}
+ */
+public class InProcessImageTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private File directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.directory = this.folder.newFolder();
+	}
+	
+	private InProcessImage build(final byte[] archive) throws Exception {
+		final InProcessImageBuilder builder = new InProcessImageBuilder(this.directory);
+		builder.storeFile(archive, "lambda.jar");
+		
+		return builder.build();
+	}
+	
+	private static byte[] lambdaArchive() throws IOException {
+		return IOUtils.toByteArray(InProcessImageTest.class.getClassLoader().getResourceAsStream("lambda.jar"));
+	}
+	
+	@Test
+	public void execute() throws Exception {
+		final InProcessImage image = this.build(lambdaArchive());
+		assertTrue(image.exists());
+		
+		final Container            container   = image.start();
+		final ExecutionReturnValue returnValue = container.execute("{\"demoValue\":\"demo\"}");
+		
+		assertFalse(returnValue.isException());
+		assertEquals("{\"demoReturnValue\":\"success\"}", returnValue.getReturnValue().get());
+		assertTrue(container.getId().startsWith(InProcessImage.ID_PREFIX));
+		assertNotEquals(container.getId(), image.start().getId());
+	}
+	
+	@Test
+	public void getId() throws Exception {
+		assertEquals("inprocess:42", new InProcessImage("inprocess:42", this.directory).getId());
+	}
+	
+	@Test
+	public void delete() throws Exception {
+		final InProcessImage image = this.build(lambdaArchive());
+		image.start();
+		
+		image.delete();
+		assertFalse(image.exists());
+		assertEquals(0, this.directory.list().length);
+	}
+	
+	@Test(expected = IOException.class)
+	public void startWithoutMetaData() throws Exception {
+		final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		try (JarOutputStream output = new JarOutputStream(archive)) {
+			output.putNextEntry(new ZipEntry("empty.txt"));
+		}
+		
+		this.build(archive.toByteArray()).start();
+	}
+}
@@ -0,0 +1,78 @@
+package edu.teco.smartlambda.container.local;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Case for {@link LocalImageBuilder}
+ */
+public class LocalImageBuilderTest {
+	
+	private static final byte[] CONTENT = {'a'};
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private File root;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.root = this.folder.newFolder();
+	}
+	
+	private static String read(final File file) throws Exception {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+	
+	@Test
+	public void build() throws Exception {
+		final LocalImage image = (LocalImage) new LocalImageBuilder(this.root).setName("name").setCommand("run").storeFile(CONTENT, "file")
+				.storeFile(CONTENT, "exec", true).build();
+		
+		assertEquals("local:name", image.getId());
+		assertArrayEquals(new String[] {"name"}, this.root.list());
+		assertArrayEquals(CONTENT, Files.readAllBytes(new File(image.getDirectory(), "file").toPath()));
+		assertTrue(new File(image.getDirectory(), "exec").canExecute());
+		assertFalse(new File(image.getDirectory(), "file").canExecute());
+		assertEquals("run", read(new File(image.getDirectory(), LocalImage.COMMAND_FILE)));
+	}
+	
+	@Test
+	public void buildFromTemplate() throws Exception {
+		final LocalImage template = (LocalImage) new LocalImageBuilder(this.root).setCommand("run").storeFile(CONTENT, "base").build();
+		final LocalImage image    =
+				(LocalImage) new LocalImageBuilder(this.root).setTemplate(template.getId()).storeFile(new byte[] {'b'}, "file").build();
+		
+		assertArrayEquals(CONTENT, Files.readAllBytes(new File(image.getDirectory(), "base").toPath()));
+		assertEquals("b", read(new File(image.getDirectory(), "file")));
+		assertEquals("run", read(new File(image.getDirectory(), LocalImage.COMMAND_FILE)));
+	}
+	
+	@Test
+	public void buildIgnoresForeignTemplate() throws Exception {
+		final LocalImage image =
+				(LocalImage) new LocalImageBuilder(this.root).setTemplate("openjdk:8-jre-alpine").storeFile(CONTENT, "file").build();
+		
+		assertArrayEquals(new String[] {"file"}, image.getDirectory().list());
+	}
+	
+	@Test
+	public void buildReplacesImageOfSameName() throws Exception {
+		new LocalImageBuilder(this.root).setName("name").storeFile(CONTENT, "old").build();
+		final LocalImage image = (LocalImage) new LocalImageBuilder(this.root).setName("name").storeFile(CONTENT, "new").build();
+		
+		assertArrayEquals(new String[] {"new"}, image.getDirectory().list());
+		assertEquals(1, this.root.list().length);
+	}
+}
@@ -0,0 +1,89 @@
+package edu.teco.smartlambda.container.local;
+
+import edu.teco.smartlambda.container.ResourceLimits;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Case for {@link LocalImage}
+ */
+public class LocalImageTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private File root;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.root = this.folder.newFolder();
+	}
+	
+	@Test(timeout = 10000L)
+	public void start() throws Exception {
+		final LocalImage image = (LocalImage) new LocalImageBuilder(this.root).setName("echo").setCommand("cat").build();
+		assertTrue(image.exists());
+		
+		final LocalContainer container = image.start(ResourceLimits.UNLIMITED);
+		try {
+			container.getStdIn().write("echo".getBytes(StandardCharsets.US_ASCII));
+			container.getStdIn().flush();
+			
+			final byte[] echo = new byte[4];
+			for (int read = 0; read < echo.length; ) read += container.getStdOut().read(echo, read, echo.length - read);
+			assertEquals("echo", new String(echo, StandardCharsets.US_ASCII));
+			assertTrue(container.getResourceUsage().getPeakMemory() > 0);
+		} finally {
+			container.delete();
+		}
+	}
+	
+	@Test(timeout = 10000L)
+	public void startJava() throws Exception {
+		final LocalImage image = (LocalImage) new LocalImageBuilder(this.root).setCommand("java -version").build();
+		
+		// the version is printed to the standard error, so the standard output ends when the JVM exits
+		assertEquals(-1, image.start(ResourceLimits.UNLIMITED).getStdOut().read());
+	}
+	
+	@Test(timeout = 10000L)
+	public void startWithMemoryLimit() throws Exception {
+		final LocalImage     image     = (LocalImage) new LocalImageBuilder(this.root).setCommand("env").build();
+		final LocalContainer container = image.start(new ResourceLimits(256, 0, 0, 0));
+		
+		assertTrue(IOUtils.toString(container.getStdOut(), StandardCharsets.UTF_8).contains("JAVA_TOOL_OPTIONS=-Xmx192m"));
+	}
+	
+	@Test(expected = IOException.class)
+	public void startWithoutCommand() throws Exception {
+		((LocalImage) new LocalImageBuilder(this.root).build()).start();
+	}
+	
+	@Test
+	public void getId() throws Exception {
+		final LocalImage image = new LocalImage("local:smartlambda/jre8:1234", this.root);
+		
+		assertEquals("local:smartlambda/jre8:1234", image.getId());
+		assertEquals(new File(this.root, "smartlambda_jre8_1234"), image.getDirectory());
+	}
+	
+	@Test
+	public void delete() throws Exception {
+		final LocalImage image = (LocalImage) new LocalImageBuilder(this.root).setCommand("cat").build();
+		
+		image.delete();
+		assertFalse(image.exists());
+		assertEquals(0, this.root.list().length);
+	}
+}
@@ -0,0 +1,66 @@
+package edu.teco.smartlambda.container.local;
+
+import edu.teco.smartlambda.container.ResourceUsage;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Test Case for {@link LocalProcessStat}
+ */
+public class LocalProcessStatTest {
+	
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path directory;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.directory = this.folder.newFolder().toPath();
+	}
+	
+	private void write(final String stat, final String status) throws IOException {
+		Files.write(this.directory.resolve("stat"), stat.getBytes(StandardCharsets.US_ASCII));
+		Files.write(this.directory.resolve("status"), status.getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	@Test
+	public void read() throws Exception {
+		this.write("42 (java main) S 1 42 42 0 -1 4194560 1000 0 0 0 150 50 0 0 20 0 12 0 100 2000000 3000",
+				"Name:\tjava\nVmPeak:\t 200000 kB\nVmHWM:\t   51200 kB\nVmRSS:\t   40000 kB\n");
+		
+		assertEquals(new ResourceUsage(2000, 51200L * 1024), LocalProcessStat.read(this.directory));
+	}
+	
+	@Test
+	public void readWithoutMemory() throws Exception {
+		this.write("42 (cat) S 1 42 42 0 -1 4194560 1000 0 0 0 1 2 0 0 20 0 1 0 100 2000000 3000", "Name:\tcat\n");
+		
+		assertEquals(new ResourceUsage(30, 0), LocalProcessStat.read(this.directory));
+	}
+	
+	@Test(expected = IOException.class)
+	public void readMalformed() throws Exception {
+		this.write("42 (cat) S 1", "");
+		LocalProcessStat.read(this.directory);
+	}
+	
+	@Test
+	public void readSelf() throws Exception {
+		assumeTrue(Files.exists(Paths.get("/proc/self/stat")));
+		
+		assertTrue(LocalProcessStat.read(Paths.get("/proc/self")).getPeakMemory() > 0);
+	}
+}
@@ -227,8 +227,8 @@ public class IntegrationTest {
 		
 		final JsonObject answer =
 				requestJsonObject(RequestMethod.PUT, testUserName + "/lambda/" + testLambdaName, "SmartLambda-Key", testUserPrimaryKey,
-						body, 201, "Created");
-		Assert.assertTrue(answer.entrySet().size() == 0);
+						body, 202, "Accepted");
+		awaitBuild(answer.get("build").getAsString());
 	}
 	
 	@Test
@@ -240,8 +240,8 @@ public class IntegrationTest {
 		
 		final JsonObject answer =
 				requestJsonObject(RequestMethod.PATCH, testUserName + "/lambda/" + testLambdaName, "SmartLambda-Key", testUserPrimaryKey,
-						body, 200, "OK");
-		Assert.assertTrue(answer.entrySet().size() == 0);
+						body, 202, "Accepted");
+		awaitBuild(answer.get("build").getAsString());
 		
 		this.executeDeployedTestLambda(testUserDeveloperKey, "and still success");
 	}
@@ -303,6 +303,21 @@ public class IntegrationTest {
 		}
 	}
 	
+	/**
+	 * Wait for the build of the test lambda to finish and assert that it succeeded
+	 */
+	private static void awaitBuild(final String id) throws UnirestException, InterruptedException {
+		JsonObject build;
+		do {
+			Thread.sleep(500);
+			build = requestJsonObject(RequestMethod.GET, testUserName + "/lambda/" + testLambdaName + "/build", "SmartLambda-Key",
+					testUserPrimaryKey, null, 200, "OK");
+			Assert.assertEquals(id, build.get("id").getAsString());
+		} while (build.get("state").getAsString().equals("QUEUED") || build.get("state").getAsString().equals("RUNNING"));
+		
+		Assert.assertEquals("SUCCEEDED", build.get("state").getAsString());
+	}
+	
 	private void executeDeployedTestLambda(final String key, final String demoReturnValue) {
 		final HashMap<String, Object> body = new HashMap<>();
 		body.put("async", "false");
@@ -0,0 +1,195 @@
+package edu.teco.smartlambda.invocation;
+
+import com.google.common.util.concurrent.SettableFuture;
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
+import edu.teco.smartlambda.concurrent.ExecutionRejectedException;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import org.apache.commons.configuration2.Configuration;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.Query;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ * Test Case for {@link InvocationDispatcher}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Application.class, ConfigurationService.class})
+public class InvocationDispatcherTest {
+	
+	private Session           session;
+	private Query<Invocation> query;
+	private Invocation        invocation;
+	private Thread            dispatcher;
+	
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		mockStatic(Application.class);
+		when(Application.getInstance()).thenReturn(mock(Application.class));
+		when(Application.getInstance().getSessionFactory()).thenReturn(mock(SessionFactory.class));
+		when(Application.getInstance().getSessionFactory().getCurrentSession()).thenReturn(this.session = mock(Session.class));
+		
+		final Transaction transaction = mock(Transaction.class);
+		when(this.session.getTransaction()).thenReturn(transaction);
+		when(this.session.beginTransaction()).thenReturn(transaction);
+		
+		this.invocation = mock(Invocation.class);
+		this.query = mock(Query.class);
+		when(this.session.createQuery(anyString(), eq(Invocation.class))).thenReturn(this.query);
+		when(this.query.getResultList()).thenReturn(Collections.singletonList(this.invocation)).thenReturn(Collections.emptyList());
+		
+		final Query cleanupQuery = mock(Query.class);
+		when(this.session.createQuery(anyString())).thenReturn(cleanupQuery);
+		when(cleanupQuery.setParameter(anyString(), any())).thenReturn(cleanupQuery);
+		
+		// every option has its default value, except for the poll interval which is shortened for the tests
+		final Configuration configuration = mock(Configuration.class, invocation -> invocation.getArgument(1));
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(mock(ConfigurationService.class));
+		when(ConfigurationService.getInstance().getConfiguration()).thenReturn(configuration);
+		doAnswer(invocation -> 10L).when(configuration).getLong(eq("invocation.pollInterval"), anyLong());
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		InvocationDispatcher.getInstance().setRunning(false);
+		if (this.dispatcher != null) this.dispatcher.join();
+	}
+	
+	private void startDispatcher() {
+		InvocationDispatcher.getInstance().setRunning(true);
+		this.dispatcher = new Thread(InvocationDispatcher.getInstance()::run);
+		this.dispatcher.start();
+	}
+	
+	@Test(timeout = 10000)
+	public void dispatch() throws Exception {
+		final SettableFuture<ExecutionResult> future   = SettableFuture.create();
+		final CountDownLatch                  executed = new CountDownLatch(1);
+		final CountDownLatch                  finished = new CountDownLatch(1);
+		when(this.invocation.execute()).thenAnswer(invocation -> {
+			executed.countDown();
+			return future;
+		});
+		doAnswer(invocation -> {
+			finished.countDown();
+			return null;
+		}).when(this.invocation).finish(future);
+		
+		this.startDispatcher();
+		assertTrue(executed.await(5, TimeUnit.SECONDS));
+		verify(this.invocation, never()).finish(any());
+		
+		future.set(new ExecutionResult());
+		assertTrue(finished.await(5, TimeUnit.SECONDS));
+		verify(this.invocation).setStatus(Invocation.Status.RUNNING);
+	}
+	
+	@Test(timeout = 10000)
+	public void dispatchRejected() throws Exception {
+		final CountDownLatch executed = new CountDownLatch(1);
+		when(this.invocation.execute()).thenAnswer(invocation -> {
+			executed.countDown();
+			throw mock(ExecutionRejectedException.class);
+		});
+		
+		this.startDispatcher();
+		assertTrue(executed.await(5, TimeUnit.SECONDS));
+		InvocationDispatcher.getInstance().setRunning(false);
+		this.dispatcher.join();
+		
+		// the invocation stays queued
+		verify(this.invocation, never()).setStatus(any());
+		verify(this.invocation, never()).fail(anyString());
+	}
+	
+	@Test(timeout = 10000)
+	public void dispatchRejectedLambda() throws Exception {
+		final Lambda     rejectedLambda = mock(Lambda.class);
+		final Lambda     otherLambda    = mock(Lambda.class);
+		final Invocation queued         = mock(Invocation.class);
+		final Invocation other          = mock(Invocation.class);
+		when(this.invocation.getLambda()).thenReturn(rejectedLambda);
+		when(queued.getLambda()).thenReturn(rejectedLambda);
+		when(other.getLambda()).thenReturn(otherLambda);
+		when(this.query.getResultList()).thenReturn(Arrays.asList(this.invocation, queued, other)).thenReturn(Collections.emptyList());
+		
+		final ExecutionRejectedException rejection = mock(ExecutionRejectedException.class);
+		when(rejection.isOverloaded()).thenReturn(false);
+		when(this.invocation.execute()).thenThrow(rejection);
+		
+		when(other.execute()).thenReturn(SettableFuture.create());
+		
+		// the rejection of one lambda neither blocks the invocations of other lambdas nor is retried within the same poll
+		this.startDispatcher();
+		verify(other, timeout(5000)).setStatus(Invocation.Status.RUNNING);
+		verify(queued, never()).execute();
+		verify(this.invocation, never()).setStatus(any());
+	}
+	
+	@Test(timeout = 10000)
+	public void dispatchOverloaded() throws Exception {
+		final Invocation other = mock(Invocation.class);
+		when(this.invocation.getLambda()).thenReturn(mock(Lambda.class));
+		when(other.getLambda()).thenReturn(mock(Lambda.class));
+		when(this.query.getResultList()).thenReturn(Arrays.asList(this.invocation, other)).thenReturn(Collections.emptyList());
+		
+		final ExecutionRejectedException rejection = mock(ExecutionRejectedException.class);
+		when(rejection.isOverloaded()).thenReturn(true);
+		final CountDownLatch executed = new CountDownLatch(1);
+		when(this.invocation.execute()).thenAnswer(invocation -> {
+			executed.countDown();
+			throw rejection;
+		});
+		
+		this.startDispatcher();
+		assertTrue(executed.await(5, TimeUnit.SECONDS));
+		InvocationDispatcher.getInstance().setRunning(false);
+		this.dispatcher.join();
+		
+		// no invocation is dispatched while the execution scheduler is overloaded
+		verify(other, never()).execute();
+	}
+	
+	@Test(timeout = 10000)
+	public void dispatchFailure() throws Exception {
+		final CountDownLatch failed = new CountDownLatch(1);
+		when(this.invocation.execute()).thenThrow(new InsufficientPermissionsException());
+		doAnswer(invocation -> {
+			failed.countDown();
+			return null;
+		}).when(this.invocation).fail(anyString());
+		
+		this.startDispatcher();
+		assertTrue(failed.await(5, TimeUnit.SECONDS));
+		verify(this.invocation, never()).setStatus(Invocation.Status.RUNNING);
+	}
+}
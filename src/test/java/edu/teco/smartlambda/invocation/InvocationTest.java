@@ -0,0 +1,171 @@
+package edu.teco.smartlambda.invocation;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.entities.Key;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.lambda.AbstractLambda;
+import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.lambda.LambdaFacade;
+import edu.teco.smartlambda.lambda.LambdaFactory;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.apache.commons.configuration2.Configuration;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Calendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ * Test Case for {@link Invocation}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Application.class, AuthenticationService.class, LambdaFacade.class, ConfigurationService.class})
+public class InvocationTest {
+	
+	private Session     session;
+	private Query<Long> countQuery;
+	private Invocation  invocation;
+	
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		mockStatic(Application.class);
+		when(Application.getInstance()).thenReturn(mock(Application.class));
+		when(Application.getInstance().getSessionFactory()).thenReturn(mock(SessionFactory.class));
+		when(Application.getInstance().getSessionFactory().getCurrentSession()).thenReturn(this.session = mock(Session.class));
+		
+		this.countQuery = mock(Query.class);
+		when(this.session.createQuery(anyString(), eq(Long.class))).thenReturn(this.countQuery);
+		when(this.countQuery.getSingleResult()).thenReturn(0L);
+		
+		final Configuration configuration = mock(Configuration.class);
+		mockStatic(ConfigurationService.class);
+		when(ConfigurationService.getInstance()).thenReturn(mock(ConfigurationService.class));
+		when(ConfigurationService.getInstance().getConfiguration()).thenReturn(configuration);
+		when(configuration.getLong(eq("invocation.maximumQueuedPerLambda"), anyLong())).thenReturn(2L);
+		
+		this.invocation = new Invocation();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		ExecutionPriority.setCurrent(ExecutionPriority.INTERACTIVE);
+	}
+	
+	@Test
+	public void enqueue() throws Exception {
+		final Lambda lambda = mock(Lambda.class);
+		final Key    key    = mock(Key.class);
+		
+		final Invocation invocation = Invocation.enqueue(lambda, key, "{}", ExecutionPriority.SCHEDULED);
+		assertSame(lambda, invocation.getLambda());
+		assertSame(key, invocation.getKey());
+		assertEquals("{}", invocation.getParameters());
+		assertEquals(Invocation.Status.QUEUED, invocation.getStatus());
+		assertEquals(ExecutionPriority.SCHEDULED, invocation.getPriority());
+		assertNotNull(invocation.getCreated());
+		verify(this.session).saveOrUpdate(invocation);
+	}
+	
+	@Test(expected = InvocationQueueFullException.class)
+	public void enqueueQueueFull() throws Exception {
+		when(this.countQuery.getSingleResult()).thenReturn(2L);
+		
+		try {
+			Invocation.enqueue(mock(Lambda.class), mock(Key.class), "{}", ExecutionPriority.ASYNC);
+		} finally {
+			verify(this.session, never()).saveOrUpdate(any());
+		}
+	}
+	
+	@Test
+	public void execute() throws Exception {
+		final Key                               key    = mock(Key.class);
+		final AuthenticationService             auth   = mock(AuthenticationService.class);
+		final AbstractLambda                    lambda = mock(AbstractLambda.class);
+		final ListenableFuture<ExecutionResult> future = Futures.immediateFuture(new ExecutionResult());
+		
+		mockStatic(AuthenticationService.class);
+		when(AuthenticationService.getInstance()).thenReturn(auth);
+		mockStatic(LambdaFacade.class);
+		when(LambdaFacade.getInstance()).thenReturn(mock(LambdaFacade.class));
+		when(LambdaFacade.getInstance().getFactory()).thenReturn(mock(LambdaFactory.class));
+		when(LambdaFacade.getInstance().getFactory().decorate(any())).thenReturn(lambda);
+		when(lambda.executeAsync("{}")).thenReturn(future);
+		
+		this.invocation.setKey(key);
+		this.invocation.setLambda(mock(Lambda.class));
+		this.invocation.setParameters("{}");
+		this.invocation.setPriority(ExecutionPriority.SCHEDULED);
+		
+		assertSame(future, this.invocation.execute());
+		verify(auth).authenticate(key);
+		assertEquals(ExecutionPriority.SCHEDULED, ExecutionPriority.getCurrent());
+	}
+	
+	@Test
+	public void finishSucceeded() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		result.setExecutionReturnValue(new ExecutionReturnValue("1", ""));
+		this.invocation.setLock(Calendar.getInstance());
+		
+		this.invocation.finish(Futures.immediateFuture(result));
+		assertEquals(Invocation.Status.SUCCEEDED, this.invocation.getStatus());
+		assertEquals("1", this.invocation.getResult());
+		assertNull(this.invocation.getError());
+		assertNull(this.invocation.getLock());
+		assertNotNull(this.invocation.getFinished());
+	}
+	
+	@Test
+	public void finishException() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		result.setExecutionReturnValue(new ExecutionReturnValue(null, "error"));
+		
+		this.invocation.finish(Futures.immediateFuture(result));
+		assertEquals(Invocation.Status.FAILED, this.invocation.getStatus());
+		assertNull(this.invocation.getResult());
+		assertEquals("error", this.invocation.getError());
+		assertNotNull(this.invocation.getFinished());
+	}
+	
+	@Test
+	public void finishTimeout() throws Exception {
+		this.invocation.finish(Futures.immediateCancelledFuture());
+		assertEquals(Invocation.Status.TIMED_OUT, this.invocation.getStatus());
+		assertNotNull(this.invocation.getFinished());
+	}
+	
+	@Test
+	public void finishFailure() throws Exception {
+		this.invocation.finish(Futures.immediateFailedFuture(new IllegalStateException("failure")));
+		assertEquals(Invocation.Status.FAILED, this.invocation.getStatus());
+		assertTrue(this.invocation.getError().contains("failure"));
+	}
+}
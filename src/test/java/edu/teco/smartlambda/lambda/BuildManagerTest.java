@@ -0,0 +1,222 @@
+package edu.teco.smartlambda.lambda;
+
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.container.Image;
+import edu.teco.smartlambda.container.ImageFactory;
+import edu.teco.smartlambda.runtime.Runtime;
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+
+/**
+ * Test Case for {@link BuildManager}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({Application.class, LambdaBinary.class, ImageFactory.class})
+public class BuildManagerTest {
+	
+	private static final byte[] CONTENT = {'a'};
+	
+	private BuildManager buildManager;
+	private Session      session;
+	private Transaction  transaction;
+	private Runtime      runtime;
+	private Lambda       lambda;
+	private Lambda       storedLambda;
+	private Image        image;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.buildManager = new BuildManager(1, 1);
+		
+		mockStatic(Application.class);
+		final Application    application = mock(Application.class);
+		final SessionFactory factory     = mock(SessionFactory.class);
+		this.session = mock(Session.class);
+		this.transaction = mock(Transaction.class);
+		when(Application.getInstance()).thenReturn(application);
+		when(application.getSessionFactory()).thenReturn(factory);
+		when(factory.getCurrentSession()).thenReturn(this.session);
+		when(this.session.getTransaction()).thenReturn(this.transaction);
+		
+		this.runtime = mock(Runtime.class);
+		when(this.runtime.getName()).thenReturn("runtime");
+		
+		this.lambda = mock(Lambda.class);
+		when(this.lambda.getId()).thenReturn(1);
+		when(this.lambda.getRuntime()).thenReturn(this.runtime);
+		
+		this.storedLambda = new Lambda();
+		this.storedLambda.setContainerId("old");
+		when(this.session.get(Lambda.class, 1, LockMode.PESSIMISTIC_WRITE)).thenReturn(this.storedLambda);
+		
+		mockStatic(LambdaBinary.class);
+		when(LambdaBinary.hash(CONTENT)).thenReturn("hash");
+		when(LambdaBinary.build(this.runtime, CONTENT)).thenReturn("new");
+		
+		final LambdaBinary binary = mock(LambdaBinary.class);
+		when(binary.getContainerId()).thenReturn("new");
+		when(LambdaBinary.acquire(this.runtime, CONTENT, "new")).thenReturn(binary);
+		
+		this.image = mock(Image.class);
+		mockStatic(ImageFactory.class);
+		when(ImageFactory.getImageById("new")).thenReturn(this.image);
+	}
+	
+	@After
+	public void tearDown() {
+		this.buildManager.shutdown();
+	}
+	
+	/**
+	 * Submit a build and capture the synchronization that queues it once the transaction completes
+	 */
+	private Synchronization submit(final LambdaBuild[] build) {
+		final ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+		
+		build[0] = this.buildManager.submit(this.lambda, CONTENT);
+		verify(this.transaction, atLeastOnce()).registerSynchronization(synchronization.capture());
+		
+		return synchronization.getValue();
+	}
+	
+	private static void await(final LambdaBuild build) throws InterruptedException {
+		while (build.getState() == LambdaBuild.State.QUEUED || build.getState() == LambdaBuild.State.RUNNING) Thread.sleep(10);
+	}
+	
+	@Test(timeout = 5000L)
+	public void build() throws Exception {
+		final LambdaBuild[]   build           = new LambdaBuild[1];
+		final Synchronization synchronization = this.submit(build);
+		
+		assertEquals(LambdaBuild.State.QUEUED, build[0].getState());
+		assertSame(build[0], this.buildManager.getBuild(1).get());
+		verifyStatic(never());
+		LambdaBinary.build(any(), any());
+		
+		synchronization.afterCompletion(Status.STATUS_COMMITTED);
+		await(build[0]);
+		
+		assertEquals(LambdaBuild.State.SUCCEEDED, build[0].getState());
+		assertEquals("new", this.storedLambda.getContainerId());
+		verify(this.session).update(this.storedLambda);
+		verifyStatic();
+		LambdaBinary.release("old");
+		verify(this.image, never()).delete();
+	}
+	
+	@Test(timeout = 5000L)
+	public void buildStoredBinary() throws Exception {
+		when(LambdaBinary.isStored("runtime", "hash")).thenReturn(true);
+		
+		final LambdaBinary binary = mock(LambdaBinary.class);
+		when(binary.getContainerId()).thenReturn("shared");
+		when(LambdaBinary.acquire(this.runtime, CONTENT, null)).thenReturn(binary);
+		
+		final LambdaBuild[] build = new LambdaBuild[1];
+		this.submit(build).afterCompletion(Status.STATUS_COMMITTED);
+		await(build[0]);
+		
+		assertEquals(LambdaBuild.State.SUCCEEDED, build[0].getState());
+		assertEquals("shared", this.storedLambda.getContainerId());
+		verifyStatic(never());
+		LambdaBinary.build(any(), any());
+	}
+	
+	@Test
+	public void rolledBack() throws Exception {
+		final LambdaBuild[] build = new LambdaBuild[1];
+		this.submit(build).afterCompletion(Status.STATUS_ROLLEDBACK);
+		
+		assertEquals(LambdaBuild.State.FAILED, build[0].getState());
+		assertFalse(this.buildManager.getBuild(1).isPresent());
+	}
+	
+	@Test(timeout = 5000L)
+	public void superseded() throws Exception {
+		final LambdaBuild[]   first                = new LambdaBuild[1];
+		final Synchronization firstSynchronization = this.submit(first);
+		final LambdaBuild[]   second               = new LambdaBuild[1];
+		this.submit(second);
+		
+		firstSynchronization.afterCompletion(Status.STATUS_COMMITTED);
+		await(first[0]);
+		
+		assertEquals(LambdaBuild.State.SUPERSEDED, first[0].getState());
+		assertEquals("old", this.storedLambda.getContainerId());
+		verify(this.image).delete();
+		assertSame(second[0], this.buildManager.getBuild(1).get());
+	}
+	
+	@Test(timeout = 5000L)
+	public void deletedLambda() throws Exception {
+		final LambdaBuild[]   build           = new LambdaBuild[1];
+		final Synchronization synchronization = this.submit(build);
+		
+		this.buildManager.forget(1);
+		synchronization.afterCompletion(Status.STATUS_COMMITTED);
+		await(build[0]);
+		
+		assertEquals(LambdaBuild.State.SUPERSEDED, build[0].getState());
+		verify(this.image).delete();
+	}
+	
+	@Test(timeout = 5000L)
+	public void failed() throws Exception {
+		when(LambdaBinary.build(this.runtime, CONTENT)).thenThrow(new IllegalStateException("broken"));
+		
+		final LambdaBuild[] build = new LambdaBuild[1];
+		this.submit(build).afterCompletion(Status.STATUS_COMMITTED);
+		await(build[0]);
+		
+		assertEquals(LambdaBuild.State.FAILED, build[0].getState());
+		assertEquals("broken", build[0].getError());
+		assertEquals("old", this.storedLambda.getContainerId());
+	}
+	
+	@Test(timeout = 5000L, expected = BuildRejectedException.class)
+	public void rejected() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		when(LambdaBinary.build(this.runtime, CONTENT)).thenAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return "new";
+		});
+		
+		try {
+			// the first build occupies the only worker and the second one the only place in the queue
+			this.submit(new LambdaBuild[1]).afterCompletion(Status.STATUS_COMMITTED);
+			started.await();
+			this.submit(new LambdaBuild[1]).afterCompletion(Status.STATUS_COMMITTED);
+			
+			this.buildManager.submit(this.lambda, CONTENT);
+		} finally {
+			release.countDown();
+		}
+	}
+}
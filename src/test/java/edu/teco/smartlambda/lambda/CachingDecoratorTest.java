@@ -0,0 +1,162 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+
+/**
+ * Test Case for {@link CachingDecorator}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(ResultCache.class)
+public class CachingDecoratorTest {
+	
+	private CachingDecorator cachedLambda;
+	private Lambda           innerLambda;
+	private ResultCache      mockedResultCache;
+	
+	@Before
+	public void setUp() {
+		this.innerLambda = mock(Lambda.class);
+		this.cachedLambda = new CachingDecorator(this.innerLambda);
+		when(this.innerLambda.isCacheable()).thenReturn(true);
+		
+		this.mockedResultCache = mock(ResultCache.class);
+		mockStatic(ResultCache.class);
+		when(ResultCache.getInstance()).thenReturn(this.mockedResultCache);
+		when(this.mockedResultCache.get(any(), anyString())).thenReturn(Optional.empty());
+	}
+	
+	@Test
+	public void executeSyncNotCacheable() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.innerLambda.isCacheable()).thenReturn(false);
+		when(this.innerLambda.executeSync("1")).thenReturn(result);
+		
+		assertSame(result, this.cachedLambda.executeSync("1"));
+		verifyStatic(never());
+		ResultCache.getInstance();
+	}
+	
+	@Test
+	public void executeSyncHit() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.mockedResultCache.get(this.innerLambda, "1")).thenReturn(Optional.of(result));
+		
+		assertSame(result, this.cachedLambda.executeSync("1"));
+		verify(this.innerLambda, never()).executeSync(anyString());
+	}
+	
+	@Test
+	public void executeSyncMiss() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.innerLambda.executeSync("1")).thenReturn(result);
+		
+		assertSame(result, this.cachedLambda.executeSync("1"));
+		verify(this.mockedResultCache).put(this.innerLambda, "1", result);
+	}
+	
+	@Test
+	public void executeAsyncHit() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.mockedResultCache.get(this.innerLambda, "1")).thenReturn(Optional.of(result));
+		
+		assertSame(result, this.cachedLambda.executeAsync("1").get());
+		verify(this.innerLambda, never()).executeAsync(anyString());
+	}
+	
+	@Test
+	public void executeAsyncMiss() throws Exception {
+		final ExecutionResult                 result = new ExecutionResult();
+		final SettableFuture<ExecutionResult> future = SettableFuture.create();
+		when(this.innerLambda.executeAsync("1")).thenReturn(future);
+		
+		final ListenableFuture<ExecutionResult> cachedFuture = this.cachedLambda.executeAsync("1");
+		verify(this.mockedResultCache, never()).put(any(), any(), any());
+		
+		future.set(result);
+		assertSame(result, cachedFuture.get());
+		verify(this.mockedResultCache).put(this.innerLambda, "1", result);
+	}
+	
+	@Test
+	public void executeAsyncFailure() throws Exception {
+		final SettableFuture<ExecutionResult> future = SettableFuture.create();
+		when(this.innerLambda.executeAsync("1")).thenReturn(future);
+		
+		this.cachedLambda.executeAsync("1");
+		future.cancel(true);
+		
+		verify(this.mockedResultCache, never()).put(any(), any(), any());
+	}
+	
+	@Test
+	public void executeBatch() throws Exception {
+		final ExecutionResult first  = new ExecutionResult();
+		final ExecutionResult second = new ExecutionResult();
+		final ExecutionResult third  = new ExecutionResult();
+		when(this.mockedResultCache.get(this.innerLambda, "2")).thenReturn(Optional.of(second));
+		when(this.innerLambda.executeBatch(Arrays.asList("1", "3"))).thenReturn(Arrays.asList(first, third));
+		
+		final List<ExecutionResult> results = this.cachedLambda.executeBatch(Arrays.asList("1", "2", "3"));
+		assertEquals(3, results.size());
+		assertSame(first, results.get(0));
+		assertSame(second, results.get(1));
+		assertSame(third, results.get(2));
+		
+		verify(this.mockedResultCache).put(this.innerLambda, "1", first);
+		verify(this.mockedResultCache).put(this.innerLambda, "3", third);
+		verify(this.mockedResultCache, never()).put(this.innerLambda, "2", second);
+	}
+	
+	@Test
+	public void executeBatchAllCached() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.mockedResultCache.get(this.innerLambda, "1")).thenReturn(Optional.of(result));
+		
+		assertEquals(Collections.singletonList(result), this.cachedLambda.executeBatch(Collections.singletonList("1")));
+		verify(this.innerLambda, never()).executeBatch(any());
+	}
+	
+	@Test
+	public void update() throws Exception {
+		this.cachedLambda.update();
+		verify(this.innerLambda).update();
+		verify(this.mockedResultCache).invalidate(this.innerLambda);
+	}
+	
+	@Test
+	public void deployBinary() throws Exception {
+		this.cachedLambda.deployBinary(new byte[0]);
+		verify(this.innerLambda).deployBinary(new byte[0]);
+		verify(this.mockedResultCache).invalidate(this.innerLambda);
+	}
+	
+	@Test
+	public void delete() throws Exception {
+		this.cachedLambda.delete();
+		verify(this.innerLambda).delete();
+		verify(this.mockedResultCache).invalidate(this.innerLambda);
+	}
+}
@@ -0,0 +1,169 @@
+package edu.teco.smartlambda.lambda;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test Case for {@link CoalescingDecorator}
+ */
+public class CoalescingDecoratorTest {
+	
+	private CoalescingDecorator coalescedLambda;
+	private Lambda              innerLambda;
+	
+	@Before
+	public void setUp() {
+		this.innerLambda = mock(Lambda.class);
+		this.coalescedLambda = new CoalescingDecorator(this.innerLambda);
+		when(this.innerLambda.isCacheable()).thenReturn(true);
+		// executions in flight are shared by all decorators, so every test uses an image of its own
+		when(this.innerLambda.getContainerId()).thenReturn(UUID.randomUUID().toString());
+		when(this.innerLambda.getName()).thenReturn("lambda");
+		when(this.innerLambda.getTimeout()).thenReturn(5);
+	}
+	
+	@Test
+	public void executeAsyncNotCacheable() throws Exception {
+		when(this.innerLambda.isCacheable()).thenReturn(false);
+		when(this.innerLambda.executeAsync("1")).thenReturn(SettableFuture.create());
+		
+		this.coalescedLambda.executeAsync("1");
+		this.coalescedLambda.executeAsync("1");
+		verify(this.innerLambda, times(2)).executeAsync("1");
+	}
+	
+	@Test
+	public void executeAsyncCoalesced() throws Exception {
+		final ExecutionResult                 result = new ExecutionResult();
+		final SettableFuture<ExecutionResult> future = SettableFuture.create();
+		when(this.innerLambda.executeAsync(anyString())).thenReturn(future);
+		
+		final ListenableFuture<ExecutionResult> first  = this.coalescedLambda.executeAsync("{\"a\": 1, \"b\": 2}");
+		final ListenableFuture<ExecutionResult> second = this.coalescedLambda.executeAsync("{\"b\":2,\"a\":1}");
+		verify(this.innerLambda).executeAsync(anyString());
+		
+		future.set(result);
+		assertSame(result, first.get());
+		assertSame(result, second.get());
+	}
+	
+	@Test
+	public void executeAsyncDifferentParameters() throws Exception {
+		when(this.innerLambda.executeAsync(anyString())).thenReturn(SettableFuture.create());
+		
+		this.coalescedLambda.executeAsync("1");
+		this.coalescedLambda.executeAsync("2");
+		verify(this.innerLambda).executeAsync("1");
+		verify(this.innerLambda).executeAsync("2");
+	}
+	
+	@Test
+	public void executeAsyncAfterCompletion() throws Exception {
+		final SettableFuture<ExecutionResult> future = SettableFuture.create();
+		when(this.innerLambda.executeAsync("1")).thenReturn(future);
+		
+		this.coalescedLambda.executeAsync("1");
+		future.set(new ExecutionResult());
+		
+		final SettableFuture<ExecutionResult> next = SettableFuture.create();
+		when(this.innerLambda.executeAsync("1")).thenReturn(next);
+		this.coalescedLambda.executeAsync("1");
+		verify(this.innerLambda, times(2)).executeAsync("1");
+	}
+	
+	@Test
+	public void executeAsyncFailure() throws Exception {
+		final RuntimeException exception = new RuntimeException();
+		when(this.innerLambda.executeAsync("1")).thenThrow(exception);
+		
+		try {
+			this.coalescedLambda.executeAsync("1");
+			fail();
+		} catch (final RuntimeException e) {
+			assertSame(exception, e);
+		}
+		
+		try {
+			this.coalescedLambda.executeAsync("1");
+			fail();
+		} catch (final RuntimeException e) {
+			assertSame(exception, e);
+		}
+		
+		verify(this.innerLambda, times(2)).executeAsync("1");
+	}
+	
+	@Test
+	public void cancelDoesNotAffectOtherCallers() throws Exception {
+		final ExecutionResult                 result = new ExecutionResult();
+		final SettableFuture<ExecutionResult> future = SettableFuture.create();
+		when(this.innerLambda.executeAsync("1")).thenReturn(future);
+		
+		final ListenableFuture<ExecutionResult> first  = this.coalescedLambda.executeAsync("1");
+		final ListenableFuture<ExecutionResult> second = this.coalescedLambda.executeAsync("1");
+		assertNotSame(first, second);
+		
+		first.cancel(true);
+		assertFalse(future.isCancelled());
+		
+		future.set(result);
+		assertSame(result, second.get());
+	}
+	
+	@Test
+	public void executeSync() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.innerLambda.executeAsync("1")).thenReturn(Futures.immediateFuture(result));
+		
+		assertSame(result, this.coalescedLambda.executeSync("1"));
+		verify(this.innerLambda, never()).executeSync(anyString());
+	}
+	
+	@Test
+	public void executeSyncNotCacheable() throws Exception {
+		final ExecutionResult result = new ExecutionResult();
+		when(this.innerLambda.isCacheable()).thenReturn(false);
+		when(this.innerLambda.executeSync("1")).thenReturn(result);
+		
+		assertSame(result, this.coalescedLambda.executeSync("1"));
+		verify(this.innerLambda, never()).executeAsync(anyString());
+	}
+	
+	@Test
+	public void executeSyncTimeout() throws Exception {
+		when(this.innerLambda.executeAsync("1")).thenReturn(Futures.immediateCancelledFuture());
+		
+		try {
+			this.coalescedLambda.executeSync("1");
+			fail();
+		} catch (final LambdaExecutionTimeoutException ignored) {
+		}
+	}
+	
+	@Test
+	public void executeWithoutBinary() throws Exception {
+		when(this.innerLambda.getContainerId()).thenReturn(null);
+		when(this.innerLambda.executeAsync("1")).thenReturn(SettableFuture.create());
+		
+		this.coalescedLambda.executeAsync("1");
+		this.coalescedLambda.executeAsync("1");
+		verify(this.innerLambda, times(2)).executeAsync("1");
+	}
+}
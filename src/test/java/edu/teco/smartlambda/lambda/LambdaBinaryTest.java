@@ -0,0 +1,185 @@
+package edu.teco.smartlambda.lambda;
+
+import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.container.BuilderFactory;
+import edu.teco.smartlambda.container.ContainerPoolManager;
+import edu.teco.smartlambda.container.Image;
+import edu.teco.smartlambda.container.ImageBuilder;
+import edu.teco.smartlambda.container.ImageFactory;
+import edu.teco.smartlambda.runtime.Runtime;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.doReturn;
+import static org.powermock.api.mockito.PowerMockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.spy;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+
+/**
+ * Test Case for {@link LambdaBinary}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({LambdaBinary.class, Application.class, BuilderFactory.class, ImageFactory.class, ContainerPoolManager.class})
+public class LambdaBinaryTest {
+	
+	private static final byte[] CONTENT      = {'a'};
+	private static final String CONTENT_HASH = "ca978112ca1bbdcafac231b39a23dc4da786eff8147c4e72b9807785afee48bb";
+	private static final String CONTAINER_ID = "1234";
+	
+	private Session              session;
+	private Runtime              runtime;
+	private Image                image;
+	private ContainerPoolManager poolManager;
+	
+	@Before
+	public void setUp() throws Exception {
+		mockStatic(Application.class);
+		final Application    application = mock(Application.class);
+		final SessionFactory factory     = mock(SessionFactory.class);
+		this.session = mock(Session.class);
+		when(Application.getInstance()).thenReturn(application);
+		when(application.getSessionFactory()).thenReturn(factory);
+		when(factory.getCurrentSession()).thenReturn(this.session);
+		
+		this.runtime = mock(Runtime.class);
+		when(this.runtime.getName()).thenReturn("runtime");
+		when(this.runtime.getBinaryName()).thenReturn("binaryName");
+		
+		this.image = mock(Image.class);
+		when(this.image.getId()).thenReturn(CONTAINER_ID);
+		mockStatic(ImageFactory.class);
+		when(ImageFactory.getImageById(CONTAINER_ID)).thenReturn(this.image);
+		
+		this.poolManager = mock(ContainerPoolManager.class);
+		mockStatic(ContainerPoolManager.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(this.poolManager);
+		
+		spy(LambdaBinary.class);
+	}
+	
+	private static LambdaBinary binary(final int referenceCount) {
+		final LambdaBinary binary = new LambdaBinary();
+		binary.setRuntime("runtime");
+		binary.setHash(CONTENT_HASH);
+		binary.setContainerId(CONTAINER_ID);
+		binary.setReferenceCount(referenceCount);
+		
+		return binary;
+	}
+	
+	@Test
+	public void hash() throws Exception {
+		assertEquals(CONTENT_HASH, LambdaBinary.hash(CONTENT));
+	}
+	
+	@Test
+	public void acquireNewBinary() throws Exception {
+		doReturn(Optional.empty()).when(LambdaBinary.class, "findByHash", "runtime", CONTENT_HASH);
+		
+		final ImageBuilder builder = mock(ImageBuilder.class, Answers.RETURNS_SELF);
+		when(builder.build()).thenReturn(this.image);
+		mockStatic(BuilderFactory.class);
+		when(BuilderFactory.getContainerBuilder(this.runtime)).thenReturn(builder);
+		
+		final LambdaBinary binary = LambdaBinary.acquire(this.runtime, CONTENT, null);
+		
+		verify(this.runtime).setupContainerImage(builder);
+		verify(builder).storeFile(CONTENT, "binaryName");
+		verify(this.session).save(binary);
+		assertEquals(CONTAINER_ID, binary.getContainerId());
+		assertEquals(CONTENT_HASH, binary.getHash());
+		assertEquals("runtime", binary.getRuntime());
+		assertEquals(1, binary.getReferenceCount());
+	}
+	
+	@Test
+	public void acquireNewBinaryWithBuiltImage() throws Exception {
+		doReturn(Optional.empty()).when(LambdaBinary.class, "findByHash", "runtime", CONTENT_HASH);
+		mockStatic(BuilderFactory.class);
+		
+		final LambdaBinary binary = LambdaBinary.acquire(this.runtime, CONTENT, "5678");
+		
+		verify(this.session).save(binary);
+		assertEquals("5678", binary.getContainerId());
+		assertEquals(1, binary.getReferenceCount());
+		
+		verifyStatic(never());
+		BuilderFactory.getContainerBuilder(any());
+	}
+	
+	@Test
+	public void build() throws Exception {
+		final ImageBuilder builder = mock(ImageBuilder.class, Answers.RETURNS_SELF);
+		when(builder.build()).thenReturn(this.image);
+		mockStatic(BuilderFactory.class);
+		when(BuilderFactory.getContainerBuilder(this.runtime)).thenReturn(builder);
+		
+		assertEquals(CONTAINER_ID, LambdaBinary.build(this.runtime, CONTENT));
+		verify(this.runtime).setupContainerImage(builder);
+		verify(builder).storeFile(CONTENT, "binaryName");
+		verify(this.session, never()).save(any());
+	}
+	
+	@Test
+	public void acquireExistingBinary() throws Exception {
+		final LambdaBinary existing = binary(1);
+		doReturn(Optional.of(existing)).when(LambdaBinary.class, "findByHash", "runtime", CONTENT_HASH);
+		mockStatic(BuilderFactory.class);
+		
+		assertEquals(existing, LambdaBinary.acquire(this.runtime, CONTENT, null));
+		assertEquals(2, existing.getReferenceCount());
+		verify(this.session).update(existing);
+		
+		verifyStatic(never());
+		BuilderFactory.getContainerBuilder(any());
+	}
+	
+	@Test
+	public void releaseSharedBinary() throws Exception {
+		final LambdaBinary existing = binary(2);
+		doReturn(Optional.of(existing)).when(LambdaBinary.class, "findByContainerId", CONTAINER_ID);
+		
+		LambdaBinary.release(CONTAINER_ID);
+		
+		assertEquals(1, existing.getReferenceCount());
+		verify(this.session).update(existing);
+		verify(this.poolManager, never()).removePool(any());
+		verify(this.image, never()).delete();
+	}
+	
+	@Test
+	public void releaseLastReference() throws Exception {
+		final LambdaBinary existing = binary(1);
+		doReturn(Optional.of(existing)).when(LambdaBinary.class, "findByContainerId", CONTAINER_ID);
+		
+		LambdaBinary.release(CONTAINER_ID);
+		
+		verify(this.session).delete(existing);
+		verify(this.poolManager).removePool(CONTAINER_ID);
+		verify(this.image).delete();
+	}
+	
+	@Test
+	public void releaseImageWithoutBinary() throws Exception {
+		doReturn(Optional.empty()).when(LambdaBinary.class, "findByContainerId", CONTAINER_ID);
+		
+		LambdaBinary.release(CONTAINER_ID);
+		
+		verify(this.poolManager).removePool(CONTAINER_ID);
+		verify(this.image).delete();
+	}
+}
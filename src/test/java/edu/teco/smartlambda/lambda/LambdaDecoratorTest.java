@@ -2,12 +2,15 @@ package edu.teco.smartlambda.lambda;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.invocation.Invocation;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
 import edu.teco.smartlambda.schedule.Event;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,6 +49,21 @@ public class LambdaDecoratorTest {
 				return null;
 			}
 			
+			@Override
+			public List<ExecutionResult> executeBatch(final List<String> params) {
+				return null;
+			}
+			
+			@Override
+			public Invocation invoke(final String params) {
+				return null;
+			}
+			
+			@Override
+			public Optional<Invocation> getInvocation(final int id) {
+				return null;
+			}
+			
 			@Override
 			public void save() {
 				
@@ -86,6 +104,11 @@ public class LambdaDecoratorTest {
 				return null;
 			}
 			
+			@Override
+			public Optional<LambdaBuild> getBuild() {
+				return null;
+			}
+			
 			@Override
 			public String getName() {
 				return null;
@@ -101,6 +124,11 @@ public class LambdaDecoratorTest {
 				return false;
 			}
 			
+			@Override
+			public int getTimeout() {
+				return 0;
+			}
+			
 			@Override
 			public Runtime getRuntime() {
 				return null;
@@ -121,10 +149,45 @@ public class LambdaDecoratorTest {
 				
 			}
 			
+			@Override
+			public void setTimeout(final int timeout) {
+				
+			}
+			
 			@Override
 			public void setRuntime(final Runtime runtime) {
 				
 			}
+			
+			@Override
+			public ResourceLimits getResourceLimits() {
+				return null;
+			}
+			
+			@Override
+			public void setResourceLimits(final ResourceLimits limits) {
+				
+			}
+			
+			@Override
+			public boolean isCacheable() {
+				return false;
+			}
+			
+			@Override
+			public int getCacheTtl() {
+				return 0;
+			}
+			
+			@Override
+			public void setCacheable(final boolean cacheable) {
+				
+			}
+			
+			@Override
+			public void setCacheTtl(final int cacheTtl) {
+				
+			}
 		});
 	}
 	
@@ -140,9 +203,21 @@ public class LambdaDecoratorTest {
 		decorator.executeSync("");
 		verify(mockedLambda).executeSync("");
 		
+		decorator.executeBatch(Collections.singletonList(""));
+		verify(mockedLambda).executeBatch(Collections.singletonList(""));
+		
+		decorator.invoke("");
+		verify(mockedLambda).invoke("");
+		
+		decorator.getInvocation(1);
+		verify(mockedLambda).getInvocation(1);
+		
 		decorator.getMonitoringEvents();
 		verify(mockedLambda).getMonitoringEvents();
 		
+		decorator.getBuild();
+		verify(mockedLambda).getBuild();
+		
 		decorator.delete();
 		verify(mockedLambda).delete();
 		
@@ -187,5 +262,23 @@ public class LambdaDecoratorTest {
 		
 		decorator.setAsync(true);
 		verify(mockedLambda).setAsync(true);
+		
+		decorator.getTimeout();
+		verify(mockedLambda).getTimeout();
+		
+		decorator.setTimeout(10);
+		verify(mockedLambda).setTimeout(10);
+		
+		decorator.isCacheable();
+		verify(mockedLambda).isCacheable();
+		
+		decorator.setCacheable(true);
+		verify(mockedLambda).setCacheable(true);
+		
+		decorator.getCacheTtl();
+		verify(mockedLambda).getCacheTtl();
+		
+		decorator.setCacheTtl(60);
+		verify(mockedLambda).setCacheTtl(60);
 	}
 }
\ No newline at end of file
@@ -1,62 +1,124 @@
 package edu.teco.smartlambda.lambda;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
 import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
 import edu.teco.smartlambda.authentication.entities.User;
-import edu.teco.smartlambda.container.BuilderFactory;
+import edu.teco.smartlambda.concurrent.ExecutionScheduler;
 import edu.teco.smartlambda.container.Container;
-import edu.teco.smartlambda.container.Image;
-import edu.teco.smartlambda.container.ImageBuilder;
-import edu.teco.smartlambda.container.ImageFactory;
+import edu.teco.smartlambda.container.ContainerPool;
+import edu.teco.smartlambda.container.ContainerPoolManager;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.container.ResourceUsage;
+import edu.teco.smartlambda.container.inprocess.InProcessImage;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
 import edu.teco.smartlambda.runtime.RuntimeRegistry;
 import edu.teco.smartlambda.schedule.Event;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
-import java.io.OutputStream;
+import java.io.EOFException;
 import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.mock;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
 import static org.powermock.api.mockito.PowerMockito.whenNew;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({LambdaFacade.class, RuntimeRegistry.class, Application.class, ImageFactory.class, BuilderFactory.class})
+@PrepareForTest({LambdaFacade.class, RuntimeRegistry.class, Application.class, ContainerPoolManager.class,
+		ExecutionScheduler.class, LambdaBinary.class, BuildManager.class})
 public class LambdaTest {
 	
 	private Lambda lambda;
 	private User   user;
 	private static final String LAMBDA_NAME = "myLambda";
-	private Runtime runtime;
+	private static final String OWNER_NAME  = "owner";
+	private Runtime      runtime;
+	private BuildManager buildManager;
 	
 	@Before
 	public void setUp() {
 		
 		this.lambda = new Lambda();
 		this.user = mock(User.class);
+		when(this.user.getName()).thenReturn(OWNER_NAME);
 		this.lambda.setName(LAMBDA_NAME);
 		this.lambda.setOwner(this.user);
 		this.runtime = mock(Runtime.class);
 		when(this.runtime.getName()).thenReturn("runtime");
 		this.lambda.setRuntime(this.runtime);
 		
+		final ExecutionScheduler scheduler = mock(ExecutionScheduler.class);
+		mockStatic(ExecutionScheduler.class);
+		when(ExecutionScheduler.getInstance()).thenReturn(scheduler);
+		when(scheduler.submit(anyString(), any(), any(), any())).thenAnswer(runOn(MoreExecutors.directExecutor()));
+		
+		this.buildManager = mock(BuildManager.class);
+		mockStatic(BuildManager.class);
+		when(BuildManager.getInstance()).thenReturn(this.buildManager);
 	}
 	
+	/**
+	 * Run the tasks submitted to the mocked execution scheduler on an executor and notify them when they start running like the
+	 * scheduler does
+	 *
+	 * @param executor the executor running the tasks
+	 *
+	 * @return an answer to submissions to the scheduler
+	 */
+	private static Answer<ListenableFuture<Object>> runOn(final Executor executor) {
+		return invocation -> {
+			final Callable<Object>                          task    = invocation.getArgument(2);
+			final Consumer<ListenableFuture<Object>>        onStart = invocation.getArgument(3);
+			final AtomicReference<ListenableFuture<Object>> self    = new AtomicReference<>();
+			final ListenableFutureTask<Object>              future  = ListenableFutureTask.create(() -> {
+				onStart.accept(self.get());
+				return task.call();
+			});
+			
+			self.set(future);
+			executor.execute(future);
+			return future;
+		};
+	}
 	
 	@Test
 	public void execute() throws Exception {
@@ -65,29 +127,275 @@ public class LambdaTest {
 		field.setAccessible(true);
 		field.set(this.lambda, "tollerContainer");
 		final Container container = mock(Container.class);
-		mockStatic(ImageFactory.class);
-		final Image image = mock(Image.class);
-		when(ImageFactory.getImageById("tollerContainer")).thenReturn(image);
-		when(image.start()).thenAnswer(invocation -> {
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		when(pool.checkOut()).thenAnswer(invocation -> {
 			hasInvoked[0] = true;
 			return container;
 		});
-		final OutputStream          channel    = mock(OutputStream.class);
 		final ByteArrayOutputStream byteStream = mock(ByteArrayOutputStream.class);
 		final DataOutputStream      stream     = mock(DataOutputStream.class);
-		when(container.getStdIn()).thenReturn(channel);
+		when(container.execute("lambda")).thenReturn(new ExecutionReturnValue("{}", ""));
+		when(container.getResourceUsage()).thenReturn(new ResourceUsage(10, 100), new ResourceUsage(15, 200), new ResourceUsage(15, 200),
+				new ResourceUsage(35, 300));
 		PowerMockito.whenNew(ByteArrayOutputStream.class).withAnyArguments().thenReturn(byteStream);
 		PowerMockito.whenNew(DataOutputStream.class).withAnyArguments().thenReturn(stream);
 		final ExecutionResult result = mock(ExecutionResult.class);
 		whenNew(ExecutionResult.class).withAnyArguments().thenReturn(result);
 		
-		this.lambda.executeSync("lambda");
-		this.lambda.executeAsync("lambda").get();
+		final ExecutionResult syncResult  = this.lambda.executeSync("lambda");
+		final ExecutionResult asyncResult = this.lambda.executeAsync("lambda").get();
 		assertTrue(hasInvoked[0]);
+		assertEquals(5, syncResult.getConsumedCPUTime());
+		assertEquals(200, syncResult.getPeakMemory());
+		assertEquals(20, asyncResult.getConsumedCPUTime());
+		assertEquals(300, asyncResult.getPeakMemory());
+		verify(pool, times(2)).checkIn(container);
+		
+	}
+	
+	@Test
+	public void executeRecyclesBrokenContainer() throws Exception {
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		final Container container = mock(Container.class);
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		when(pool.checkOut()).thenReturn(container);
+		when(container.execute("lambda")).thenThrow(new EOFException());
+		
+		try {
+			this.lambda.executeSync("lambda");
+			fail();
+		} catch (final RuntimeException e) {
+			verify(pool).recycle(container);
+			verify(pool, never()).checkIn(container);
+		}
+	}
+	
+	@Test
+	public void executeBatch() throws Exception {
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		final Container container = mock(Container.class);
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		when(pool.checkOut()).thenReturn(container);
+		when(container.execute("first")).thenReturn(new ExecutionReturnValue("1", ""));
+		when(container.execute("second")).thenReturn(new ExecutionReturnValue("2", ""));
+		when(container.getResourceUsage()).thenReturn(new ResourceUsage(10, 100), new ResourceUsage(15, 200), new ResourceUsage(35, 150));
 		
+		final List<ExecutionResult> results = this.lambda.executeBatch(Arrays.asList("first", "second"));
+		assertEquals(2, results.size());
+		assertEquals("1", results.get(0).getExecutionReturnValue().getReturnValue().get());
+		assertEquals(5, results.get(0).getConsumedCPUTime());
+		assertEquals(200, results.get(0).getPeakMemory());
+		assertEquals("2", results.get(1).getExecutionReturnValue().getReturnValue().get());
+		assertEquals(20, results.get(1).getConsumedCPUTime());
+		assertEquals(150, results.get(1).getPeakMemory());
+		
+		// all executions of the batch are run by a single container
+		verify(pool, times(1)).checkOut();
+		verify(pool, times(1)).checkIn(container);
+	}
+	
+	@Test
+	public void executeWithResourceLimits() throws Exception {
+		final ResourceLimits limits = new ResourceLimits(256, 512, 50, 64);
+		final Field          field  = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		this.lambda.setResourceLimits(limits);
+		assertEquals(limits, this.lambda.getResourceLimits());
+		
+		final Container container = mock(Container.class);
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, limits)).thenReturn(pool);
+		when(pool.checkOut()).thenReturn(container);
+		when(container.execute("lambda")).thenReturn(new ExecutionReturnValue("{}", ""));
+		when(container.getResourceUsage()).thenReturn(new ResourceUsage(0, 0));
+		
+		this.lambda.executeSync("lambda");
+		verify(poolManager).getPool("tollerContainer", OWNER_NAME, limits);
+		verify(pool).checkIn(container);
 	}
 	
+	@Test
+	public void prewarm() throws Exception {
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		
+		this.lambda.prewarm();
+		verify(pool).prewarm();
+	}
+	
+	@Test
+	public void prewarmSkipsUnbuiltAndUntrustedInProcess() throws Exception {
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		
+		this.lambda.prewarm();
+		
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, InProcessImage.ID_PREFIX + "image");
+		when(this.user.isTrusted()).thenReturn(false);
+		this.lambda.prewarm();
+		
+		verify(poolManager, never()).getPool(any(), any(), any());
+	}
+	
+	@Test
+	public void executeBatchEmpty() throws Exception {
+		assertTrue(this.lambda.executeBatch(Collections.emptyList()).isEmpty());
+	}
+	
+	@Test(expected = LambdaNotBuiltException.class)
+	public void executeBatchNotBuilt() throws Exception {
+		this.lambda.executeBatch(Collections.singletonList(""));
+	}
+	
+	
+	
+	@Test(timeout = 10000L)
+	public void executeTimeout() throws Exception {
+		final ExecutionScheduler scheduler = ExecutionScheduler.getInstance();
+		final ExecutorService    executor  = Executors.newSingleThreadExecutor();
+		doAnswer(runOn(executor)).when(scheduler).submit(anyString(), any(), any(), any());
+		
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		final Container container = mock(Container.class);
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		when(pool.checkOut()).thenReturn(container);
+		when(container.getResourceUsage()).thenReturn(new ResourceUsage(0, 0));
+		// the lambda never responds
+		when(container.execute("lambda")).thenAnswer(invocation -> {
+			new CountDownLatch(1).await();
+			return null;
+		});
+		
+		this.lambda.setTimeout(1);
+		try {
+			this.lambda.executeSync("lambda");
+			fail();
+		} catch (final LambdaExecutionTimeoutException e) {
+			assertEquals(LAMBDA_NAME, e.getName());
+			assertEquals(1, e.getTimeout());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		verify(pool).recycle(container);
+		verify(pool, never()).checkIn(container);
+	}
+	
+	@Test(timeout = 10000L)
+	public void executeQueued() throws Exception {
+		final ExecutionScheduler scheduler = ExecutionScheduler.getInstance();
+		final ExecutorService    executor  = Executors.newSingleThreadExecutor();
+		doAnswer(runOn(executor)).when(scheduler).submit(anyString(), any(), any(), any());
+		
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		final Container container = mock(Container.class);
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		when(pool.checkOut()).thenReturn(container);
+		when(container.execute("lambda")).thenReturn(new ExecutionReturnValue("{}", ""));
+		when(container.getResourceUsage()).thenReturn(new ResourceUsage(0, 0));
+		
+		// the execution waits for a thread longer than its timeout
+		executor.execute(() -> {
+			try {
+				Thread.sleep(1500);
+			} catch (final InterruptedException ignored) {
+			}
+		});
+		
+		this.lambda.setTimeout(1);
+		try {
+			assertEquals("{}", this.lambda.executeSync("lambda").getExecutionReturnValue().getReturnValue().get());
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		verify(pool).checkIn(container);
+		verify(pool, never()).recycle(container);
+	}
+	
+	@Test(timeout = 10000L)
+	public void executeSlowResourceUsage() throws Exception {
+		final ExecutionScheduler scheduler = ExecutionScheduler.getInstance();
+		final ExecutorService    executor  = Executors.newSingleThreadExecutor();
+		doAnswer(runOn(executor)).when(scheduler).submit(anyString(), any(), any(), any());
+		
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, "tollerContainer");
+		final Container container = mock(Container.class);
+		mockStatic(ContainerPoolManager.class);
+		final ContainerPoolManager poolManager = mock(ContainerPoolManager.class);
+		final ContainerPool        pool        = mock(ContainerPool.class);
+		when(ContainerPoolManager.getInstance()).thenReturn(poolManager);
+		when(poolManager.getPool("tollerContainer", OWNER_NAME, ResourceLimits.UNLIMITED)).thenReturn(pool);
+		when(pool.checkOut()).thenReturn(container);
+		when(container.execute("lambda")).thenReturn(new ExecutionReturnValue("{}", ""));
+		// reading the resource usage after the execution outlasts the timeout
+		when(container.getResourceUsage()).thenReturn(new ResourceUsage(10, 100)).thenAnswer(invocation -> {
+			Thread.sleep(1500);
+			return new ResourceUsage(15, 200);
+		});
+		
+		this.lambda.setTimeout(1);
+		final ExecutionResult result;
+		try {
+			result = this.lambda.executeSync("lambda");
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		assertEquals(5, result.getConsumedCPUTime());
+		assertEquals(200, result.getPeakMemory());
+		verify(pool).checkIn(container);
+		verify(pool, never()).recycle(container);
+	}
 	
+	@Test
+	public void defaultTimeout() throws Exception {
+		assertEquals(Lambda.DEFAULT_TIMEOUT, new Lambda().getTimeout());
+	}
 	
 	@Test(expected=DuplicateLambdaException.class)
 	public void saveDuplicate() throws Exception {
@@ -113,18 +421,10 @@ public class LambdaTest {
 		when(mockedFacade.getFactory()).thenReturn(mockedFactory);
 		when(mockedFactory.getLambdaByOwnerAndName(this.user, LAMBDA_NAME)).thenReturn(Optional.empty());
 		
-		mockStatic(RuntimeRegistry.class);
-		final RuntimeRegistry registry = mock(RuntimeRegistry.class);
-		when(RuntimeRegistry.getInstance()).thenReturn(registry);
-		when(registry.getRuntimeByName(any(String.class))).thenReturn(this.runtime);
-		final Field field = Lambda.class.getDeclaredField("builder");
+		final Field field = Lambda.class.getDeclaredField("binary");
 		field.setAccessible(true);
-		final ImageBuilder builder = mock(ImageBuilder.class);
-		field.set(this.lambda, builder);
-		
-		final Image image = mock(Image.class);
-		when(builder.build()).thenReturn(image);
-		when(image.getId()).thenReturn("1234");
+		final byte[] content = {'a'};
+		field.set(this.lambda, content);
 		
 		mockStatic(Application.class);
 		final Application    application = mock(Application.class);
@@ -135,31 +435,52 @@ public class LambdaTest {
 		when(factory.getCurrentSession()).thenReturn(session);
 		
 		this.lambda.save();
-		verify(builder).build();
 		verify(session).save(this.lambda);
+		verify(this.buildManager).submit(this.lambda, content);
+		assertNull(field.get(this.lambda));
+		assertNull(this.lambda.getContainerId());
+	}
+	
+	@Test(expected = InvalidLambdaException.class)
+	public void saveWithoutBinary() throws Exception {
+		mockStatic(LambdaFacade.class);
+		final LambdaFacade  mockedFacade  = mock(LambdaFacade.class);
+		final LambdaFactory mockedFactory = mock(LambdaFactory.class);
+		when(LambdaFacade.getInstance()).thenReturn(mockedFacade);
+		when(mockedFacade.getFactory()).thenReturn(mockedFactory);
+		when(mockedFactory.getLambdaByOwnerAndName(this.user, LAMBDA_NAME)).thenReturn(Optional.empty());
 		
+		this.lambda.save();
 	}
 	
 	@Test
 	public void update() throws Exception {
 		
-		final Field field = Lambda.class.getDeclaredField("builder");
+		final Field field = Lambda.class.getDeclaredField("binary");
 		field.setAccessible(true);
-		final ImageBuilder builder = mock(ImageBuilder.class);
-		field.set(this.lambda, builder);
-		
-		mockStatic(ImageFactory.class);
-		final Image image = mock(Image.class);
-		when(ImageFactory.getImageById(null)).thenReturn(image);
+		final byte[] content = {'a'};
+		field.set(this.lambda, content);
+		this.lambda.setContainerId("1234");
 		
-		mockStatic(RuntimeRegistry.class);
-		final RuntimeRegistry registry = mock(RuntimeRegistry.class);
-		when(RuntimeRegistry.getInstance()).thenReturn(registry);
-		when(registry.getRuntimeByName(any(String.class))).thenReturn(this.runtime);
+		mockStatic(Application.class);
+		final Application    application = mock(Application.class);
+		final SessionFactory factory     = mock(SessionFactory.class);
+		final Session        session     = mock(Session.class);
+		when(Application.getInstance()).thenReturn(application);
+		when(application.getSessionFactory()).thenReturn(factory);
+		when(factory.getCurrentSession()).thenReturn(session);
 		
-		when(builder.build()).thenReturn(image);
-		when(image.getId()).thenReturn("1234");
+		this.lambda.update();
+		verify(session).update(this.lambda);
+		verify(this.buildManager).submit(this.lambda, content);
+		assertNull(field.get(this.lambda));
 		
+		// the previous binary keeps being executed until the build succeeded
+		assertEquals("1234", this.lambda.getContainerId());
+	}
+	
+	@Test
+	public void updateWithoutBinary() throws Exception {
 		mockStatic(Application.class);
 		final Application    application = mock(Application.class);
 		final SessionFactory factory     = mock(SessionFactory.class);
@@ -169,9 +490,8 @@ public class LambdaTest {
 		when(factory.getCurrentSession()).thenReturn(session);
 		
 		this.lambda.update();
-		verify(builder).build();
+		verify(this.buildManager, never()).submit(any(), any());
 		verify(session).update(this.lambda);
-		
 	}
 	
 	@Test
@@ -184,19 +504,61 @@ public class LambdaTest {
 		when(Application.getInstance()).thenReturn(application);
 		when(application.getSessionFactory()).thenReturn(sessionFactory);
 		when(sessionFactory.getCurrentSession()).thenReturn(currentSession);
-		mockStatic(ImageFactory.class);
-		final Image image = mock(Image.class);
-		when(ImageFactory.getImageById(null)).thenReturn(image);
+		mockStatic(LambdaBinary.class);
+		this.lambda.setContainerId("1234");
 		
 		this.lambda.delete();
 		verify(currentSession).delete(this.lambda);
-		verify(image).delete();
+		verify(this.buildManager).forget(0);
+		verifyStatic();
+		LambdaBinary.release("1234");
+	}
+	
+	@Test
+	public void deleteNotBuilt() throws Exception {
+		mockStatic(Application.class);
+		final Application    application    = mock(Application.class);
+		final SessionFactory sessionFactory = mock(SessionFactory.class);
+		final Session        currentSession = mock(Session.class);
+		
+		when(Application.getInstance()).thenReturn(application);
+		when(application.getSessionFactory()).thenReturn(sessionFactory);
+		when(sessionFactory.getCurrentSession()).thenReturn(currentSession);
+		mockStatic(LambdaBinary.class);
+		
+		this.lambda.delete();
+		verify(currentSession).delete(this.lambda);
+		verifyStatic(never());
+		LambdaBinary.release(any());
+	}
+	
+	@Test
+	public void getBuild() throws Exception {
+		final LambdaBuild build = new LambdaBuild(0);
+		when(this.buildManager.getBuild(0)).thenReturn(Optional.of(build));
+		
+		assertSame(build, this.lambda.getBuild().get());
+	}
+	
+	@Test(expected = LambdaNotBuiltException.class)
+	public void executeNotBuilt() throws Exception {
+		this.lambda.executeSync("");
+	}
+	
+	@Test(expected = InsufficientPermissionsException.class)
+	public void executeInProcessUntrusted() throws Exception {
+		final Field field = Lambda.class.getDeclaredField("containerId");
+		field.setAccessible(true);
+		field.set(this.lambda, InProcessImage.ID_PREFIX + "image");
+		when(this.user.isTrusted()).thenReturn(false);
+		
+		this.lambda.executeSync("");
 	}
 	
 	
 	@Test(expected=DuplicateEventException.class)
 	public void scheduleDuplicate() throws Exception {
-				
+		
 		final Lambda          mockedLambda = mock(Lambda.class);
 		final Optional<Event> event        = Optional.of(mock(Event.class));
 		when(mockedLambda.getScheduledEvent(any(String.class))).thenReturn(event);
@@ -214,12 +576,6 @@ public class LambdaTest {
 	
 	@Test
 	public void deployBinary() throws Exception {
-		final Field field = Lambda.class.getDeclaredField("builder");
-		field.setAccessible(true);
-		final ImageBuilder builder = mock(ImageBuilder.class);
-		field.set(this.lambda, builder);
-		mockStatic(BuilderFactory.class);
-		when(BuilderFactory.getContainerBuilder()).thenReturn(builder);
 		mockStatic(RuntimeRegistry.class);
 		final RuntimeRegistry registry = mock(RuntimeRegistry.class);
 		when(RuntimeRegistry.getInstance()).thenReturn(registry);
@@ -229,8 +585,31 @@ public class LambdaTest {
 		when(this.runtime.verifyBinary(any())).thenReturn(true);
 		
 		this.lambda.deployBinary(content);
-		verify(builder).storeFile(content, "binaryName");
+		
+		final Field field = Lambda.class.getDeclaredField("binary");
+		field.setAccessible(true);
+		assertSame(content, field.get(this.lambda));
 		
 	}
-			
+	
+	@Test
+	public void deployBinaryInProcessUntrusted() throws Exception {
+		mockStatic(RuntimeRegistry.class);
+		final RuntimeRegistry registry = mock(RuntimeRegistry.class);
+		when(RuntimeRegistry.getInstance()).thenReturn(registry);
+		when(registry.getRuntimeByName("runtime")).thenReturn(this.runtime);
+		when(this.runtime.isInProcess()).thenReturn(true);
+		when(this.runtime.verifyBinary(any())).thenReturn(true);
+		
+		try {
+			this.lambda.deployBinary(new byte[] {'a'});
+			fail();
+		} catch (final InsufficientPermissionsException e) {
+			verify(this.runtime, never()).verifyBinary(any());
+		}
+		
+		when(this.user.isTrusted()).thenReturn(true);
+		this.lambda.deployBinary(new byte[] {'a'});
+	}
+	
 }
\ No newline at end of file
@@ -1,27 +1,48 @@
 package edu.teco.smartlambda.lambda;
 
+import com.google.common.util.concurrent.SettableFuture;
 import edu.teco.smartlambda.Application;
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.entities.Key;
 import edu.teco.smartlambda.concurrent.ThreadManager;
+import edu.teco.smartlambda.monitoring.MonitoringEvent;
 import edu.teco.smartlambda.monitoring.MonitoringService;
+import edu.teco.smartlambda.rest.filter.SessionStartFilter;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.schedule.Event;
 import edu.teco.smartlambda.shared.ExecutionReturnValue;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import spark.Request;
+import spark.Response;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,7 +52,7 @@ import static org.powermock.api.mockito.PowerMockito.mockStatic;
  *
  */
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({MonitoringService.class, Application.class})
+@PrepareForTest({MonitoringService.class, Application.class, AuthenticationService.class})
 public class MonitoringDecoratorTest {
 	
 	private MonitoringDecorator monitoredLambda;
@@ -56,37 +77,132 @@ public class MonitoringDecoratorTest {
 		
 		when(this.innerLambda.executeSync("")).thenReturn(mockedExecutionResult);
 		when(mockedExecutionResult.getConsumedCPUTime()).thenReturn(1L);
+		when(mockedExecutionResult.getPeakMemory()).thenReturn(2L);
 		when(mockedExecutionResult.getExecutionReturnValue()).thenReturn(mockedExecutionReturnValue);
 		
 		this.monitoredLambda.executeSync("");
 		verify(this.mockedMonitoringService).onLambdaExecutionStart(this.innerLambda);
-		verify(this.mockedMonitoringService).onLambdaExecutionEnd(this.innerLambda, 1L, mockedExecutionReturnValue,
+		verify(this.mockedMonitoringService).onLambdaExecutionEnd(this.innerLambda, 1L, 2L, mockedExecutionReturnValue,
 				/* monitoring service is mocked, therefore no event exists */ null);
 		
 		verify(this.innerLambda).executeSync("");
 	}
 	
-	@Test
-	public void executeAsync() throws Exception {
-		final ExecutionResult      mockedExecutionResult      = mock(ExecutionResult.class);
-		final ExecutionReturnValue mockedExecutionReturnValue = mock(ExecutionReturnValue.class);
-		
+	/**
+	 * Mocks the session of the current thread with a transaction that tracks whether it is active
+	 *
+	 * @return the mocked session
+	 */
+	private Session mockSession() {
 		mockStatic(Application.class);
 		final Application    application = mock(Application.class);
 		final SessionFactory factory     = mock(SessionFactory.class);
 		final Session        session     = mock(Session.class);
+		final Transaction    transaction = mock(Transaction.class);
+		final AtomicBoolean  active      = new AtomicBoolean();
 		
 		when(Application.getInstance()).thenReturn(application);
 		when(application.getSessionFactory()).thenReturn(factory);
 		when(factory.getCurrentSession()).thenReturn(session);
-		when(session.getTransaction()).thenReturn(mock(Transaction.class));
+		when(session.getTransaction()).thenReturn(transaction);
+		when(session.beginTransaction()).then(invocation -> {
+			if (active.getAndSet(true)) throw new IllegalStateException("Transaction already active");
+			return transaction;
+		});
+		when(transaction.isActive()).then(invocation -> active.get());
+		when(transaction.getStatus()).then(invocation -> active.get() ? TransactionStatus.ACTIVE : TransactionStatus.NOT_ACTIVE);
+		doAnswer(invocation -> {
+			if (!active.getAndSet(false)) throw new IllegalStateException("Transaction not active");
+			return null;
+		}).when(transaction).commit();
+		doAnswer(invocation -> {
+			active.set(false);
+			return null;
+		}).when(transaction).rollback();
+		
+		return session;
+	}
+	
+	@Test
+	public void executeSyncTimeout() throws Exception {
+		final Session session = this.mockSession();
+		session.beginTransaction();
+		
+		final LambdaExecutionTimeoutException exception = new LambdaExecutionTimeoutException("lambda", 1);
+		when(this.innerLambda.executeSync("")).thenThrow(exception);
+		
+		try {
+			this.monitoredLambda.executeSync("");
+			fail();
+		} catch (final LambdaExecutionTimeoutException e) {
+			assertSame(exception, e);
+		}
+		
+		verify(this.mockedMonitoringService).onLambdaExecutionTimeout(this.innerLambda, null);
+		verify(this.mockedMonitoringService, never()).onLambdaExecutionEnd(any(), anyLong(), anyLong(), any(), any());
+		verify(session.getTransaction()).commit();
+	}
+	
+	@Test
+	public void executeSyncTimeoutInRequest() throws Exception {
+		final Session session = this.mockSession();
+		when(MonitoringService.getInstance()).thenReturn(new MonitoringService());
+		
+		mockStatic(AuthenticationService.class);
+		final AuthenticationService authenticationService = mock(AuthenticationService.class);
+		when(AuthenticationService.getInstance()).thenReturn(authenticationService);
+		when(authenticationService.getAuthenticatedKey()).thenReturn(Optional.of(mock(Key.class)));
+		when(this.innerLambda.getName()).thenReturn("lambda");
+		when(this.innerLambda.getTimeout()).thenReturn(1);
+		when(this.innerLambda.executeSync("")).thenThrow(new LambdaExecutionTimeoutException("lambda", 1));
+		
+		// Spark runs no after-filters for a request whose route throws, the next request starts right away
+		new SessionStartFilter().handle(mock(Request.class), mock(Response.class));
+		try {
+			this.monitoredLambda.executeSync("");
+			fail();
+		} catch (final LambdaExecutionTimeoutException e) {
+		}
+		new SessionStartFilter().handle(mock(Request.class), mock(Response.class));
+		
+		final ArgumentCaptor<MonitoringEvent> event = ArgumentCaptor.forClass(MonitoringEvent.class);
+		final InOrder                         order = inOrder(session, session.getTransaction());
+		order.verify(session).save(event.capture());
+		order.verify(session.getTransaction()).commit();
+		verify(session.getTransaction(), never()).rollback();
+		assertEquals("Execution timed out after 1 seconds", event.getValue().getError());
+	}
+	
+	@Test
+	public void executeAsyncTimeout() throws Exception {
+		this.mockSession();
+		
+		final SettableFuture<ExecutionResult> future = SettableFuture.create();
+		when(this.innerLambda.executeAsync("")).thenReturn(future);
+		
+		this.monitoredLambda.executeAsync("");
+		future.cancel(true);
+		
+		verify(this.mockedMonitoringService, timeout(1000)).onLambdaExecutionTimeout(this.innerLambda, null);
+		verify(this.mockedMonitoringService, never()).onLambdaExecutionEnd(any(), anyLong(), anyLong(), any(), any());
+	}
+	
+	@Test
+	public void executeAsync() throws Exception {
+		final ExecutionResult      mockedExecutionResult      = mock(ExecutionResult.class);
+		final ExecutionReturnValue mockedExecutionReturnValue = mock(ExecutionReturnValue.class);
+		
+		this.mockSession();
 		
 		// test success
 		when(this.innerLambda.executeAsync("")).thenReturn(ThreadManager.getExecutorService().submit(() -> mockedExecutionResult));
 		when(mockedExecutionResult.getConsumedCPUTime()).thenReturn(1L);
+		when(mockedExecutionResult.getPeakMemory()).thenReturn(2L);
 		when(mockedExecutionResult.getExecutionReturnValue()).thenReturn(mockedExecutionReturnValue);
 		this.monitoredLambda.executeAsync("").get();
-		verify(this.mockedMonitoringService, times(1)).onLambdaExecutionEnd(this.innerLambda, 1L, mockedExecutionReturnValue, null);
+		// the callback may still be running on the executor thread when the future is completed
+		verify(this.mockedMonitoringService, timeout(1000).times(1))
+				.onLambdaExecutionEnd(this.innerLambda, 1L, 2L, mockedExecutionReturnValue, null);
 		
 		// test failure
 		when(this.innerLambda.executeAsync("")).thenReturn(ThreadManager.getExecutorService().submit(() -> {throw new Exception();}));
@@ -98,8 +214,39 @@ public class MonitoringDecoratorTest {
 		
 		verify(this.mockedMonitoringService, times(2)).onLambdaExecutionStart(this.innerLambda);
 		verify(this.innerLambda, times(2)).executeAsync("");
-		verify(this.mockedMonitoringService, times(1))
-				.onLambdaExecutionEnd(eq(this.innerLambda), eq(0L), any(ExecutionReturnValue.class), isNull());
+		verify(this.mockedMonitoringService, timeout(1000).times(1))
+				.onLambdaExecutionEnd(eq(this.innerLambda), eq(0L), eq(0L), any(ExecutionReturnValue.class), isNull());
+	}
+	
+	@Test
+	public void executeBatch() throws Exception {
+		final List<ExecutionResult> results = Arrays.asList(new ExecutionResult(), new ExecutionResult());
+		when(this.innerLambda.executeBatch(Arrays.asList("a", "b"))).thenReturn(results);
+		
+		assertSame(results, this.monitoredLambda.executeBatch(Arrays.asList("a", "b")));
+		verify(this.mockedMonitoringService, times(2)).onLambdaExecutionStart(this.innerLambda);
+		verify(this.mockedMonitoringService).onLambdaBatchExecutionEnd(this.innerLambda, results, Arrays.asList(null, null));
+		verify(this.mockedMonitoringService, never()).onLambdaExecutionEnd(any(), anyLong(), anyLong(), any(), any());
+	}
+	
+	@Test
+	public void executeBatchTimeout() throws Exception {
+		final Session session = this.mockSession();
+		session.beginTransaction();
+		
+		final LambdaExecutionTimeoutException exception = new LambdaExecutionTimeoutException("lambda", 2);
+		when(this.innerLambda.executeBatch(Arrays.asList("a", "b"))).thenThrow(exception);
+		
+		try {
+			this.monitoredLambda.executeBatch(Arrays.asList("a", "b"));
+			fail();
+		} catch (final LambdaExecutionTimeoutException e) {
+			assertSame(exception, e);
+		}
+		
+		verify(this.mockedMonitoringService).onLambdaBatchExecutionTimeout(this.innerLambda, Arrays.asList(null, null));
+		verify(this.mockedMonitoringService, never()).onLambdaBatchExecutionEnd(any(), any(), any());
+		verify(session.getTransaction()).commit();
 	}
 	
 	@Test
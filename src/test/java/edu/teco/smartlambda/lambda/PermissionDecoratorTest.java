@@ -1,9 +1,11 @@
 package edu.teco.smartlambda.lambda;
 
 import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
 import edu.teco.smartlambda.authentication.entities.Key;
 import edu.teco.smartlambda.authentication.entities.PermissionType;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.invocation.Invocation;
 import edu.teco.smartlambda.schedule.Event;
 import org.junit.Before;
 import org.junit.Test;
@@ -11,11 +13,16 @@ import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -64,6 +71,61 @@ public class PermissionDecoratorTest {
 		verify(this.innerLambda).executeAsync("");
 	}
 	
+	@Test
+	public void executeBatch() throws Exception {
+		final List<String> params = Arrays.asList("", "", "");
+		this.lambda.executeBatch(params);
+		verify(this.mockedKey, times(1)).hasPermission(this.unwrappedLambda, PermissionType.EXECUTE);
+		verify(this.innerLambda).executeBatch(params);
+	}
+	
+	@Test
+	public void invoke() throws Exception {
+		this.lambda.invoke("");
+		verify(this.mockedKey).hasPermission(this.unwrappedLambda, PermissionType.EXECUTE);
+		verify(this.innerLambda).invoke("");
+	}
+	
+	@Test
+	public void getInvocation() throws Exception {
+		final Invocation invocation = mock(Invocation.class);
+		when(this.innerLambda.getInvocation(1)).thenReturn(Optional.of(invocation));
+		when(invocation.getKey()).thenReturn(this.mockedKey);
+		when(this.mockedKey.getId()).thenReturn("key");
+		
+		assertSame(invocation, this.lambda.getInvocation(1).orElse(null));
+		
+		verify(this.mockedKey, never()).hasPermission(this.unwrappedLambda, PermissionType.STATUS);
+		verify(this.innerLambda).getInvocation(1);
+	}
+	
+	/**
+	 * If a key requests an invocation that was not created by itself, it needs the status permission
+	 *
+	 * @throws Exception on any failure
+	 */
+	@Test
+	public void getInvocationAsForeigner() throws Exception {
+		final Invocation invocation = mock(Invocation.class);
+		final Key        anotherKey = mock(Key.class);
+		when(this.innerLambda.getInvocation(1)).thenReturn(Optional.of(invocation));
+		when(invocation.getKey()).thenReturn(anotherKey);
+		when(anotherKey.getId()).thenReturn("anotherKey");
+		when(this.mockedKey.getId()).thenReturn("key");
+		
+		assertSame(invocation, this.lambda.getInvocation(1).orElse(null));
+		
+		verify(this.mockedKey).hasPermission(this.unwrappedLambda, PermissionType.STATUS);
+	}
+	
+	@Test(expected = InsufficientPermissionsException.class)
+	public void getUnknownInvocationNotPermitted() throws Exception {
+		when(this.innerLambda.getInvocation(1)).thenReturn(Optional.empty());
+		when(this.mockedKey.hasPermission(this.unwrappedLambda, PermissionType.STATUS)).thenReturn(false);
+		
+		this.lambda.getInvocation(1);
+	}
+	
 	@Test
 	public void save() throws Exception {
 		this.lambda.save();
@@ -174,4 +236,28 @@ public class PermissionDecoratorTest {
 		verify(this.mockedKey).hasPermission(this.unwrappedLambda, PermissionType.STATUS);
 		verify(this.innerLambda).getMonitoringEvents();
 	}
+	
+	@Test
+	public void getBuild() throws Exception {
+		this.lambda.getBuild();
+		verify(this.mockedKey).hasPermission(this.unwrappedLambda, PermissionType.CREATE);
+		verify(this.innerLambda).getBuild();
+	}
+	
+	@Test
+	public void getBuildWithStatusPermission() throws Exception {
+		when(this.mockedKey.hasPermission(this.unwrappedLambda, PermissionType.CREATE)).thenReturn(false);
+		when(this.mockedKey.hasPermission(this.unwrappedLambda, PermissionType.PATCH)).thenReturn(false);
+		
+		this.lambda.getBuild();
+		verify(this.mockedKey).hasPermission(this.unwrappedLambda, PermissionType.STATUS);
+		verify(this.innerLambda).getBuild();
+	}
+	
+	@Test(expected = InsufficientPermissionsException.class)
+	public void getBuildNotPermitted() throws Exception {
+		when(this.mockedKey.hasPermission(eq(this.unwrappedLambda), any(PermissionType.class))).thenReturn(false);
+		
+		this.lambda.getBuild();
+	}
 }
\ No newline at end of file
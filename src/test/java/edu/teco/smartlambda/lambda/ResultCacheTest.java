@@ -0,0 +1,127 @@
+package edu.teco.smartlambda.lambda;
+
+import edu.teco.smartlambda.monitoring.MetricsService;
+import edu.teco.smartlambda.runtime.ExecutionResult;
+import edu.teco.smartlambda.shared.ExecutionReturnValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test Case for {@link ResultCache}
+ */
+public class ResultCacheTest {
+	
+	private ResultCache cache;
+	private Lambda      lambda;
+	
+	@Before
+	public void setUp() {
+		this.cache = new ResultCache(1024 * 1024);
+		this.lambda = createLambda(1, "image");
+	}
+	
+	private static Lambda createLambda(final int id, final String containerId) {
+		final Lambda lambda = mock(Lambda.class);
+		when(lambda.getId()).thenReturn(id);
+		when(lambda.getContainerId()).thenReturn(containerId);
+		when(lambda.getCacheTtl()).thenReturn(60);
+		
+		return lambda;
+	}
+	
+	private static ExecutionResult createResult(final ExecutionReturnValue returnValue) {
+		final ExecutionResult result = new ExecutionResult();
+		result.setExecutionReturnValue(returnValue);
+		result.setConsumedCPUTime(10);
+		result.setDuration(20);
+		
+		return result;
+	}
+	
+	@Test
+	public void getCanonicalParameters() throws Exception {
+		final long hits   = MetricsService.getInstance().getCounter("cache.hits");
+		final long misses = MetricsService.getInstance().getCounter("cache.misses");
+		
+		assertFalse(this.cache.get(this.lambda, "{\"a\":1,\"b\":[1,2]}").isPresent());
+		this.cache.put(this.lambda, "{\"a\":1,\"b\":[1,2]}", createResult(new ExecutionReturnValue("\"result\"", "")));
+		
+		// the order of properties and whitespace do not matter, the order of array elements does
+		final ExecutionResult cached = this.cache.get(this.lambda, "{ \"b\": [1, 2], \"a\": 1 }").get();
+		assertEquals("\"result\"", cached.getExecutionReturnValue().getReturnValue().get());
+		assertEquals(0, cached.getConsumedCPUTime());
+		assertEquals(0, cached.getDuration());
+		assertFalse(this.cache.get(this.lambda, "{\"a\":1,\"b\":[2,1]}").isPresent());
+		
+		assertEquals(hits + 1, MetricsService.getInstance().getCounter("cache.hits"));
+		assertEquals(misses + 2, MetricsService.getInstance().getCounter("cache.misses"));
+	}
+	
+	@Test
+	public void getOtherBinary() throws Exception {
+		this.cache.put(this.lambda, "1", createResult(new ExecutionReturnValue("2", "")));
+		
+		assertTrue(this.cache.get(this.lambda, "1").isPresent());
+		assertFalse(this.cache.get(createLambda(1, "other"), "1").isPresent());
+		assertFalse(this.cache.get(createLambda(2, "image"), "1").isPresent());
+	}
+	
+	@Test
+	public void getInvalidParameters() throws Exception {
+		this.cache.put(this.lambda, "{invalid", createResult(new ExecutionReturnValue("null", "")));
+		
+		assertTrue(this.cache.get(this.lambda, "{invalid").isPresent());
+		assertFalse(this.cache.get(this.lambda, "{ invalid").isPresent());
+	}
+	
+	@Test
+	public void getExpired() throws Exception {
+		when(this.lambda.getCacheTtl()).thenReturn(-1);
+		this.cache.put(this.lambda, "1", createResult(new ExecutionReturnValue("2", "")));
+		
+		assertFalse(this.cache.get(this.lambda, "1").isPresent());
+	}
+	
+	@Test
+	public void getWithoutBinary() throws Exception {
+		final Lambda unbuilt = createLambda(1, null);
+		this.cache.put(unbuilt, "1", createResult(new ExecutionReturnValue("2", "")));
+		
+		assertFalse(this.cache.get(unbuilt, "1").isPresent());
+	}
+	
+	@Test
+	public void putException() throws Exception {
+		this.cache.put(this.lambda, "1", createResult(new ExecutionReturnValue(null, "java.lang.Exception: failed")));
+		
+		assertFalse(this.cache.get(this.lambda, "1").isPresent());
+	}
+	
+	@Test
+	public void putTooLarge() throws Exception {
+		final StringBuilder builder = new StringBuilder("\"");
+		for (int i = 0; i < 1024; i++) builder.append('x');
+		
+		final ResultCache small = new ResultCache(1024);
+		small.put(this.lambda, "1", createResult(new ExecutionReturnValue(builder.append('"').toString(), "")));
+		
+		assertFalse(small.get(this.lambda, "1").isPresent());
+	}
+	
+	@Test
+	public void invalidate() throws Exception {
+		final Lambda other = createLambda(2, "image");
+		this.cache.put(this.lambda, "1", createResult(new ExecutionReturnValue("2", "")));
+		this.cache.put(other, "1", createResult(new ExecutionReturnValue("3", "")));
+		
+		this.cache.invalidate(this.lambda);
+		assertFalse(this.cache.get(this.lambda, "1").isPresent());
+		assertEquals("3", this.cache.get(other, "1").get().getExecutionReturnValue().getReturnValue().get());
+	}
+}
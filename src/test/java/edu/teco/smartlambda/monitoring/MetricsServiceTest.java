@@ -0,0 +1,43 @@
+package edu.teco.smartlambda.monitoring;
+
+import org.junit.Test;
+
+import java.util.SortedMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ *
+ */
+public class MetricsServiceTest {
+	
+	@Test
+	public void getInstance() throws Exception {
+		assertSame(MetricsService.getInstance(), MetricsService.getInstance());
+	}
+	
+	@Test
+	public void counter() throws Exception {
+		final MetricsService metrics = MetricsService.getInstance();
+		
+		assertEquals(0, metrics.getCounter("test.counter"));
+		metrics.increment("test.counter");
+		metrics.add("test.counter", 41);
+		assertEquals(42, metrics.getCounter("test.counter"));
+	}
+	
+	@Test
+	public void snapshot() throws Exception {
+		final MetricsService metrics = MetricsService.getInstance();
+		final long[]         gauge   = {1};
+		
+		metrics.increment("test.snapshot.counter");
+		metrics.registerGauge("test.snapshot.gauge", () -> gauge[0]);
+		gauge[0] = 1337;
+		
+		final SortedMap<String, Long> snapshot = metrics.getSnapshot();
+		assertEquals(Long.valueOf(1), snapshot.get("test.snapshot.counter"));
+		assertEquals(Long.valueOf(1337), snapshot.get("test.snapshot.gauge"));
+	}
+}
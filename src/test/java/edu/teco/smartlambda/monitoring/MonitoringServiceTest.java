@@ -8,9 +8,11 @@ import edu.teco.smartlambda.authentication.entities.User;
 import edu.teco.smartlambda.concurrent.ThreadManager;
 import edu.teco.smartlambda.lambda.AbstractLambda;
 import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.shared.ExecutionReturnValue;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.jdbc.Work;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -20,9 +22,14 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 
 /**
  *
@@ -37,12 +44,14 @@ public class MonitoringServiceTest {
 	private        MonitoringEvent saveEvent;
 	private        User            user;
 	private static SessionFactory  sessionFactory;
+	private        Session         session;
 	
 	@Before
 	public void setUp() {
 		sessionFactory = Mockito.mock(SessionFactory.class);
 		final Session     session = Mockito.mock(Session.class);
 		final Application app     = Mockito.mock(Application.class);
+		this.session = session;
 		PowerMockito.mockStatic(Application.class);
 		PowerMockito.when(Application.getInstance()).thenReturn(app);
 		PowerMockito.when(Application.getInstance().getSessionFactory()).thenReturn(sessionFactory);
@@ -85,7 +94,7 @@ public class MonitoringServiceTest {
 		this.mockAuthentication();
 		final Exception e = new NullPointerException("");
 		this.actualEvent = this.monitoringService.onLambdaExecutionStart(this.lambda);
-		this.monitoringService.onLambdaExecutionEnd(this.lambda, 0, new ExecutionReturnValue(null, e), this.actualEvent);
+		this.monitoringService.onLambdaExecutionEnd(this.lambda, 0, 0, new ExecutionReturnValue(null, e), this.actualEvent);
 		
 		final ExecutionReturnValue exRetVal = new ExecutionReturnValue(null, e);
 		final MonitoringEvent expectedEvent = new MonitoringEvent(this.lambda, MonitoringEvent.MonitoringEventType.EXECUTION,
@@ -103,6 +112,78 @@ public class MonitoringServiceTest {
 				expectedEvent.getDuration() == this.actualEvent.getDuration());
 	}
 	
+	@Test
+	public void onLambdaExecutionTimeoutTest() {
+		this.mockAuthentication();
+		Mockito.when(this.lambda.getTimeout()).thenReturn(5);
+		this.actualEvent = this.monitoringService.onLambdaExecutionStart(this.lambda);
+		this.monitoringService.onLambdaExecutionTimeout(this.lambda, this.actualEvent);
+		
+		Assert.assertSame(this.actualEvent, this.saveEvent);
+		Assert.assertEquals(MonitoringEvent.MonitoringEventType.TIMEOUT, this.actualEvent.getType());
+		Assert.assertNotNull(this.actualEvent.getError());
+		Assert.assertTrue(this.actualEvent.getDuration() >= 0);
+	}
+	
+	private PreparedStatement mockBatchInsert() throws Exception {
+		final Connection        connection = Mockito.mock(Connection.class);
+		final PreparedStatement statement  = Mockito.mock(PreparedStatement.class);
+		Mockito.when(connection.prepareStatement(anyString())).thenReturn(statement);
+		Mockito.doAnswer(invocation -> {
+			invocation.<Work>getArgument(0).execute(connection);
+			return null;
+		}).when(this.session).doWork(any());
+		
+		return statement;
+	}
+	
+	@Test
+	public void onLambdaBatchExecutionEndTest() throws Exception {
+		this.mockAuthentication();
+		final PreparedStatement     statement = this.mockBatchInsert();
+		final List<MonitoringEvent> events    = Arrays.asList(this.monitoringService.onLambdaExecutionStart(this.lambda),
+				this.monitoringService.onLambdaExecutionStart(this.lambda));
+		
+		final ExecutionResult first = new ExecutionResult();
+		first.setExecutionReturnValue(new ExecutionReturnValue("1", ""));
+		first.setConsumedCPUTime(3);
+		first.setPeakMemory(4);
+		first.setDuration(7);
+		final ExecutionResult second = new ExecutionResult();
+		second.setExecutionReturnValue(new ExecutionReturnValue(null, "failure"));
+		
+		this.monitoringService.onLambdaBatchExecutionEnd(this.lambda, Arrays.asList(first, second), events);
+		
+		Assert.assertEquals(3, events.get(0).getCPUTime());
+		Assert.assertEquals(4, events.get(0).getPeakMemory());
+		Assert.assertEquals(7, events.get(0).getDuration());
+		Assert.assertNull(events.get(0).getError());
+		Assert.assertEquals("failure", events.get(1).getError());
+		
+		// the events are written with a single batched insert instead of one insert per event
+		Mockito.verify(statement, Mockito.times(2)).addBatch();
+		Mockito.verify(statement).executeBatch();
+		Mockito.verify(this.session, Mockito.never()).save(any());
+	}
+	
+	@Test
+	public void onLambdaBatchExecutionTimeoutTest() throws Exception {
+		this.mockAuthentication();
+		Mockito.when(this.lambda.getTimeout()).thenReturn(5);
+		final PreparedStatement     statement = this.mockBatchInsert();
+		final List<MonitoringEvent> events    = Arrays.asList(this.monitoringService.onLambdaExecutionStart(this.lambda),
+				this.monitoringService.onLambdaExecutionStart(this.lambda));
+		
+		this.monitoringService.onLambdaBatchExecutionTimeout(this.lambda, events);
+		
+		for (final MonitoringEvent event : events) {
+			Assert.assertEquals(MonitoringEvent.MonitoringEventType.TIMEOUT, event.getType());
+			Assert.assertNotNull(event.getError());
+		}
+		Mockito.verify(statement, Mockito.times(2)).addBatch();
+		Mockito.verify(statement).executeBatch();
+	}
+	
 	@Test
 	public void onLambdaDeletionTest() {
 		this.mockAuthentication();
@@ -1,14 +1,25 @@
 package edu.teco.smartlambda.rest.controller;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
+import edu.teco.smartlambda.configuration.ConfigurationService;
+import edu.teco.smartlambda.container.ResourceLimits;
+import edu.teco.smartlambda.invocation.Invocation;
 import edu.teco.smartlambda.lambda.AbstractLambda;
 import edu.teco.smartlambda.lambda.Lambda;
+import edu.teco.smartlambda.lambda.LambdaBuild;
 import edu.teco.smartlambda.lambda.LambdaFacade;
 import edu.teco.smartlambda.lambda.LambdaFactory;
 import edu.teco.smartlambda.monitoring.MonitoringEvent;
+import edu.teco.smartlambda.rest.exception.BuildNotFoundException;
+import edu.teco.smartlambda.rest.exception.InvalidBatchSizeException;
 import edu.teco.smartlambda.rest.exception.InvalidLambdaDefinitionException;
+import edu.teco.smartlambda.rest.exception.InvocationNotFoundException;
 import edu.teco.smartlambda.rest.exception.LambdaNotFoundException;
 import edu.teco.smartlambda.runtime.ExecutionResult;
 import edu.teco.smartlambda.runtime.Runtime;
@@ -17,10 +28,12 @@ import edu.teco.smartlambda.shared.ExecutionReturnValue;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -33,6 +46,8 @@ import spark.Response;
 
 import java.lang.reflect.Field;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -42,8 +57,11 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -52,7 +70,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({LambdaFacade.class, User.class, RuntimeRegistry.class})
+@PrepareForTest({LambdaFacade.class, User.class, RuntimeRegistry.class, ConfigurationService.class})
 public class LambdaControllerTest {
 	private static final Gson   gson                  = new Gson();
 	private static final String TEST_USER_NAME        = "TestUser";
@@ -62,16 +80,23 @@ public class LambdaControllerTest {
 	private static final String TEST_PARAMETER_NAME   = "TestParameter";
 	private static final String TEST_PARAMETER_VALUE  = "TestParameterValue";
 	private static final String TEST_EXECUTION_RESULT = "TestResult";
+	private static final String TEST_BUILD_ID         = "TestBuild";
 	
 	private User          testUser;
 	private Runtime       testRuntime;
 	private LambdaFactory lambdaFactory;
+	private LambdaBuild   testBuild;
 	
 	@RequiredArgsConstructor
 	private static class LambdaRequest {
 		private final Boolean async;
 		private final String  runtime;
 		private final byte[]  src;
+		private       Integer timeout;
+		private       Integer memoryLimit;
+		private       Integer cpuQuota;
+		private       Boolean cacheable;
+		private       Integer cacheTtl;
 	}
 	
 	@RequiredArgsConstructor
@@ -86,6 +111,7 @@ public class LambdaControllerTest {
 		private String  user;
 		private String  name;
 		private Boolean async;
+		private Integer timeout;
 		private String  runtime;
 	}
 	
@@ -111,11 +137,23 @@ public class LambdaControllerTest {
 		when(LambdaFacade.getInstance()).thenReturn(lambdaFacade);
 		this.lambdaFactory = mock(LambdaFactory.class);
 		when(lambdaFacade.getFactory()).thenReturn(this.lambdaFactory);
+		
+		this.testBuild = mock(LambdaBuild.class);
+		when(this.testBuild.getId()).thenReturn(TEST_BUILD_ID);
+		when(this.testBuild.getState()).thenReturn(LambdaBuild.State.FAILED);
+		when(this.testBuild.getError()).thenReturn("TestError");
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		ExecutionPriority.setCurrent(ExecutionPriority.INTERACTIVE);
 	}
 	
 	private Pair<Response, AbstractLambda> doCreateLambda(final LambdaRequest lambdaRequest) throws Exception {
 		final AbstractLambda lambda = mock(AbstractLambda.class);
 		when(this.lambdaFactory.createLambda()).thenReturn(lambda);
+		when(lambda.getBuild()).thenReturn(Optional.of(this.testBuild));
+		when(lambda.getResourceLimits()).thenReturn(ResourceLimits.UNLIMITED);
 		
 		final Request request = mock(Request.class);
 		
@@ -125,7 +163,8 @@ public class LambdaControllerTest {
 		
 		final Response response = mock(Response.class);
 		
-		assertSame(Object.class, LambdaController.createLambda(request, response).getClass());
+		final JsonObject deploymentResponse = gson.toJsonTree(LambdaController.createLambda(request, response)).getAsJsonObject();
+		assertEquals(TEST_BUILD_ID, deploymentResponse.get("build").getAsString());
 		
 		return new ImmutablePair<>(response, lambda);
 	}
@@ -136,13 +175,14 @@ public class LambdaControllerTest {
 		final Response                       response = result.getLeft();
 		final AbstractLambda                 lambda   = result.getRight();
 		
-		verify(response).status(201);
+		verify(response).status(202);
 		verify(lambda).setName(TEST_LAMBDA_NAME);
 		verify(lambda).setAsync(true);
 		verify(lambda).setOwner(this.testUser);
 		verify(lambda).setRuntime(this.testRuntime);
 		verify(lambda).deployBinary(TEST_SRC);
 		verify(lambda).save();
+		verify(lambda).getBuild();
 		verifyNoMoreInteractions(lambda);
 	}
 	
@@ -156,10 +196,64 @@ public class LambdaControllerTest {
 		this.doCreateLambda(new LambdaRequest(true, TEST_RUNTIME, new byte[] {}));
 	}
 	
+	@Test
+	public void createLambdaTimeout() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(true, TEST_RUNTIME, TEST_SRC);
+		lambdaRequest.timeout = 10;
+		
+		verify(this.doCreateLambda(lambdaRequest).getRight()).setTimeout(10);
+	}
+	
+	@Test
+	public void createLambdaResourceLimits() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(true, TEST_RUNTIME, TEST_SRC);
+		lambdaRequest.memoryLimit = 256;
+		lambdaRequest.cpuQuota = 50;
+		
+		verify(this.doCreateLambda(lambdaRequest).getRight()).setResourceLimits(new ResourceLimits(256, 0, 50, 0));
+	}
+	
+	@Test(expected = InvalidLambdaDefinitionException.class)
+	public void createLambdaInvalidResourceLimit() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(true, TEST_RUNTIME, TEST_SRC);
+		lambdaRequest.memoryLimit = -1;
+		
+		this.doCreateLambda(lambdaRequest);
+	}
+	
+	@Test
+	public void createLambdaCacheable() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(true, TEST_RUNTIME, TEST_SRC);
+		lambdaRequest.cacheable = true;
+		lambdaRequest.cacheTtl = 300;
+		
+		final AbstractLambda lambda = this.doCreateLambda(lambdaRequest).getRight();
+		verify(lambda).setCacheable(true);
+		verify(lambda).setCacheTtl(300);
+	}
+	
+	@Test(expected = InvalidLambdaDefinitionException.class)
+	public void createLambdaInvalidCacheTtl() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(true, TEST_RUNTIME, TEST_SRC);
+		lambdaRequest.cacheTtl = 0;
+		
+		this.doCreateLambda(lambdaRequest);
+	}
+	
+	@Test(expected = InvalidLambdaDefinitionException.class)
+	public void createLambdaInvalidTimeout() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(true, TEST_RUNTIME, TEST_SRC);
+		lambdaRequest.timeout = 0;
+		
+		this.doCreateLambda(lambdaRequest);
+	}
+	
 	private Pair<Response, AbstractLambda> doUpdateLambda(final LambdaRequest lambdaRequest, final String lambdaName) throws Exception {
 		final AbstractLambda lambda = mock(AbstractLambda.class);
 		when(this.lambdaFactory.getLambdaByOwnerAndName(eq(this.testUser), anyString())).thenReturn(Optional.empty());
 		when(this.lambdaFactory.getLambdaByOwnerAndName(eq(this.testUser), eq(TEST_LAMBDA_NAME))).thenReturn(Optional.ofNullable(lambda));
+		when(lambda.getBuild()).thenReturn(Optional.of(this.testBuild));
+		when(lambda.getResourceLimits()).thenReturn(ResourceLimits.UNLIMITED);
 		
 		final Request request = mock(Request.class);
 		
@@ -169,7 +263,9 @@ public class LambdaControllerTest {
 		
 		final Response response = mock(Response.class);
 		
-		assertSame(Object.class, LambdaController.updateLambda(request, response).getClass());
+		final JsonObject updateResponse = gson.toJsonTree(LambdaController.updateLambda(request, response)).getAsJsonObject();
+		if (lambdaRequest.src != null) assertEquals(TEST_BUILD_ID, updateResponse.get("build").getAsString());
+		else assertEquals(0, updateResponse.size());
 		
 		return new ImmutablePair<>(response, lambda);
 	}
@@ -184,11 +280,12 @@ public class LambdaControllerTest {
 		final Response                       response = result.getLeft();
 		final AbstractLambda                 lambda   = result.getRight();
 		
-		verify(response).status(200);
+		verify(response).status(202);
 		verify(lambda).setAsync(true);
 		verify(lambda).setRuntime(this.testRuntime);
 		verify(lambda).deployBinary(TEST_SRC);
 		verify(lambda).update();
+		verify(lambda).getBuild();
 		verifyNoMoreInteractions(lambda);
 	}
 	
@@ -202,6 +299,40 @@ public class LambdaControllerTest {
 		this.doUpdateLambda(new LambdaRequest(true, TEST_RUNTIME, new byte[] {}));
 	}
 	
+	@Test
+	public void updateLambdaTimeout() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(null, null, null);
+		lambdaRequest.timeout = 60;
+		
+		final AbstractLambda lambda = this.doUpdateLambda(lambdaRequest).getRight();
+		verify(lambda).setTimeout(60);
+		verify(lambda).update();
+		verifyNoMoreInteractions(lambda);
+	}
+	
+	@Test
+	public void updateLambdaResourceLimits() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(null, null, null);
+		lambdaRequest.cpuQuota = 200;
+		
+		final AbstractLambda lambda = this.doUpdateLambda(lambdaRequest).getRight();
+		verify(lambda).getResourceLimits();
+		verify(lambda).setResourceLimits(new ResourceLimits(0, 0, 200, 0));
+		verify(lambda).update();
+		verifyNoMoreInteractions(lambda);
+	}
+	
+	@Test
+	public void updateLambdaCacheable() throws Exception {
+		final LambdaRequest lambdaRequest = new LambdaRequest(null, null, null);
+		lambdaRequest.cacheable = false;
+		
+		final AbstractLambda lambda = this.doUpdateLambda(lambdaRequest).getRight();
+		verify(lambda).setCacheable(false);
+		verify(lambda).update();
+		verifyNoMoreInteractions(lambda);
+	}
+	
 	@Test(expected = LambdaNotFoundException.class)
 	public void updateLambdaUnknownLambda() throws Exception {
 		this.doUpdateLambda(new LambdaRequest(true, TEST_RUNTIME, TEST_SRC), "does_not_exist");
@@ -219,25 +350,32 @@ public class LambdaControllerTest {
 	}
 	
 	private LambdaResponse validateLambdaResponseObject(final Object object) throws Exception {
-		final Field user    = object.getClass().getDeclaredField("user");
-		final Field name    = object.getClass().getDeclaredField("name");
-		final Field async   = object.getClass().getDeclaredField("async");
-		final Field runtime = object.getClass().getDeclaredField("runtime");
+		final Field user      = object.getClass().getDeclaredField("user");
+		final Field name      = object.getClass().getDeclaredField("name");
+		final Field async     = object.getClass().getDeclaredField("async");
+		final Field timeout   = object.getClass().getDeclaredField("timeout");
+		final Field runtime   = object.getClass().getDeclaredField("runtime");
+		final Field cacheable = object.getClass().getDeclaredField("cacheable");
+		final Field cacheTtl  = object.getClass().getDeclaredField("cacheTtl");
 		
-		assertEquals(4, object.getClass().getDeclaredFields().length);
+		assertEquals(11, object.getClass().getDeclaredFields().length);
 		
 		assertSame(String.class, user.getType());
 		assertSame(String.class, name.getType());
 		assertSame(boolean.class, async.getType());
+		assertSame(int.class, timeout.getType());
 		assertSame(String.class, runtime.getType());
+		assertSame(boolean.class, cacheable.getType());
+		assertSame(int.class, cacheTtl.getType());
 		
 		user.setAccessible(true);
 		name.setAccessible(true);
 		async.setAccessible(true);
+		timeout.setAccessible(true);
 		runtime.setAccessible(true);
 		
 		return new LambdaResponse((String) user.get(object), (String) name.get(object), (Boolean) async.get(object),
-				(String) runtime.get(object));
+				(Integer) timeout.get(object), (String) runtime.get(object));
 	}
 	
 	private Pair<Response, LambdaResponse> doReadLambda(final String lambdaName) throws Exception {
@@ -249,6 +387,8 @@ public class LambdaControllerTest {
 		when(lambda.getOwner()).thenReturn(this.testUser);
 		when(lambda.getRuntime()).thenReturn(this.testRuntime);
 		when(lambda.isAsync()).thenReturn(true);
+		when(lambda.getTimeout()).thenReturn(45);
+		when(lambda.getResourceLimits()).thenReturn(new ResourceLimits(256, 0, 0, 0));
 		
 		final Request request = mock(Request.class);
 		
@@ -269,6 +409,7 @@ public class LambdaControllerTest {
 		assertEquals(TEST_LAMBDA_NAME, result.getRight().getName());
 		assertEquals(TEST_RUNTIME, result.getRight().getRuntime());
 		assertEquals(true, result.getRight().getAsync());
+		assertEquals(45, (int) result.getRight().getTimeout());
 		
 		verify(result.getLeft()).status(200);
 	}
@@ -309,16 +450,25 @@ public class LambdaControllerTest {
 	
 	private Triple<Response, AbstractLambda, Object> doExecuteLambda(final LambdaExecutionRequest executionRequest,
 			final boolean defaultAsync, final ExecutionReturnValue returnValue, final String lambdaName) throws Exception {
+		return this.doExecuteLambda(gson.toJson(executionRequest), defaultAsync, returnValue, lambdaName);
+	}
+	
+	private Triple<Response, AbstractLambda, Object> doExecuteLambda(final String body, final boolean defaultAsync,
+			final ExecutionReturnValue returnValue, final String lambdaName) throws Exception {
 		final AbstractLambda lambda = mock(AbstractLambda.class);
 		when(this.lambdaFactory.getLambdaByOwnerAndName(eq(this.testUser), anyString())).thenReturn(Optional.empty());
 		when(this.lambdaFactory.getLambdaByOwnerAndName(eq(this.testUser), eq(TEST_LAMBDA_NAME))).thenReturn(Optional.ofNullable(lambda));
 		
 		when(lambda.isAsync()).thenReturn(defaultAsync);
 		
+		final Invocation invocation = mock(Invocation.class);
+		when(invocation.getId()).thenReturn(1);
+		when(lambda.invoke(anyString())).thenReturn(invocation);
+		
 		final Request request = mock(Request.class);
 		when(request.params(":user")).thenReturn(TEST_USER_NAME);
 		when(request.params(":name")).thenReturn(lambdaName);
-		when(request.body()).thenReturn(gson.toJson(executionRequest));
+		when(request.bodyAsBytes()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
 		
 		final Response response = mock(Response.class);
 		if (returnValue != null) {
@@ -342,12 +492,13 @@ public class LambdaControllerTest {
 		parameters.addProperty(TEST_PARAMETER_NAME, TEST_PARAMETER_VALUE);
 		
 		Triple<Response, AbstractLambda, Object> result = this.doExecuteLambda(new LambdaExecutionRequest(null, parameters), true, null);
-		verify(result.getMiddle()).executeAsync(gson.toJson(parameters));
+		verify(result.getMiddle()).invoke(gson.toJson(parameters));
 		verify(result.getMiddle()).isAsync();
 		verifyNoMoreInteractions(result.getMiddle());
 		
 		verify(result.getLeft()).status(202);
-		assertEquals("", result.getRight());
+		verify(result.getLeft()).header("Location", "/" + TEST_USER_NAME + "/lambda/" + TEST_LAMBDA_NAME + "/invocation/1");
+		assertEquals("{\"id\":1}", result.getRight());
 		
 		final ExecutionReturnValue returnValue = new ExecutionReturnValue(TEST_EXECUTION_RESULT, "");
 		
@@ -363,12 +514,12 @@ public class LambdaControllerTest {
 	@Test
 	public void executeLambdaExplicitAsync() throws Exception {
 		final Triple<Response, AbstractLambda, Object> result = this.doExecuteLambda(new LambdaExecutionRequest(true, null), false, null);
-		verify(result.getMiddle()).executeAsync("");
+		verify(result.getMiddle()).invoke("");
 		verify(result.getMiddle(), new AtMost(1)).isAsync();
 		verifyNoMoreInteractions(result.getMiddle());
 		
 		verify(result.getLeft()).status(202);
-		assertEquals("", result.getRight());
+		assertEquals("{\"id\":1}", result.getRight());
 	}
 	
 	@Test
@@ -385,6 +536,23 @@ public class LambdaControllerTest {
 		assertEquals(TEST_EXECUTION_RESULT, result.getRight());
 	}
 	
+	@Test
+	public void executeLambdaTextualAsync() throws Exception {
+		Triple<Response, AbstractLambda, Object> result = this.doExecuteLambda("{\"async\": \"false\", \"parameters\": {}}", true,
+				new ExecutionReturnValue(TEST_EXECUTION_RESULT, ""), TEST_LAMBDA_NAME);
+		verify(result.getMiddle()).executeSync("{}");
+		verify(result.getLeft()).status(200);
+		
+		result = this.doExecuteLambda("{\"async\": \"true\", \"parameters\": {}}", false, null, TEST_LAMBDA_NAME);
+		verify(result.getMiddle()).invoke("{}");
+		verify(result.getLeft()).status(202);
+	}
+	
+	@Test(expected = JsonMappingException.class)
+	public void executeLambdaInvalidAsync() throws Exception {
+		this.doExecuteLambda("{\"async\": \"maybe\", \"parameters\": {}}", false, null, TEST_LAMBDA_NAME);
+	}
+	
 	@Test
 	public void executeLambdaException() throws Exception {
 		final ExecutionReturnValue executionReturnValue = new ExecutionReturnValue("", new Exception().fillInStackTrace());
@@ -399,6 +567,110 @@ public class LambdaControllerTest {
 		assertEquals("", result.getRight());
 	}
 	
+	@Test
+	public void executeLambdaRawParameters() throws Exception {
+		final String parameters = "{ \"name\" : [1, {\"λ\": null}],\n\"nested\": {\"a\": \"}\"} }";
+		
+		final Triple<Response, AbstractLambda, Object> result = this.doExecuteLambda(
+				"{\"async\": true, \"parameters\": " + parameters + ", \"async\": null}", false, null, TEST_LAMBDA_NAME);
+		verify(result.getMiddle()).invoke(parameters);
+		verify(result.getLeft()).status(202);
+	}
+	
+	@Test
+	public void executeLambdaDefaultPriority() throws Exception {
+		ExecutionPriority.setCurrent(ExecutionPriority.SCHEDULED);
+		this.doExecuteLambda(new LambdaExecutionRequest(false, null), false, new ExecutionReturnValue(TEST_EXECUTION_RESULT, ""));
+		assertEquals(ExecutionPriority.INTERACTIVE, ExecutionPriority.getCurrent());
+		
+		this.doExecuteLambda(new LambdaExecutionRequest(true, null), false, null);
+		assertEquals(ExecutionPriority.ASYNC, ExecutionPriority.getCurrent());
+	}
+	
+	@Test
+	public void executeLambdaExplicitPriority() throws Exception {
+		final Triple<Response, AbstractLambda, Object> result =
+				this.doExecuteLambda("{\"priority\": \"scheduled\", \"parameters\": {}}", false,
+						new ExecutionReturnValue(TEST_EXECUTION_RESULT, ""), TEST_LAMBDA_NAME);
+		verify(result.getMiddle()).executeSync("{}");
+		assertEquals(ExecutionPriority.SCHEDULED, ExecutionPriority.getCurrent());
+	}
+	
+	@Test(expected = JsonMappingException.class)
+	public void executeLambdaInvalidPriority() throws Exception {
+		this.doExecuteLambda("{\"priority\": \"urgent\", \"parameters\": {}}", false, null, TEST_LAMBDA_NAME);
+	}
+	
+	@Test(expected = UnrecognizedPropertyException.class)
+	public void executeLambdaUnknownProperty() throws Exception {
+		this.doExecuteLambda("{\"parameters\": {}, \"unknown\": 1}", false, null, TEST_LAMBDA_NAME);
+	}
+	
+	@Test(expected = JsonMappingException.class)
+	public void executeLambdaInvalidParameters() throws Exception {
+		this.doExecuteLambda("{\"parameters\": [1, 2]}", false, null, TEST_LAMBDA_NAME);
+	}
+	
+	@Test(expected = JsonMappingException.class)
+	public void executeLambdaEmptyBody() throws Exception {
+		this.doExecuteLambda("", false, null, TEST_LAMBDA_NAME);
+	}
+	
+	private Triple<Response, AbstractLambda, Object> doExecuteLambdaBatch(final String body, final List<ExecutionResult> results)
+			throws Exception {
+		final AbstractLambda lambda = mock(AbstractLambda.class);
+		when(this.lambdaFactory.getLambdaByOwnerAndName(eq(this.testUser), eq(TEST_LAMBDA_NAME))).thenReturn(Optional.of(lambda));
+		when(lambda.executeBatch(anyList())).thenReturn(results);
+		
+		PowerMockito.mockStatic(ConfigurationService.class);
+		final ConfigurationService configurationService = mock(ConfigurationService.class);
+		final Configuration        configuration        = mock(Configuration.class);
+		when(ConfigurationService.getInstance()).thenReturn(configurationService);
+		when(configurationService.getConfiguration()).thenReturn(configuration);
+		when(configuration.getInt(eq("execution.maximumBatchSize"), anyInt())).thenReturn(2);
+		
+		final Request request = mock(Request.class);
+		when(request.params(":user")).thenReturn(TEST_USER_NAME);
+		when(request.params(":name")).thenReturn(TEST_LAMBDA_NAME);
+		when(request.body()).thenReturn(body);
+		
+		final Response response = mock(Response.class);
+		return new ImmutableTriple<>(response, lambda, LambdaController.executeLambdaBatch(request, response));
+	}
+	
+	@Test
+	public void executeLambdaBatch() throws Exception {
+		final ExecutionResult success = new ExecutionResult();
+		success.setExecutionReturnValue(new ExecutionReturnValue("{\"value\":1}", ""));
+		final ExecutionResult failure = new ExecutionResult();
+		failure.setExecutionReturnValue(new ExecutionReturnValue("", new Exception().fillInStackTrace()));
+		
+		final Triple<Response, AbstractLambda, Object> result =
+				this.doExecuteLambdaBatch("[{\"" + TEST_PARAMETER_NAME + "\":\"" + TEST_PARAMETER_VALUE + "\"},null]",
+						Arrays.asList(success, failure));
+		final JsonObject parameters = new JsonObject();
+		parameters.addProperty(TEST_PARAMETER_NAME, TEST_PARAMETER_VALUE);
+		verify(result.getMiddle()).executeBatch(Arrays.asList(gson.toJson(parameters), ""));
+		verify(result.getLeft()).status(200);
+		
+		final JsonArray array = gson.fromJson((String) result.getRight(), JsonArray.class);
+		assertEquals(2, array.size());
+		assertFalse(array.get(0).getAsJsonObject().get("error").getAsBoolean());
+		assertEquals(1, array.get(0).getAsJsonObject().get("result").getAsJsonObject().get("value").getAsInt());
+		assertTrue(array.get(1).getAsJsonObject().get("error").getAsBoolean());
+		assertTrue(array.get(1).getAsJsonObject().get("result").isJsonNull());
+	}
+	
+	@Test(expected = InvalidBatchSizeException.class)
+	public void executeLambdaBatchEmpty() throws Exception {
+		this.doExecuteLambdaBatch("[]", new LinkedList<>());
+	}
+	
+	@Test(expected = InvalidBatchSizeException.class)
+	public void executeLambdaBatchTooLarge() throws Exception {
+		this.doExecuteLambdaBatch("[{}, {}, {}]", new LinkedList<>());
+	}
+	
 	@Test
 	public void getLambdaList() throws Exception {
 		final Request             request  = mock(Request.class);
@@ -410,6 +682,7 @@ public class LambdaControllerTest {
 		when(lambda.getName()).thenReturn(TEST_LAMBDA_NAME);
 		when(lambda.getRuntime()).thenReturn(this.testRuntime);
 		when(lambda.isAsync()).thenReturn(true);
+		when(lambda.getResourceLimits()).thenReturn(ResourceLimits.UNLIMITED);
 		lambdas.add(lambda);
 		
 		lambda = mock(Lambda.class);
@@ -417,6 +690,7 @@ public class LambdaControllerTest {
 		when(lambda.getName()).thenReturn(TEST_LAMBDA_NAME + "2");
 		when(lambda.getRuntime()).thenReturn(this.testRuntime);
 		when(lambda.isAsync()).thenReturn(false);
+		when(lambda.getResourceLimits()).thenReturn(ResourceLimits.UNLIMITED);
 		lambdas.add(lambda);
 		
 		when(request.params(":user")).thenReturn(TEST_USER_NAME);
@@ -470,16 +744,22 @@ public class LambdaControllerTest {
 		
 		MonitoringEvent monitoringEvent = mock(MonitoringEvent.class);
 		when(monitoringEvent.getDuration()).thenReturn(42L);
+		when(monitoringEvent.getCPUTime()).thenReturn(10L);
+		when(monitoringEvent.getPeakMemory()).thenReturn(1024L);
 		when(monitoringEvent.getError()).thenReturn("abc");
 		monitoringEventList.add(monitoringEvent);
 		
 		monitoringEvent = mock(MonitoringEvent.class);
 		when(monitoringEvent.getDuration()).thenReturn(1337L);
+		when(monitoringEvent.getCPUTime()).thenReturn(20L);
+		when(monitoringEvent.getPeakMemory()).thenReturn(4096L);
 		when(monitoringEvent.getError()).thenReturn(null);
 		monitoringEventList.add(monitoringEvent);
 		
 		monitoringEvent = mock(MonitoringEvent.class);
 		when(monitoringEvent.getDuration()).thenReturn(5L);
+		when(monitoringEvent.getCPUTime()).thenReturn(30L);
+		when(monitoringEvent.getPeakMemory()).thenReturn(2048L);
 		when(monitoringEvent.getError()).thenReturn("xyz");
 		monitoringEventList.add(monitoringEvent);
 		
@@ -490,18 +770,108 @@ public class LambdaControllerTest {
 		final Object result               = LambdaController.getStatistics(request, response);
 		final Field  executions           = result.getClass().getDeclaredField("executions");
 		final Field  averageExecutionTime = result.getClass().getDeclaredField("averageExecutionTime");
+		final Field  averageCPUTime       = result.getClass().getDeclaredField("averageCPUTime");
+		final Field  peakMemory           = result.getClass().getDeclaredField("peakMemory");
 		final Field  errors               = result.getClass().getDeclaredField("errors");
 		
-		assertEquals(3, result.getClass().getDeclaredFields().length);
+		assertEquals(5, result.getClass().getDeclaredFields().length);
 		
 		executions.setAccessible(true);
 		averageExecutionTime.setAccessible(true);
+		averageCPUTime.setAccessible(true);
+		peakMemory.setAccessible(true);
 		errors.setAccessible(true);
 		
 		assertEquals(3L, executions.get(result));
 		assertEquals(461L, averageExecutionTime.get(result));
+		assertEquals(20L, averageCPUTime.get(result));
+		assertEquals(4096L, peakMemory.get(result));
 		assertEquals(2L, errors.get(result));
 		
 		verify(response).status(200);
 	}
-}
\ No newline at end of file
+	
+	@Test
+	public void getBuild() throws Exception {
+		final AbstractLambda lambda = mock(AbstractLambda.class);
+		when(this.lambdaFactory.getLambdaByOwnerAndName(this.testUser, TEST_LAMBDA_NAME)).thenReturn(Optional.of(lambda));
+		when(lambda.getBuild()).thenReturn(Optional.of(this.testBuild));
+		
+		final Request request = mock(Request.class);
+		when(request.params(":user")).thenReturn(TEST_USER_NAME);
+		when(request.params(":name")).thenReturn(TEST_LAMBDA_NAME);
+		final Response response = mock(Response.class);
+		
+		final JsonObject buildResponse = gson.toJsonTree(LambdaController.getBuild(request, response)).getAsJsonObject();
+		assertEquals(TEST_BUILD_ID, buildResponse.get("id").getAsString());
+		assertEquals("FAILED", buildResponse.get("state").getAsString());
+		assertEquals("TestError", buildResponse.get("error").getAsString());
+		verify(response).status(200);
+	}
+	
+	@Test(expected = BuildNotFoundException.class)
+	public void getBuildUnknownBuild() throws Exception {
+		final AbstractLambda lambda = mock(AbstractLambda.class);
+		when(this.lambdaFactory.getLambdaByOwnerAndName(this.testUser, TEST_LAMBDA_NAME)).thenReturn(Optional.of(lambda));
+		when(lambda.getBuild()).thenReturn(Optional.empty());
+		
+		final Request request = mock(Request.class);
+		when(request.params(":user")).thenReturn(TEST_USER_NAME);
+		when(request.params(":name")).thenReturn(TEST_LAMBDA_NAME);
+		
+		LambdaController.getBuild(request, mock(Response.class));
+	}
+	
+	private Object doGetInvocation(final String id, final Optional<Invocation> invocation, final Response response) throws Exception {
+		final AbstractLambda lambda = mock(AbstractLambda.class);
+		when(this.lambdaFactory.getLambdaByOwnerAndName(this.testUser, TEST_LAMBDA_NAME)).thenReturn(Optional.of(lambda));
+		when(lambda.getInvocation(anyInt())).thenReturn(Optional.empty());
+		when(lambda.getInvocation(1)).thenReturn(invocation);
+		
+		final Request request = mock(Request.class);
+		when(request.params(":user")).thenReturn(TEST_USER_NAME);
+		when(request.params(":name")).thenReturn(TEST_LAMBDA_NAME);
+		when(request.params(":id")).thenReturn(id);
+		
+		return LambdaController.getInvocation(request, response);
+	}
+	
+	@Test
+	public void getInvocation() throws Exception {
+		final Invocation invocation = mock(Invocation.class);
+		when(invocation.getId()).thenReturn(1);
+		when(invocation.getStatus()).thenReturn(Invocation.Status.SUCCEEDED);
+		when(invocation.getResult()).thenReturn("{\"" + TEST_PARAMETER_NAME + "\": 1}");
+		final Response response = mock(Response.class);
+		
+		final JsonObject invocationResponse =
+				gson.fromJson((String) this.doGetInvocation("1", Optional.of(invocation), response), JsonObject.class);
+		assertEquals(1, invocationResponse.get("id").getAsInt());
+		assertEquals("SUCCEEDED", invocationResponse.get("status").getAsString());
+		assertEquals(1, invocationResponse.get("result").getAsJsonObject().get(TEST_PARAMETER_NAME).getAsInt());
+		assertTrue(invocationResponse.get("error").isJsonNull());
+		verify(response).status(200);
+	}
+	
+	@Test
+	public void getInvocationQueued() throws Exception {
+		final Invocation invocation = mock(Invocation.class);
+		when(invocation.getId()).thenReturn(1);
+		when(invocation.getStatus()).thenReturn(Invocation.Status.QUEUED);
+		
+		final JsonObject invocationResponse =
+				gson.fromJson((String) this.doGetInvocation("1", Optional.of(invocation), mock(Response.class)), JsonObject.class);
+		assertEquals("QUEUED", invocationResponse.get("status").getAsString());
+		assertTrue(invocationResponse.get("result").isJsonNull());
+	}
+	
+	@Test(expected = InvocationNotFoundException.class)
+	public void getInvocationUnknownInvocation() throws Exception {
+		this.doGetInvocation("2", Optional.empty(), mock(Response.class));
+	}
+	
+	@Test(expected = InvocationNotFoundException.class)
+	public void getInvocationInvalidId() throws Exception {
+		this.doGetInvocation("invalid", Optional.empty(), mock(Response.class));
+	}
+}
@@ -0,0 +1,71 @@
+package edu.teco.smartlambda.rest.controller;
+
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
+import edu.teco.smartlambda.authentication.NotAuthenticatedException;
+import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.monitoring.MetricsService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import spark.Request;
+import spark.Response;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(AuthenticationService.class)
+public class MetricsControllerTest {
+	private User                  testUser;
+	private AuthenticationService authenticationService;
+	
+	@Before
+	public void setUp() throws Exception {
+		PowerMockito.mockStatic(AuthenticationService.class);
+		
+		this.testUser = mock(User.class);
+		
+		this.authenticationService = mock(AuthenticationService.class);
+		when(AuthenticationService.getInstance()).thenReturn(this.authenticationService);
+		when(this.authenticationService.getAuthenticatedUser()).thenReturn(Optional.of(this.testUser));
+	}
+	
+	@Test
+	public void getMetrics() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(true);
+		MetricsService.getInstance().increment("test.controller");
+		
+		final Request  request  = mock(Request.class);
+		final Response response = mock(Response.class);
+		
+		final Object result = MetricsController.getMetrics(request, response);
+		
+		verify(response).status(200);
+		assertTrue(result instanceof Map);
+		assertEquals(MetricsService.getInstance().getCounter("test.controller"), ((Map<?, ?>) result).get("test.controller"));
+	}
+	
+	@Test(expected = InsufficientPermissionsException.class)
+	public void getMetricsNotAdmin() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(false);
+		
+		MetricsController.getMetrics(mock(Request.class), mock(Response.class));
+	}
+	
+	@Test(expected = NotAuthenticatedException.class)
+	public void getMetricsNotAuthenticated() throws Exception {
+		when(this.authenticationService.getAuthenticatedUser()).thenReturn(Optional.empty());
+		
+		MetricsController.getMetrics(mock(Request.class), mock(Response.class));
+	}
+}
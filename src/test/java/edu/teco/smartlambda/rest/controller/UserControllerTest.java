@@ -3,9 +3,11 @@ package edu.teco.smartlambda.rest.controller;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.InsufficientPermissionsException;
 import edu.teco.smartlambda.authentication.entities.User;
 import edu.teco.smartlambda.identity.IdentityProvider;
 import edu.teco.smartlambda.identity.IdentityProviderRegistry;
+import edu.teco.smartlambda.rest.exception.UserNotFoundException;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,16 +30,20 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({AuthenticationService.class, IdentityProviderRegistry.class})
+@PrepareForTest({AuthenticationService.class, IdentityProviderRegistry.class, User.class})
 public class UserControllerTest {
 	private static final String TEST_IDENTITY_PROVIDER_NAME = "TestIdentityProvider";
+	private static final String TEST_USER_NAME              = "TestUser";
 	
 	private User             testUser;
+	private User             targetUser;
 	private IdentityProvider testIdentityProvider;
 	
 	@Before
@@ -56,6 +62,10 @@ public class UserControllerTest {
 		
 		this.testIdentityProvider = mock(IdentityProvider.class);
 		when(registry.getIdentityProviderByName(TEST_IDENTITY_PROVIDER_NAME)).thenReturn(Optional.of(this.testIdentityProvider));
+		
+		this.targetUser = mock(User.class);
+		PowerMockito.mockStatic(User.class);
+		when(User.getByName(TEST_USER_NAME)).thenReturn(Optional.of(this.targetUser));
 	}
 	
 	@Test
@@ -126,4 +136,58 @@ public class UserControllerTest {
 		
 		verify(response).status(201);
 	}
+	
+	private Response doUpdateUser(final String body) throws Exception {
+		final Request request = mock(Request.class);
+		when(request.params(":user")).thenReturn(TEST_USER_NAME);
+		when(request.body()).thenReturn(body);
+		
+		final Response response = mock(Response.class);
+		UserController.updateUser(request, response);
+		return response;
+	}
+	
+	@Test
+	public void updateUser() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(true);
+		
+		final Response response = this.doUpdateUser("{\"trusted\": true, \"rateLimit\": 10, \"rateBurst\": 20}");
+		verify(this.targetUser).setTrusted(true);
+		verify(this.targetUser).setRateLimit(10, 20);
+		verify(response).status(200);
+	}
+	
+	@Test
+	public void updateUserResetRateLimit() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(true);
+		
+		// a rate limit without a burst resets the burst to the configured default
+		this.doUpdateUser("{\"rateLimit\": 10}");
+		verify(this.targetUser).setRateLimit(10, null);
+		verify(this.targetUser, never()).setTrusted(anyBoolean());
+	}
+	
+	@Test
+	public void updateUserNoChanges() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(true);
+		
+		this.doUpdateUser("{}");
+		verify(this.targetUser, never()).setTrusted(anyBoolean());
+		verify(this.targetUser, never()).setRateLimit(any(), any());
+	}
+	
+	@Test(expected = InsufficientPermissionsException.class)
+	public void updateUserWithoutAdmin() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(false);
+		
+		this.doUpdateUser("{\"trusted\": true}");
+	}
+	
+	@Test(expected = UserNotFoundException.class)
+	public void updateUserUnknownUser() throws Exception {
+		when(this.testUser.isAdmin()).thenReturn(true);
+		when(User.getByName(TEST_USER_NAME)).thenReturn(Optional.empty());
+		
+		this.doUpdateUser("{\"trusted\": true}");
+	}
 }
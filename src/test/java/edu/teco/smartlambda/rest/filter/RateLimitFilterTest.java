@@ -0,0 +1,137 @@
+package edu.teco.smartlambda.rest.filter;
+
+import edu.teco.smartlambda.authentication.AuthenticationService;
+import edu.teco.smartlambda.authentication.entities.Key;
+import edu.teco.smartlambda.authentication.entities.User;
+import edu.teco.smartlambda.rest.exception.RateLimitExceededException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Optional;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+
+/**
+ * Test Case for {@link RateLimitFilter}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(AuthenticationService.class)
+public class RateLimitFilterTest {
+	
+	private AuthenticationService authenticationService;
+	private User                  user;
+	
+	@Before
+	public void setUp() throws Exception {
+		this.authenticationService = mock(AuthenticationService.class);
+		mockStatic(AuthenticationService.class);
+		when(AuthenticationService.getInstance()).thenReturn(this.authenticationService);
+		
+		this.user = mock(User.class);
+		when(this.user.getId()).thenReturn(1);
+		when(this.user.getRateLimit()).thenReturn(null);
+		when(this.user.getRateBurst()).thenReturn(null);
+		this.authenticate("key");
+	}
+	
+	private void authenticate(final String id) {
+		final Key key = mock(Key.class);
+		when(key.getId()).thenReturn(id);
+		when(key.getUser()).thenReturn(this.user);
+		when(this.authenticationService.getAuthenticatedKey()).thenReturn(Optional.of(key));
+	}
+	
+	private void expectRejected(final RateLimitFilter filter) throws Exception {
+		try {
+			filter.handle(null, null);
+			fail();
+		} catch (final RateLimitExceededException e) {
+			assertTrue(e.getRetryAfter() >= 1);
+		}
+	}
+	
+	@Test
+	public void keyLimit() throws Exception {
+		final RateLimitFilter filter = new RateLimitFilter(1, 2, 0, 0, 60, 10);
+		
+		filter.handle(null, null);
+		filter.handle(null, null);
+		this.expectRejected(filter);
+		
+		// other keys of the same user have their own bucket
+		this.authenticate("other");
+		filter.handle(null, null);
+	}
+	
+	@Test
+	public void userLimit() throws Exception {
+		final RateLimitFilter filter = new RateLimitFilter(0, 0, 1, 2, 60, 10);
+		
+		filter.handle(null, null);
+		filter.handle(null, null);
+		
+		// all keys of the user share the bucket of the user
+		this.authenticate("other");
+		this.expectRejected(filter);
+	}
+	
+	@Test
+	public void userSpecificLimit() throws Exception {
+		when(this.user.getRateLimit()).thenReturn(1);
+		when(this.user.getRateBurst()).thenReturn(1);
+		final RateLimitFilter filter = new RateLimitFilter(0, 0, 1, 100, 60, 10);
+		
+		filter.handle(null, null);
+		this.expectRejected(filter);
+	}
+	
+	@Test
+	public void userLimitKeepsKeyToken() throws Exception {
+		final RateLimitFilter filter = new RateLimitFilter(1, 1, 1, 1, 60, 10);
+		
+		this.authenticate("other");
+		filter.handle(null, null);
+		
+		// the rejection by the bucket of the user does not take the token of the key
+		this.authenticate("key");
+		this.expectRejected(filter);
+		when(this.user.getId()).thenReturn(2);
+		filter.handle(null, null);
+	}
+	
+	@Test
+	public void userSpecificLimitChanged() throws Exception {
+		final RateLimitFilter filter = new RateLimitFilter(0, 0, 1, 1, 60, 10);
+		
+		filter.handle(null, null);
+		this.expectRejected(filter);
+		
+		// a changed limit applies without waiting for the bucket of the user to be evicted
+		when(this.user.getRateLimit()).thenReturn(1);
+		when(this.user.getRateBurst()).thenReturn(3);
+		for (int i = 0; i < 3; i++) filter.handle(null, null);
+		this.expectRejected(filter);
+	}
+	
+	@Test
+	public void unlimited() throws Exception {
+		final RateLimitFilter filter = new RateLimitFilter(0, 0, 0, 0, 60, 10);
+		
+		for (int i = 0; i < 1000; i++) filter.handle(null, null);
+	}
+	
+	@Test
+	public void notAuthenticated() throws Exception {
+		when(this.authenticationService.getAuthenticatedKey()).thenReturn(Optional.empty());
+		final RateLimitFilter filter = new RateLimitFilter(1, 1, 1, 1, 60, 10);
+		
+		for (int i = 0; i < 10; i++) filter.handle(null, null);
+	}
+}
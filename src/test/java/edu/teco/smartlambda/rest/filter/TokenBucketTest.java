@@ -0,0 +1,70 @@
+package edu.teco.smartlambda.rest.filter;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Case for {@link TokenBucket}
+ */
+public class TokenBucketTest {
+	
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	
+	@Test
+	public void burst() throws Exception {
+		final TokenBucket bucket = new TokenBucket(10, 3, 0);
+		
+		for (int i = 0; i < 3; i++) assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(SECOND / 10, bucket.tryAcquire(0));
+	}
+	
+	@Test
+	public void refill() throws Exception {
+		final TokenBucket bucket = new TokenBucket(10, 1, 0);
+		
+		assertEquals(0, bucket.tryAcquire(0));
+		assertTrue(bucket.tryAcquire(SECOND / 20) > 0);
+		assertEquals(0, bucket.tryAcquire(SECOND / 10));
+	}
+	
+	@Test
+	public void idle() throws Exception {
+		final TokenBucket bucket = new TokenBucket(1, 2, 0);
+		
+		// an idle bucket only refills up to its burst
+		for (int i = 0; i < 2; i++) assertEquals(0, bucket.tryAcquire(100 * SECOND));
+		assertEquals(SECOND, bucket.tryAcquire(100 * SECOND));
+	}
+	
+	@Test
+	public void release() throws Exception {
+		final TokenBucket bucket = new TokenBucket(1, 1, 0);
+		
+		assertEquals(0, bucket.tryAcquire(0));
+		bucket.release();
+		assertEquals(0, bucket.tryAcquire(0));
+		assertEquals(SECOND, bucket.tryAcquire(0));
+	}
+	
+	@Test
+	public void hasLimit() throws Exception {
+		final TokenBucket bucket = new TokenBucket(10, 3, 0);
+		
+		assertTrue(bucket.hasLimit(10, 3));
+		assertFalse(bucket.hasLimit(10, 4));
+		assertFalse(bucket.hasLimit(5, 3));
+	}
+	
+	@Test
+	public void negativeTime() throws Exception {
+		final TokenBucket bucket = new TokenBucket(1, 1, -10 * SECOND);
+		
+		assertEquals(0, bucket.tryAcquire(-SECOND));
+		assertEquals(SECOND / 2, bucket.tryAcquire(-SECOND / 2));
+	}
+}
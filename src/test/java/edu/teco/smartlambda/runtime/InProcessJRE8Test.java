@@ -0,0 +1,38 @@
+package edu.teco.smartlambda.runtime;
+
+import edu.teco.smartlambda.container.ImageBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Test Case for {@link InProcessJRE8}
+ */
+public class InProcessJRE8Test {
+	
+	private final InProcessJRE8 runtime = new InProcessJRE8();
+	
+	@Test
+	public void getName() throws Exception {
+		assertEquals("jre8-inprocess", this.runtime.getName());
+		assertEquals("lambda.jar", this.runtime.getBinaryName());
+	}
+	
+	@Test
+	public void isInProcess() throws Exception {
+		assertTrue(this.runtime.isInProcess());
+		assertFalse(new JRE8().isInProcess());
+	}
+	
+	@Test
+	public void setupContainerImage() throws Exception {
+		final ImageBuilder builder = mock(ImageBuilder.class);
+		
+		this.runtime.setupContainerImage(builder);
+		verifyZeroInteractions(builder);
+	}
+}
@@ -0,0 +1,94 @@
+package edu.teco.smartlambda.runtime;
+
+import edu.teco.smartlambda.container.BuilderFactory;
+import edu.teco.smartlambda.container.Image;
+import edu.teco.smartlambda.container.ImageBuilder;
+import edu.teco.smartlambda.container.ImageFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Answers;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.verifyStatic;
+
+/**
+ * Test Case for {@link JRE8}
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({BuilderFactory.class, ImageFactory.class})
+public class JRE8Test {
+	
+	private JRE8         runtime;
+	private Image        baseImage;
+	private ImageBuilder baseBuilder;
+	
+	@Before
+	public void setUp() {
+		this.runtime = spy(new JRE8());
+		doReturn("execution service".getBytes(StandardCharsets.UTF_8)).when(this.runtime).readExecutionService();
+		
+		this.baseImage = mock(Image.class);
+		mockStatic(ImageFactory.class);
+		when(ImageFactory.getImageByName(anyString())).thenAnswer(invocation -> {
+			when(this.baseImage.getId()).thenReturn(invocation.getArgument(0));
+			return this.baseImage;
+		});
+		
+		this.baseBuilder = mock(ImageBuilder.class, Answers.RETURNS_SELF);
+		mockStatic(BuilderFactory.class);
+		when(BuilderFactory.getContainerBuilder()).thenReturn(this.baseBuilder);
+	}
+	
+	@Test
+	public void setupContainerImageBuildsBaseImageOnce() throws Exception {
+		when(this.baseImage.exists()).thenReturn(false);
+		
+		final ImageBuilder first  = mock(ImageBuilder.class, Answers.RETURNS_SELF);
+		final ImageBuilder second = mock(ImageBuilder.class, Answers.RETURNS_SELF);
+		this.runtime.setupContainerImage(first);
+		this.runtime.setupContainerImage(second);
+		
+		final String baseImageName = this.runtime.getBaseImage();
+		assertTrue(baseImageName.startsWith("smartlambda/jre8:"));
+		
+		verify(this.baseBuilder).setName(baseImageName);
+		verify(this.baseBuilder).storeFile(this.runtime.readExecutionService(), "executionservice.jar");
+		verify(this.baseBuilder, times(1)).build();
+		
+		// lambda images only add their binary on top of the base image
+		verify(first).setTemplate(baseImageName);
+		verify(second).setTemplate(baseImageName);
+		verify(first, never()).storeFile(this.runtime.readExecutionService(), "executionservice.jar");
+	}
+	
+	@Test
+	public void setupContainerImageReusesExistingBaseImage() throws Exception {
+		when(this.baseImage.exists()).thenReturn(true);
+		
+		this.runtime.setupContainerImage(mock(ImageBuilder.class, Answers.RETURNS_SELF));
+		
+		verifyStatic(never());
+		BuilderFactory.getContainerBuilder();
+	}
+	
+	@Test
+	public void getName() throws Exception {
+		assertEquals("jre8", this.runtime.getName());
+		assertEquals("lambda.jar", this.runtime.getBinaryName());
+	}
+}
@@ -0,0 +1,87 @@
+package edu.teco.smartlambda.schedule;
+
+import edu.teco.smartlambda.lambda.Lambda;
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ *
+ */
+public class EventPrewarmerTest {
+	
+	private EventPrewarmer prewarmer;
+	private Event          event;
+	private Lambda         lambda;
+	private Calendar       nextExecution;
+	
+	@Before
+	public void setUp() {
+		this.prewarmer = new EventPrewarmer(30);
+		this.event = mock(Event.class);
+		this.lambda = mock(Lambda.class);
+		this.nextExecution = Calendar.getInstance();
+		this.nextExecution.setTimeInMillis(10000);
+		
+		when(this.event.getId()).thenReturn(1);
+		when(this.event.getLambda()).thenReturn(this.lambda);
+		when(this.event.getNextExecution()).thenReturn(this.nextExecution);
+	}
+	
+	@Test
+	public void prewarmOncePerExecution() throws Exception {
+		this.prewarmer.prewarm(Collections.singletonList(this.event), 0);
+		this.prewarmer.prewarm(Collections.singletonList(this.event), 1000);
+		verify(this.lambda, times(1)).prewarm();
+		
+		// the next due time of the event is pre-warmed again
+		this.nextExecution.setTimeInMillis(20000);
+		this.prewarmer.prewarm(Collections.singletonList(this.event), 12000);
+		verify(this.lambda, times(2)).prewarm();
+	}
+	
+	@Test
+	public void prewarmFailureDoesNotAffectOtherEvents() throws Exception {
+		final Event  other       = mock(Event.class);
+		final Lambda otherLambda = mock(Lambda.class);
+		when(other.getId()).thenReturn(2);
+		when(other.getLambda()).thenReturn(otherLambda);
+		when(other.getNextExecution()).thenReturn(this.nextExecution);
+		doThrow(new RuntimeException()).when(this.lambda).prewarm();
+		
+		this.prewarmer.prewarm(Arrays.asList(this.event, other), 0);
+		verify(otherLambda).prewarm();
+	}
+	
+	@Test
+	public void disabled() throws Exception {
+		final Session session = mock(Session.class);
+		
+		new EventPrewarmer(0).prewarm(session);
+		verifyZeroInteractions(session);
+	}
+	
+	@Test
+	public void getHorizon() throws Exception {
+		final Calendar now = Calendar.getInstance();
+		now.setTimeInMillis(0);
+		
+		assertEquals(30000, this.prewarmer.getHorizon(now).getTimeInMillis());
+		// windows longer than 24.8 days exceed an int of milliseconds
+		assertEquals(TimeUnit.DAYS.toMillis(30), new EventPrewarmer(TimeUnit.DAYS.toSeconds(30)).getHorizon(now).getTimeInMillis());
+		assertEquals(0, now.getTimeInMillis());
+	}
+}
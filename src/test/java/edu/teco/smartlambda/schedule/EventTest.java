@@ -4,6 +4,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import edu.teco.smartlambda.Application;
 import edu.teco.smartlambda.authentication.AuthenticationService;
 import edu.teco.smartlambda.authentication.entities.Key;
+import edu.teco.smartlambda.concurrent.ExecutionPriority;
 import edu.teco.smartlambda.lambda.AbstractLambda;
 import edu.teco.smartlambda.lambda.Lambda;
 import edu.teco.smartlambda.lambda.LambdaFacade;
@@ -73,13 +74,14 @@ public class EventTest {
 	
 	@After
 	public void tearDown() throws Exception {
-		
+		ExecutionPriority.setCurrent(ExecutionPriority.INTERACTIVE);
 	}
 	
 	@Test
 	public void execute() throws Exception {
 		this.event.execute();
 		Assert.assertTrue(this.future != null);
+		Assert.assertEquals(ExecutionPriority.SCHEDULED, ExecutionPriority.getCurrent());
 	}
 	
 	@Test